@@ -0,0 +1,308 @@
+package foodorder;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * AdmissionControl - Decides whether an order may be placed now, before it is billed.
+ *
+ * Overload comes first and stops every channel: the backlog at a kitchen station the
+ * order needs past MAX_KITCHEN_WAIT, the order log queue past LOG_HIGH_WATER of its
+ * capacity, or recent checkouts taking longer than SERVICE_BUDGET. A swamped tandoor
+ * doesn't turn away an order of drinks. The caller is told roughly when the backlog
+ * will have drained. Then each channel, and each terminal within it, has a token
+ * bucket, so a runaway kiosk or API client can't take the kitchen from the counters.
+ * Admitted orders are quoted the backlog at their busiest station as their wait.
+ *
+ * A bucket is kept as the time its next token is due (GCRA), so taking a token is one
+ * compare-and-set. Terminals' buckets are created on first use and dropped by
+ * evictIdle() once full again. Checkout time is an exponentially weighted average that
+ * halves for every second without a checkout, so a stall that stops all admissions
+ * can't keep them stopped.
+ */
+class AdmissionControl {
+
+    /** Longest kitchen backlog at which orders are still taken (-Dfoodorder.admission.maxKitchenWaitMinutes). */
+    static final long MAX_KITCHEN_WAIT_NANOS =
+            TimeUnit.MINUTES.toNanos(Long.getLong("foodorder.admission.maxKitchenWaitMinutes", 45));
+
+    /** Fraction of the order log queue that may fill before checkouts are turned away. */
+    static final double LOG_HIGH_WATER = 0.75;
+
+    /** Checkout time, on average, past which the service counts as overloaded (-Dfoodorder.admission.serviceBudgetMs). */
+    static final long SERVICE_BUDGET_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("foodorder.admission.serviceBudgetMs", 100));
+
+    /** Where an order comes from. Limits are -Dfoodorder.admission.api=perMinute[:burst], .api.terminal=... */
+    enum Channel {
+        COUNTER("counter", Limit.UNLIMITED, new Limit(30, 5)),
+        API("api", new Limit(1200, 100), new Limit(6, 3)),
+        BATCH("batch", Limit.UNLIMITED, Limit.UNLIMITED);
+
+        final String label;
+        final Limit defaultLimit;
+        final Limit defaultTerminalLimit;
+
+        Channel(String label, Limit defaultLimit, Limit defaultTerminalLimit) {
+            this.label = label;
+            this.defaultLimit = defaultLimit;
+            this.defaultTerminalLimit = defaultTerminalLimit;
+        }
+
+        Limit limit() {
+            return Limit.fromProperty("foodorder.admission." + label, defaultLimit);
+        }
+
+        Limit terminalLimit() {
+            return Limit.fromProperty("foodorder.admission." + label + ".terminal", defaultTerminalLimit);
+        }
+    }
+
+    enum Outcome { ADMITTED, RATE_LIMITED, OVERLOADED }
+
+    /** An admission decision. waitNanos is the quoted kitchen wait if admitted, else when to try again. */
+    static final class Decision {
+        final Outcome outcome;
+        final long waitNanos;
+        final String reason;                // why not; null if admitted
+
+        Decision(Outcome outcome, long waitNanos, String reason) {
+            this.outcome = outcome;
+            this.waitNanos = Math.max(0, waitNanos);
+            this.reason = reason;
+        }
+
+        public boolean isAdmitted() {
+            return outcome == Outcome.ADMITTED;
+        }
+
+        /** The wait in whole seconds, rounded up. */
+        public long getWaitSeconds() {
+            return (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        }
+
+        /** "a few seconds", "1 minute", "12 minutes": for telling a customer. */
+        public String describeWait() {
+            long seconds = getWaitSeconds();
+            if (seconds < 60) return "a few seconds";
+            long minutes = (seconds + 59) / 60;
+            return minutes == 1 ? "1 minute" : minutes + " minutes";
+        }
+    }
+
+    /** Orders per minute with a burst allowance; perMinute 0 is unlimited. */
+    static final class Limit {
+        static final Limit UNLIMITED = new Limit(0, 0);
+
+        final double perMinute;
+        final int burst;
+
+        Limit(double perMinute, int burst) {
+            this.perMinute = perMinute;
+            this.burst = Math.max(1, burst);
+        }
+
+        boolean isUnlimited() {
+            return perMinute <= 0;
+        }
+
+        /** "30" or "30:5"; the default if text is null or blank. */
+        static Limit parse(String text, Limit defaultLimit) {
+            if (text == null || text.isBlank()) return defaultLimit;
+            int colon = text.indexOf(':');
+            double perMinute = Double.parseDouble((colon < 0 ? text : text.substring(0, colon)).trim());
+            if (!Double.isFinite(perMinute)) throw new NumberFormatException("not a rate: " + text);
+            int burst = colon < 0 ? (int) Math.max(1, perMinute / 12) : Integer.parseInt(text.substring(colon + 1).trim());
+            return new Limit(perMinute, burst);
+        }
+
+        /** The system property parsed, or the default with a warning if it is malformed. */
+        static Limit fromProperty(String property, Limit defaultLimit) {
+            String text = System.getProperty(property);
+            try {
+                return parse(text, defaultLimit);
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring -D" + property + "=" + text + ", expected perMinute[:burst]; using "
+                        + defaultLimit);
+                return defaultLimit;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return isUnlimited() ? "0" : String.format("%.0f:%d", perMinute, burst);
+        }
+    }
+
+    /** Token bucket as the time its next token is due; up to burst tokens can be taken early. */
+    static final class Bucket {
+        final long intervalNanos;
+        final long toleranceNanos;
+        private final AtomicLong due;
+
+        Bucket(Limit limit, long now) {
+            this.intervalNanos = (long) (TimeUnit.MINUTES.toNanos(1) / limit.perMinute);
+            this.toleranceNanos = intervalNanos * (limit.burst - 1);
+            this.due = new AtomicLong(now);
+        }
+
+        /** Takes a token: 0, or nanoseconds until one will be there. */
+        long take(long now) {
+            while (true) {
+                long next = due.get();
+                long early = next - toleranceNanos - now;
+                if (early > 0) return early;
+                if (due.compareAndSet(next, Math.max(next, now) + intervalNanos)) return 0;
+            }
+        }
+
+        /** Returns a token taken for an order that was then turned away elsewhere. */
+        void giveBack() {
+            due.addAndGet(-intervalNanos);
+        }
+
+        /** Full again: forgetting it changes nothing. */
+        boolean isIdle(long now) {
+            return due.get() <= now;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final OrderLogWriter orderLog;              // null: not watched
+    private final ToLongFunction<Collection<String>> kitchenBacklogNanos;
+    private final Limit[] terminalLimits = new Limit[Channel.values().length];
+    private final Bucket[] channelBuckets = new Bucket[Channel.values().length];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Map<String, Bucket>[] terminalBuckets = new Map[Channel.values().length];
+    private volatile long serviceNanos;                 // weighted average checkout time
+    private volatile long lastServiceNanos;             // clock at the last sample
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    /**
+     * @param clock               nanosecond clock, normally System::nanoTime
+     * @param orderLog            the log whose queue is watched, or null
+     * @param kitchenBacklogNanos work queued at the named kitchen stations, see
+     *                            Kitchen.backlogNanos(Collection); 0 without a kitchen
+     */
+    AdmissionControl(LongSupplier clock, OrderLogWriter orderLog,
+            ToLongFunction<Collection<String>> kitchenBacklogNanos) {
+        this.clock = clock;
+        this.orderLog = orderLog;
+        this.kitchenBacklogNanos = kitchenBacklogNanos;
+        long now = clock.getAsLong();
+        for (Channel channel : Channel.values()) {
+            Limit limit = channel.limit();
+            channelBuckets[channel.ordinal()] = limit.isUnlimited() ? null : new Bucket(limit, now);
+            terminalLimits[channel.ordinal()] = channel.terminalLimit();
+            terminalBuckets[channel.ordinal()] = new ConcurrentHashMap<>();
+        }
+        this.lastServiceNanos = now;
+    }
+
+    /**
+     * Asks to place one order from the terminal (a session, kiosk or file) on the
+     * channel; stations are the kitchen stations (menu categories) the order needs.
+     */
+    public Decision admit(Channel channel, String terminal, Collection<String> stations) {
+        long now = clock.getAsLong();
+        long backlog = kitchenBacklogNanos.applyAsLong(stations);
+        Decision overload = checkOverload(now, backlog);
+        if (overload != null) {
+            overloaded.increment();
+            return overload;
+        }
+        Bucket channelBucket = channelBuckets[channel.ordinal()];
+        long wait = channelBucket == null ? 0 : channelBucket.take(now);
+        if (wait > 0) {
+            rateLimited.increment();
+            return new Decision(Outcome.RATE_LIMITED, wait, "Too many " + channel.label + " orders right now");
+        }
+        Limit terminalLimit = terminalLimits[channel.ordinal()];
+        if (terminal != null && !terminalLimit.isUnlimited()) {
+            wait = terminalBuckets[channel.ordinal()].computeIfAbsent(terminal, t -> new Bucket(terminalLimit, now))
+                    .take(now);
+            if (wait > 0) {
+                if (channelBucket != null) channelBucket.giveBack();
+                rateLimited.increment();
+                return new Decision(Outcome.RATE_LIMITED, wait, "Too many orders from this terminal");
+            }
+        }
+        admitted.increment();
+        return new Decision(Outcome.ADMITTED, backlog, null);
+    }
+
+    /** Returns the tokens of an admitted order that was then not placed after all. */
+    public void giveBack(Channel channel, String terminal) {
+        Bucket channelBucket = channelBuckets[channel.ordinal()];
+        if (channelBucket != null) channelBucket.giveBack();
+        Bucket terminalBucket = terminal == null ? null : terminalBuckets[channel.ordinal()].get(terminal);
+        if (terminalBucket != null) terminalBucket.giveBack();
+        admitted.decrement();
+    }
+
+    private Decision checkOverload(long now, long backlog) {
+        if (backlog > MAX_KITCHEN_WAIT_NANOS) {
+            return new Decision(Outcome.OVERLOADED, backlog - MAX_KITCHEN_WAIT_NANOS, "The kitchen is full");
+        }
+        OrderLogWriter log = orderLog;
+        if (log != null && log.getQueueDepth() >= LOG_HIGH_WATER * log.getQueueCapacity()) {
+            return new Decision(Outcome.OVERLOADED, Math.max(TimeUnit.MILLISECONDS.toNanos(1),
+                    log.getEstimatedDrainNanos()), "Orders are waiting to be recorded");
+        }
+        long service = getServiceNanos(now);
+        if (service > SERVICE_BUDGET_NANOS) {
+            return new Decision(Outcome.OVERLOADED, service, "Checkout is running slow");
+        }
+        return null;
+    }
+
+    /** Feeds one admitted checkout's duration into the service time average. */
+    public void recordServiceTime(long nanos) {
+        long now = clock.getAsLong();
+        long average = getServiceNanos(now);
+        serviceNanos = average + (nanos - average) / 8;
+        lastServiceNanos = now;
+    }
+
+    /** Weighted average checkout time, halved for each second since the last checkout. */
+    public long getServiceNanos() {
+        return getServiceNanos(clock.getAsLong());
+    }
+
+    private long getServiceNanos(long now) {
+        long idleSeconds = (now - lastServiceNanos) / TimeUnit.SECONDS.toNanos(1);
+        return idleSeconds >= 63 ? 0 : serviceNanos >> idleSeconds;
+    }
+
+    /** Forgets terminals whose buckets have filled up again; returns how many. */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map<String, Bucket> buckets : terminalBuckets) {
+            for (Map.Entry<String, Bucket> e : buckets.entrySet()) {
+                if (e.getValue().isIdle(now) && buckets.remove(e.getKey(), e.getValue())) evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long getOverloaded() {
+        return overloaded.sum();
+    }
+}
@@ -0,0 +1,403 @@
+package foodorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BatchOrders - Headless bulk ordering from CSV or JSON-lines files, e.g. catering spreadsheets.
+ *
+ * Every record is one order line, and consecutive records with the same order key make
+ * one order:
+ *   order,item,quantity[,coupon]                                  CSV; a header row may reorder the columns
+ *   {"order":"ACME-17","item":"Paneer Tikka","quantity":40}       JSON lines, "coupon" optional
+ * The two formats can be mixed line by line.
+ *
+ * Orders go through the same OrderService as the UI: menu lookup, availability and
+ * stock, pricing rules, order IDs, the text log and the journal. Three stages overlap:
+ * this thread reads and parses, a pool of placers puts batches of whole orders through
+ * the service, and the order log's writer thread writes them out. A record that can't
+ * be parsed, names an unknown item or can't be had is reported with its file and line
+ * and left out; the rest of its order still goes through. Placers wait while admission
+ * control reports the service overloaded.
+ *
+ *   BatchOrders [--data .] [--threads N] [--errors errors.txt] [--out placed.csv] orders.csv ...
+ */
+class BatchOrders {
+
+    /** Order lines handed to a placer at a time (whole orders, so a batch may run over). */
+    static final int BATCH_LINES = 512;
+
+    /** Longest a placer waits before asking admission control again. */
+    static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** One parsed record. */
+    static final class Line {
+        final int number;
+        final String order;
+        final String item;
+        final int quantity;
+        final String coupon;
+
+        Line(int number, String order, String item, int quantity, String coupon) {
+            this.number = number;
+            this.order = order;
+            this.item = item;
+            this.quantity = quantity;
+            this.coupon = coupon;
+        }
+    }
+
+    /** Consecutive lines of one order key in one file. */
+    static final class PendingOrder {
+        final String source;
+        final String key;
+        final List<Line> lines = new ArrayList<>();
+
+        PendingOrder(String source, String key) {
+            this.source = source;
+            this.key = key;
+        }
+    }
+
+    /** Where the order, item, quantity and coupon fields are in a CSV record. */
+    private static final class Columns {
+        static final Columns DEFAULT = new Columns(0, 1, 2, 3);
+
+        final int order;
+        final int item;
+        final int quantity;
+        final int coupon;
+
+        Columns(int order, int item, int quantity, int coupon) {
+            this.order = order;
+            this.item = item;
+            this.quantity = quantity;
+            this.coupon = coupon;
+        }
+
+        /** The layout a header row describes, or null if the fields aren't a header. */
+        static Columns fromHeader(List<String> fields) {
+            int order = -1, item = -1, quantity = -1, coupon = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                switch (fields.get(i).trim().toLowerCase()) {
+                    case "order": order = i; break;
+                    case "item": item = i; break;
+                    case "quantity": case "qty": quantity = i; break;
+                    case "coupon": coupon = i; break;
+                    default:
+                }
+            }
+            return order < 0 || item < 0 ? null : new Columns(order, item, quantity, coupon);
+        }
+    }
+
+    private final OrderService service;
+    private final PrintWriter errors;
+    private final PrintWriter placed;
+    private final AtomicLong sessions = new AtomicLong();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder rejectedLines = new LongAdder();
+    private final LongAdder placedOrders = new LongAdder();
+    private final LongAdder rejectedOrders = new LongAdder();
+    private final LongAdder revenuePaise = new LongAdder();
+
+    /** Errors go to errors; each placed order, if placed isn't null, as source,order,orderId,lines,total. */
+    BatchOrders(OrderService service, PrintWriter errors, PrintWriter placed) {
+        this.service = service;
+        this.errors = errors;
+        this.placed = placed;
+    }
+
+    /** Places every order in the files, using threads placers; returns when all are placed. */
+    public void run(List<Path> files, int threads) throws IOException, InterruptedException {
+        ExecutorService placers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "batch-placer");
+            t.setDaemon(true);
+            return t;
+        });
+        // Bounds the parsed batches waiting for a placer, so a huge file isn't read into memory
+        int permits = threads * 4;
+        Semaphore inFlight = new Semaphore(permits);
+        try {
+            for (Path file : files) {
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    read(in, file.getFileName().toString(), batch -> {
+                        inFlight.acquire();
+                        placers.execute(() -> {
+                            try {
+                                for (PendingOrder order : batch) place(order);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                    });
+                }
+            }
+            inFlight.acquire(permits);
+        } finally {
+            placers.shutdownNow();
+        }
+    }
+
+    /** Receives batches of whole orders from the reader. */
+    interface BatchSink {
+        void accept(List<PendingOrder> batch) throws InterruptedException;
+    }
+
+    /** Parses records, groups them into orders and hands them on in batches of about BATCH_LINES. */
+    void read(BufferedReader in, String source, BatchSink sink) throws IOException, InterruptedException {
+        Columns columns = Columns.DEFAULT;
+        List<PendingOrder> batch = new ArrayList<>();
+        int batchLines = 0;
+        PendingOrder order = null;
+        boolean first = true;
+        String text;
+        int number = 0;
+        while ((text = in.readLine()) != null) {
+            number++;
+            if (text.isBlank() || text.startsWith("#")) continue;
+            boolean mayBeHeader = first;
+            first = false;
+            Line line;
+            try {
+                if (text.trim().startsWith("{")) {
+                    line = parseJson(text, number);
+                } else {
+                    List<String> fields = MenuLoader.splitCsv(text);
+                    Columns header = mayBeHeader ? Columns.fromHeader(fields) : null;
+                    if (header != null) {
+                        columns = header;
+                        continue;
+                    }
+                    line = parseCsv(fields, columns, number);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                lines.increment();
+                reject(source, number, e.getMessage());
+                continue;
+            }
+            lines.increment();
+            if (order == null || !order.key.equals(line.order)) {
+                if (batchLines >= BATCH_LINES) {
+                    sink.accept(batch);
+                    batch = new ArrayList<>();
+                    batchLines = 0;
+                }
+                order = new PendingOrder(source, line.order);
+                batch.add(order);
+            }
+            order.lines.add(line);
+            batchLines++;
+        }
+        if (!batch.isEmpty()) sink.accept(batch);
+    }
+
+    private static Line parseCsv(List<String> fields, Columns columns, int number) {
+        String order = field(fields, columns.order);
+        String item = field(fields, columns.item);
+        String quantity = field(fields, columns.quantity);
+        return line(number, order, item, quantity.isEmpty() ? 1 : parseQuantity(quantity), field(fields, columns.coupon));
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static Line parseJson(String text, int number) throws IOException {
+        Object value = new MenuLoader.Json(text, "JSON").parse();
+        if (!(value instanceof Map)) throw new IOException("expected an object");
+        Map<?, ?> record = (Map<?, ?>) value;
+        Object order = record.get("order");
+        Object item = record.get("item");
+        Object quantity = record.containsKey("quantity") ? record.get("quantity") : 1.0;
+        Object coupon = record.get("coupon");
+        if (order instanceof Double) order = String.valueOf(((Double) order).longValue());
+        if (!(order instanceof String) || !(item instanceof String) || !(quantity instanceof Double)
+                || (coupon != null && !(coupon instanceof String))) {
+            throw new IOException("needs order, item and a numeric quantity");
+        }
+        double q = (Double) quantity;
+        if (q != Math.rint(q) || q < 1 || q > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("quantity must be a positive whole number");
+        }
+        return line(number, ((String) order).trim(), ((String) item).trim(), (int) q,
+                coupon == null ? "" : ((String) coupon).trim());
+    }
+
+    private static Line line(int number, String order, String item, int quantity, String coupon) {
+        if (order.isEmpty() || item.isEmpty()) throw new IllegalArgumentException("order and item are required");
+        return new Line(number, order, item, quantity, coupon);
+    }
+
+    private static int parseQuantity(String text) {
+        try {
+            int quantity = Integer.parseInt(text);
+            if (quantity > 0) return quantity;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("quantity must be a positive whole number, not '" + text + "'");
+    }
+
+    /** Puts one order through the service, leaving out and reporting the lines that can't be had. */
+    void place(PendingOrder order) {
+        String session = "batch-" + sessions.incrementAndGet();
+        MenuCatalog catalog = service.getCatalog();
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (Line line : order.lines) {
+            FoodItem item = catalog.byName(line.item);
+            if (item == null) {
+                reject(order.source, line.number, "unknown item '" + line.item + "'");
+            } else if (!item.isAvailable()) {
+                reject(order.source, line.number, line.item + " " + unavailable(line.item));
+            } else {
+                quantities.merge(line.item, line.quantity, Integer::sum);
+            }
+        }
+        if (!quantities.isEmpty() && service.addItems(session, quantities) != OrderService.AddResult.ADDED) {
+            // Something can't be had: put the items in one by one to find out which
+            for (Map.Entry<String, Integer> e : quantities.entrySet()) {
+                OrderService.AddResult result = service.addItems(session, Collections.singletonMap(e.getKey(), e.getValue()));
+                if (result == OrderService.AddResult.ADDED) continue;
+                String reason = result == OrderService.AddResult.UNKNOWN_ITEM ? "is no longer on the menu"
+                        : unavailable(e.getKey());
+                for (Line line : order.lines) {
+                    if (line.item.equals(e.getKey())) reject(order.source, line.number, line.item + " " + reason);
+                }
+            }
+        }
+        for (Line line : order.lines) {
+            if (!line.coupon.isEmpty() && !service.applyCoupon(session, line.coupon)) {
+                reject(order.source, line.number, "unknown coupon '" + line.coupon + "'");
+            }
+        }
+
+        OrderService.Bill bill;
+        try {
+            // The batch channel isn't rate limited, but it backs off while the service is overloaded
+            OrderService.Placement placement;
+            while ((placement = service.placeOrder(session, AdmissionControl.Channel.BATCH, order.source)) != null
+                    && !placement.isPlaced()) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(placement.decision.waitNanos, MAX_BACKOFF_NANOS));
+            }
+            bill = placement == null ? null : placement.bill;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            // The session is this order's alone; once placed (or not) its cart is done with
+            service.discardCart(session);
+        }
+        if (bill == null) {
+            rejectedOrders.increment();
+            return;
+        }
+        placedOrders.increment();
+        revenuePaise.add(bill.finalPaise);
+        if (placed != null) {
+            String record = csv(order.source) + "," + csv(order.key) + "," + bill.order.getOrderId() + ","
+                    + bill.order.getLineCount() + "," + Order.formatPaise(bill.finalPaise);
+            synchronized (placed) {
+                placed.println(record);
+            }
+        }
+    }
+
+    private String unavailable(String name) {
+        Inventory.Stock stock = service.getInventory().get(name);
+        if (stock == null) return "is unavailable";
+        return "is unavailable in that quantity (" + stock.getFree() + " in stock)";
+    }
+
+    private void reject(String source, int number, String message) {
+        rejectedLines.increment();
+        synchronized (errors) {
+            errors.println(source + ":" + number + ": " + message);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public long getLines() {
+        return lines.sum();
+    }
+
+    public long getRejectedLines() {
+        return rejectedLines.sum();
+    }
+
+    public long getPlacedOrders() {
+        return placedOrders.sum();
+    }
+
+    public long getRejectedOrders() {
+        return rejectedOrders.sum();
+    }
+
+    public long getRevenuePaise() {
+        return revenuePaise.sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path data = Paths.get(".");
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path errorFile = null;
+        Path outFile = null;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data": data = Paths.get(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--errors": errorFile = Paths.get(args[++i]); break;
+                case "--out": outFile = Paths.get(args[++i]); break;
+                default:
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("Unknown option " + args[i]);
+                    files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: BatchOrders [--data dir] [--threads n] [--errors file] [--out file] orders.csv ...");
+            return;
+        }
+
+        PrintWriter errors = errorFile != null
+                ? new PrintWriter(Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8))
+                : new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), true);
+        PrintWriter placed = outFile == null ? null : new PrintWriter(Files.newBufferedWriter(outFile, StandardCharsets.UTF_8));
+        if (placed != null) placed.println("source,order,orderId,lines,total");
+        BatchOrders batch;
+        long start = System.nanoTime();
+        try (OrderService service = OrderService.open(data)) {
+            batch = new BatchOrders(service, errors, placed);
+            batch.run(files, threads);
+        } finally {
+            errors.flush();
+            if (errorFile != null) errors.close();
+            if (placed != null) placed.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d lines in %.3fs (%.0f lines/s): %d orders placed for Rs. %s, %d lines and %d orders rejected%n",
+                batch.getLines(), seconds, batch.getLines() / seconds, batch.getPlacedOrders(),
+                Order.formatPaise(batch.getRevenuePaise()), batch.getRejectedLines(), batch.getRejectedOrders());
+    }
+}
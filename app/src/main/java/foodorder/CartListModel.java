@@ -0,0 +1,110 @@
+package foodorder;
+
+import javax.swing.AbstractListModel;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * CartListModel - List model behind the "Your Order" panel.
+ * Mirrors the cart's lines (item ID + quantity) in primitive arrays, using the same
+ * swap-on-remove layout as Order, and fires one row event per change instead of
+ * rebuilding the whole list. Row text is only built when Swing paints the row.
+ */
+class CartListModel extends AbstractListModel<String> {
+
+    private MenuCatalog catalog;
+    private int[] rowOfItem;          // catalog ID -> row, -1 when not in the cart
+    private int[] itemIds = new int[16];
+    private int[] quantities = new int[16];
+    private int size;
+
+    CartListModel(MenuCatalog catalog) {
+        this.catalog = catalog;
+        this.rowOfItem = new int[catalog.size()];
+        Arrays.fill(rowOfItem, -1);
+    }
+
+    /** Records one more unit of an item. */
+    public void add(int itemId) {
+        int row = rowOfItem[itemId];
+        if (row >= 0) {
+            quantities[row]++;
+            fireContentsChanged(this, row, row);
+            return;
+        }
+        if (size == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+        }
+        row = size++;
+        itemIds[row] = itemId;
+        quantities[row] = 1;
+        rowOfItem[itemId] = row;
+        fireIntervalAdded(this, row, row);
+    }
+
+    /** Records one unit fewer of an item; drops the row when it reaches zero. */
+    public void remove(int itemId) {
+        int row = rowOfItem[itemId];
+        if (row < 0) return;
+
+        if (--quantities[row] > 0) {
+            fireContentsChanged(this, row, row);
+            return;
+        }
+
+        rowOfItem[itemId] = -1;
+        int last = --size;
+        if (row != last) {
+            itemIds[row] = itemIds[last];
+            quantities[row] = quantities[last];
+            rowOfItem[itemIds[row]] = row;
+            fireContentsChanged(this, row, row);
+        }
+        fireIntervalRemoved(this, last, last);
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        for (int row = 0; row < size; row++) {
+            rowOfItem[itemIds[row]] = -1;
+        }
+        int last = size - 1;
+        size = 0;
+        fireIntervalRemoved(this, 0, last);
+    }
+
+    /** Switches to a reloaded menu and shows the cart as the service now has it (item name -> quantity). */
+    public void rebind(MenuCatalog next, Map<String, Integer> cart) {
+        clear();
+        catalog = next;
+        rowOfItem = new int[next.size()];
+        Arrays.fill(rowOfItem, -1);
+        for (Map.Entry<String, Integer> line : cart.entrySet()) {
+            int id = next.idOf(line.getKey());
+            if (id < 0) continue;
+            if (size == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+            }
+            itemIds[size] = id;
+            quantities[size] = line.getValue();
+            rowOfItem[id] = size++;
+        }
+        if (size > 0) fireIntervalAdded(this, 0, size - 1);
+    }
+
+    public int getItemIdAt(int row) {
+        return itemIds[row];
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int row) {
+        return catalog.get(itemIds[row]).getName() + "  ×  " + quantities[row];
+    }
+}
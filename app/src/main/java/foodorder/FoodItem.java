@@ -0,0 +1,46 @@
+package foodorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class FoodItem {
+    private int id = -1;                // dense catalog ID, assigned by MenuCatalog
+    private String name;
+    private double price;
+    private long pricePaise;            // price in fixed-point paise, for billing
+    private volatile boolean available;
+    private String category;
+    private volatile Inventory.Stock stock;  // null when stock isn't tracked
+    private final LongAdder popularity = new LongAdder();   // striped, so concurrent checkouts don't contend
+
+    public FoodItem(String name, double price, boolean available, String category) {
+        this.name = name;
+        this.price = price;
+        this.pricePaise = Math.round(price * 100);
+        this.available = available;
+        this.category = category;
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public double getPrice() { return price; }
+    public long getPricePaise() { return pricePaise; }
+    public boolean isAvailable() { return available && (stock == null || stock.getFree() > 0); }
+    public String getCategory() { return category; }
+
+    void assignId(int id) { this.id = id; }
+    void setAvailable(boolean available) { this.available = available; }
+    Inventory.Stock getStock() { return stock; }
+    void setStock(Inventory.Stock stock) { this.stock = stock; }
+
+    public void increasePopularity() {
+        popularity.increment();
+    }
+
+    public void increasePopularity(long count) {
+        popularity.add(count);
+    }
+
+    public long getPopularity() {
+        return popularity.sum();
+    }
+}
@@ -0,0 +1,652 @@
+package foodorder;
+
+import javax.swing.*;
+import javax.swing.border.*;
+import javax.swing.event.*;
+import java.awt.*;
+import java.util.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FoodOrderUI - Main GUI class for Online Food Ordering System
+ * This class handles the user interface and order management for a food ordering application
+ *
+ * Starts fast by default: the header shows at once while the order engine opens on another
+ * thread, and the menu and cart panels are built when it is ready. --eager builds
+ * everything first, as before. StartupTimer reports time to first frame and to interactive.
+ *
+ * The search box above the categories looks through the whole menu as you type
+ * (MenuSearch). Queries wait for a pause in typing and run on their own thread, so
+ * the EDT only ever swaps the results in.
+ */
+
+public class FoodOrderUI extends JFrame {
+    
+    OrderService service;
+    MenuCatalog catalog;
+    final String sessionId = "counter-" + UUID.randomUUID();
+
+    
+    private final Color PRIMARY_COLOR = new Color(231, 76, 60);      // Red
+    private final Color SECONDARY_COLOR = new Color(52, 73, 94);     // Dark Blue
+    private final Color ACCENT_COLOR = new Color(46, 204, 113);      // Green
+    private final Color BG_COLOR = new Color(236, 240, 241);         // Light Gray
+    private final Color CARD_COLOR = Color.WHITE;
+    private final Color TEXT_COLOR = new Color(44, 62, 80);
+    private final Color AVAILABLE_COLOR = new Color(39, 174, 96);    // Green for available
+    private final Color UNAVAILABLE_COLOR = new Color(149, 165, 166); // Gray for unavailable
+
+    // Opens the order engine; null if the journal can't be opened. Safe off the EDT.
+    static OrderService tryOpenService() {
+        try {
+            return OrderService.open(Paths.get("."));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Takes the opened engine, or falls back to an unjournalled one
+    private void attachService(OrderService opened) {
+        if (opened != null) {
+            service = opened;
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Error opening order journal");
+            service = new OrderService(OrderService.initializeMenu(),
+                    new OrderLogWriter(Paths.get("."), 1024, OrderLogWriter.FsyncPolicy.EVERY_BATCH), null);
+        }
+        catalog = service.getCatalog();
+        service.addMenuListener(next -> SwingUtilities.invokeLater(() -> menuChanged(next)));
+        service.addCartExpiryListener(session -> {
+            if (session.equals(sessionId)) SwingUtilities.invokeLater(this::cartExpired);
+        });
+        // Rows re-read availability when painted; repaint() is safe from any thread and coalesces
+        service.addAvailabilityListener(name -> {
+            JList<MenuListModel.Row> list = itemList;
+            if (list != null) list.repaint();
+        });
+        OrderMetrics.export(service.getMetrics());
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+    }
+
+    // ⌛ The cart sat untouched too long and its reserved stock went back
+    void cartExpired() {
+        orderModel.clear();
+        updateTotal();
+        statusLabel.setText("Status: CART EXPIRED");
+        statusLabel.setForeground(new Color(243, 156, 18));
+    }
+
+    // 🔄 The menu file was reloaded: show the new menu and the cart as it carried over
+    void menuChanged(MenuCatalog next) {
+        if (next.getVersion() <= catalog.getVersion()) return;
+        catalog = next;
+        searcher.execute(next::search);
+
+        Object selected = categoryBox.getSelectedItem();
+        categoryBox.setModel(new DefaultComboBoxModel<>(catalog.categories().toArray(new String[0])));
+        if (selected != null && catalog.categories().contains(selected)) {
+            categoryBox.setSelectedItem(selected);
+        }
+        loadItems();
+        if (!searchField.getText().isBlank()) runSearch();
+        orderModel.rebind(catalog, service.cartQuantities(sessionId));
+        updateTotal();
+        statusLabel.setText("Status: MENU UPDATED");
+        statusLabel.setForeground(new Color(52, 152, 219));
+    }
+
+    JComboBox<String> categoryBox;
+    JTextField searchField;
+    JList<MenuListModel.Row> itemList;
+    MenuListModel itemModel;
+    JLabel totalLabel, statusLabel;
+    CartListModel orderModel;
+    JList<String> orderList;
+    JScrollPane orderScroll;
+
+    private final StartupTimer timer;
+    private JLabel loadingLabel;
+
+    // Wait after the last keystroke before searching, and most results shown
+    private static final int SEARCH_DELAY_MS = 120;
+    private static final int SEARCH_LIMIT = 200;
+
+    private javax.swing.Timer searchDelay;
+    private int searchGeneration;           // bumped per query; older results are dropped (EDT only)
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "menu-search");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FoodOrderUI() {
+        this(StartupTimer.start("eager"));
+    }
+
+    // 🐢 Eager start: everything is built before the window shows
+    FoodOrderUI(StartupTimer timer) {
+        this.timer = timer;
+        buildShell();
+        attachService(tryOpenService());
+        buildPanels();
+        setLocationRelativeTo(null);
+        setVisible(true);
+        SwingUtilities.invokeLater(this::startupDone);
+    }
+
+    // ⚡ Fast start: shows the header at once, builds menu and cart when the engine has opened
+    FoodOrderUI(StartupTimer timer, CompletableFuture<OrderService> opening) {
+        this.timer = timer;
+        buildShell();
+        loadingLabel = new JLabel("⏳ Loading menu...", JLabel.CENTER);
+        loadingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        loadingLabel.setForeground(SECONDARY_COLOR);
+        add(loadingLabel, BorderLayout.CENTER);
+        setLocationRelativeTo(null);
+        setVisible(true);
+        opening.whenComplete((opened, error) -> {
+            if (error != null) error.printStackTrace();
+            SwingUtilities.invokeLater(() -> finishStartup(opened));
+        });
+    }
+
+    // The system look and feel is applied here, to the bare shell, rather than before it shows
+    private void finishStartup(OrderService opened) {
+        setSystemLookAndFeel();
+        SwingUtilities.updateComponentTreeUI(this);
+        attachService(opened);
+        remove(loadingLabel);
+        loadingLabel = null;
+        buildPanels();
+        revalidate();
+        repaint();
+        // Queued behind the layout and repaint just requested
+        SwingUtilities.invokeLater(this::startupDone);
+    }
+
+    // ⏱ Reports the startup milestones off the EDT; -Dfoodorder.startup.exit=true then quits (for timing runs)
+    private void startupDone() {
+        if (!timer.interactive()) return;
+        new Thread(() -> {
+            timer.publish();
+            if (Boolean.getBoolean("foodorder.startup.exit")) System.exit(0);
+        }, "startup-report").start();
+    }
+
+    private void buildShell() {
+        setTitle("Food Order Management System");
+        setSize(900, 600);
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setLayout(new BorderLayout(15, 15));
+        getContentPane().setBackground(BG_COLOR);
+
+        // 🎨 HEADER with gradient-like effect; its first paint is the first frame
+        JPanel headerPanel = new JPanel(new BorderLayout()) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                timer.firstFrame();
+            }
+        };
+        headerPanel.setBackground(PRIMARY_COLOR);
+        headerPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        JLabel title = new JLabel("🍽️ Online Food Ordering", JLabel.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 28));
+        title.setForeground(Color.WHITE);
+        
+        JLabel subtitle = new JLabel("Order delicious food in just a few clicks!", JLabel.CENTER);
+        subtitle.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        subtitle.setForeground(new Color(255, 255, 255, 200));
+
+        JPanel titlePanel = new JPanel(new GridLayout(2, 1, 0, 5));
+        titlePanel.setBackground(PRIMARY_COLOR);
+        titlePanel.add(title);
+        titlePanel.add(subtitle);
+
+        headerPanel.add(titlePanel, BorderLayout.CENTER);
+        add(headerPanel, BorderLayout.NORTH);
+    }
+
+    // Menu, categories and cart: needs the service
+    private void buildPanels() {
+        // 🎨 LEFT PANEL - Categories
+        JPanel leftPanel = createStyledPanel("📋 Categories");
+        leftPanel.setPreferredSize(new Dimension(200, 0));
+
+        // 🔍 Search box: every category at once, typos forgiven; the index builds in the background
+        searchField = new JTextField();
+        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        searchField.setBorder(new CompoundBorder(
+            BorderFactory.createLineBorder(PRIMARY_COLOR, 2),
+            new EmptyBorder(0, 8, 0, 8)
+        ));
+        searchField.setPreferredSize(new Dimension(180, 35));
+        searchField.setToolTipText("Search the menu");
+        searchDelay = new javax.swing.Timer(SEARCH_DELAY_MS, e -> runSearch());
+        searchDelay.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        searchField.addActionListener(e -> {
+            searchDelay.stop();
+            runSearch();
+        });
+        searcher.execute(catalog::search);
+
+        String[] categories = catalog.categories().toArray(new String[0]);
+        categoryBox = new JComboBox<>(categories);
+        categoryBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        categoryBox.setBackground(Color.WHITE);
+        categoryBox.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 2));
+        categoryBox.setPreferredSize(new Dimension(180, 35));
+        categoryBox.addActionListener(e -> categoryChosen());
+
+        JPanel filterPanel = new JPanel(new BorderLayout(0, 10));
+        filterPanel.setBackground(CARD_COLOR);
+        filterPanel.add(searchField, BorderLayout.NORTH);
+        filterPanel.add(categoryBox, BorderLayout.CENTER);
+
+        leftPanel.add(filterPanel);
+        add(leftPanel, BorderLayout.WEST);
+
+        // 🎨 CENTER PANEL - Menu Items with Custom Renderer
+        JPanel centerPanel = createStyledPanel("🍴 Menu Items");
+
+        itemModel = new MenuListModel();
+        itemList = new JList<>(itemModel);
+        itemList.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        itemList.setBackground(Color.WHITE);
+        itemList.setSelectionBackground(new Color(52, 152, 219, 100));
+        itemList.setSelectionForeground(TEXT_COLOR);
+        itemList.setBorder(new EmptyBorder(10, 10, 10, 10));
+        
+        // 🎨 Custom Cell Renderer for Available/Unavailable Items (strike-through for unavailable)
+        itemList.setCellRenderer(new MenuListRenderer(itemList.getFont(), AVAILABLE_COLOR, UNAVAILABLE_COLOR, TEXT_COLOR));
+        // Fixed row size from a prototype, so scrolling never measures real rows
+        itemList.setPrototypeCellValue(MenuListRenderer.prototype());
+        
+        loadItems();
+
+        JScrollPane itemScroll = new JScrollPane(itemList);
+        itemScroll.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
+        
+        // Add legend for availability
+        JPanel legendPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 5));
+        legendPanel.setBackground(CARD_COLOR);
+        
+        JLabel availLegend = new JLabel("● Available");
+        availLegend.setForeground(AVAILABLE_COLOR);
+        availLegend.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        
+        JLabel unavailLegend = new JLabel("● Unavailable");
+        unavailLegend.setForeground(UNAVAILABLE_COLOR);
+        unavailLegend.setFont(new Font("Segoe UI", Font.ITALIC, 11));
+        
+        legendPanel.add(availLegend);
+        legendPanel.add(unavailLegend);
+        
+        centerPanel.add(legendPanel, BorderLayout.NORTH);
+        centerPanel.add(itemScroll, BorderLayout.CENTER);
+
+        add(centerPanel, BorderLayout.CENTER);
+
+        // 🎨 RIGHT PANEL - Order Summary & Actions
+        JPanel rightPanel = createStyledPanel("🛒 Your Order");
+        rightPanel.setPreferredSize(new Dimension(280, 0));
+
+        orderModel = new CartListModel(catalog);
+        orderList = new JList<>(orderModel);
+        orderList.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        orderList.setBackground(Color.WHITE);
+        orderList.setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        orderScroll = new JScrollPane(orderList);
+        orderScroll.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200), 1));
+        orderScroll.setPreferredSize(new Dimension(260, 200));
+
+        // Styled Buttons
+        JButton addBtn = createStyledButton("➕ Add Item", ACCENT_COLOR);
+        JButton removeBtn = createStyledButton("➖ Remove Item", SECONDARY_COLOR);
+        JButton placeOrderBtn = createStyledButton("✓ Place Order", PRIMARY_COLOR);
+
+        // Status Labels
+        totalLabel = new JLabel("Total: Rs. 0.00", JLabel.CENTER);
+        totalLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        totalLabel.setForeground(PRIMARY_COLOR);
+        totalLabel.setBorder(new CompoundBorder(
+            BorderFactory.createLineBorder(PRIMARY_COLOR, 2),
+            new EmptyBorder(10, 10, 10, 10)
+        ));
+        totalLabel.setOpaque(true);
+        totalLabel.setBackground(new Color(255, 235, 235));
+
+        statusLabel = new JLabel("Status: READY", JLabel.CENTER);
+        statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        statusLabel.setForeground(ACCENT_COLOR);
+
+        // Layout right panel
+        rightPanel.setLayout(new BorderLayout(10, 10));
+        
+        JPanel orderSection = new JPanel(new BorderLayout(5, 5));
+        orderSection.setBackground(CARD_COLOR);
+        orderSection.add(orderScroll, BorderLayout.CENTER);
+        
+        JPanel buttonPanel = new JPanel(new GridLayout(3, 1, 10, 10));
+        buttonPanel.setBackground(CARD_COLOR);
+        buttonPanel.add(addBtn);
+        buttonPanel.add(removeBtn);
+        buttonPanel.add(placeOrderBtn);
+        
+        JPanel infoPanel = new JPanel(new GridLayout(2, 1, 5, 5));
+        infoPanel.setBackground(CARD_COLOR);
+        infoPanel.add(totalLabel);
+        infoPanel.add(statusLabel);
+
+        rightPanel.add(orderSection, BorderLayout.CENTER);
+        rightPanel.add(buttonPanel, BorderLayout.NORTH);
+        rightPanel.add(infoPanel, BorderLayout.SOUTH);
+
+        add(rightPanel, BorderLayout.EAST);
+
+        // Button Actions
+        addBtn.addActionListener(e -> addSelectedItem());
+        removeBtn.addActionListener(e -> removeSelectedItem());
+        placeOrderBtn.addActionListener(e -> processOrder());
+    }
+
+    // 🎨 Create Styled Panel
+    private JPanel createStyledPanel(String title) {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(CARD_COLOR);
+        panel.setBorder(new CompoundBorder(
+            new EmptyBorder(10, 10, 10, 10),
+            new CompoundBorder(
+                BorderFactory.createLineBorder(new Color(200, 200, 200), 1),
+                new EmptyBorder(15, 15, 15, 15)
+            )
+        ));
+
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        titleLabel.setForeground(SECONDARY_COLOR);
+        panel.add(titleLabel, BorderLayout.NORTH);
+
+        return panel;
+    }
+
+    // 🎨 Create Styled Button
+    private JButton createStyledButton(String text, Color bgColor) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        button.setBackground(bgColor);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setPreferredSize(new Dimension(0, 40));
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        
+        // Hover effect
+        button.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                button.setBackground(bgColor.brighter());
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                button.setBackground(bgColor);
+            }
+        });
+        
+        return button;
+    }
+
+    // 💡 Offers what people who wanted this item bought, combos included
+    void showAlternatives(String itemName) {
+        DefaultListModel<Integer> comboModel = new DefaultListModel<>();
+
+        for (FoodItem item : service.suggestInstead(sessionId, itemName, 8)) {
+            int id = catalog.idOf(item.getName());
+            if (id >= 0) comboModel.addElement(id);
+        }
+
+        if (comboModel.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No alternatives available right now.",
+                    "No Alternatives", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        JList<Integer> comboList = new JList<>(comboModel);
+        comboList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        comboList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value,
+                    int index, boolean isSelected, boolean cellHasFocus) {
+                FoodItem combo = catalog.get((Integer) value);
+                return super.getListCellRendererComponent(list,
+                        combo.getName() + " - Rs. " + combo.getPrice(), index, isSelected, cellHasFocus);
+            }
+        });
+        comboList.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+
+        int choice = JOptionPane.showConfirmDialog(this, new JScrollPane(comboList),
+                "Try One of These", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+
+        if (choice == JOptionPane.OK_OPTION) {
+            Integer selected = comboList.getSelectedValue();
+
+            if (selected == null) {
+                JOptionPane.showMessageDialog(this, "Please select an item to add.",
+                        "No Selection", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+
+            if (service.addItem(sessionId, catalog.get(selected).getName()) != OrderService.AddResult.ADDED) return;
+
+            long start = System.nanoTime();
+            orderModel.add(selected);
+            updateTotal();
+            service.getMetrics().record(OrderMetrics.Stage.CART_RENDER, start);
+            statusLabel.setText(catalog.get(selected).getCategory().equals("Combos")
+                    ? "Status: COMBO ADDED ✓" : "Status: ITEMS ADDED ✓");
+            statusLabel.setForeground(ACCENT_COLOR);
+        }
+    }
+
+    void loadItems() {
+        String selectedCategory = (String) categoryBox.getSelectedItem();
+        itemModel.setItems(catalog, catalog.itemsInCategory(selectedCategory));
+    }
+
+    // 📋 Picking a category leaves the search
+    void categoryChosen() {
+        if (searchField.getText().isEmpty()) loadItems();
+        else searchField.setText("");               // its listener shows the category
+    }
+
+    // 🔍 Searches after a pause in typing; an emptied box goes straight back to the category
+    void searchChanged() {
+        if (searchField.getText().isBlank()) {
+            searchDelay.stop();
+            searchGeneration++;
+            loadItems();
+        } else {
+            searchDelay.restart();
+        }
+    }
+
+    // 🔍 Queries on the search thread; the results are shown only if nothing was typed since
+    void runSearch() {
+        String query = searchField.getText();
+        if (query.isBlank()) return;
+        MenuCatalog searched = catalog;
+        int generation = ++searchGeneration;
+        searcher.execute(() -> {
+            long start = System.nanoTime();
+            MenuSearch.Result result = searched.search().search(query, SEARCH_LIMIT);
+            service.getMetrics().record(OrderMetrics.Stage.SEARCH, start);
+            SwingUtilities.invokeLater(() -> {
+                if (generation == searchGeneration && searched == catalog) itemModel.setItems(catalog, result.ids);
+            });
+        });
+    }
+
+    void updateTotal() {
+        totalLabel.setText("Total: Rs. " + Order.formatPaise(service.cartTotalPaise(sessionId)));
+    }
+
+    void addSelectedItem() {
+        int index = itemList.getSelectedIndex();
+        if (index < 0) {
+            JOptionPane.showMessageDialog(this, "Please select an item first!", 
+                    "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        int selected = itemModel.getItemIdAt(index);
+
+        OrderService.AddResult result = service.addItem(sessionId, catalog.get(selected).getName());
+
+        if (result == OrderService.AddResult.UNKNOWN_ITEM) return;
+
+        if (result == OrderService.AddResult.UNAVAILABLE) {
+            JOptionPane.showMessageDialog(this, 
+                    "❌ " + catalog.get(selected).getName() + " is currently unavailable.\n\n" +
+                    "Would you like to see what others order instead?",
+                    "Item Unavailable", JOptionPane.INFORMATION_MESSAGE);
+            
+            // 🔥 Automatically show the alternatives
+            showAlternatives(catalog.get(selected).getName());
+            return;
+        }
+
+        long start = System.nanoTime();
+        orderModel.add(selected);
+        updateTotal();
+        service.getMetrics().record(OrderMetrics.Stage.CART_RENDER, start);
+        java.util.List<FoodItem> goesWith = service.suggestWith(sessionId, 1);
+        statusLabel.setText("Status: ITEMS ADDED ✓"
+                + (goesWith.isEmpty() ? "" : "  ·  Goes well with " + goesWith.get(0).getName()));
+        statusLabel.setForeground(new Color(52, 152, 219));
+    }
+
+    void removeSelectedItem() {
+        int row = orderList.getSelectedIndex();
+        if (row < 0) {
+            JOptionPane.showMessageDialog(this, "Please select an item in your order first!",
+                    "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        int itemId = orderModel.getItemIdAt(row);
+        if (!service.removeItem(sessionId, catalog.get(itemId).getName())) return;
+
+        long start = System.nanoTime();
+        orderModel.remove(itemId);
+        updateTotal();
+        service.getMetrics().record(OrderMetrics.Stage.CART_RENDER, start);
+        statusLabel.setText("Status: ITEM REMOVED");
+        statusLabel.setForeground(new Color(52, 152, 219));
+    }
+
+    void processOrder() {
+        OrderService.Placement placement;
+        try {
+            placement = service.placeOrder(sessionId, AdmissionControl.Channel.COUNTER, sessionId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            JOptionPane.showMessageDialog(this,
+                    "Error writing order log file");
+            return;
+        } catch (IllegalStateException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error writing order log file");
+            return;
+        }
+
+        if (placement == null) {
+            JOptionPane.showMessageDialog(this, "Your cart is empty!\n\nPlease add items before placing order.", 
+                    "Empty Cart", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        // 🚦 Peak hour: the kitchen or the log can't take it now; the cart stays as it is
+        if (!placement.isPlaced()) {
+            statusLabel.setText("Status: BUSY 🚦");
+            statusLabel.setForeground(new Color(243, 156, 18));
+            JOptionPane.showMessageDialog(this, placement.decision.reason + ".\n\nPlease try again in "
+                    + placement.decision.describeWait() + ".", "Busy", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        OrderService.Bill bill = placement.bill;
+        long waitMinutes = TimeUnit.NANOSECONDS.toMinutes(placement.decision.waitNanos);
+
+        statusLabel.setText("Status: PROCESSING ⏳");
+        statusLabel.setForeground(new Color(243, 156, 18));
+
+        String promotionMsg = bill.promotionPaise > 0 ? "\n🏷 Offers: -Rs. " + Order.formatPaise(bill.promotionPaise) : "";
+        String discountMsg = bill.discountPaise > 0 ? "\n🎉 Discount: -Rs. " + Order.formatPaise(bill.discountPaise) : "";
+        String waitMsg = waitMinutes > 0 ? "\n⏱ Ready in about " + waitMinutes + " min" : "";
+        
+        long dialogStart = System.nanoTime();
+        JOptionPane.showMessageDialog(this,
+                "Order Summary\n" +
+                "═══════════════════════\n" +
+                "Subtotal: Rs. " + Order.formatPaise(bill.subtotalPaise) +
+                promotionMsg +
+                "\nTax: Rs. " + Order.formatPaise(bill.taxPaise) +
+                discountMsg +
+                "\n═══════════════════════\n" +
+                "Final Amount: Rs. " + Order.formatPaise(bill.finalPaise) +
+                waitMsg,
+                "✓ Bill Summary", JOptionPane.INFORMATION_MESSAGE);
+        service.getMetrics().record(OrderMetrics.Stage.DIALOG, dialogStart);
+
+        orderModel.clear();
+        totalLabel.setText("Total: Rs. 0.00");
+        statusLabel.setText("Status: COMPLETED ✓");
+        statusLabel.setForeground(ACCENT_COLOR);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            // Headless bulk import, e.g. java -jar app.jar --batch catering.csv
+            BatchOrders.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        boolean eager = Arrays.asList(args).contains("--eager");
+        StartupTimer timer = StartupTimer.start(eager ? "eager" : "fast");
+        if (eager) {
+            setSystemLookAndFeel();
+            SwingUtilities.invokeLater(() -> new FoodOrderUI(timer));
+            return;
+        }
+        // The journal, menu and recommender load on their own thread while the EDT shows the shell
+        CompletableFuture<OrderService> opening = CompletableFuture.supplyAsync(FoodOrderUI::tryOpenService,
+                r -> new Thread(r, "order-service-open").start());
+        SwingUtilities.invokeLater(() -> new FoodOrderUI(timer, opening));
+    }
+
+    private static void setSystemLookAndFeel() {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
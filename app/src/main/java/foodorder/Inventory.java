@@ -0,0 +1,353 @@
+package foodorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inventory - Portions in stock per menu item, reserved as they go into carts.
+ *
+ * Items are tracked by name, so counts carry over when the menu is reloaded; an item
+ * with no stock entry is never limited. Each tracked item has one Stock whose free
+ * count is taken with a compare-and-set loop: two counters can't both sell the last
+ * portion, and carts buying different items never touch the same word. A whole cart
+ * is reserved item by item and rolled back if any item falls short, so it is
+ * all-or-nothing without a lock (another cart may briefly see the rolled-back
+ * portions as taken).
+ *
+ * The catalog's FoodItems point at their Stock, so isAvailable() turns false the
+ * moment the last portion is reserved. The category availability index is brought
+ * into line whenever an item sells out or comes back; a restock batch updates it once.
+ *
+ * stock.csv holds the counts as of when it was last written. Restocks and other
+ * terminals' sales after that go to the stock ledger, and orders placed here to the
+ * journal, so a restart rebuilds the counts from all three instead of starting over
+ * from stock.csv.
+ */
+class Inventory {
+
+    static final String FILE = "stock.csv";
+    static final String LEDGER = "stock-ledger.csv";
+
+    /** One item's portions. */
+    static final class Stock {
+        final String name;
+        private final AtomicInteger free = new AtomicInteger();
+        private final LongAdder sold = new LongAdder();
+
+        Stock(String name) {
+            this.name = name;
+        }
+
+        /** Takes portions if that many are free; returns what is left, or -1 if too few. */
+        int take(int quantity) {
+            while (true) {
+                int now = free.get();
+                if (now < quantity) return -1;
+                if (free.compareAndSet(now, now - quantity)) return now - quantity;
+            }
+        }
+
+        /** Takes up to quantity portions, as many as are free; gives the count before. */
+        int takeUpTo(int quantity) {
+            while (true) {
+                int now = free.get();
+                if (now == 0 || free.compareAndSet(now, Math.max(0, now - quantity))) return now;
+            }
+        }
+
+        /** Returns portions; gives the count before. */
+        int give(int quantity) {
+            return free.getAndAdd(quantity);
+        }
+
+        /** Portions neither in a cart nor sold. */
+        public int getFree() {
+            return free.get();
+        }
+
+        public long getSold() {
+            return sold.sum();
+        }
+    }
+
+    /**
+     * Counts being rebuilt at startup: stock.csv as counted, plus the restocks and minus
+     * the sales since. An item is counted from when it was first tracked.
+     */
+    static final class Recovery {
+        private final Map<String, Long> since = new HashMap<>();
+        private final Map<String, Long> portions = new LinkedHashMap<>();
+        private final Map<String, Long> sold = new HashMap<>();
+
+        private void added(String name, long millis, long quantity) {
+            since.putIfAbsent(name, millis);
+            portions.merge(name, quantity, Long::sum);
+        }
+
+        private void sold(String name, long millis, long quantity) {
+            Long from = since.get(name);
+            if (from != null && millis >= from) sold.merge(name, quantity, Long::sum);
+        }
+
+        /** The first day whose orders count; LocalDate.MAX if no item is tracked. */
+        LocalDate firstDay(ZoneId zone) {
+            long first = Long.MAX_VALUE;
+            for (long millis : since.values()) first = Math.min(first, millis);
+            return first == Long.MAX_VALUE ? LocalDate.MAX
+                    : Instant.ofEpochMilli(Math.max(first, 0)).atZone(zone).toLocalDate();
+        }
+
+        /** An order journalled here. */
+        void order(OrderJournal.Entry entry) {
+            for (int line = 0; line < entry.itemNames.length; line++) {
+                sold(entry.itemNames[line], entry.epochMillis, entry.quantities[line]);
+            }
+        }
+    }
+
+    private final ConcurrentHashMap<String, Stock> stocks = new ConcurrentHashMap<>();
+    private volatile MenuCatalog catalog;
+    private Writer ledger;   // guarded by this; null while changes aren't recorded
+
+    /**
+     * Points the catalog's tracked items at their stock and makes it the catalog whose
+     * availability index follows stock changes. Call before the catalog is published.
+     */
+    synchronized void attach(MenuCatalog next) {
+        List<Integer> soldOut = new ArrayList<>();
+        for (Stock stock : stocks.values()) {
+            FoodItem item = next.byName(stock.name);
+            if (item == null) continue;
+            item.setStock(stock);
+            if (stock.getFree() == 0) soldOut.add(item.getId());
+        }
+        catalog = next;
+        refresh(next, soldOut);
+    }
+
+    /**
+     * Adds portions, e.g. a delivery, as one batch. Items not tracked before are
+     * tracked from now on. Quantities must not be negative.
+     */
+    public synchronized void restock(Map<String, Integer> portions) {
+        add(portions);
+        for (Map.Entry<String, Integer> e : portions.entrySet()) {
+            if (e.getValue() > 0) note(e.getKey(), e.getValue());
+        }
+    }
+
+    /** Sets the counts recover() rebuilt. Call once at startup, before keepLedger(). */
+    synchronized void restore(Recovery recovery) {
+        Map<String, Integer> free = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> e : recovery.portions.entrySet()) {
+            long left = e.getValue() - recovery.sold.getOrDefault(e.getKey(), 0L);
+            free.put(e.getKey(), (int) Math.min(Integer.MAX_VALUE, Math.max(0, left)));
+        }
+        add(free);
+        recovery.sold.forEach((name, quantity) -> stocks.get(name).sold.add(quantity));
+    }
+
+    private void add(Map<String, Integer> portions) {
+        MenuCatalog current = catalog;
+        List<Integer> back = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : portions.entrySet()) {
+            int quantity = e.getValue();
+            if (quantity < 0) throw new IllegalArgumentException("Negative restock for " + e.getKey());
+            Stock stock = stocks.get(e.getKey());
+            boolean added = stock == null;
+            if (added) {
+                stock = new Stock(e.getKey());
+                stocks.put(stock.name, stock);
+            }
+            int before = stock.give(quantity);
+            FoodItem item = current == null ? null : current.byName(stock.name);
+            if (item == null) continue;
+            if (added) item.setStock(stock);
+            if (added || (before == 0 && quantity > 0)) back.add(item.getId());
+        }
+        refresh(current, back);
+    }
+
+    /** Reserves portions of one item; false, taking none, if too few are free. */
+    boolean reserve(FoodItem item, int quantity) {
+        Stock stock = item.getStock();
+        if (stock == null) return true;
+        int left = stock.take(quantity);
+        if (left == 0) changed(stock);
+        return left >= 0;
+    }
+
+    /** Reserves every line or none: false if any item falls short. */
+    boolean reserveAll(FoodItem[] items, int[] quantities) {
+        for (int i = 0; i < items.length; i++) {
+            if (!reserve(items[i], quantities[i])) {
+                while (--i >= 0) release(items[i], quantities[i]);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Puts reserved portions back. */
+    void release(FoodItem item, int quantity) {
+        Stock stock = item.getStock();
+        if (stock != null && quantity > 0 && stock.give(quantity) == 0) changed(stock);
+    }
+
+    /** Turns reserved portions into sales. */
+    void sold(FoodItem item, int quantity) {
+        Stock stock = item.getStock();
+        if (stock != null) stock.sold.add(quantity);
+    }
+
+    /**
+     * Portions another terminal sold from its own count: taken off the free count here
+     * as far as it goes, so the terminals stay roughly in step, and counted as sold.
+     */
+    void soldElsewhere(String name, int quantity) {
+        Stock stock = stocks.get(name);
+        if (stock == null || quantity <= 0) return;
+        int before = stock.takeUpTo(quantity);
+        stock.sold.add(quantity);
+        note(name, -quantity);
+        if (before > 0 && before <= quantity) changed(stock);
+    }
+
+    /** The item's stock, or null if it isn't tracked. */
+    public Stock get(String name) {
+        return stocks.get(name);
+    }
+
+    /** Tracked items by name. */
+    public Map<String, Stock> getStocks() {
+        return Collections.unmodifiableMap(stocks);
+    }
+
+    /** Records restocks and other terminals' sales in the data directory's ledger from now on. */
+    synchronized void keepLedger(Path dataDir) throws IOException {
+        ledger = Files.newBufferedWriter(dataDir.resolve(LEDGER), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /** An epochMillis,name,change line: positive for a restock, negative for a sale elsewhere. */
+    private synchronized void note(String name, int change) {
+        if (ledger == null) return;
+        try {
+            ledger.write(System.currentTimeMillis() + "," + name + "," + change + "\n");
+            ledger.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to record stock change for " + name + ": " + e.getMessage());
+        }
+    }
+
+    synchronized void close() {
+        if (ledger == null) return;
+        try {
+            ledger.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        ledger = null;
+    }
+
+    /** An item went to or came back from zero. */
+    private void changed(Stock stock) {
+        MenuCatalog current = catalog;
+        int id = current == null ? -1 : current.idOf(stock.name);
+        if (id >= 0) current.refreshAvailability(id);
+    }
+
+    private static void refresh(MenuCatalog catalog, List<Integer> ids) {
+        if (catalog == null || ids.isEmpty()) return;
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) array[i] = ids.get(i);
+        catalog.refreshAvailability(array);
+    }
+
+    /** Reads name,quantity lines (header optional, # comments); names may contain commas. */
+    static Map<String, Integer> read(BufferedReader in) throws IOException {
+        Map<String, Integer> portions = new LinkedHashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            int comma = line.lastIndexOf(',');
+            String name = comma < 0 ? "" : line.substring(0, comma).trim();
+            if (portions.isEmpty() && lineNumber == 1 && name.equalsIgnoreCase("name")) continue;
+            try {
+                int quantity = Integer.parseInt(line.substring(comma + 1).trim());
+                if (name.isEmpty() || quantity < 0) throw new NumberFormatException();
+                portions.merge(name, quantity, Integer::sum);
+            } catch (NumberFormatException e) {
+                throw new IOException("stock line " + lineNumber + ": expected name,quantity");
+            }
+        }
+        return portions;
+    }
+
+    /** The counts in the data directory's stock.csv; empty if there is none. */
+    static Map<String, Integer> load(Path dataDir) throws IOException {
+        Path file = dataDir.resolve(FILE);
+        if (!Files.exists(file)) return Collections.emptyMap();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Starts rebuilding the counts: stock.csv as of its last change, then the ledger's
+     * lines since. Feed the journalled orders to the result, then restore() it.
+     */
+    static Recovery recover(Path dataDir) throws IOException {
+        Recovery recovery = new Recovery();
+        Path file = dataDir.resolve(FILE);
+        long counted = Long.MIN_VALUE;
+        if (Files.exists(file)) {
+            counted = Files.getLastModifiedTime(file).toMillis();
+            for (Map.Entry<String, Integer> e : load(dataDir).entrySet()) {
+                recovery.added(e.getKey(), counted, e.getValue());
+            }
+        }
+        Path ledger = dataDir.resolve(LEDGER);
+        if (!Files.exists(ledger)) return recovery;
+        try (BufferedReader in = Files.newBufferedReader(ledger, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int first = line.indexOf(',');
+                int last = line.lastIndexOf(',');
+                if (first <= 0 || last <= first + 1) continue;   // torn by a crash
+                long millis;
+                int change;
+                try {
+                    millis = Long.parseLong(line.substring(0, first));
+                    change = Integer.parseInt(line.substring(last + 1));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (millis < counted) continue;   // already in stock.csv
+                String name = line.substring(first + 1, last);
+                if (change >= 0) recovery.added(name, millis, change);
+                else recovery.sold(name, millis, -(long) change);
+            }
+        }
+        return recovery;
+    }
+}
@@ -0,0 +1,422 @@
+package foodorder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Kitchen - Dispatches placed orders to the stations and tracks them to the counter.
+ *
+ * A placed order becomes a ticket with one task per menu category in it, and each task
+ * joins that category's station queue. A cook asks their own station for the next
+ * task; when it is empty they steal the oldest task of the busiest station they are
+ * allowed to help. The order goes PREPARING when its first task is picked up, READY
+ * when its last is done, and SERVED when the counter hands it over. A ticket still
+ * READY after READY_RETENTION_NANOS is taken as collected without a serve() and
+ * dropped, so orders nobody marks served don't pile up.
+ *
+ * Portions of one item are cooked in batches of up to batchSize() for its category,
+ * so a line of forty samosas takes five trays, not forty. Prep time is kept per batch
+ * of an item (an exponentially weighted average, seeded per category) and learned from
+ * how long finished tasks took against their estimate, which counts batches too; a
+ * catering order and a single plate teach it the same thing.
+ *
+ * A queued task's ETA is the estimated work queued up to and including it at its
+ * station, shared across the station's cooks; an order's ETA is its slowest task's.
+ * Each call touches one end of one or two queues and a few counters, so dispatch and
+ * ETAs cost the same with ten tickets waiting or ten thousand.
+ */
+class Kitchen {
+
+    static final double LEARNING_RATE = 0.2;
+    static final long READY_RETENTION_NANOS = TimeUnit.HOURS.toNanos(2);
+
+    /** One category's part of an order, cooked at one station. */
+    static final class Task {
+        final long taskId;
+        final Ticket ticket;
+        final Station station;
+        final String[] itemNames;
+        final int[] quantities;
+        final long estimateNanos;
+        long workMark;                      // station work enqueued up to and including this task
+        volatile long startedNanos;         // 0 while queued
+        volatile Station cookedAt;
+        volatile boolean done;
+
+        Task(long taskId, Ticket ticket, Station station, String[] itemNames, int[] quantities, long estimateNanos) {
+            this.taskId = taskId;
+            this.ticket = ticket;
+            this.station = station;
+            this.itemNames = itemNames;
+            this.quantities = quantities;
+            this.estimateNanos = estimateNanos;
+        }
+
+        public String getStation() {
+            return station.name;
+        }
+    }
+
+    /** A placed order while it is in the kitchen. */
+    static final class Ticket {
+        final Order order;
+        Task[] tasks;
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger remaining = new AtomicInteger();
+        volatile long readyNanos;
+
+        Ticket(Order order) {
+            this.order = order;
+        }
+    }
+
+    /** A station's queue. Its cooks take from the head; so do helpers from other stations. */
+    static final class Station {
+        final String name;
+        final int cooks;
+        final Set<String> helps;            // stations whose tasks its cooks may take
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+        private volatile long enqueuedWork; // estimated nanos ever queued here (written under the lock)
+        private volatile long takenWork;    // estimated nanos ever taken off the queue
+        private volatile int queued;
+
+        Station(String name, int cooks, Set<String> helps) {
+            this.name = name;
+            this.cooks = Math.max(1, cooks);
+            this.helps = helps;
+        }
+
+        synchronized void add(Task task) {
+            enqueuedWork += task.estimateNanos;
+            task.workMark = enqueuedWork;
+            queue.addLast(task);
+            queued = queue.size();
+        }
+
+        synchronized Task poll() {
+            Task task = queue.pollFirst();
+            if (task != null) {
+                takenWork += task.estimateNanos;
+                queued = queue.size();
+            }
+            return task;
+        }
+
+        /** Estimated work waiting, for picking whom to help. */
+        long backlogNanos() {
+            return enqueuedWork - takenWork;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+    }
+
+    private final Map<String, Integer> cooks;
+    private final Map<String, Set<String>> helps;
+    private final LongSupplier clock;
+    private final Consumer<Order> statusListener;
+    private final ConcurrentHashMap<String, Station> stations = new ConcurrentHashMap<>();
+    private volatile Station[] stationList = new Station[0];
+    private final ConcurrentHashMap<Long, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ArrayDeque<Ticket> ready = new ArrayDeque<>();                 // oldest first; guarded by itself
+    private final ConcurrentHashMap<Long, Task> cooking = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, double[]> prepNanos = new ConcurrentHashMap<>();    // per item, one slot
+    private final AtomicLong nextTaskId = new AtomicLong(1);
+    private final Object newWork = new Object();
+
+    /**
+     * @param cooks           cooks per station (category); stations not listed get one
+     * @param helps           per station, the stations its cooks may take tasks from
+     * @param clock           nanosecond clock for timing tasks, normally System::nanoTime
+     * @param statusListener  called after every status change, on the thread that made it
+     */
+    Kitchen(Map<String, Integer> cooks, Map<String, Set<String>> helps, LongSupplier clock,
+            Consumer<Order> statusListener) {
+        this.cooks = cooks;
+        this.helps = helps;
+        this.clock = clock;
+        this.statusListener = statusListener;
+    }
+
+    /**
+     * One cook per station. The food stations (Starters, Main Course, Combos) help each
+     * other; Beverages, and any station not named here, only works its own queue.
+     */
+    static Kitchen standard(Consumer<Order> statusListener) {
+        return standard(Collections.emptyMap(), System::nanoTime, statusListener);
+    }
+
+    /** As standard(listener), with the given cooks per station and clock. */
+    static Kitchen standard(Map<String, Integer> cooks, LongSupplier clock, Consumer<Order> statusListener) {
+        Set<String> food = new HashSet<>(Arrays.asList("Starters", "Main Course", "Combos"));
+        Map<String, Set<String>> helps = new LinkedHashMap<>();
+        for (String station : food) {
+            Set<String> others = new HashSet<>(food);
+            others.remove(station);
+            helps.put(station, others);
+        }
+        return new Kitchen(cooks, helps, clock, statusListener);
+    }
+
+    /** Portions of one item a station cooks at once: a tray, a pot, a blender jug. */
+    static int batchSize(String category) {
+        switch (category) {
+            case "Beverages": return 4;
+            case "Starters": return 8;
+            case "Main Course": return 6;
+            case "Combos": return 4;
+            default: return 4;
+        }
+    }
+
+    /** Batches needed for quantity portions of an item in the category. */
+    static int batches(int quantity, String category) {
+        int size = batchSize(category);
+        return (quantity + size - 1) / size;
+    }
+
+    /** Typical prep time for one batch of an item never timed before. */
+    static long seedNanos(String category) {
+        switch (category) {
+            case "Beverages": return TimeUnit.MINUTES.toNanos(3);
+            case "Starters": return TimeUnit.MINUTES.toNanos(8);
+            case "Main Course": return TimeUnit.MINUTES.toNanos(15);
+            case "Combos": return TimeUnit.MINUTES.toNanos(12);
+            default: return TimeUnit.MINUTES.toNanos(10);
+        }
+    }
+
+    Station station(String name) {
+        Station station = stations.get(name);
+        return station != null ? station : addStation(name);
+    }
+
+    private synchronized Station addStation(String name) {
+        Station station = stations.get(name);
+        if (station != null) return station;
+        station = new Station(name, cooks.getOrDefault(name, 1), helps.getOrDefault(name, Collections.emptySet()));
+        stations.put(name, station);
+        Station[] next = Arrays.copyOf(stationList, stationList.length + 1);
+        next[next.length - 1] = station;
+        stationList = next;
+        return station;
+    }
+
+    public List<Station> getStations() {
+        return Collections.unmodifiableList(Arrays.asList(stationList));
+    }
+
+    /** Splits a placed order into station tasks and queues them. */
+    public void submit(Order order) {
+        Map<String, List<Integer>> linesByCategory = new LinkedHashMap<>();
+        for (int line = 0; line < order.getLineCount(); line++) {
+            linesByCategory.computeIfAbsent(order.getLineItem(line).getCategory(), k -> new ArrayList<>()).add(line);
+        }
+        if (linesByCategory.isEmpty()) return;
+
+        Ticket ticket = new Ticket(order);
+        Task[] tasks = new Task[linesByCategory.size()];
+        int t = 0;
+        for (Map.Entry<String, List<Integer>> group : linesByCategory.entrySet()) {
+            List<Integer> lines = group.getValue();
+            String[] names = new String[lines.size()];
+            int[] quantities = new int[lines.size()];
+            long estimate = 0;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = order.getLineItem(lines.get(i)).getName();
+                quantities[i] = order.getQuantity(lines.get(i));
+                estimate += (long) (prepSlot(names[i], group.getKey())[0] * batches(quantities[i], group.getKey()));
+            }
+            tasks[t++] = new Task(nextTaskId.getAndIncrement(), ticket, station(group.getKey()), names, quantities,
+                    Math.max(1, estimate));
+        }
+        ticket.tasks = tasks;
+        ticket.remaining.set(tasks.length);
+        dropUncollected(clock.getAsLong());
+        tickets.put(order.getOrderId(), ticket);
+        for (Task task : tasks) task.station.add(task);
+        synchronized (newWork) {
+            newWork.notifyAll();
+        }
+    }
+
+    /**
+     * The next task for a cook at the station: its own oldest, else the oldest at the
+     * busiest station it may help. Null if there is nothing it can do.
+     */
+    public Task next(String stationName) {
+        Station own = station(stationName);
+        Task task = own.poll();
+        if (task == null) {
+            Station busiest = null;
+            long most = 0;
+            for (Station other : stationList) {
+                if (other == own || other.queued == 0 || !own.helps.contains(other.name)) continue;
+                long backlog = other.backlogNanos();
+                if (backlog > most) {
+                    most = backlog;
+                    busiest = other;
+                }
+            }
+            if (busiest != null) task = busiest.poll();
+        }
+        if (task == null) return null;
+
+        task.cookedAt = own;
+        task.startedNanos = clock.getAsLong();
+        cooking.put(task.taskId, task);
+        if (task.ticket.started.getAndIncrement() == 0 && task.ticket.order.advance(OrderStatus.PREPARING)) {
+            statusListener.accept(task.ticket.order);
+        }
+        return task;
+    }
+
+    /** As next(), waiting up to the timeout for work to arrive. */
+    public Task take(String stationName, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Task task = next(stationName);
+            if (task != null) return task;
+            long left = deadline - System.nanoTime();
+            if (left <= 0) return null;
+            synchronized (newWork) {
+                TimeUnit.NANOSECONDS.timedWait(newWork, Math.min(left, TimeUnit.MILLISECONDS.toNanos(50)));
+            }
+        }
+    }
+
+    /** Marks a task cooked and learns from how long it took. False if it wasn't being cooked. */
+    public boolean done(long taskId) {
+        Task task = cooking.remove(taskId);
+        if (task == null) return false;
+        long now = clock.getAsLong();
+        learn(task, now - task.startedNanos);
+        task.done = true;
+
+        Ticket ticket = task.ticket;
+        if (ticket.remaining.decrementAndGet() == 0) {
+            ticket.readyNanos = now;
+            dropUncollected(now);
+            synchronized (ready) {
+                ready.addLast(ticket);
+            }
+            if (ticket.order.advance(OrderStatus.READY)) statusListener.accept(ticket.order);
+        }
+        return true;
+    }
+
+    /** Forgets tickets READY for READY_RETENTION_NANOS; ones served meanwhile are already gone. */
+    private void dropUncollected(long now) {
+        synchronized (ready) {
+            Ticket oldest;
+            while ((oldest = ready.peekFirst()) != null && now - oldest.readyNanos >= READY_RETENTION_NANOS) {
+                ready.pollFirst();
+                tickets.remove(oldest.order.getOrderId(), oldest);
+            }
+        }
+    }
+
+    /**
+     * Hands a ready order over at the counter. False unless the order is READY and
+     * still in the kitchen.
+     */
+    public boolean serve(long orderId) {
+        Ticket ticket = tickets.get(orderId);
+        if (ticket == null || !ticket.order.advance(OrderStatus.SERVED)) return false;
+        tickets.remove(orderId);
+        statusListener.accept(ticket.order);
+        return true;
+    }
+
+    /**
+     * Estimated nanoseconds until the order is ready: 0 once it is, -1 if the kitchen
+     * doesn't have it.
+     */
+    public long etaNanos(long orderId) {
+        Ticket ticket = tickets.get(orderId);
+        if (ticket == null) return -1;
+        if (ticket.readyNanos != 0) return 0;
+        long now = clock.getAsLong();
+        long eta = 0;
+        for (Task task : ticket.tasks) {
+            if (task.done) continue;
+            long started = task.startedNanos;
+            long left;
+            if (started != 0) {
+                left = Math.max(0, started + task.estimateNanos - now);
+            } else {
+                // Work queued ahead of it is shared by the station's cooks; its own isn't
+                Station s = task.station;
+                long ahead = Math.max(0, task.workMark - task.estimateNanos - s.takenWork);
+                left = ahead / s.cooks + task.estimateNanos;
+            }
+            eta = Math.max(eta, left);
+        }
+        return eta;
+    }
+
+    /**
+     * Estimated nanoseconds before the busiest station gets to work queued now: its
+     * queued work shared across its cooks. What a new order waits before cooking starts.
+     */
+    public long backlogNanos() {
+        long backlog = 0;
+        for (Station s : stationList) backlog = Math.max(backlog, s.backlogNanos() / s.cooks);
+        return backlog;
+    }
+
+    /** As backlogNanos(), over the named stations only; an order that needs just those waits this long. */
+    public long backlogNanos(Collection<String> stationNames) {
+        long backlog = 0;
+        for (String name : stationNames) {
+            Station s = stations.get(name);
+            if (s != null) backlog = Math.max(backlog, s.backlogNanos() / s.cooks);
+        }
+        return backlog;
+    }
+
+    /** Orders in the kitchen not yet served or dropped as collected. */
+    public int getOpenTickets() {
+        return tickets.size();
+    }
+
+    /** Current prep estimate for one batch of an item. */
+    public long prepEstimateNanos(String itemName, String category) {
+        return (long) prepSlot(itemName, category)[0];
+    }
+
+    private double[] prepSlot(String itemName, String category) {
+        double[] slot = prepNanos.get(itemName);
+        return slot != null ? slot : prepNanos.computeIfAbsent(itemName, k -> new double[] {seedNanos(category)});
+    }
+
+    /**
+     * Scales each item's batch time toward what this task showed, weighted by
+     * LEARNING_RATE. The estimate counted batches, so the ratio is per batch whatever
+     * the quantities were.
+     */
+    private void learn(Task task, long tookNanos) {
+        double ratio = (double) tookNanos / task.estimateNanos;
+        for (String name : task.itemNames) {
+            double[] slot = prepNanos.get(name);
+            synchronized (slot) {
+                slot[0] += LEARNING_RATE * (slot[0] * ratio - slot[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package foodorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * KitchenSimulator - Runs a simulated service through the Kitchen to check its ETAs.
+ * Orders of random menu items arrive at a steady rate; each station has cook threads
+ * that take tasks and sleep for the task's "true" prep time (a fixed per-item time
+ * between half and one and a half times the category seed, plus or minus 20% per
+ * task). The kitchen runs on a sped-up clock where one simulated minute lasts
+ * --minute-ms, so a service of several hours takes seconds. Reports how far the ETA quoted at checkout
+ * was from the actual ready time, per quarter of the run so learning shows, and what
+ * dispatch cost per call.
+ *
+ *   KitchenSimulator [--orders 400] [--per-minute 0.12] [--cooks 2] [--minute-ms 10] [--seed 42]
+ */
+class KitchenSimulator {
+
+    public static void main(String[] args) throws Exception {
+        int orders = 400;
+        double perMinute = 0.12;
+        int cooksPerStation = 2;
+        double minuteMillis = 10;
+        long seed = 42;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--orders": orders = Integer.parseInt(args[i + 1]); break;
+                case "--per-minute": perMinute = Double.parseDouble(args[i + 1]); break;
+                case "--cooks": cooksPerStation = Integer.parseInt(args[i + 1]); break;
+                case "--minute-ms": minuteMillis = Double.parseDouble(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        MenuCatalog catalog = new MenuCatalog(MenuLoader.bundled().values());
+        List<FoodItem> available = new ArrayList<>();
+        for (int id = 0; id < catalog.size(); id++) {
+            if (catalog.get(id).isAvailable()) available.add(catalog.get(id));
+        }
+        double scale = minuteMillis / 60_000.0;        // real nanos per simulated nano
+        long start = System.nanoTime();
+        LongSupplier clock = () -> 1 + (long) ((System.nanoTime() - start) / scale);
+        Random random = new Random(seed);
+        Map<String, Long> trueNanos = truePrepTimes(available, random);
+
+        Map<String, Integer> cooks = new LinkedHashMap<>();
+        for (String category : catalog.categories()) cooks.put(category, cooksPerStation);
+        Map<Long, Long> readyAt = new ConcurrentHashMap<>();
+        Kitchen kitchen = Kitchen.standard(cooks, clock, order -> {
+            if (order.getStatus() == OrderStatus.READY) readyAt.put(order.getOrderId(), clock.getAsLong());
+        });
+        for (String category : catalog.categories()) kitchen.station(category);
+
+        AtomicLong dispatchNanos = new AtomicLong();
+        AtomicLong dispatchCalls = new AtomicLong();
+        List<Thread> cookThreads = startCooks(kitchen, trueNanos, scale, dispatchNanos, dispatchCalls);
+
+        long[] quoted = new long[orders];
+        long[] placedAt = new long[orders];
+        long submitNanos = 0;
+        long etaNanos = 0;
+        long gapNanos = (long) (minuteMillis * 1_000_000 / perMinute);
+        for (int n = 0; n < orders; n++) {
+            Order order = new Order(n + 1);
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                order.addItem(available.get(random.nextInt(available.size())), 1 + random.nextInt(2));
+            }
+            long wait = start + n * gapNanos - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+
+            long t0 = System.nanoTime();
+            kitchen.submit(order);
+            long t1 = System.nanoTime();
+            quoted[n] = kitchen.etaNanos(order.getOrderId());
+            long t2 = System.nanoTime();
+            placedAt[n] = clock.getAsLong();
+            submitNanos += t1 - t0;
+            etaNanos += t2 - t1;
+        }
+        while (readyAt.size() < orders) Thread.sleep(20);
+        for (Thread cook : cookThreads) cook.interrupt();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d orders, %.2f/min, %d cooks per station, 1 min = %.0f ms, %.1fs real%n%n",
+                orders, perMinute, cooksPerStation, minuteMillis, seconds);
+        System.out.printf("%-10s %16s %16s %14s%n", "Orders", "mean wait (min)", "mean |error|", "within 20%");
+        int quarter = Math.max(1, orders / 4);
+        for (int from = 0; from < orders; from += quarter) {
+            int to = Math.min(orders, from + quarter);
+            double waited = 0;
+            double error = 0;
+            int close = 0;
+            for (int n = from; n < to; n++) {
+                long actual = readyAt.get((long) n + 1) - placedAt[n];
+                waited += actual;
+                error += Math.abs(quoted[n] - actual);
+                if (Math.abs(quoted[n] - actual) <= actual / 5) close++;
+            }
+            double minute = 60e9;
+            System.out.printf("%-10s %16.1f %16.1f %13.0f%%%n", (from + 1) + "-" + to,
+                    waited / (to - from) / minute, error / (to - from) / minute, 100.0 * close / (to - from));
+        }
+        System.out.printf("%nsubmit %.1f us, eta %.1f us, done %.1f us per call%n", submitNanos / 1e3 / orders,
+                etaNanos / 1e3 / orders, dispatchNanos.get() / 1e3 / Math.max(1, dispatchCalls.get()));
+    }
+
+    /** A fixed "true" time per batch of an item: half to one and a half times its category's seed. */
+    static Map<String, Long> truePrepTimes(List<FoodItem> items, Random random) {
+        Map<String, Long> trueNanos = new HashMap<>();
+        for (FoodItem item : items) {
+            double factor = 0.5 + random.nextDouble();
+            trueNanos.put(item.getName(), (long) (Kitchen.seedNanos(item.getCategory()) * factor));
+        }
+        return trueNanos;
+    }
+
+    /**
+     * Starts the cooks of every station as daemon threads that take tasks and sleep for
+     * their true prep time (plus or minus 20%), scaled to real nanos. Interrupt to stop.
+     */
+    static List<Thread> startCooks(Kitchen kitchen, Map<String, Long> trueNanos, double scale,
+                                   AtomicLong dispatchNanos, AtomicLong dispatchCalls) {
+        List<Thread> cookThreads = new ArrayList<>();
+        for (Kitchen.Station station : kitchen.getStations()) {
+            for (int c = 0; c < station.cooks; c++) {
+                Thread cook = new Thread(() -> {
+                    try {
+                        while (!Thread.currentThread().isInterrupted()) {
+                            Kitchen.Task task = kitchen.take(station.name, 100, TimeUnit.MILLISECONDS);
+                            if (task == null) continue;
+                            long work = 0;
+                            for (int i = 0; i < task.itemNames.length; i++) {
+                                work += trueNanos.get(task.itemNames[i])
+                                        * Kitchen.batches(task.quantities[i], task.getStation());
+                            }
+                            TimeUnit.NANOSECONDS.sleep((long) (work * scale * ThreadLocalRandom.current().nextDouble(0.8, 1.2)));
+                            long before = System.nanoTime();
+                            kitchen.done(task.taskId);
+                            dispatchNanos.addAndGet(System.nanoTime() - before);
+                            dispatchCalls.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        // service over
+                    }
+                }, "cook-" + station.name + "-" + c);
+                cook.setDaemon(true);
+                cook.start();
+                cookThreads.add(cook);
+            }
+        }
+        return cookThreads;
+    }
+}
@@ -0,0 +1,269 @@
+package foodorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MenuCatalog - Indexed view of the menu.
+ * Every FoodItem gets a dense int ID (its position in the catalog). IDs are handed out
+ * category by category, so each category owns one contiguous range, and each keeps
+ * two bitsets over that range: all of its items, and the ones currently available.
+ * Category queries start at the range and walk only set bits.
+ *
+ * The structure is fixed once built; a changed menu file produces a new catalog that
+ * OrderService swaps in whole. Availability changes - the menu flag, or an item
+ * selling out or coming back in Inventory - replace the affected categories' bitsets
+ * (copy-on-write), so readers never lock.
+ *
+ * A catalog can also sit on a memory-mapped MenuSnapshot. Then nothing is built up
+ * front beyond the category ranges and bitsets: FoodItems are created on first access
+ * and name lookups probe the snapshot's own hash table.
+ *
+ * Typeahead search over the names is a MenuSearch, built for a catalog when it is
+ * first searched.
+ */
+class MenuCatalog {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version = VERSIONS.incrementAndGet();
+    private final AtomicReferenceArray<FoodItem> items;
+    private final MenuSnapshot snapshot;            // null when built from FoodItems
+    private final Map<String, Integer> idsByName;   // null when snapshot-backed
+    private final List<String> categories;
+    private final Map<String, Integer> categoryIndex;
+    private final int[] categoryOf;
+    private final int[] categoryStart;
+    private final int[] categoryEnd;
+    private final BitSet[] byCategory;
+    private volatile BitSet[] availableByCategory;
+    private volatile MenuSearch search;             // built on first search()
+    private final Object searchLock = new Object();
+
+    MenuCatalog(Collection<FoodItem> menuItems) {
+        // Number items category by category so each category is one contiguous ID range
+        Map<String, List<FoodItem>> grouped = new LinkedHashMap<>();
+        for (FoodItem item : menuItems) {
+            grouped.computeIfAbsent(item.getCategory(), k -> new ArrayList<>()).add(item);
+        }
+
+        snapshot = null;
+        items = new AtomicReferenceArray<>(menuItems.size());
+        idsByName = new HashMap<>(items.length() * 2);
+        categoryIndex = new LinkedHashMap<>();
+        categoryOf = new int[items.length()];
+        categoryStart = new int[grouped.size()];
+        categoryEnd = new int[grouped.size()];
+        byCategory = new BitSet[grouped.size()];
+        BitSet[] available = new BitSet[grouped.size()];
+
+        int id = 0;
+        for (Map.Entry<String, List<FoodItem>> group : grouped.entrySet()) {
+            int c = categoryIndex.size();
+            categoryIndex.put(group.getKey(), c);
+            categoryStart[c] = id;
+            byCategory[c] = new BitSet();
+            available[c] = new BitSet();
+
+            for (FoodItem item : group.getValue()) {
+                items.set(id, item);
+                item.assignId(id);
+                idsByName.put(item.getName(), id);
+                categoryOf[id] = c;
+                byCategory[c].set(id);
+                if (item.isAvailable()) available[c].set(id);
+                id++;
+            }
+            categoryEnd[c] = id;
+        }
+
+        categories = Collections.unmodifiableList(new ArrayList<>(categoryIndex.keySet()));
+        availableByCategory = available;
+    }
+
+    /** Catalog over a mapped snapshot; items are materialised as they are first used. */
+    MenuCatalog(MenuSnapshot snapshot) {
+        this.snapshot = snapshot;
+        int size = snapshot.size();
+        int count = snapshot.categoryCount();
+        items = new AtomicReferenceArray<>(size);
+        idsByName = null;
+        categoryIndex = new LinkedHashMap<>();
+        categoryOf = new int[size];
+        categoryStart = new int[count];
+        categoryEnd = new int[count];
+        byCategory = new BitSet[count];
+        BitSet[] available = new BitSet[count];
+
+        BitSet availableItems = snapshot.availability();
+        for (int c = 0; c < count; c++) {
+            categoryIndex.put(snapshot.categoryName(c), c);
+            categoryStart[c] = snapshot.categoryStart(c);
+            categoryEnd[c] = snapshot.categoryEnd(c);
+            Arrays.fill(categoryOf, categoryStart[c], categoryEnd[c], c);
+            byCategory[c] = new BitSet(categoryEnd[c]);
+            byCategory[c].set(categoryStart[c], categoryEnd[c]);
+            available[c] = (BitSet) availableItems.clone();
+            available[c].and(byCategory[c]);
+        }
+
+        categories = Collections.unmodifiableList(new ArrayList<>(categoryIndex.keySet()));
+        availableByCategory = available;
+    }
+
+    /** Distinguishes catalogs; a reloaded menu always gets a higher version. */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return items.length();
+    }
+
+    public FoodItem get(int id) {
+        FoodItem item = items.get(id);
+        return item != null ? item : materialize(id);
+    }
+
+    private FoodItem materialize(int id) {
+        int c = categoryOf[id];
+        FoodItem item = snapshot.item(id, categories.get(c));
+        item.assignId(id);
+        item.setAvailable(availableByCategory[c].get(id));
+        return items.compareAndSet(id, null, item) ? item : items.get(id);
+    }
+
+    /** Price of an item without building it. */
+    public long pricePaise(int id) {
+        FoodItem item = items.get(id);
+        return item != null || snapshot == null ? get(id).getPricePaise() : snapshot.pricePaise(id);
+    }
+
+    /** Name of an item without building it. */
+    public String nameOf(int id) {
+        FoodItem item = items.get(id);
+        return item != null || snapshot == null ? get(id).getName() : snapshot.name(id);
+    }
+
+    /** Times the item has been ordered; an item never built has none. */
+    public long popularityOf(int id) {
+        FoodItem item = items.get(id);
+        return item == null ? 0 : item.getPopularity();
+    }
+
+    /**
+     * Typeahead index over the item names, built and warmed up on first use. That takes
+     * a while for a large menu, so keep the first call off the EDT.
+     */
+    public MenuSearch search() {
+        MenuSearch index = search;
+        if (index == null) {
+            synchronized (searchLock) {              // not this: availability changes shouldn't wait on it
+                index = search;
+                if (index == null) {
+                    index = new MenuSearch(this);
+                    index.warmUp();
+                    search = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /** Returns the item's ID, or -1 if no item has that name. */
+    public int idOf(String name) {
+        if (snapshot != null) return snapshot.find(name);
+        Integer id = idsByName.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public FoodItem byName(String name) {
+        int id = idOf(name);
+        return id < 0 ? null : get(id);
+    }
+
+    /** Name to item map in catalog (ID) order. Builds every item, so keep it off hot paths. */
+    public Map<String, FoodItem> asMap() {
+        Map<String, FoodItem> map = new LinkedHashMap<>(size() * 2);
+        for (int id = 0; id < size(); id++) {
+            FoodItem item = get(id);
+            map.put(item.getName(), item);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Carries popularity over from the catalog this one replaces, matching items by
+     * name. Only items the old catalog ever built can have any.
+     */
+    void inheritPopularity(MenuCatalog previous) {
+        for (int id = 0; id < previous.size(); id++) {
+            FoodItem old = previous.items.get(id);
+            long popularity = old == null ? 0 : old.getPopularity();
+            if (popularity == 0) continue;
+            FoodItem item = byName(old.getName());
+            if (item != null) item.increasePopularity(popularity);
+        }
+    }
+
+    public List<String> categories() {
+        return categories;
+    }
+
+    /** Position of the item's category in categories(). */
+    public int categoryOf(int id) {
+        return categoryOf[id];
+    }
+
+    /** IDs of every item in the category, ascending. */
+    public int[] itemsInCategory(String category) {
+        Integer c = categoryIndex.get(category);
+        return c == null ? new int[0] : toIds(byCategory[c], categoryStart[c], categoryEnd[c]);
+    }
+
+    /** IDs of the category's currently available items, ascending. */
+    public int[] availableInCategory(String category) {
+        Integer c = categoryIndex.get(category);
+        return c == null ? new int[0] : toIds(availableByCategory[c], categoryStart[c], categoryEnd[c]);
+    }
+
+    /** Sets an item's menu availability flag and updates its category index. */
+    public synchronized void setAvailable(int id, boolean available) {
+        get(id).setAvailable(available);
+        refreshAvailability(id);
+    }
+
+    /** Re-reads the items' isAvailable() (menu flag and stock) into the category index. */
+    synchronized void refreshAvailability(int... ids) {
+        BitSet[] next = null;
+        for (int id : ids) {
+            boolean available = get(id).isAvailable();
+            int c = categoryOf[id];
+            BitSet[] current = next != null ? next : availableByCategory;
+            if (current[c].get(id) == available) continue;
+            if (next == null) next = availableByCategory.clone();
+            if (next[c] == availableByCategory[c]) next[c] = (BitSet) next[c].clone();
+            next[c].set(id, available);
+        }
+        if (next != null) availableByCategory = next;
+    }
+
+    private static int[] toIds(BitSet bits, int start, int end) {
+        int[] ids = new int[Math.min(16, end - start)];
+        int n = 0;
+        for (int id = bits.nextSetBit(start); id >= 0 && id < end; id = bits.nextSetBit(id + 1)) {
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = id;
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+}
@@ -0,0 +1,69 @@
+package foodorder;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * MenuListModel - List model behind the "Menu Items" panel.
+ * Holds the shown category as the catalog's int[] of IDs and swaps a new one in with
+ * one pair of events, instead of one addElement event per item. Each row's render
+ * descriptor is built the first time Swing asks for that row and then kept, so only
+ * rows that are actually scrolled into view ever get one.
+ */
+class MenuListModel extends AbstractListModel<MenuListModel.Row> {
+
+    /** What MenuListRenderer draws for one item, prepared once instead of on every paint. */
+    static final class Row {
+        final int id;
+        final FoodItem item;
+        boolean available;              // the state text was built for
+        String text;
+        int textWidth;                  // in the renderer's font for that state, -1 until measured
+
+        Row(int id, FoodItem item) {
+            this.id = id;
+            this.item = item;
+        }
+
+        /** Rebuilds the text if the item's availability changed since it was built. */
+        void refresh() {
+            boolean now = item.isAvailable();
+            if (text != null && now == available) return;
+            available = now;
+            text = item.getName() + " - Rs. " + item.getPrice() + (now ? " [Available]" : " [Unavailable]");
+            textWidth = -1;
+        }
+    }
+
+    private MenuCatalog catalog;
+    private int[] ids = new int[0];
+    private Row[] rows = new Row[0];
+
+    /** Shows the given catalog IDs, in order. */
+    public void setItems(MenuCatalog catalog, int[] ids) {
+        int old = this.ids.length;
+        this.catalog = catalog;
+        this.ids = ids;
+        this.rows = new Row[ids.length];
+        if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+        if (ids.length > 0) fireIntervalAdded(this, 0, ids.length - 1);
+    }
+
+    public int getItemIdAt(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public int getSize() {
+        return ids.length;
+    }
+
+    @Override
+    public Row getElementAt(int index) {
+        Row row = rows[index];
+        if (row == null) {
+            row = new Row(ids[index], catalog.get(ids[index]));
+            rows[index] = row;
+        }
+        return row;
+    }
+}
@@ -0,0 +1,128 @@
+package foodorder;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.util.Map;
+
+/**
+ * MenuListRenderer - Paints menu rows straight from their MenuListModel.Row.
+ * Fonts, metrics and colours are fixed at construction, and an unavailable item's
+ * strike-through is a drawn line rather than an HTML <strike> label, which would
+ * send every paint through Swing's HTML view. Painting a row is a fill, a drawString
+ * and at most a drawLine, with nothing allocated once the row's text exists.
+ * Rows have one fixed height; see rowHeight() and prototype().
+ */
+class MenuListRenderer extends JComponent implements ListCellRenderer<MenuListModel.Row> {
+
+    static final int PADDING = 5;
+
+    private final Font availableFont;
+    private final Font unavailableFont;
+    private final FontMetrics availableMetrics;
+    private final FontMetrics unavailableMetrics;
+    private final Color availableColor;
+    private final Color unavailableColor;
+    private final Color selectedColor;
+    private final Map<?, ?> textHints;      // the desktop's antialiasing settings, as JLabel uses
+
+    private MenuListModel.Row row;
+    private boolean selected;
+
+    MenuListRenderer(Font font, Color availableColor, Color unavailableColor, Color selectedColor) {
+        this.availableFont = font;
+        this.unavailableFont = font.deriveFont(Font.ITALIC);
+        this.availableMetrics = getFontMetrics(availableFont);
+        this.unavailableMetrics = getFontMetrics(unavailableFont);
+        this.availableColor = availableColor;
+        this.unavailableColor = unavailableColor;
+        this.selectedColor = selectedColor;
+        this.textHints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        setOpaque(true);
+    }
+
+    int rowHeight() {
+        return Math.max(availableMetrics.getHeight(), unavailableMetrics.getHeight()) + 2 * PADDING;
+    }
+
+    /** Stand-in row for JList.setPrototypeCellValue, so the list never measures real rows. */
+    static MenuListModel.Row prototype() {
+        return new MenuListModel.Row(-1, new FoodItem("Paneer Butter Masala with Garlic Naan", 999.0, false, ""));
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends MenuListModel.Row> list, MenuListModel.Row value,
+                                                  int index, boolean isSelected, boolean cellHasFocus) {
+        row = value;
+        selected = isSelected;
+        setBackground(isSelected ? list.getSelectionBackground() : list.getBackground());
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (row == null) return;
+
+        row.refresh();
+        boolean available = row.available;
+        FontMetrics metrics = available ? availableMetrics : unavailableMetrics;
+        if (textHints != null) ((Graphics2D) g).addRenderingHints(textHints);
+        g.setFont(available ? availableFont : unavailableFont);
+        g.setColor(!available ? unavailableColor : selected ? selectedColor : availableColor);
+
+        int baseline = (getHeight() - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.drawString(row.text, PADDING, baseline);
+        if (!available) {
+            if (row.textWidth < 0) row.textWidth = metrics.stringWidth(row.text);
+            int y = baseline - metrics.getAscent() / 3;
+            g.drawLine(PADDING, y, PADDING + row.textWidth, y);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int width = 0;
+        if (row != null) {
+            row.refresh();
+            width = (row.available ? availableMetrics : unavailableMetrics).stringWidth(row.text);
+        }
+        return new Dimension(width + 2 * PADDING, rowHeight());
+    }
+
+    // Only ever painted through the list's CellRendererPane, so skip the layout and
+    // repaint bookkeeping a live component does (as DefaultListCellRenderer does)
+    @Override
+    public void invalidate() {
+    }
+
+    @Override
+    public void validate() {
+    }
+
+    @Override
+    public void revalidate() {
+    }
+
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void repaint(Rectangle r) {
+    }
+
+    @Override
+    public void repaint() {
+    }
+}
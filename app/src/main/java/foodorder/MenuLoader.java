@@ -0,0 +1,321 @@
+package foodorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MenuLoader - Reads the menu from menu.csv, menu.json or a binary menu.snapshot.
+ *
+ *   menu.csv    name,price,available,category  (header optional, # comments, "quoted, fields")
+ *   menu.json   [{"name": "Lassi", "price": 80, "available": true, "category": "Beverages"}, ...]
+ *
+ * Items keep file order within their category. The menu the app ships with is the
+ * bundled foodorder/menu.csv resource; a menu file in the data directory replaces it.
+ */
+class MenuLoader {
+
+    static final String CSV = "menu.csv";
+    static final String JSON = "menu.json";
+    static final String SNAPSHOT = "menu.snapshot";
+
+    /**
+     * The menu file to use in a data directory: menu.snapshot when it is at least as new
+     * as the text menu (or there is none), otherwise menu.csv or menu.json; null if none.
+     */
+    static Path find(Path dataDir) throws IOException {
+        Path text = Files.exists(dataDir.resolve(CSV)) ? dataDir.resolve(CSV)
+                : Files.exists(dataDir.resolve(JSON)) ? dataDir.resolve(JSON) : null;
+        Path snapshot = dataDir.resolve(SNAPSHOT);
+        if (Files.exists(snapshot) && (text == null
+                || Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(text)) >= 0)) {
+            return snapshot;
+        }
+        return text;
+    }
+
+    /** The data directory's menu, or the bundled one when it has none. */
+    static MenuCatalog loadOrBundled(Path dataDir) throws IOException {
+        Path file = find(dataDir);
+        return file == null ? new MenuCatalog(bundled().values()) : load(file);
+    }
+
+    static MenuCatalog load(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".snapshot")) {
+            return new MenuCatalog(MenuSnapshot.open(file));
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, FoodItem> menu = name.endsWith(".json") ? readJson(in) : readCsv(in);
+            if (menu.isEmpty()) throw new IOException(file + " has no menu items");
+            return new MenuCatalog(menu.values());
+        }
+    }
+
+    /** The menu bundled with the application. */
+    static Map<String, FoodItem> bundled() {
+        try (InputStream in = MenuLoader.class.getResourceAsStream("menu.csv")) {
+            if (in == null) throw new IllegalStateException("Bundled menu.csv is missing");
+            return readCsv(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Bundled menu.csv is unreadable", e);
+        }
+    }
+
+    static Map<String, FoodItem> readCsv(BufferedReader in) throws IOException {
+        Map<String, FoodItem> menu = new LinkedHashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+
+            List<String> fields = splitCsv(line);
+            if (menu.isEmpty() && "name".equalsIgnoreCase(fields.get(0).trim())) continue;
+            if (fields.size() != 4) {
+                throw new IOException("menu line " + lineNumber + ": expected name,price,available,category");
+            }
+            try {
+                add(menu, fields.get(0), Double.parseDouble(fields.get(1).trim()),
+                        parseBoolean(fields.get(2)), fields.get(3));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("menu line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return menu;
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static Map<String, FoodItem> readJson(Reader in) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] chunk = new char[8192];
+        for (int n; (n = in.read(chunk)) > 0; ) text.append(chunk, 0, n);
+
+        Object root = new Json(text).parse();
+        if (root instanceof Map && ((Map<?, ?>) root).get("items") instanceof List) {
+            root = ((Map<?, ?>) root).get("items");
+        }
+        if (!(root instanceof List)) throw new IOException("menu.json must be an array of items");
+
+        Map<String, FoodItem> menu = new LinkedHashMap<>();
+        int index = 0;
+        for (Object element : (List<?>) root) {
+            index++;
+            if (!(element instanceof Map)) throw new IOException("menu item " + index + " is not an object");
+            Map<?, ?> item = (Map<?, ?>) element;
+            Object name = item.get("name");
+            Object price = item.get("price");
+            Object available = item.containsKey("available") ? item.get("available") : Boolean.TRUE;
+            Object category = item.get("category");
+            if (!(name instanceof String) || !(price instanceof Double)
+                    || !(available instanceof Boolean) || !(category instanceof String)) {
+                throw new IOException("menu item " + index + " needs name, price, available and category");
+            }
+            try {
+                add(menu, (String) name, (Double) price, (Boolean) available, (String) category);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("menu item " + index + ": " + e.getMessage(), e);
+            }
+        }
+        return menu;
+    }
+
+    private static void add(Map<String, FoodItem> menu, String name, double price, boolean available,
+                            String category) {
+        name = name.trim();
+        category = category.trim();
+        if (name.isEmpty() || category.isEmpty()) throw new IllegalArgumentException("name and category are required");
+        if (!(price >= 0)) throw new IllegalArgumentException("bad price for " + name);
+        menu.put(name, new FoodItem(name, price, available, category));
+    }
+
+    private static boolean parseBoolean(String value) {
+        String v = value.trim();
+        if (v.equalsIgnoreCase("true") || v.equalsIgnoreCase("yes") || v.equals("1")) return true;
+        if (v.equalsIgnoreCase("false") || v.equalsIgnoreCase("no") || v.equals("0")) return false;
+        throw new IllegalArgumentException("available must be true or false, not '" + v + "'");
+    }
+
+    /** Just enough JSON for a menu file: objects, arrays, strings, numbers, booleans, null. */
+    static final class Json {
+        private final CharSequence text;
+        private final String source;
+        private int pos;
+
+        Json(CharSequence text) {
+            this(text, "menu.json");
+        }
+
+        Json(CharSequence text, String source) {
+            this.text = text;
+            this.source = source;
+        }
+
+        Object parse() throws IOException {
+            Object value = value();
+            skipSpace();
+            if (pos != text.length()) throw error("trailing characters");
+            return value;
+        }
+
+        private Object value() throws IOException {
+            skipSpace();
+            if (pos >= text.length()) throw error("unexpected end");
+            char c = text.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default: return number();
+            }
+        }
+
+        private Map<String, Object> object() throws IOException {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipSpace();
+                if (peek() != '"') throw error("expected a key");
+                String key = string();
+                skipSpace();
+                expect(':');
+                map.put(key, value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> array() throws IOException {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return list;
+                }
+            }
+        }
+
+        private String string() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) break;
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("bad \\u escape");
+                        sb.append((char) Integer.parseInt(text.subSequence(pos, pos + 4).toString(), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Double number() throws IOException {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            try {
+                return Double.valueOf(text.subSequence(start, pos).toString());
+            } catch (NumberFormatException e) {
+                throw error("bad value");
+            }
+        }
+
+        private Object literal(String word, Object value) throws IOException {
+            if (pos + word.length() > text.length() || !word.contentEquals(text.subSequence(pos, pos + word.length()))) {
+                throw error("bad value");
+            }
+            pos += word.length();
+            return value;
+        }
+
+        private void expect(char c) throws IOException {
+            if (peek() != c) throw error("expected '" + c + "'");
+            pos++;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private IOException error(String message) {
+            return new IOException(source + ": " + message + " at character " + pos);
+        }
+    }
+}
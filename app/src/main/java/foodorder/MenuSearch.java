@@ -0,0 +1,494 @@
+package foodorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MenuSearch - Typeahead index over one MenuCatalog's item names.
+ * Names are split into lower-case words. A combo's contents, the "A + B + C" in its
+ * parentheses, are words of the combo too, but rank below words of its own name.
+ * The distinct words are kept sorted, each with the IDs of the items that use it, so
+ * whatever has been typed of a word finds every word it begins by binary search.
+ *
+ * To forgive typos every word is also indexed by its trigrams. A query word of four
+ * letters or more (eight for two typos) also matches words that begin within
+ * editsAllowed() of it - an insertion, deletion, substitution or swap of neighbours -
+ * looked for only among the words sharing enough trigrams with it.
+ *
+ * Every query word has to match, and items rank by how well they matched, then by
+ * popularity. Reading every item's popularity counter would cost more than the query
+ * itself, so the index ranks by a copy that is re-read in the background once it is
+ * POPULARITY_REFRESH_NANOS old. A query has a time budget: exact and prefix matches
+ * are always found, but the typo search stops once the budget is spent and the
+ * result says so. warmUp() runs throwaway queries so that the first real ones don't
+ * pay for the JIT, which would blow the budget many times over.
+ *
+ * The index is fixed once built, like the catalog. Queries may come from any thread.
+ * Each borrows its scratch arrays from a pool, so it allocates little beyond its result.
+ */
+class MenuSearch {
+
+    /** Time a query may take before the typo search is cut short (-Dfoodorder.search.budgetMicros). */
+    static final long BUDGET_NANOS =
+            TimeUnit.MICROSECONDS.toNanos(Long.getLong("foodorder.search.budgetMicros", 1000));
+
+    /** Age at which the popularity used for ranking is read again. */
+    static final long POPULARITY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** Most throwaway queries warmUp() runs, and the most time it takes. */
+    static final int WARM_UP_QUERIES = 2000;
+    static final long WARM_UP_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /** Query words after this many are ignored. */
+    static final int MAX_WORDS = 8;
+
+    // How well a query word matched; one less for a word of a combo's contents
+    private static final int EXACT = 6;
+    private static final int PREFIX = 4;
+    private static final int TYPO = 2;
+
+    // Ranking key: score (6 bits), popularity (32 bits), then lower IDs first (25 bits)
+    private static final int ID_BITS = 25;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    /** Best matches first, at most the limit asked for. */
+    static final class Result {
+        final int[] ids;
+        final int matches;                  // items that matched, before the limit
+        final boolean complete;             // false if the typo search ran out of time
+
+        Result(int[] ids, int matches, boolean complete) {
+            this.ids = ids;
+            this.matches = matches;
+            this.complete = complete;
+        }
+    }
+
+    /** Growable posting list used while building. */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int last() {
+            return size == 0 ? -1 : values[size - 1];
+        }
+    }
+
+    /** One thread's working arrays; stamps say which query an entry belongs to, so nothing is cleared. */
+    private static final class Scratch {
+        // Per item, side by side: the query it was last seen in, then the words it has
+        // matched so far << 16 | its best quality for the current word << 8 | its score
+        final int[] tally;
+        final int[] candidates;
+        int candidateCount;
+        int itemGeneration;
+
+        final int[] wordStamp;
+        final int[] shared;                 // trigrams the word shares with the query word
+        final int[] touched;
+        int wordGeneration;
+
+        final int[] matchWords;             // words matching the current query word
+        final int[] matchQuality;
+        int matchCount;
+
+        int[][] rows = new int[3][32];
+        long[] heap = new long[64];
+
+        Scratch(int items, int words) {
+            tally = new int[2 * items];
+            candidates = new int[items];
+            wordStamp = new int[words];
+            shared = new int[words];
+            touched = new int[words];
+            matchWords = new int[words];
+            matchQuality = new int[words];
+        }
+
+        int nextItemGeneration() {
+            if (++itemGeneration == Integer.MAX_VALUE) {
+                Arrays.fill(tally, 0);
+                itemGeneration = 1;
+            }
+            return itemGeneration;
+        }
+
+        int nextWordGeneration() {
+            if (++wordGeneration == Integer.MAX_VALUE) {
+                Arrays.fill(wordStamp, 0);
+                wordGeneration = 1;
+            }
+            return wordGeneration;
+        }
+
+        void addMatch(int word, int quality) {
+            matchWords[matchCount] = word;
+            matchQuality[matchCount++] = quality;
+        }
+    }
+
+    private final MenuCatalog catalog;
+    private final String[] words;           // distinct, sorted
+    private final int[] postingStart;       // per word into postings, plus one past the last
+    private final int[] postings;           // item ID << 1, | 1 if in combo contents; ascending per word
+    private final long[] trigrams;          // distinct, sorted
+    private final int[] trigramStart;
+    private final int[] trigramWords;       // indexes into words, ascending per trigram
+    private final Queue<Scratch> spareScratch = new ConcurrentLinkedQueue<>();
+    private volatile int[] popularity;      // per item, as of popularityReadAt
+    private volatile long popularityReadAt;
+    private final AtomicBoolean rereading = new AtomicBoolean();
+
+    /** Indexes every name in the catalog; for a snapshot-backed one, without building its items. */
+    MenuSearch(MenuCatalog catalog) {
+        if (catalog.size() > ID_MASK) throw new IllegalArgumentException("Menu too large to index");
+        this.catalog = catalog;
+
+        Map<String, IntList> byWord = new HashMap<>();
+        for (int id = 0; id < catalog.size(); id++) {
+            String name = catalog.nameOf(id);
+            int open = name.indexOf('(');
+            for (String word : split(name, 0, open < 0 ? name.length() : open, Integer.MAX_VALUE)) {
+                addPosting(byWord, word, id << 1);
+            }
+            if (open >= 0) {
+                for (String word : split(name, open + 1, name.length(), Integer.MAX_VALUE)) {
+                    addPosting(byWord, word, id << 1 | 1);
+                }
+            }
+        }
+        words = byWord.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+
+        postingStart = new int[words.length + 1];
+        for (int w = 0; w < words.length; w++) postingStart[w + 1] = postingStart[w] + byWord.get(words[w]).size;
+        postings = new int[postingStart[words.length]];
+        for (int w = 0; w < words.length; w++) {
+            IntList list = byWord.get(words[w]);
+            System.arraycopy(list.values, 0, postings, postingStart[w], list.size);
+        }
+
+        Map<Long, IntList> byTrigram = new HashMap<>();
+        for (int w = 0; w < words.length; w++) {
+            String padded = " " + words[w] + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                IntList list = byTrigram.computeIfAbsent(trigram(padded, i), k -> new IntList());
+                if (list.last() != w) list.add(w);
+            }
+        }
+        trigrams = new long[byTrigram.size()];
+        int t = 0;
+        for (long key : byTrigram.keySet()) trigrams[t++] = key;
+        Arrays.sort(trigrams);
+        trigramStart = new int[trigrams.length + 1];
+        for (t = 0; t < trigrams.length; t++) trigramStart[t + 1] = trigramStart[t] + byTrigram.get(trigrams[t]).size;
+        trigramWords = new int[trigramStart[trigrams.length]];
+        for (t = 0; t < trigrams.length; t++) {
+            IntList list = byTrigram.get(trigrams[t]);
+            System.arraycopy(list.values, 0, trigramWords, trigramStart[t], list.size);
+        }
+        readPopularity();
+    }
+
+    private void readPopularity() {
+        int[] next = new int[catalog.size()];
+        for (int id = 0; id < next.length; id++) next[id] = (int) Math.min(catalog.popularityOf(id), Integer.MAX_VALUE);
+        popularity = next;
+        popularityReadAt = System.nanoTime();
+    }
+
+    // The current copy; one past its age is re-read on the common pool, off the query's clock
+    private int[] popularity() {
+        if (System.nanoTime() - popularityReadAt > POPULARITY_REFRESH_NANOS && rereading.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    readPopularity();
+                } finally {
+                    rereading.set(false);
+                }
+            });
+        }
+        return popularity;
+    }
+
+    // Items come in ID order, so a repeat of the word in the same name is the last posting
+    private static void addPosting(Map<String, IntList> byWord, String word, int posting) {
+        IntList list = byWord.computeIfAbsent(word, k -> new IntList());
+        int last = list.last();
+        if (last >= 0 && last >>> 1 == posting >>> 1) {
+            if ((posting & 1) == 0) list.values[list.size - 1] = posting;    // the name itself wins
+            return;
+        }
+        list.add(posting);
+    }
+
+    /** The catalog the result IDs belong to. */
+    public MenuCatalog getCatalog() {
+        return catalog;
+    }
+
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * Runs throwaway queries - beginnings of the index's own words, some with a letter
+     * dropped, some after a whole word - until every path through search() has run
+     * WARM_UP_QUERIES times over, or WARM_UP_NANOS have gone by.
+     */
+    public void warmUp() {
+        if (words.length == 0) return;
+        Random random = new Random(words.length);
+        long start = System.nanoTime();
+        for (int i = 0; i < WARM_UP_QUERIES && System.nanoTime() - start < WARM_UP_NANOS; i++) {
+            String word = words[random.nextInt(words.length)];
+            String query = word.substring(0, 1 + random.nextInt(word.length()));
+            if (i % 3 == 0 && query.length() > 4) query = query.charAt(0) + query.substring(2);
+            if (i % 2 == 0) query = words[random.nextInt(words.length)] + " " + query;
+            search(query, 20, Long.MAX_VALUE);
+        }
+    }
+
+    /** The best limit items for what has been typed so far, within BUDGET_NANOS. */
+    public Result search(String query, int limit) {
+        return search(query, limit, BUDGET_NANOS);
+    }
+
+    public Result search(String query, int limit, long budgetNanos) {
+        long start = System.nanoTime();
+        List<String> queryWords = split(query, 0, query.length(), MAX_WORDS);
+        if (queryWords.isEmpty() || limit <= 0) return new Result(new int[0], 0, true);
+
+        Scratch s = spareScratch.poll();
+        if (s == null) s = new Scratch(catalog.size(), words.length);
+        try {
+            int generation = s.nextItemGeneration();
+            s.candidateCount = 0;
+            boolean complete = true;
+            for (int k = 0; k < queryWords.size(); k++) {
+                String q = queryWords.get(k);
+                s.matchCount = 0;
+                int w = lowerBound(q);
+                if (w < words.length && words[w].equals(q)) s.addMatch(w++, EXACT);
+                for (; w < words.length && words[w].startsWith(q); w++) s.addMatch(w, PREFIX);
+
+                int edits = editsAllowed(q.length());
+                if (edits > 0 && complete) complete = findTypos(q, edits, s, start, budgetNanos);
+                if (s.matchCount == 0) return new Result(new int[0], 0, complete);
+                collect(k, s, generation);
+            }
+            return rank(queryWords.size(), limit, s, complete);
+        } finally {
+            spareScratch.offer(s);
+        }
+    }
+
+    /** Typos forgiven in a query word of that length. */
+    static int editsAllowed(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    // Scores the items of every matching word; from the second query word on, only items that matched all before
+    private void collect(int k, Scratch s, int generation) {
+        for (int m = 0; m < s.matchCount; m++) {
+            int w = s.matchWords[m];
+            int quality = s.matchQuality[m];
+            for (int p = postingStart[w]; p < postingStart[w + 1]; p++) {
+                int id = postings[p] >>> 1;
+                int q = quality - (postings[p] & 1);
+                int slot = id << 1;
+                int tally;
+                if (s.tally[slot] != generation) {
+                    if (k > 0) continue;
+                    s.tally[slot] = generation;
+                    s.candidates[s.candidateCount++] = id;
+                    tally = 0;
+                } else {
+                    tally = s.tally[slot + 1];
+                    if (tally >>> 16 < k) continue;
+                }
+                int best = tally >>> 8 & 0xff;
+                int score = tally & 0xff;
+                if (tally >>> 16 == k) {
+                    s.tally[slot + 1] = (k + 1) << 16 | q << 8 | score + q;
+                } else if (q > best) {
+                    s.tally[slot + 1] = (k + 1) << 16 | q << 8 | score + q - best;
+                }
+            }
+        }
+    }
+
+    // Adds words q is a mistyped beginning of; false if the budget ran out first
+    private boolean findTypos(String q, int edits, Scratch s, long start, long budgetNanos) {
+        int generation = s.nextWordGeneration();
+        int touched = 0;
+        String padded = " " + q;
+        int trigramCount = padded.length() - 2;
+        for (int i = 0; i < trigramCount; i++) {
+            int t = Arrays.binarySearch(trigrams, trigram(padded, i));
+            if (t < 0 || repeats(padded, i)) continue;
+            for (int j = trigramStart[t]; j < trigramStart[t + 1]; j++) {
+                int w = trigramWords[j];
+                if (s.wordStamp[w] != generation) {
+                    s.wordStamp[w] = generation;
+                    s.shared[w] = 0;
+                    s.touched[touched++] = w;
+                }
+                s.shared[w]++;
+            }
+            if (System.nanoTime() - start > budgetNanos) return false;
+        }
+        // Each edit spoils at most three of the query's trigrams
+        int needed = Math.max(1, trigramCount - 3 * edits);
+        for (int i = 0; i < touched; i++) {
+            if ((i & 63) == 63 && System.nanoTime() - start > budgetNanos) return false;
+            int w = s.touched[i];
+            String word = words[w];
+            if (s.shared[w] < needed || word.length() < q.length() - edits || word.startsWith(q)) continue;
+            if (prefixDistance(q, word, edits, s) <= edits) s.addMatch(w, TYPO);
+        }
+        return true;
+    }
+
+    // A trigram already counted earlier in the same query word
+    private static boolean repeats(String padded, int i) {
+        for (int j = 0; j < i; j++) {
+            if (padded.regionMatches(j, padded, i, 3)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fewest edits (optimal string alignment: insert, delete, substitute, swap neighbours)
+     * turning q into some beginning of word, or max + 1 if more than max are needed.
+     */
+    private static int prefixDistance(String q, String word, int max, Scratch s) {
+        int n = q.length();
+        int m = Math.min(word.length(), n + max);
+        if (s.rows[0].length <= m) s.rows = new int[3][m + 1];
+        int[] before = s.rows[0];
+        int[] previous = s.rows[1];
+        int[] row = s.rows[2];
+        for (int j = 0; j <= m; j++) previous[j] = j;
+        for (int i = 1; i <= n; i++) {
+            char a = q.charAt(i - 1);
+            row[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                char b = word.charAt(j - 1);
+                int d = Math.min(Math.min(previous[j], row[j - 1]) + 1, previous[j - 1] + (a == b ? 0 : 1));
+                if (i > 1 && j > 1 && a == word.charAt(j - 2) && q.charAt(i - 2) == b) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                row[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = before;
+            before = previous;
+            previous = row;
+            row = t;
+        }
+        int best = max + 1;
+        for (int j = 0; j <= m; j++) best = Math.min(best, previous[j]);
+        return best;
+    }
+
+    // Keeps the best limit items that matched every query word in a min-heap of ranking keys
+    private Result rank(int queryWords, int limit, Scratch s, boolean complete) {
+        if (s.heap.length < limit) s.heap = new long[limit];
+        long[] heap = s.heap;
+        int[] popularity = popularity();
+        int size = 0;
+        int matches = 0;
+        for (int c = 0; c < s.candidateCount; c++) {
+            int id = s.candidates[c];
+            int tally = s.tally[(id << 1) + 1];
+            if (tally >>> 16 != queryWords) continue;
+            matches++;
+            long key = (long) (tally & 0xff) << (32 + ID_BITS)
+                    | (long) popularity[id] << ID_BITS
+                    | (ID_MASK - id);
+            if (size < limit) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = (int) (ID_MASK - (heap[size - 1 - i] & ID_MASK));
+        return new Result(ids, matches, complete);
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long key = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= key) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    // First word not before q
+    private int lowerBound(String q) {
+        int lo = 0;
+        int hi = words.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (words[mid].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long trigram(String s, int i) {
+        return (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+
+    /** Lower-case runs of letters and digits in text[from, to), at most max of them. */
+    static List<String> split(String text, int from, int to, int max) {
+        List<String> words = new ArrayList<>(4);
+        int i = from;
+        while (i < to && words.size() < max) {
+            while (i < to && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < to && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        return words;
+    }
+}
@@ -0,0 +1,234 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * MenuSnapshot - Pre-built binary menu that opens in constant time.
+ * The file is memory-mapped and never parsed as a whole: a catalog built on it reads
+ * category ranges and the availability bitset at open, then decodes single items and
+ * probes the stored name hash table on demand. Build one with
+ *
+ *   MenuSnapshot menu.csv [menu.snapshot]
+ *
+ * Layout (big-endian):
+ *   header      magic, version, item count, category count, hash table size,
+ *               offsets of the five sections below, file length
+ *   categories  per category: first ID, end ID, name offset, name length
+ *   records     per item: price in paise, name offset, name length, name hash
+ *   table       open-addressing hash table of item ID + 1 (0 = empty)
+ *   available   one bit per item, as BitSet.toLongArray()
+ *   names       UTF-8 names, back to back
+ */
+class MenuSnapshot {
+
+    private static final long MAGIC = 0x464F4F444D454E55L;         // "FOODMENU"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    private static final int CATEGORY_SIZE = 16;
+    private static final int RECORD_SIZE = 20;
+
+    private final ByteBuffer buf;
+    private final int size;
+    private final int categoryCount;
+    private final int tableMask;
+    private final int categoriesOffset;
+    private final int recordsOffset;
+    private final int tableOffset;
+    private final int availableOffset;
+    private final int namesOffset;
+
+    private MenuSnapshot(ByteBuffer buf) throws IOException {
+        if (buf.limit() < HEADER_SIZE || buf.getLong(0) != MAGIC) throw new IOException("Not a menu snapshot");
+        if (buf.getInt(8) != VERSION) throw new IOException("Unsupported menu snapshot version " + buf.getInt(8));
+        this.buf = buf;
+        size = buf.getInt(12);
+        categoryCount = buf.getInt(16);
+        tableMask = buf.getInt(20) - 1;
+        categoriesOffset = buf.getInt(24);
+        recordsOffset = buf.getInt(28);
+        tableOffset = buf.getInt(32);
+        availableOffset = buf.getInt(36);
+        namesOffset = buf.getInt(40);
+        if (buf.getInt(44) != buf.limit()) throw new IOException("Menu snapshot is truncated");
+    }
+
+    /** Maps a snapshot file. The mapping outlives the channel. */
+    static MenuSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException(file + " is too large to map");
+            return new MenuSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int categoryCount() {
+        return categoryCount;
+    }
+
+    public String categoryName(int c) {
+        int at = categoriesOffset + c * CATEGORY_SIZE;
+        return string(buf.getInt(at + 8), buf.getInt(at + 12));
+    }
+
+    public int categoryStart(int c) {
+        return buf.getInt(categoriesOffset + c * CATEGORY_SIZE);
+    }
+
+    public int categoryEnd(int c) {
+        return buf.getInt(categoriesOffset + c * CATEGORY_SIZE + 4);
+    }
+
+    /** Availability of every item as stored, one bit per ID. */
+    public BitSet availability() {
+        int words = (size + 63) / 64;
+        return BitSet.valueOf(buf.duplicate().position(availableOffset).limit(availableOffset + words * 8)
+                .slice().asLongBuffer());
+    }
+
+    public long pricePaise(int id) {
+        return buf.getLong(recordsOffset + id * RECORD_SIZE);
+    }
+
+    /** Decodes just the item's name. */
+    public String name(int id) {
+        int at = recordsOffset + id * RECORD_SIZE;
+        return string(buf.getInt(at + 8), buf.getInt(at + 12));
+    }
+
+    /** Decodes one item. Its availability comes from availability(). */
+    public FoodItem item(int id, String category) {
+        int at = recordsOffset + id * RECORD_SIZE;
+        long pricePaise = buf.getLong(at);
+        return new FoodItem(string(buf.getInt(at + 8), buf.getInt(at + 12)), pricePaise / 100.0, false, category);
+    }
+
+    /** ID of the named item, or -1. */
+    public int find(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int h = hash(bytes);
+        for (int i = h & tableMask; ; i = (i + 1) & tableMask) {
+            int slot = buf.getInt(tableOffset + i * 4);
+            if (slot == 0) return -1;
+            int at = recordsOffset + (slot - 1) * RECORD_SIZE;
+            if (buf.getInt(at + 16) == h && nameEquals(buf.getInt(at + 8), buf.getInt(at + 12), bytes)) {
+                return slot - 1;
+            }
+        }
+    }
+
+    private boolean nameEquals(int offset, int length, byte[] bytes) {
+        if (length != bytes.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (buf.get(namesOffset + offset + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buf.get(namesOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = 0x811c9dc5;                                 // FNV-1a
+        for (byte b : bytes) h = (h ^ (b & 0xff)) * 0x01000193;
+        return h;
+    }
+
+    /** Writes the catalog as a snapshot, via a temporary file so readers never see half of one. */
+    static void write(MenuCatalog catalog, Path file) throws IOException {
+        int size = catalog.size();
+        List<String> categories = catalog.categories();
+        byte[][] names = new byte[size][];
+        byte[][] categoryNames = new byte[categories.size()][];
+        int namesLength = 0;
+        for (int id = 0; id < size; id++) {
+            names[id] = catalog.get(id).getName().getBytes(StandardCharsets.UTF_8);
+            namesLength += names[id].length;
+        }
+        for (int c = 0; c < categoryNames.length; c++) {
+            categoryNames[c] = categories.get(c).getBytes(StandardCharsets.UTF_8);
+            namesLength += categoryNames[c].length;
+        }
+
+        int tableSize = Integer.highestOneBit(Math.max(4, size * 2) - 1) << 1;
+        int words = (size + 63) / 64;
+        int categoriesOffset = HEADER_SIZE;
+        int recordsOffset = categoriesOffset + categoryNames.length * CATEGORY_SIZE;
+        int tableOffset = recordsOffset + size * RECORD_SIZE;
+        int availableOffset = tableOffset + tableSize * 4;
+        int namesOffset = availableOffset + words * 8;
+        long total = (long) namesOffset + namesLength;
+        if (total > Integer.MAX_VALUE) throw new IOException("Menu too large for a snapshot");
+
+        ByteBuffer out = ByteBuffer.allocate((int) total);
+        out.putLong(0, MAGIC).putInt(8, VERSION).putInt(12, size).putInt(16, categoryNames.length)
+                .putInt(20, tableSize).putInt(24, categoriesOffset).putInt(28, recordsOffset)
+                .putInt(32, tableOffset).putInt(36, availableOffset).putInt(40, namesOffset)
+                .putInt(44, (int) total);
+
+        int nameAt = 0;
+        BitSet available = new BitSet(size);
+        for (int id = 0; id < size; id++) {
+            FoodItem item = catalog.get(id);
+            int h = hash(names[id]);
+            int at = recordsOffset + id * RECORD_SIZE;
+            out.putLong(at, item.getPricePaise()).putInt(at + 8, nameAt).putInt(at + 12, names[id].length)
+                    .putInt(at + 16, h);
+            out.put(namesOffset + nameAt, names[id]);
+            nameAt += names[id].length;
+
+            int i = h & (tableSize - 1);
+            while (out.getInt(tableOffset + i * 4) != 0) i = (i + 1) & (tableSize - 1);
+            out.putInt(tableOffset + i * 4, id + 1);
+            if (item.isAvailable()) available.set(id);
+        }
+        int start = 0;
+        for (int c = 0; c < categoryNames.length; c++) {
+            int end = start + catalog.itemsInCategory(categories.get(c)).length;
+            int at = categoriesOffset + c * CATEGORY_SIZE;
+            out.putInt(at, start).putInt(at + 4, end).putInt(at + 8, nameAt).putInt(at + 12, categoryNames[c].length);
+            out.put(namesOffset + nameAt, categoryNames[c]);
+            nameAt += categoryNames[c].length;
+            start = end;
+        }
+        long[] bits = available.toLongArray();
+        for (int w = 0; w < bits.length; w++) out.putLong(availableOffset + w * 8, bits[w]);
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: MenuSnapshot <menu.csv|menu.json> [menu.snapshot]");
+            return;
+        }
+        Path source = Paths.get(args[0]);
+        Path target = args.length > 1 ? Paths.get(args[1]) : source.resolveSibling(MenuLoader.SNAPSHOT);
+        long start = System.nanoTime();
+        MenuCatalog catalog = MenuLoader.load(source);
+        write(catalog, target);
+        System.out.printf("Wrote %d items in %d categories to %s in %d ms%n", catalog.size(),
+                catalog.categories().size(), target, (System.nanoTime() - start) / 1_000_000);
+    }
+}
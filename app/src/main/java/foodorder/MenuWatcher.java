@@ -0,0 +1,90 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MenuWatcher - Reloads the menu when menu.csv, menu.json or menu.snapshot changes.
+ * Watches the data directory on a daemon thread. Editors often save in several steps,
+ * so a change is acted on only once the directory has been quiet for SETTLE_MILLIS.
+ * A menu that fails to load, or that the pricing rules don't fit, is reported and the
+ * current one stays in service.
+ */
+class MenuWatcher implements AutoCloseable {
+
+    static final long SETTLE_MILLIS = 250;
+
+    private final Path dataDir;
+    private final OrderService service;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    MenuWatcher(Path dataDir, OrderService service) throws IOException {
+        this.dataDir = dataDir;
+        this.service = service;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        dataDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "menu-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!menuChanged(watcher.take())) continue;
+                WatchKey more;
+                while ((more = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    menuChanged(more);
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private static boolean menuChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else {
+                String name = event.context().toString();
+                changed |= name.equals(MenuLoader.CSV) || name.equals(MenuLoader.JSON) || name.equals(MenuLoader.SNAPSHOT);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /** Loads whichever menu file MenuLoader picks now and swaps it in. */
+    void reload() {
+        try {
+            Path file = MenuLoader.find(dataDir);
+            if (file == null) return;
+            MenuCatalog catalog = MenuLoader.load(file);
+            service.setMenu(catalog);
+            System.out.println("Menu reloaded from " + file + ": " + catalog.size() + " items");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Menu reload failed, keeping the current menu: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,236 @@
+package foodorder;
+
+import java.util.Arrays;
+
+/**
+ * Order - Line-item cart/order.
+ * One line per distinct item (catalog ID + quantity) held in primitive arrays, with an
+ * open-addressing index from item ID to line so add/remove are O(1). Totals are kept
+ * in paise to avoid floating point drift.
+ */
+class Order {
+    private final long orderId;
+    private FoodItem[] lineItems = new FoodItem[8];
+    private int[] quantities = new int[8];
+    private int lineCount;
+    private long totalPaise;
+    private int itemCount;              // units across all lines
+    private volatile OrderStatus status;
+
+    // item ID + 1 -> line index; 0 marks an empty slot
+    private int[] slotKeys = new int[16];
+    private int[] slotLines = new int[16];
+
+    public Order(long orderId) {
+        this.orderId = orderId;
+        status = OrderStatus.PLACED;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    /** Adds one unit; returns the line it landed on. */
+    public int addItem(FoodItem item) {
+        return addItem(item, 1);
+    }
+
+    /**
+     * Adds quantity units of an item; returns the line it landed on. Popularity is
+     * counted when the order is placed, not here.
+     */
+    public int addItem(FoodItem item, int quantity) {
+        int line = lineOf(item.getId());
+        if (line < 0) {
+            line = appendLine(item);
+        }
+        quantities[line] += quantity;
+        itemCount += quantity;
+        totalPaise += item.getPricePaise() * quantity;
+        return line;
+    }
+
+    /**
+     * Copy of this order on another catalog's items, matched by name; lines whose item
+     * is no longer on the menu are dropped.
+     */
+    Order rebase(MenuCatalog catalog) {
+        Order moved = new Order(orderId);
+        moved.status = status;
+        for (int line = 0; line < lineCount; line++) {
+            FoodItem item = catalog.byName(lineItems[line].getName());
+            if (item != null) moved.addItem(item, quantities[line]);
+        }
+        return moved;
+    }
+
+    /**
+     * Removes one unit of an item. Returns the affected line, or -1 if the item is not
+     * in the order. When the last unit goes, the final line is moved into its place.
+     */
+    public int removeItem(FoodItem item) {
+        int line = lineOf(item.getId());
+        if (line < 0) return -1;
+
+        totalPaise -= item.getPricePaise();
+        itemCount--;
+        if (--quantities[line] == 0) {
+            removeLine(line);
+        }
+        return line;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public FoodItem getLineItem(int line) {
+        return lineItems[line];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    /** Line index holding the item, or -1. */
+    public int lineOf(int itemId) {
+        int mask = slotKeys.length - 1;
+        for (int slot = mix(itemId) & mask; slotKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotKeys[slot] == itemId + 1) return slotLines[slot];
+        }
+        return -1;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public boolean isEmpty() {
+        return lineCount == 0;
+    }
+
+    public long getTotalPaise() {
+        return totalPaise;
+    }
+
+    public double getTotalAmount() {
+        return totalPaise / 100.0;
+    }
+
+    /**
+     * Moves the order one step along its lifecycle. Returns false, leaving it unchanged,
+     * unless next directly follows the current status.
+     */
+    public synchronized boolean advance(OrderStatus next) {
+        if (status.next() != next) return false;
+        status = next;
+        return true;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public String getOrderSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Order ID: ").append(orderId).append("\n");
+        for (int i = 0; i < lineCount; i++) {
+            sb.append(lineItems[i].getName()).append(" x ").append(quantities[i]).append(" ");
+        }
+        sb.append("\nTotal: Rs. ").append(formatPaise(totalPaise));
+        sb.append("\nStatus: ").append(status).append("\n");
+        return sb.toString();
+    }
+
+    /** Formats paise as rupees with two decimals, e.g. 12345 -> "123.45". */
+    static String formatPaise(long paise) {
+        long abs = Math.abs(paise);
+        long fraction = abs % 100;
+        return (paise < 0 ? "-" : "") + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    public void displayOrder() {
+        System.out.println(getOrderSummary());
+    }
+
+    public void clear() {
+        Arrays.fill(lineItems, 0, lineCount, null);
+        Arrays.fill(quantities, 0, lineCount, 0);
+        Arrays.fill(slotKeys, 0);
+        lineCount = 0;
+        itemCount = 0;
+        totalPaise = 0;
+        status = OrderStatus.PLACED;
+    }
+
+    private int appendLine(FoodItem item) {
+        if (item.getId() < 0) {
+            throw new IllegalArgumentException(item.getName() + " is not in the menu catalog");
+        }
+        if (lineCount == lineItems.length) {
+            lineItems = Arrays.copyOf(lineItems, lineCount * 2);
+            quantities = Arrays.copyOf(quantities, lineCount * 2);
+        }
+        if ((lineCount + 1) * 2 > slotKeys.length) {
+            rehash(slotKeys.length * 2);
+        }
+        int line = lineCount++;
+        lineItems[line] = item;
+        index(item.getId(), line);
+        return line;
+    }
+
+    private void removeLine(int line) {
+        unindex(lineItems[line].getId());
+        int last = --lineCount;
+        if (line != last) {
+            lineItems[line] = lineItems[last];
+            quantities[line] = quantities[last];
+            index(lineItems[line].getId(), line);
+        }
+        lineItems[last] = null;
+        quantities[last] = 0;
+    }
+
+    private void index(int itemId, int line) {
+        int mask = slotKeys.length - 1;
+        int slot = mix(itemId) & mask;
+        while (slotKeys[slot] != 0 && slotKeys[slot] != itemId + 1) {
+            slot = (slot + 1) & mask;
+        }
+        slotKeys[slot] = itemId + 1;
+        slotLines[slot] = line;
+    }
+
+    // Linear-probing delete: shift later entries of the cluster back into the hole
+    private void unindex(int itemId) {
+        int mask = slotKeys.length - 1;
+        int slot = mix(itemId) & mask;
+        while (slotKeys[slot] != itemId + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slotKeys[next] != 0; next = (next + 1) & mask) {
+            int home = mix(slotKeys[next] - 1) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slotKeys[hole] = slotKeys[next];
+                slotLines[hole] = slotLines[next];
+                hole = next;
+            }
+        }
+        slotKeys[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        slotKeys = new int[capacity];
+        slotLines = new int[capacity];
+        for (int i = 0; i < lineCount; i++) {
+            index(lineItems[i].getId(), i);
+        }
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,435 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * OrderArchive - Columnar, compressed history of closed days for fast range queries.
+ *
+ * One immutable file per day, archive/yyyy-MM-dd.col, written from the journal once the
+ * day is over. Orders are sorted by time and stored in blocks of BLOCK_ORDERS, each
+ * block column by column, every value a varint:
+ *   order columns  order ID (zigzag delta), placed time (delta), line count, total
+ *   line columns   item (index into the file's dictionary), quantity, line amount
+ * The file ends with the item dictionary (name and category), the category names and
+ * a block index: column offsets, order and line counts, min/max placed time, min/max
+ * order ID, and the block's revenue per category.
+ *
+ * A query only opens the days it covers. Blocks wholly inside the time range are
+ * answered from their index entry, blocks outside it are skipped, and only the ones
+ * straddling an end are decoded, so a year costs a few thousand index reads.
+ *
+ *   OrderArchive [--data .] --compact
+ *   OrderArchive [--data .] [--category Starters] --from 2025-10-01 --to 2026-09-30
+ */
+class OrderArchive {
+
+    static final int BLOCK_ORDERS = 4096;
+    private static final long MAGIC = 0x4F52444152434856L;          // "ORDARCHV"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int FOOTER_SIZE = 40;
+    private static final int COLUMNS = 7;
+    private static final String SUFFIX = ".col";
+
+    /** A day counts as over this long after midnight, so orders still queued for the journal make it in. */
+    static final long CLOSE_GRACE_MINUTES = 10;
+
+    /** One archived day, mapped. The index is read at open; the dictionary when first needed. */
+    private static final class Day {
+        final ByteBuffer buf;
+        final String[] categories;
+        final int blocks;
+        final int[] columns;                // COLUMNS offsets per block
+        final int[] orders;
+        final int[] lines;
+        final long[] minMillis;
+        final long[] maxMillis;
+        final long[] minId;
+        final long[] maxId;
+        final long[] revenue;               // per block, per category
+        private final int dictionaryOffset;
+        private final int itemCount;
+        private volatile int[] itemCategory;
+
+        Day(ByteBuffer buf, Path path) throws IOException {
+            int footer = buf.limit() - FOOTER_SIZE;
+            if (footer < HEADER_SIZE || buf.getLong(0) != MAGIC || buf.getLong(footer + 32) != MAGIC) {
+                throw new IOException(path + " is not an order archive");
+            }
+            if (buf.getInt(8) != VERSION) throw new IOException(path + ": unsupported archive version " + buf.getInt(8));
+            this.buf = buf;
+            dictionaryOffset = buf.getInt(footer);
+            int categoriesOffset = buf.getInt(footer + 4);
+            int indexOffset = buf.getInt(footer + 8);
+            blocks = buf.getInt(footer + 12);
+            itemCount = buf.getInt(footer + 16);
+            int categoryCount = buf.getInt(footer + 20);
+
+            ByteBuffer in = buf.duplicate().position(categoriesOffset);
+            categories = new String[categoryCount];
+            for (int c = 0; c < categoryCount; c++) {
+                categories[c] = readString(in);
+            }
+
+            columns = new int[blocks * COLUMNS];
+            orders = new int[blocks];
+            lines = new int[blocks];
+            minMillis = new long[blocks];
+            maxMillis = new long[blocks];
+            minId = new long[blocks];
+            maxId = new long[blocks];
+            revenue = new long[blocks * categoryCount];
+            in.position(indexOffset);
+            for (int b = 0; b < blocks; b++) {
+                for (int k = 0; k < COLUMNS; k++) columns[b * COLUMNS + k] = in.getInt();
+                orders[b] = in.getInt();
+                lines[b] = in.getInt();
+                minMillis[b] = in.getLong();
+                maxMillis[b] = in.getLong();
+                minId[b] = in.getLong();
+                maxId[b] = in.getLong();
+                for (int c = 0; c < categoryCount; c++) revenue[b * categoryCount + c] = in.getLong();
+            }
+        }
+
+        /** Category index of every dictionary item. */
+        int[] itemCategory() {
+            int[] result = itemCategory;
+            if (result == null) {
+                result = new int[itemCount];
+                ByteBuffer in = buf.duplicate().position(dictionaryOffset);
+                for (int i = 0; i < itemCount; i++) {
+                    int length = in.getShort() & 0xffff;
+                    in.position(in.position() + length);
+                    result[i] = (int) OrderStore.readVarint(in);
+                }
+                itemCategory = result;
+            }
+            return result;
+        }
+
+        /** Adds the block's revenue per category for orders placed in [from, to) into sums. */
+        void scanBlock(int b, long from, long to, long[] sums) {
+            int[] categoryOf = itemCategory();
+            ByteBuffer times = buf.duplicate().position(columns[b * COLUMNS + 1]);
+            ByteBuffer counts = buf.duplicate().position(columns[b * COLUMNS + 2]);
+            ByteBuffer items = buf.duplicate().position(columns[b * COLUMNS + 4]);
+            ByteBuffer amounts = buf.duplicate().position(columns[b * COLUMNS + 6]);
+            long millis = 0;
+            for (int i = 0; i < orders[b]; i++) {
+                millis += unzigzag(OrderStore.readVarint(times));
+                int n = (int) OrderStore.readVarint(counts);
+                boolean in = millis >= from && millis < to;
+                for (int line = 0; line < n; line++) {
+                    int item = (int) OrderStore.readVarint(items);
+                    long paise = OrderStore.readVarint(amounts);
+                    if (in) sums[categoryOf[item]] += paise;
+                }
+            }
+        }
+    }
+
+    private final Path directory;
+    private final ZoneId zone;
+    private final ConcurrentHashMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+
+    OrderArchive(Path directory, ZoneId zone) {
+        this.directory = directory;
+        this.zone = zone;
+    }
+
+    static OrderArchive open(Path dataDir) throws IOException {
+        Path directory = dataDir.resolve("archive");
+        Files.createDirectories(directory);
+        return new OrderArchive(directory, ZoneId.systemDefault());
+    }
+
+    Path file(LocalDate day) {
+        return directory.resolve(day + SUFFIX);
+    }
+
+    public boolean contains(LocalDate day) {
+        return days.containsKey(day) || Files.exists(file(day));
+    }
+
+    /** The first day that isn't over yet; see CLOSE_GRACE_MINUTES. */
+    static LocalDate firstOpenDay() {
+        return LocalDateTime.now().minusMinutes(CLOSE_GRACE_MINUTES).toLocalDate();
+    }
+
+    /**
+     * Archives every journalled day before the given one that isn't archived yet, with
+     * item categories from categoryOf (null: no longer on the menu). Returns the days written.
+     * Reads the journal without recovering it, so it may run beside the live service.
+     */
+    public List<LocalDate> compact(OrderJournal journal, Function<String, String> categoryOf, LocalDate before)
+            throws IOException {
+        List<LocalDate> written = new ArrayList<>();
+        for (LocalDate day : journal.days()) {
+            if (!day.isBefore(before) || contains(day)) continue;
+            List<OrderJournal.Entry> entries = new ArrayList<>();
+            journal.replay(day, entries::add);
+            if (entries.isEmpty()) continue;
+            write(file(day), entries, categoryOf);
+            written.add(day);
+        }
+        return written;
+    }
+
+    /** Writes one day's orders as an archive file, via a temporary file. */
+    static void write(Path file, List<OrderJournal.Entry> entries, Function<String, String> categoryOf)
+            throws IOException {
+        OrderJournal.Entry[] sorted = entries.toArray(new OrderJournal.Entry[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(e -> e.epochMillis));
+
+        Map<String, Integer> items = new LinkedHashMap<>();
+        Map<String, Integer> categories = new LinkedHashMap<>();
+        List<Integer> itemCategories = new ArrayList<>();
+        long bound = HEADER_SIZE + FOOTER_SIZE;
+        for (OrderJournal.Entry e : sorted) {
+            bound += 4 * 10;
+            for (String name : e.itemNames) {
+                bound += 3 * 10;
+                if (items.containsKey(name)) continue;
+                String category = categoryOf.apply(name);
+                if (category == null) category = "Unknown";
+                Integer c = categories.get(category);
+                if (c == null) {
+                    c = categories.size();
+                    categories.put(category, c);
+                    bound += 2 + 3L * category.length();
+                }
+                items.put(name, items.size());
+                itemCategories.add(c);
+                bound += 2 + 3L * name.length() + 5;
+            }
+        }
+        int blocks = (sorted.length + BLOCK_ORDERS - 1) / BLOCK_ORDERS;
+        bound += (long) blocks * (COLUMNS * 4 + 8 + 32 + 8L * categories.size());
+        if (bound > Integer.MAX_VALUE) throw new IOException("Too many orders for one archive file");
+
+        ByteBuffer out = ByteBuffer.allocate((int) bound);
+        out.putLong(MAGIC).putInt(VERSION);
+        int[] columns = new int[blocks * COLUMNS];
+        long[][] index = new long[blocks][];
+        long[][] revenue = new long[blocks][categories.size()];
+        for (int b = 0; b < blocks; b++) {
+            int from = b * BLOCK_ORDERS;
+            int to = Math.min(sorted.length, from + BLOCK_ORDERS);
+            long minId = Long.MAX_VALUE;
+            long maxId = Long.MIN_VALUE;
+            int lineCount = 0;
+            for (int k = 0; k < COLUMNS; k++) {
+                columns[b * COLUMNS + k] = out.position();
+                long previous = 0;
+                for (int i = from; i < to; i++) {
+                    OrderJournal.Entry e = sorted[i];
+                    switch (k) {
+                        case 0:
+                            OrderStore.writeVarint(out, zigzag(e.orderId - previous));
+                            previous = e.orderId;
+                            minId = Math.min(minId, e.orderId);
+                            maxId = Math.max(maxId, e.orderId);
+                            break;
+                        case 1:
+                            OrderStore.writeVarint(out, zigzag(e.epochMillis - previous));
+                            previous = e.epochMillis;
+                            break;
+                        case 2:
+                            OrderStore.writeVarint(out, e.itemNames.length);
+                            lineCount += e.itemNames.length;
+                            break;
+                        case 3:
+                            OrderStore.writeVarint(out, e.totalPaise);
+                            break;
+                        default:
+                            for (int line = 0; line < e.itemNames.length; line++) {
+                                int item = items.get(e.itemNames[line]);
+                                if (k == 4) {
+                                    OrderStore.writeVarint(out, item);
+                                } else if (k == 5) {
+                                    OrderStore.writeVarint(out, e.quantities[line]);
+                                } else {
+                                    OrderStore.writeVarint(out, e.linePaise[line]);
+                                    revenue[b][itemCategories.get(item)] += e.linePaise[line];
+                                }
+                            }
+                    }
+                }
+            }
+            index[b] = new long[] {to - from, lineCount, sorted[from].epochMillis, sorted[to - 1].epochMillis,
+                    minId, maxId};
+        }
+
+        int dictionaryOffset = out.position();
+        int i = 0;
+        for (String name : items.keySet()) {
+            putString(out, name);
+            OrderStore.writeVarint(out, itemCategories.get(i++));
+        }
+        int categoriesOffset = out.position();
+        for (String category : categories.keySet()) putString(out, category);
+        int indexOffset = out.position();
+        for (int b = 0; b < blocks; b++) {
+            for (int k = 0; k < COLUMNS; k++) out.putInt(columns[b * COLUMNS + k]);
+            out.putInt((int) index[b][0]).putInt((int) index[b][1]);
+            for (int k = 2; k < 6; k++) out.putLong(index[b][k]);
+            for (long r : revenue[b]) out.putLong(r);
+        }
+        out.putInt(dictionaryOffset).putInt(categoriesOffset).putInt(indexOffset).putInt(blocks)
+                .putInt(items.size()).putInt(categories.size()).putLong(0).putLong(MAGIC);
+        out.flip();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** The archived day, or null if it has no archive file. */
+    private Day day(LocalDate date) throws IOException {
+        Day day = days.get(date);
+        if (day != null) return day;
+        Path path = file(date);
+        if (!Files.exists(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            day = new Day(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path);
+        }
+        Day raced = days.putIfAbsent(date, day);
+        return raced != null ? raced : day;
+    }
+
+    /** Line revenue (before tax and discounts) of the category's items on the days from..to inclusive. */
+    public long revenue(String category, LocalDate from, LocalDate to) throws IOException {
+        Long sum = revenueByCategory(from, to).get(category);
+        return sum == null ? 0 : sum;
+    }
+
+    /** Line revenue per category on the days from..to inclusive. */
+    public Map<String, Long> revenueByCategory(LocalDate from, LocalDate to) throws IOException {
+        return revenueByCategory(from.atStartOfDay(zone).toInstant().toEpochMilli(),
+                to.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+
+    /** Line revenue of the category's items in orders placed in [fromMillis, toMillis). */
+    public long revenue(String category, long fromMillis, long toMillis) throws IOException {
+        Long sum = revenueByCategory(fromMillis, toMillis).get(category);
+        return sum == null ? 0 : sum;
+    }
+
+    /** Line revenue per category in orders placed in [fromMillis, toMillis), categories by name. */
+    public Map<String, Long> revenueByCategory(long fromMillis, long toMillis) throws IOException {
+        Map<String, Long> totals = new TreeMap<>();
+        if (fromMillis >= toMillis) return totals;
+        LocalDate last = Instant.ofEpochMilli(toMillis - 1).atZone(zone).toLocalDate();
+        for (LocalDate date = Instant.ofEpochMilli(fromMillis).atZone(zone).toLocalDate();
+             !date.isAfter(last); date = date.plusDays(1)) {
+            Day day = day(date);
+            if (day == null) continue;
+            long[] sums = new long[day.categories.length];
+            int c = sums.length;
+            for (int b = 0; b < day.blocks; b++) {
+                if (day.maxMillis[b] < fromMillis || day.minMillis[b] >= toMillis) continue;
+                if (day.minMillis[b] >= fromMillis && day.maxMillis[b] < toMillis) {
+                    for (int k = 0; k < c; k++) sums[k] += day.revenue[b * c + k];
+                } else {
+                    day.scanBlock(b, fromMillis, toMillis, sums);
+                }
+            }
+            for (int k = 0; k < c; k++) {
+                if (sums[k] != 0) totals.merge(day.categories[k], sums[k], Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xffff];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path data = Paths.get(".");
+        String category = null;
+        LocalDate from = null;
+        LocalDate to = null;
+        boolean compact = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data": data = Paths.get(args[++i]); break;
+                case "--category": category = args[++i]; break;
+                case "--from": from = LocalDate.parse(args[++i]); break;
+                case "--to": to = LocalDate.parse(args[++i]); break;
+                case "--compact": compact = true; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (!compact && (from == null || to == null)) {
+            System.err.println("Usage: OrderArchive [--data dir] --compact");
+            System.err.println("       OrderArchive [--data dir] [--category name] --from yyyy-MM-dd --to yyyy-MM-dd");
+            return;
+        }
+
+        OrderArchive archive = open(data);
+        if (compact) {
+            MenuCatalog catalog = MenuLoader.loadOrBundled(data);
+            try (OrderJournal journal = OrderJournal.open(data.resolve("journal"))) {
+                long start = System.nanoTime();
+                List<LocalDate> written = archive.compact(journal, name -> {
+                    FoodItem item = catalog.byName(name);
+                    return item == null ? null : item.getCategory();
+                }, firstOpenDay());
+                System.out.printf("Archived %d days in %d ms%n", written.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+            if (from == null || to == null) return;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Long> totals = archive.revenueByCategory(from, to);
+        double millis = (System.nanoTime() - start) / 1e6;
+        for (Map.Entry<String, Long> e : totals.entrySet()) {
+            if (category == null || category.equals(e.getKey())) {
+                System.out.printf("%-16s Rs. %s%n", e.getKey(), Order.formatPaise(e.getValue()));
+            }
+        }
+        System.out.printf("%s to %s in %.2f ms%n", from, to, millis);
+    }
+}
@@ -0,0 +1,744 @@
+package foodorder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * OrderHttpServer - Embedded JSON API for kiosks and the web front end.
+ * Backed by the same OrderService as the Swing UI, so menu, carts and billing are shared.
+ *
+ *   GET    /menu                          categories
+ *   GET    /menu?category=Starters        items in a category
+ *   GET    /menu?q=paner tik[&limit=20]   typeahead search over every item, best first (see MenuSearch)
+ *   GET    /cart/{session}                cart contents and total
+ *   DELETE /cart/{session}                drop the cart, putting its stock back
+ *   POST   /cart/{session}/items/{id}     add one unit of an item
+ *   DELETE /cart/{session}/items/{id}     remove one unit
+ *   POST   /cart/{session}/coupons/{code} apply a coupon at checkout
+ *   POST   /cart/{session}/checkout       place the order and return the bill; 429 or 503 with
+ *                                        Retry-After when admission control turns it away
+ *   GET    /cart/{session}/suggestions    items often bought with the cart's (?instead={id}: in place of that item)
+ *   GET    /orders/{id}                   any order by ID, open, placed or archived
+ *   GET    /sales?from=2026-01-01&to=2026-03-31[&category=Starters]
+ *                                        archived line revenue per category over whole days
+ *   GET    /replication                   this terminal's node, peers and events exchanged
+ *
+ * Staff routes, with "Authorization: Bearer {token}" for the configured admin token
+ * (403 when none is configured, 401 for a wrong one):
+ *   POST   /admin/menu/items/{id}?available=false  take an item off (or back on) the menu, on every terminal
+ *   POST   /admin/orders/{id}/serve       hand a READY order over at the counter
+ *   GET    /admin/stock                   tracked items: portions free and sold
+ *   POST   /admin/stock                   restock; body is name,quantity lines, applied as one batch
+ * and kitchen displays, when the service has its kitchen enabled:
+ *   GET    /admin/kitchen                 stations and their queues
+ *   POST   /admin/kitchen/{station}/next  the next task for a cook at the station (204 if none)
+ *   POST   /admin/kitchen/tasks/{taskId}/done  mark a task cooked
+ *
+ * Menu responses carry menuVersion. Item IDs are positions in one version of the menu;
+ * adding ?menu={version} to an item request gets 409 instead of the wrong item once the
+ * menu has been reloaded. Adding an unavailable item gets 409 with "suggestions" to offer instead.
+ * Checkouts are the API channel of AdmissionControl, limited per client address.
+ *
+ * A handler that fails answers 500 rather than dropping the connection.
+ * Each request runs on its own virtual thread when the JDK has them (21+); older JDKs
+ * fall back to a cached platform-thread pool.
+ */
+class OrderHttpServer implements AutoCloseable {
+
+    static final int SUGGESTIONS = 5;
+
+    /** Search results returned unless ?limit= asks otherwise, and the most it may ask for. */
+    static final int SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 200;
+
+    private final OrderService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] adminAuthorization;    // expected Authorization header; null: no staff routes
+
+    /** On loopback, with the admin token from -Dfoodorder.http.adminToken if set. */
+    OrderHttpServer(OrderService service, int port) throws IOException {
+        this(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                System.getProperty("foodorder.http.adminToken"));
+    }
+
+    OrderHttpServer(OrderService service, InetSocketAddress address, String adminToken) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(address, 1024);
+        this.executor = newRequestExecutor();
+        this.adminAuthorization = adminToken == null || adminToken.isEmpty() ? null
+                : ("Bearer " + adminToken).getBytes(StandardCharsets.UTF_8);
+        server.createContext("/menu", guard(this::handleMenu));
+        server.createContext("/cart/", guard(this::handleCart));
+        server.createContext("/orders/", guard(this::handleOrder));
+        server.createContext("/sales", guard(this::handleSales));
+        server.createContext("/replication", guard(this::handleReplication));
+        server.createContext("/admin/", guard(this::handleAdmin));
+        server.setExecutor(executor);
+        // Have the search index ready before the first ?q= needs it
+        service.addMenuListener(next -> executor.execute(next::search));
+    }
+
+    public void start() {
+        server.start();
+        executor.execute(service.getCatalog()::search);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * The JDK server drops keep-alive connections beyond 200 idle ones by default, which
+     * makes clients reusing pooled connections fail. Must run before the first server is
+     * created; an explicit -D setting wins.
+     */
+    static void keepIdleConnections(int count) {
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", Integer.toString(count));
+        }
+    }
+
+    /** One virtual thread per request where available, otherwise a cached pool. */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "order-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /** Closes each exchange, answering 500 first if the handler failed before responding. */
+    private static HttpHandler guard(HttpHandler handler) {
+        return exchange -> {
+            try (exchange) {
+                try {
+                    handler.handle(exchange);
+                } catch (RuntimeException e) {
+                    System.err.println(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed:");
+                    e.printStackTrace();
+                    if (exchange.getResponseCode() == -1) send(exchange, 500, error("Internal error"));
+                }
+            }
+        };
+    }
+
+    private void handleAdmin(HttpExchange exchange) throws IOException {
+        if (adminAuthorization == null) {
+            send(exchange, 403, error("Staff routes need foodorder.http.adminToken"));
+            return;
+        }
+        String given = exchange.getRequestHeaders().getFirst("Authorization");
+        if (given == null || !MessageDigest.isEqual(adminAuthorization, given.getBytes(StandardCharsets.UTF_8))) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            send(exchange, 401, error("Wrong or missing admin token"));
+            return;
+        }
+        // The same routes as before they moved under /admin
+        String[] parts = exchange.getRequestURI().getPath().substring("/admin".length()).split("/");
+        switch (parts.length > 1 ? parts[1] : "") {
+            case "menu":
+                handleMenuItem(exchange, parts);
+                break;
+            case "orders":
+                handleServe(exchange, parts);
+                break;
+            case "stock":
+                handleStock(exchange, parts);
+                break;
+            case "kitchen":
+                handleKitchen(exchange, parts);
+                break;
+            default:
+                send(exchange, 404, error("Not found"));
+        }
+    }
+
+    private void handleMenu(HttpExchange exchange) throws IOException {
+        String[] parts = exchange.getRequestURI().getPath().split("/");
+        if (parts.length > 2) {
+            send(exchange, 404, error("Not found"));
+            return;
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        String search = queryParam(exchange, "q");
+        if (search != null) {
+            handleSearch(exchange, search);
+            return;
+        }
+        String category = queryParam(exchange, "category");
+        MenuCatalog catalog = service.getCatalog();
+        StringBuilder json = new StringBuilder(256);
+
+        json.append("{\"menuVersion\":").append(catalog.getVersion());
+        if (category == null) {
+            json.append(",\"categories\":[");
+            int i = 0;
+            for (String c : catalog.categories()) {
+                if (i++ > 0) json.append(',');
+                appendString(json, c);
+            }
+            json.append("]}");
+        } else {
+            json.append(",\"category\":");
+            appendString(json, category);
+            json.append(",\"items\":[");
+            int[] ids = catalog.itemsInCategory(category);
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) json.append(',');
+                appendItem(json, catalog.get(ids[i]));
+            }
+            json.append("]}");
+        }
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleSearch(HttpExchange exchange, String query) throws IOException {
+        String limitParam = queryParam(exchange, "limit");
+        int limit;
+        try {
+            limit = limitParam == null ? SEARCH_LIMIT : Math.min(MAX_SEARCH_LIMIT, Integer.parseInt(limitParam));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("Limit must be a number"));
+            return;
+        }
+        MenuCatalog catalog = service.getCatalog();
+        long start = System.nanoTime();
+        MenuSearch.Result result = catalog.search().search(query, limit);
+        service.getMetrics().record(OrderMetrics.Stage.SEARCH, start);
+
+        StringBuilder json = new StringBuilder(128 + result.ids.length * 64);
+        json.append("{\"menuVersion\":").append(catalog.getVersion()).append(",\"query\":");
+        appendString(json, query);
+        json.append(",\"matches\":").append(result.matches)
+                .append(",\"complete\":").append(result.complete)
+                .append(",\"items\":[");
+        for (int i = 0; i < result.ids.length; i++) {
+            if (i > 0) json.append(',');
+            appendItem(json, catalog.get(result.ids[i]));
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    private void handleMenuItem(HttpExchange exchange, String[] parts) throws IOException {
+        // /menu/items/{id}?available=true|false
+        if (parts.length != 4 || !"items".equals(parts[2])) {
+            send(exchange, 404, error("Not found"));
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        String available = queryParam(exchange, "available");
+        if (!"true".equals(available) && !"false".equals(available)) {
+            send(exchange, 400, error("available must be true or false"));
+            return;
+        }
+        MenuCatalog catalog = service.getCatalog();
+        int id;
+        try {
+            id = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("Item id must be a number"));
+            return;
+        }
+        String menu = queryParam(exchange, "menu");
+        if (menu != null && !menu.equals(Long.toString(catalog.getVersion()))) {
+            send(exchange, 409, error("The menu has changed, please reload it"));
+            return;
+        }
+        if (id < 0 || id >= catalog.size()
+                || !service.setAvailable(catalog.get(id).getName(), Boolean.parseBoolean(available))) {
+            send(exchange, 404, error("No such item"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(128).append("{\"menuVersion\":").append(catalog.getVersion())
+                .append(",\"item\":");
+        appendItem(json, catalog.get(id));
+        send(exchange, 200, json.append('}').toString());
+    }
+
+    private void handleCart(HttpExchange exchange) throws IOException {
+        // /cart/{session}[/items/{id} | /coupons/{code} | /checkout | /suggestions]
+        String[] parts = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        if (parts.length < 3 || parts[2].isEmpty()) {
+            send(exchange, 404, error("Missing session"));
+            return;
+        }
+        String session = parts[2];
+
+        if (parts.length == 3 && "GET".equals(method)) {
+            send(exchange, 200, cartJson(session));
+        } else if (parts.length == 3 && "DELETE".equals(method)) {
+            service.discardCart(session);
+            exchange.sendResponseHeaders(204, -1);
+        } else if (parts.length == 5 && "items".equals(parts[3])) {
+            handleCartItem(exchange, method, session, parts[4]);
+        } else if (parts.length == 5 && "coupons".equals(parts[3]) && "POST".equals(method)) {
+            if (service.applyCoupon(session, parts[4])) {
+                send(exchange, 200, cartJson(session));
+            } else {
+                send(exchange, 404, error("No such coupon"));
+            }
+        } else if (parts.length == 4 && "checkout".equals(parts[3]) && "POST".equals(method)) {
+            handleCheckout(exchange, session);
+        } else if (parts.length == 4 && "suggestions".equals(parts[3]) && "GET".equals(method)) {
+            MenuCatalog catalog = service.getCatalog();
+            String instead = queryParam(exchange, "instead");
+            int id;
+            try {
+                id = instead == null ? -1 : Integer.parseInt(instead);
+            } catch (NumberFormatException e) {
+                send(exchange, 400, error("Item id must be a number"));
+                return;
+            }
+            if (instead != null && (id < 0 || id >= catalog.size())) {
+                send(exchange, 404, error("No such item"));
+                return;
+            }
+            List<FoodItem> items = instead == null ? service.suggestWith(session, SUGGESTIONS)
+                    : service.suggestInstead(session, catalog.get(id).getName(), SUGGESTIONS);
+            StringBuilder json = new StringBuilder(256).append("{\"menuVersion\":").append(catalog.getVersion());
+            appendSuggestions(json, items);
+            send(exchange, 200, json.append('}').toString());
+        } else {
+            send(exchange, 404, error("Not found"));
+        }
+    }
+
+    private void handleCartItem(HttpExchange exchange, String method, String session, String itemId)
+            throws IOException {
+        int id;
+        try {
+            id = Integer.parseInt(itemId);
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("Item id must be a number"));
+            return;
+        }
+        // Item IDs belong to one menu version; clients that send ?menu= learn when it changed
+        MenuCatalog catalog = service.getCatalog();
+        String menu = queryParam(exchange, "menu");
+        if (menu != null && !menu.equals(Long.toString(catalog.getVersion()))) {
+            send(exchange, 409, error("The menu has changed, please reload it"));
+            return;
+        }
+
+        if ("POST".equals(method)) {
+            OrderService.AddResult result = service.addItem(session, catalog, id);
+            switch (result) {
+                case ADDED:
+                    send(exchange, 200, cartJson(session));
+                    break;
+                case UNAVAILABLE:
+                    String name = catalog.get(id).getName();
+                    StringBuilder json = new StringBuilder(256).append("{\"error\":");
+                    appendString(json, name + " is currently unavailable");
+                    appendSuggestions(json, service.suggestInstead(session, name, SUGGESTIONS));
+                    send(exchange, 409, json.append('}').toString());
+                    break;
+                default:
+                    send(exchange, 404, error("No such item"));
+            }
+        } else if ("DELETE".equals(method)) {
+            if (id >= 0 && id < catalog.size() && service.removeItem(session, catalog.get(id).getName())) {
+                send(exchange, 200, cartJson(session));
+            } else {
+                send(exchange, 404, error("Item is not in the cart"));
+            }
+        } else {
+            send(exchange, 405, error("Method not allowed"));
+        }
+    }
+
+    private void handleCheckout(HttpExchange exchange, String session) throws IOException {
+        // Headers and sessions are the client's to choose, so its bucket is its address
+        String terminal = exchange.getRemoteAddress().getAddress().getHostAddress();
+        OrderService.Placement placement;
+        try {
+            placement = service.placeOrder(session, AdmissionControl.Channel.API, terminal);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, error("Interrupted while logging the order"));
+            return;
+        }
+        if (placement == null) {
+            send(exchange, 409, error("Cart is empty"));
+            return;
+        }
+        if (!placement.isPlaced()) {
+            AdmissionControl.Decision decision = placement.decision;
+            exchange.getResponseHeaders().set("Retry-After", Long.toString(decision.getWaitSeconds()));
+            StringBuilder json = new StringBuilder(128).append("{\"error\":");
+            appendString(json, decision.reason + ", please try again in " + decision.describeWait());
+            json.append(",\"retryAfterSeconds\":").append(decision.getWaitSeconds()).append('}');
+            send(exchange, decision.outcome == AdmissionControl.Outcome.RATE_LIMITED ? 429 : 503, json.toString());
+            return;
+        }
+        OrderService.Bill bill = placement.bill;
+
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"orderId\":").append(bill.order.getOrderId())
+                .append(",\"subtotal\":").append(Order.formatPaise(bill.subtotalPaise))
+                .append(",\"promotions\":").append(Order.formatPaise(bill.promotionPaise))
+                .append(",\"tax\":").append(Order.formatPaise(bill.taxPaise))
+                .append(",\"discount\":").append(Order.formatPaise(bill.discountPaise))
+                .append(",\"total\":").append(Order.formatPaise(bill.finalPaise));
+        appendEta(json, bill.order.getOrderId());
+        json.append('}');
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleOrder(HttpExchange exchange) throws IOException {
+        // /orders/{id}
+        String[] parts = exchange.getRequestURI().getPath().split("/");
+        if (parts.length != 3) {
+            send(exchange, 404, error("Not found"));
+            return;
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        long id;
+        try {
+            id = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("Order id must be a number"));
+            return;
+        }
+        sendOrder(exchange, id);
+    }
+
+    private void handleServe(HttpExchange exchange, String[] parts) throws IOException {
+        // /orders/{id}/serve
+        if (parts.length != 4 || !"serve".equals(parts[3])) {
+            send(exchange, 404, error("Not found"));
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        long id;
+        try {
+            id = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("Order id must be a number"));
+            return;
+        }
+        Kitchen kitchen = service.getKitchen();
+        if (kitchen == null || !kitchen.serve(id)) {
+            send(exchange, 409, error("Order is not ready to serve"));
+            return;
+        }
+        sendOrder(exchange, id);
+    }
+
+    private void sendOrder(HttpExchange exchange, long id) throws IOException {
+        OrderRegistry.Record order = service.findOrder(id);
+        if (order == null) {
+            send(exchange, 404, error("No such order"));
+            return;
+        }
+
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"orderId\":").append(order.orderId).append(",\"status\":");
+        appendString(json, order.placedMillis == 0 ? "IN_CART" : order.status);
+        if (order.placedMillis != 0) json.append(",\"placedAt\":").append(order.placedMillis);
+        appendEta(json, id);
+        json.append(",\"items\":[");
+        for (int i = 0; i < order.itemNames.length; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"name\":");
+            appendString(json, order.itemNames[i]);
+            json.append(",\"quantity\":").append(order.quantities[i])
+                    .append(",\"amount\":").append(Order.formatPaise(order.linePaise[i])).append('}');
+        }
+        json.append("],\"subtotal\":").append(Order.formatPaise(order.totalPaise))
+                .append(",\"total\":").append(Order.formatPaise(order.finalPaise)).append('}');
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleKitchen(HttpExchange exchange, String[] parts) throws IOException {
+        Kitchen kitchen = service.getKitchen();
+        if (kitchen == null) {
+            send(exchange, 503, error("The kitchen is not enabled"));
+            return;
+        }
+        // /kitchen | /kitchen/{station}/next | /kitchen/tasks/{taskId}/done
+        String method = exchange.getRequestMethod();
+
+        if (parts.length == 2 && "GET".equals(method)) {
+            StringBuilder json = new StringBuilder(128).append("{\"openOrders\":").append(kitchen.getOpenTickets())
+                    .append(",\"stations\":[");
+            int i = 0;
+            for (Kitchen.Station station : kitchen.getStations()) {
+                if (i++ > 0) json.append(',');
+                json.append("{\"name\":");
+                appendString(json, station.name);
+                json.append(",\"cooks\":").append(station.cooks)
+                        .append(",\"queued\":").append(station.getQueued()).append('}');
+            }
+            send(exchange, 200, json.append("]}").toString());
+        } else if (parts.length == 4 && "next".equals(parts[3]) && "POST".equals(method)) {
+            String station = URLDecoder.decode(parts[2], StandardCharsets.UTF_8);
+            Kitchen.Task task = kitchen.next(station);
+            if (task == null) {
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            StringBuilder json = new StringBuilder(128).append("{\"taskId\":").append(task.taskId)
+                    .append(",\"orderId\":").append(task.ticket.order.getOrderId()).append(",\"station\":");
+            appendString(json, task.getStation());
+            json.append(",\"items\":[");
+            for (int i = 0; i < task.itemNames.length; i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"name\":");
+                appendString(json, task.itemNames[i]);
+                json.append(",\"quantity\":").append(task.quantities[i]).append('}');
+            }
+            send(exchange, 200, json.append("]}").toString());
+        } else if (parts.length == 5 && "tasks".equals(parts[2]) && "done".equals(parts[4]) && "POST".equals(method)) {
+            long taskId;
+            try {
+                taskId = Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                send(exchange, 400, error("Task id must be a number"));
+                return;
+            }
+            if (kitchen.done(taskId)) {
+                send(exchange, 200, "{\"done\":true}");
+            } else {
+                send(exchange, 404, error("Task is not being cooked"));
+            }
+        } else {
+            send(exchange, 404, error("Not found"));
+        }
+    }
+
+    private void handleStock(HttpExchange exchange, String[] parts) throws IOException {
+        if (parts.length != 2) {
+            send(exchange, 404, error("Not found"));
+            return;
+        }
+        Inventory inventory = service.getInventory();
+        String method = exchange.getRequestMethod();
+        if ("POST".equals(method)) {
+            try {
+                service.restock(Inventory.read(new BufferedReader(
+                        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))));
+            } catch (IOException | IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+                return;
+            }
+        } else if (!"GET".equals(method)) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(256).append("{\"items\":[");
+        int i = 0;
+        for (Inventory.Stock stock : inventory.getStocks().values()) {
+            if (i++ > 0) json.append(',');
+            json.append("{\"name\":");
+            appendString(json, stock.name);
+            json.append(",\"free\":").append(stock.getFree()).append(",\"sold\":").append(stock.getSold()).append('}');
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    private void handleSales(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        OrderArchive archive = service.getArchive();
+        if (archive == null) {
+            send(exchange, 503, error("There is no order archive"));
+            return;
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(String.valueOf(queryParam(exchange, "from")));
+            to = LocalDate.parse(String.valueOf(queryParam(exchange, "to")));
+        } catch (DateTimeParseException e) {
+            send(exchange, 400, error("from and to must be dates like 2026-01-31"));
+            return;
+        }
+        String category = queryParam(exchange, "category");
+        Map<String, Long> revenue = archive.revenueByCategory(from, to);
+        StringBuilder json = new StringBuilder(256).append("{\"from\":\"").append(from)
+                .append("\",\"to\":\"").append(to).append("\",\"categories\":{");
+        long total = 0;
+        int i = 0;
+        for (Map.Entry<String, Long> e : revenue.entrySet()) {
+            if (category != null && !category.equals(e.getKey())) continue;
+            if (i++ > 0) json.append(',');
+            appendString(json, e.getKey());
+            json.append(':').append(Order.formatPaise(e.getValue()));
+            total += e.getValue();
+        }
+        json.append("},\"total\":").append(Order.formatPaise(total)).append('}');
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleReplication(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        Replicator replicator = service.getReplicator();
+        if (replicator == null) {
+            send(exchange, 503, error("Replication is not configured"));
+            return;
+        }
+        StringBuilder json = new StringBuilder(256).append("{\"node\":").append(replicator.getNode())
+                .append(",\"connectedPeers\":").append(replicator.getConnectedPeers())
+                .append(",\"published\":").append(replicator.getPublished())
+                .append(",\"received\":").append(replicator.getReceived())
+                .append(",\"lostToPeers\":").append(replicator.getLostToPeers())
+                .append(",\"applied\":{");
+        int i = 0;
+        for (Map.Entry<Integer, Long> e : replicator.getApplied().entrySet()) {
+            if (i++ > 0) json.append(',');
+            json.append('"').append(e.getKey()).append("\":").append(e.getValue());
+        }
+        send(exchange, 200, json.append("}}").toString());
+    }
+
+    /** Adds "etaSeconds" when the kitchen has the order. */
+    private void appendEta(StringBuilder json, long orderId) {
+        Kitchen kitchen = service.getKitchen();
+        long eta = kitchen == null ? -1 : kitchen.etaNanos(orderId);
+        if (eta >= 0) json.append(",\"etaSeconds\":").append((eta + 999_999_999) / 1_000_000_000);
+    }
+
+    private String cartJson(String session) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"session\":");
+        appendString(json, session);
+        json.append(",\"items\":[");
+        int i = 0;
+        for (Map.Entry<String, Integer> e : service.cartQuantities(session).entrySet()) {
+            if (i++ > 0) json.append(',');
+            json.append("{\"name\":");
+            appendString(json, e.getKey());
+            json.append(",\"quantity\":").append(e.getValue()).append('}');
+        }
+        json.append("],\"total\":").append(Order.formatPaise(service.cartTotalPaise(session))).append('}');
+        return json.toString();
+    }
+
+    /** Adds "suggestions":[items]. IDs are in the current menu. */
+    private static void appendSuggestions(StringBuilder json, List<FoodItem> items) {
+        json.append(",\"suggestions\":[");
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) json.append(',');
+            appendItem(json, items.get(i));
+        }
+        json.append(']');
+    }
+
+    private static void appendItem(StringBuilder json, FoodItem item) {
+        json.append("{\"id\":").append(item.getId()).append(",\"name\":");
+        appendString(json, item.getName());
+        json.append(",\"price\":").append(Order.formatPaise(item.getPricePaise()))
+                .append(",\"available\":").append(item.isAvailable());
+        Inventory.Stock stock = item.getStock();
+        if (stock != null) json.append(",\"stock\":").append(stock.getFree());
+        json.append('}');
+    }
+
+    private static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder(64).append("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String host = System.getProperty("foodorder.http.host", "127.0.0.1");
+        keepIdleConnections(10_000);
+        OrderService service = OrderService.open(Paths.get("."));
+        service.enableKitchen();
+        OrderMetrics.export(service.getMetrics());
+        OrderHttpServer server = new OrderHttpServer(service, new InetSocketAddress(host, port),
+                System.getProperty("foodorder.http.adminToken"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            service.close();
+        }));
+        server.start();
+        System.out.println("Order API listening on " + host + ":" + server.getPort()
+                + (server.adminAuthorization == null ? ", staff routes off (no foodorder.http.adminToken)" : ""));
+    }
+}
@@ -0,0 +1,93 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderIdAllocator - Hands out order IDs that only ever go up, across restarts too.
+ * IDs are reserved from the file in blocks of BLOCK: the end of the reserved range is
+ * written and forced to disk before any ID in it is used, and a restart resumes from
+ * that mark. Taking an ID is a single getAndIncrement; only the thread that crosses
+ * into an unreserved block waits for the write. A crash loses the unused rest of
+ * the block, so IDs are unique and increasing but not gap-free.
+ */
+class OrderIdAllocator implements AutoCloseable {
+
+    static final int BLOCK = 4096;
+
+    private final FileChannel file;                 // null keeps IDs in memory only
+    private final ByteBuffer mark = ByteBuffer.allocate(8);
+    private final long first;
+    private final AtomicLong next;
+    private volatile long reserved;                 // IDs below this may be handed out
+
+    private OrderIdAllocator(FileChannel file, long first) {
+        this.file = file;
+        this.first = first;
+        this.next = new AtomicLong(first);
+        this.reserved = first;
+    }
+
+    /** IDs from 1 that are not persisted; for tests, benchmarks and the no-journal fallback. */
+    static OrderIdAllocator inMemory() {
+        return new OrderIdAllocator(null, 1);
+    }
+
+    /** Opens (or creates) the reservation file and resumes after the last reserved ID. */
+    static OrderIdAllocator open(Path path) throws IOException {
+        return open(path, 0);
+    }
+
+    /**
+     * As open(path), but never below base + 1; gives each terminal its own range when
+     * several of them place orders that end up in one registry.
+     */
+    static OrderIdAllocator open(Path path, long base) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ByteBuffer buf = ByteBuffer.allocate(8);
+        while (buf.hasRemaining() && file.read(buf, buf.position()) > 0) { }
+        long first = buf.hasRemaining() ? 1 : buf.getLong(0);
+        if (first < 1) {
+            file.close();
+            throw new IOException(path + " is corrupt");
+        }
+        return new OrderIdAllocator(file, Math.max(first, base + 1));
+    }
+
+    /** The first ID this allocator handed out, or will. */
+    public long first() {
+        return first;
+    }
+
+    public long next() {
+        long id = next.getAndIncrement();
+        if (id >= reserved) reserve(id);
+        return id;
+    }
+
+    private synchronized void reserve(long id) {
+        if (id < reserved) return;
+        long upTo = (id / BLOCK + 1) * BLOCK;
+        if (file != null) {
+            try {
+                mark.clear();
+                mark.putLong(0, upTo);
+                while (mark.hasRemaining()) file.write(mark, mark.position());
+                file.force(false);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot reserve order IDs", e);
+            }
+        }
+        reserved = upTo;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (file != null) file.close();
+    }
+}
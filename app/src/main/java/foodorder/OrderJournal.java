@@ -0,0 +1,501 @@
+package foodorder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * OrderJournal - Binary, append-only journal of placed orders.
+ *
+ * Orders are written into memory-mapped segment files, one or more per day:
+ *   journal/orders-yyyy-MM-dd-NNNN.seg
+ * Each record is [int length][int crc32][payload]; the length is written last so
+ * a half-written record reads back as zero and is treated as the end of the log.
+ * A record damaged in place (nonzero length, bad length or CRC) with intact records
+ * after it is skipped rather than taken for the end, so it doesn't cost the ones that
+ * follow. The payload ends with the order ID and the billed amount; records written
+ * before those were kept stop short of them and read back with ID 0 and the list
+ * total as billed. A segment is mapped at full size while it
+ * is appended to and cut back to its last record when it is closed or recovered.
+ *
+ * journal/checkpoint keeps each closed day's total and portions per item, with the
+ * size of its segments. recover() takes a day from there instead of replaying it when
+ * its segments are still that size, so startup doesn't grow with the whole history.
+ */
+class OrderJournal implements AutoCloseable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final String PREFIX = "orders-";
+    private static final String SUFFIX = ".seg";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int CHECKPOINT_MAGIC = 0x4F4A4331;    // "OJC1"
+
+    /** One placed order as stored in the journal. Amounts are in paise. */
+    static final class Entry {
+        final long orderId;                 // 0 if journalled before IDs were kept
+        final long epochMillis;
+        final String[] itemNames;
+        final int[] quantities;
+        final long[] linePaise;
+        final long totalPaise;              // at list prices
+        final long finalPaise;              // as billed
+
+        Entry(long epochMillis, String[] itemNames, int[] quantities, long[] linePaise, long totalPaise) {
+            this(0, epochMillis, itemNames, quantities, linePaise, totalPaise);
+        }
+
+        Entry(long orderId, long epochMillis, String[] itemNames, int[] quantities, long[] linePaise,
+              long totalPaise) {
+            this(orderId, epochMillis, itemNames, quantities, linePaise, totalPaise, totalPaise);
+        }
+
+        Entry(long orderId, long epochMillis, String[] itemNames, int[] quantities, long[] linePaise,
+              long totalPaise, long finalPaise) {
+            this.orderId = orderId;
+            this.epochMillis = epochMillis;
+            this.itemNames = itemNames;
+            this.quantities = quantities;
+            this.linePaise = linePaise;
+            this.totalPaise = totalPaise;
+            this.finalPaise = finalPaise;
+        }
+
+        LocalDate day(ZoneId zone) {
+            return Instant.ofEpochMilli(epochMillis).atZone(zone).toLocalDate();
+        }
+
+        /** The order as OrderRegistry keeps it; its status after placing isn't journalled. */
+        OrderRegistry.Record toRecord() {
+            return new OrderRegistry.Record(orderId, OrderStatus.PLACED.name(), epochMillis, itemNames, quantities,
+                    linePaise, totalPaise, finalPaise);
+        }
+    }
+
+    /** One closed day as kept in the checkpoint. */
+    private static final class DaySummary {
+        final long segmentBytes;
+        final long totalPaise;
+        final Map<String, Long> portions;
+
+        DaySummary(long segmentBytes, long totalPaise, Map<String, Long> portions) {
+            this.segmentBytes = segmentBytes;
+            this.totalPaise = totalPaise;
+            this.portions = portions;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ZoneId zone;
+    private final CRC32 crc = new CRC32();
+
+    private LocalDate segmentDay;
+    private int segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    private final Map<LocalDate, Long> dailyTotals = new TreeMap<>();
+    private final Map<LocalDate, Map<String, Long>> dailyPortions = new TreeMap<>();
+    private final List<LocalDate> summarised = new ArrayList<>();
+    private LocalDate checkpointedBefore;
+
+    private OrderJournal(Path directory, int segmentSize, ZoneId zone) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.zone = zone;
+    }
+
+    public static OrderJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, ZoneId.systemDefault());
+    }
+
+    public static OrderJournal open(Path directory, int segmentSize, ZoneId zone) throws IOException {
+        Files.createDirectories(directory);
+        return new OrderJournal(directory, segmentSize, zone);
+    }
+
+    /**
+     * Scans every segment, truncates torn tails, and rebuilds daily totals and
+     * item popularity. Damaged records before the tail are reported and left in
+     * place. Must be called once before the first append.
+     */
+    public Map<LocalDate, Long> recover(Map<String, FoodItem> menu) throws IOException {
+        return recover(menu::get);
+    }
+
+    /** As recover(Map), looking items up by name through the given function. */
+    public Map<LocalDate, Long> recover(Function<String, FoodItem> menu) throws IOException {
+        return recover(menu, entry -> { });
+    }
+
+    /** As recover(Function), also handing every recovered order to history on the way. */
+    public Map<LocalDate, Long> recover(Function<String, FoodItem> menu, Consumer<Entry> history)
+            throws IOException {
+        return recover(menu, history, LocalDate.MIN);
+    }
+
+    /**
+     * As recover(Function, Consumer), but days before replayFrom that the checkpoint
+     * still covers are taken from it: their totals and popularity count, but their
+     * orders don't go to history. getSummarisedDays() lists them. The last day is
+     * always replayed.
+     */
+    public synchronized Map<LocalDate, Long> recover(Function<String, FoodItem> menu, Consumer<Entry> history,
+            LocalDate replayFrom) throws IOException {
+        dailyTotals.clear();
+        dailyPortions.clear();
+        summarised.clear();
+        TreeMap<LocalDate, List<Path>> days = segmentsByDay();
+        Map<LocalDate, DaySummary> checkpoint = days.isEmpty() ? Collections.emptyMap() : readCheckpoint();
+
+        Path last = null;
+        int lastEnd = 0;
+        for (Map.Entry<LocalDate, List<Path>> day : days.entrySet()) {
+            DaySummary saved = checkpoint.get(day.getKey());
+            if (saved != null && day.getKey().isBefore(replayFrom) && !day.getKey().equals(days.lastKey())
+                    && saved.segmentBytes == size(day.getValue())) {
+                if (!saved.portions.isEmpty()) dailyTotals.put(day.getKey(), saved.totalPaise);
+                dailyPortions.put(day.getKey(), new HashMap<>(saved.portions));
+                for (Map.Entry<String, Long> e : saved.portions.entrySet()) {
+                    FoodItem item = menu.apply(e.getKey());
+                    if (item != null) item.increasePopularity(e.getValue());
+                }
+                summarised.add(day.getKey());
+                continue;
+            }
+            for (Path path : day.getValue()) {
+                ByteBuffer buf = read(path);
+                int end = scan(buf, path, entry -> {
+                    count(entry.day(zone), entry);
+                    for (int i = 0; i < entry.itemNames.length; i++) {
+                        FoodItem item = menu.apply(entry.itemNames[i]);
+                        if (item != null) item.increasePopularity(entry.quantities[i]);
+                    }
+                    history.accept(entry);
+                });
+                // Cut off the torn tail and the unused rest so neither is read again
+                if (end < buf.limit()) {
+                    try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        ch.truncate(end);
+                    }
+                }
+                last = path;
+                lastEnd = end;
+            }
+        }
+
+        if (last != null) {
+            String name = last.getFileName().toString();
+            segmentDay = dayOf(last);
+            segmentIndex = Integer.parseInt(name.substring(PREFIX.length() + 11, name.length() - SUFFIX.length()));
+            mapSegment(last);
+            segment.position(lastEnd);
+        }
+        return new TreeMap<>(dailyTotals);
+    }
+
+    /** Days the last recover() took from the checkpoint rather than replaying, oldest first. */
+    public synchronized List<LocalDate> getSummarisedDays() {
+        return new ArrayList<>(summarised);
+    }
+
+    /**
+     * Saves the totals and portions per item of every day before the given one, and
+     * before the day being appended to, to the checkpoint. Pass only days that are over.
+     */
+    public synchronized void checkpoint(LocalDate before) throws IOException {
+        if (segmentDay != null && segmentDay.isBefore(before)) before = segmentDay;
+        if (before.equals(checkpointedBefore)) return;
+        Map<LocalDate, List<Path>> days = segmentsByDay().headMap(before);
+        Path file = directory.resolve(CHECKPOINT);
+        Path tmp = directory.resolve(CHECKPOINT + ".tmp");
+        CRC32 sum = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)), sum))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(days.size());
+            for (Map.Entry<LocalDate, List<Path>> day : days.entrySet()) {
+                Map<String, Long> portions = dailyPortions.getOrDefault(day.getKey(), Collections.emptyMap());
+                out.writeLong(day.getKey().toEpochDay());
+                out.writeLong(size(day.getValue()));
+                out.writeLong(dailyTotals.getOrDefault(day.getKey(), 0L));
+                out.writeInt(portions.size());
+                for (Map.Entry<String, Long> e : portions.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeLong(e.getValue());
+                }
+            }
+            out.writeInt((int) sum.getValue());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointedBefore = before;
+    }
+
+    /** The checkpointed days; empty, with a warning, if the file is missing or damaged. */
+    private Map<LocalDate, DaySummary> readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) return Collections.emptyMap();
+        CRC32 sum = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), sum))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) throw new IOException("not a journal checkpoint");
+            Map<LocalDate, DaySummary> days = new HashMap<>();
+            for (int d = in.readInt(); d > 0; d--) {
+                LocalDate day = LocalDate.ofEpochDay(in.readLong());
+                long bytes = in.readLong();
+                long total = in.readLong();
+                Map<String, Long> portions = new HashMap<>();
+                for (int i = in.readInt(); i > 0; i--) portions.put(in.readUTF(), in.readLong());
+                days.put(day, new DaySummary(bytes, total, portions));
+            }
+            int expected = (int) sum.getValue();
+            if (in.readInt() != expected) throw new IOException("checksum mismatch");
+            return days;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring journal checkpoint " + file + ": " + e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /** Appends one order. Rolls to a new segment on a new day or when the current one is full. */
+    public synchronized void append(Entry entry) throws IOException {
+        byte[][] names = new byte[entry.itemNames.length][];
+        int payloadSize = 8 + 8 + 2 + 8 + 8;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = entry.itemNames[i].getBytes(StandardCharsets.UTF_8);
+            payloadSize += 2 + names[i].length + 4 + 8;
+        }
+        int recordSize = HEADER_SIZE + payloadSize;
+        if (recordSize > segmentSize) {
+            throw new IOException("Order record of " + recordSize + " bytes exceeds segment size");
+        }
+
+        LocalDate day = entry.day(zone);
+        if (segment == null || !day.equals(segmentDay) || segment.remaining() < recordSize) {
+            rotate(day);
+        }
+
+        int start = segment.position();
+        segment.position(start + HEADER_SIZE);
+        segment.putLong(entry.epochMillis);
+        segment.putLong(entry.totalPaise);
+        segment.putShort((short) names.length);
+        for (int i = 0; i < names.length; i++) {
+            segment.putShort((short) names[i].length);
+            segment.put(names[i]);
+            segment.putInt(entry.quantities[i]);
+            segment.putLong(entry.linePaise[i]);
+        }
+        segment.putLong(entry.orderId);
+        segment.putLong(entry.finalPaise);
+        int end = segment.position();
+
+        crc.reset();
+        crc.update(segment.duplicate().position(start + HEADER_SIZE).limit(end));
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.putInt(start, payloadSize);
+
+        count(day, entry);
+    }
+
+    private void count(LocalDate day, Entry entry) {
+        dailyTotals.merge(day, entry.totalPaise, Long::sum);
+        Map<String, Long> portions = dailyPortions.computeIfAbsent(day, d -> new HashMap<>());
+        for (int i = 0; i < entry.itemNames.length; i++) {
+            portions.merge(entry.itemNames[i], (long) entry.quantities[i], Long::sum);
+        }
+    }
+
+    /** Replays every order journalled on the given day, in append order. */
+    public void replay(LocalDate day, Consumer<Entry> consumer) throws IOException {
+        for (Path path : listSegments()) {
+            if (path.getFileName().toString().startsWith(PREFIX + day + "-")) {
+                scan(read(path), null, consumer);
+            }
+        }
+    }
+
+    /**
+     * Days with segments, oldest first, from the file names alone. Nothing is mapped or
+     * written, so this (with replay) is safe beside a service that is appending.
+     */
+    public List<LocalDate> days() throws IOException {
+        List<LocalDate> days = new ArrayList<>();
+        for (Path path : listSegments()) {
+            LocalDate day = dayOf(path);
+            if (days.isEmpty() || !days.get(days.size() - 1).equals(day)) days.add(day);
+        }
+        return days;
+    }
+
+    public synchronized Map<LocalDate, Long> getDailyTotals() {
+        return new TreeMap<>(dailyTotals);
+    }
+
+    /** Forces the current segment to the storage device. */
+    public synchronized void sync() {
+        if (segment != null) segment.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        unmapSegment();
+    }
+
+    /**
+     * Decodes every intact record and returns the offset just past the last one. A
+     * zero length is where writing stopped. A record failing its checks is skipped if
+     * an intact one follows it somewhere in the segment (reported when source is
+     * given); otherwise it starts the torn tail.
+     */
+    private int scan(ByteBuffer buf, Path source, Consumer<Entry> consumer) {
+        CRC32 check = new CRC32();
+        int pos = 0;
+        int end = 0;
+        while (pos + HEADER_SIZE <= buf.limit()) {
+            if (buf.getInt(pos) == 0) break;
+            int length = intact(buf, pos, check);
+            if (length < 0) {
+                int next = pos + 1;
+                while (next + HEADER_SIZE <= buf.limit() && intact(buf, next, check) < 0) next++;
+                if (next + HEADER_SIZE > buf.limit()) break;
+                if (source != null) {
+                    System.err.println("Skipped " + (next - pos) + " damaged bytes at offset " + pos + " of " + source);
+                }
+                pos = next;
+                continue;
+            }
+            consumer.accept(decode(buf, pos + HEADER_SIZE, length));
+            pos += HEADER_SIZE + length;
+            end = pos;
+        }
+        return end;
+    }
+
+    /** Payload length of the record at pos if its length and CRC check out, else -1. */
+    private static int intact(ByteBuffer buf, int pos, CRC32 check) {
+        int length = buf.getInt(pos);
+        if (length <= 0 || length > buf.limit() - pos - HEADER_SIZE) return -1;
+        check.reset();
+        check.update(buf.duplicate().position(pos + HEADER_SIZE).limit(pos + HEADER_SIZE + length));
+        return (int) check.getValue() == buf.getInt(pos + 4) ? length : -1;
+    }
+
+    private static Entry decode(ByteBuffer buf, int offset, int length) {
+        ByteBuffer in = buf.duplicate().position(offset);
+        long epochMillis = in.getLong();
+        long totalPaise = in.getLong();
+        int count = in.getShort();
+        String[] names = new String[count];
+        int[] quantities = new int[count];
+        long[] linePaise = new long[count];
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[in.getShort()];
+            in.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+            quantities[i] = in.getInt();
+            linePaise[i] = in.getLong();
+        }
+        long orderId = in.position() - offset + 8 <= length ? in.getLong() : 0;
+        long finalPaise = in.position() - offset + 8 <= length ? in.getLong() : totalPaise;
+        return new Entry(orderId, epochMillis, names, quantities, linePaise, totalPaise, finalPaise);
+    }
+
+    private void rotate(LocalDate day) throws IOException {
+        if (segment != null) segment.force();
+        unmapSegment();
+        segmentIndex = day.equals(segmentDay) ? segmentIndex + 1 : 1;
+        segmentDay = day;
+        Path path = segmentPath(day, segmentIndex);
+        while (Files.exists(path)) {
+            path = segmentPath(day, ++segmentIndex);
+        }
+        mapSegment(path);
+    }
+
+    private Path segmentPath(LocalDate day, int index) {
+        return directory.resolve(String.format("%s%s-%04d%s", PREFIX, day, index, SUFFIX));
+    }
+
+    private void mapSegment(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), segmentSize);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void unmapSegment() throws IOException {
+        if (channel != null) {
+            segment.force();
+            try {
+                channel.truncate(segment.position());
+            } catch (IOException e) {
+                // Some platforms can't shrink a mapped file; the next recover() cuts it back
+            }
+            channel.close();
+        }
+        channel = null;
+        segment = null;
+    }
+
+    /**
+     * A segment's bytes, read rather than mapped, so one cut back by the service
+     * meanwhile reads short instead of faulting.
+     */
+    private static ByteBuffer read(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    private static long size(List<Path> segments) throws IOException {
+        long bytes = 0;
+        for (Path path : segments) bytes += Files.size(path);
+        return bytes;
+    }
+
+    private static LocalDate dayOf(Path segment) {
+        return LocalDate.parse(segment.getFileName().toString().substring(PREFIX.length(), PREFIX.length() + 10));
+    }
+
+    private TreeMap<LocalDate, List<Path>> segmentsByDay() throws IOException {
+        TreeMap<LocalDate, List<Path>> days = new TreeMap<>();
+        for (Path path : listSegments()) days.computeIfAbsent(dayOf(path), d -> new ArrayList<>()).add(path);
+        return days;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(PREFIX) && n.endsWith(SUFFIX);
+            }).forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+}
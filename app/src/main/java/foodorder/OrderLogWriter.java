@@ -0,0 +1,297 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * OrderLogWriter - Background appender for the daily orders_yyyy-MM-dd.txt log.
+ * Checkout only enqueues a formatted record; a single writer thread drains whatever
+ * is pending and commits it with one buffered write (group commit). When a journal
+ * is attached, the same thread appends the binary entries so the journal never
+ * sees concurrent writers. Appends share a read lock that close() takes exclusively,
+ * so a record is either queued before the writer is told to stop, and written, or
+ * refused.
+ */
+class OrderLogWriter implements AutoCloseable {
+
+    /** When the writer forces committed batches to the storage device. */
+    enum FsyncPolicy {
+        NEVER,          // leave it to the OS page cache
+        EVERY_BATCH,    // one fsync per group commit
+        INTERVAL        // at most one fsync per configured interval
+    }
+
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_BATCH = 512;
+
+    private static final class Record {
+        final LocalDate day;
+        final String text;
+        final OrderJournal.Entry entry;
+
+        Record(LocalDate day, String text, OrderJournal.Entry entry) {
+            this.day = day;
+            this.text = text;
+            this.entry = entry;
+        }
+    }
+
+    private final Path directory;
+    private final OrderJournal journal;
+    private final BlockingQueue<Record> queue;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final Thread writerThread;
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    // Writer-thread state only
+    private LocalDate currentDay;
+    private FileChannel channel;
+    private long lastFsyncNanos;
+    private boolean unsynced;
+    private final StringBuilder batchText = new StringBuilder(8192);
+
+    // Metrics
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private volatile LatencyHistogram flushHistogram;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    public OrderLogWriter(Path directory, int capacity, FsyncPolicy fsyncPolicy) {
+        this(directory, capacity, fsyncPolicy, null);
+    }
+
+    public OrderLogWriter(Path directory, int capacity, FsyncPolicy fsyncPolicy, OrderJournal journal) {
+        this(directory, capacity, fsyncPolicy, TimeUnit.SECONDS.toNanos(1), journal);
+    }
+
+    public OrderLogWriter(Path directory, int capacity, FsyncPolicy fsyncPolicy,
+                          long fsyncIntervalNanos, OrderJournal journal) {
+        this.directory = directory;
+        this.journal = journal;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalNanos;
+        this.writerThread = new Thread(this::runWriter, "order-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /** Queues a record for today's log. Blocks only while the queue is full. */
+    public void append(String text) throws InterruptedException {
+        append(LocalDate.now(), text);
+    }
+
+    /**
+     * Queues a record for the given day's log. The day is captured by the caller so
+     * an order placed at 23:59:59 still lands in that day's file after midnight.
+     */
+    public void append(LocalDate day, String text) throws InterruptedException {
+        append(day, text, null);
+    }
+
+    /** Queues a text record together with its binary journal entry (may be null). */
+    public void append(LocalDate day, String text, OrderJournal.Entry entry) throws InterruptedException {
+        closing.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Order log writer is closed");
+            }
+            queue.put(new Record(day, text, entry));
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    static String fileNameFor(LocalDate day) {
+        return "orders_" + day.format(FILE_DATE) + ".txt";
+    }
+
+    private void runWriter() {
+        List<Record> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                Record first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    syncIfDue();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.drainTo(batch);
+            commit(batch);
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /** Writes a drained batch, splitting it wherever the day changes. */
+    private void commit(List<Record> batch) {
+        if (batch.isEmpty()) return;
+
+        long start = System.nanoTime();
+        int from = 0;
+        while (from < batch.size()) {
+            LocalDate day = batch.get(from).day;
+            int to = from;
+            batchText.setLength(0);
+            while (to < batch.size() && batch.get(to).day.equals(day)) {
+                batchText.append(batch.get(to).text);
+                to++;
+            }
+            try {
+                writeTo(day, batchText);
+                recordsWritten.addAndGet(to - from);
+            } catch (IOException e) {
+                errorCount.incrementAndGet();
+                e.printStackTrace();
+                closeChannel();
+            }
+            from = to;
+        }
+        journal(batch);
+
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            sync();
+        } else {
+            syncIfDue();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) maxFlushNanos = elapsed;
+        totalFlushNanos.addAndGet(elapsed);
+        flushCount.incrementAndGet();
+        LatencyHistogram histogram = flushHistogram;
+        if (histogram != null) histogram.record(elapsed);
+    }
+
+    private void journal(List<Record> batch) {
+        if (journal == null) return;
+        for (Record record : batch) {
+            if (record.entry == null) continue;
+            try {
+                journal.append(record.entry);
+                unsynced = true;
+            } catch (IOException e) {
+                errorCount.incrementAndGet();
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeTo(LocalDate day, CharSequence text) throws IOException {
+        if (!day.equals(currentDay) || channel == null) {
+            roll(day);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        unsynced = true;
+    }
+
+    private void roll(LocalDate day) throws IOException {
+        closeChannel();
+        channel = FileChannel.open(directory.resolve(fileNameFor(day)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentDay = day;
+    }
+
+    private void syncIfDue() {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && unsynced
+                && System.nanoTime() - lastFsyncNanos >= fsyncIntervalNanos) {
+            sync();
+        }
+    }
+
+    private void sync() {
+        if (fsyncPolicy == FsyncPolicy.NEVER || !unsynced) return;
+        try {
+            if (journal != null) journal.sync();
+            if (channel != null) channel.force(false);
+            unsynced = false;
+            lastFsyncNanos = System.nanoTime();
+        } catch (IOException e) {
+            errorCount.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    private void closeChannel() {
+        sync();
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            errorCount.incrementAndGet();
+            e.printStackTrace();
+        }
+        channel = null;
+        currentDay = null;
+    }
+
+    /** Also records every group commit's duration into the given histogram. */
+    void recordFlushesInto(LatencyHistogram histogram) {
+        this.flushHistogram = histogram;
+    }
+
+    public int getQueueDepth() { return queue.size(); }
+    public int getQueueCapacity() { return queue.size() + queue.remainingCapacity(); }
+    public long getRecordsWritten() { return recordsWritten.get(); }
+    public long getFlushCount() { return flushCount.get(); }
+    public long getErrorCount() { return errorCount.get(); }
+    public long getLastFlushNanos() { return lastFlushNanos; }
+    public long getMaxFlushNanos() { return maxFlushNanos; }
+
+    /** Rough time to write out what is queued now, at the average cost per record so far. */
+    public long getEstimatedDrainNanos() {
+        long records = recordsWritten.get();
+        return records == 0 ? 0 : (long) ((double) totalFlushNanos.get() / records * queue.size());
+    }
+
+    public long getAverageFlushNanos() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushNanos.get() / flushes;
+    }
+
+    /** Stops accepting records, writes everything still queued and closes the file. */
+    @Override
+    public void close() {
+        // Waits out appends in progress; the writer keeps draining, so a full queue doesn't hold it up
+        closing.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package foodorder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * OrderMetrics - Per-stage checkout latencies and business counters.
+ * Every stage records into its own LatencyHistogram; counters are LongAdders. Both are
+ * cheap enough to stay on in production. Exposed as a JMX MBean (foodorder:type=OrderMetrics)
+ * and as a plain-text dump that can be printed on a schedule.
+ */
+class OrderMetrics implements DynamicMBean {
+
+    /** The timed stages of taking an order. */
+    enum Stage {
+        ITEM_ADD("ItemAdd"),
+        CART_RENDER("CartRender"),
+        BILL("Bill"),
+        LOG_WRITE("LogWrite"),          // handing the record to the log writer (blocks when full)
+        LOG_FLUSH("LogFlush"),          // one group commit on the writer thread
+        DIALOG("Dialog"),
+        SEARCH("MenuSearch");           // one typeahead query, off the EDT
+
+        final String attributeName;
+
+        Stage(String attributeName) {
+            this.attributeName = attributeName;
+        }
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final LongAdder ordersPlaced = new LongAdder();
+    private final LongAdder itemsSold = new LongAdder();
+    private final LongAdder revenuePaise = new LongAdder();
+    private volatile LongSupplier logQueueDepth = () -> 0;
+    private ScheduledExecutorService dumpScheduler;
+
+    OrderMetrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    /** Records the time since startNanos against a stage. */
+    public void record(Stage stage, long startNanos) {
+        histograms.get(stage).recordSince(startNanos);
+    }
+
+    public void orderPlaced(int items, long paise) {
+        ordersPlaced.increment();
+        itemsSold.add(items);
+        revenuePaise.add(paise);
+    }
+
+    void watchLogQueue(LongSupplier depth) {
+        this.logQueueDepth = depth;
+    }
+
+    public long getOrdersPlaced() { return ordersPlaced.sum(); }
+    public long getItemsSold() { return itemsSold.sum(); }
+    public long getRevenuePaise() { return revenuePaise.sum(); }
+    public long getLogQueueDepth() { return logQueueDepth.getAsLong(); }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms.values()) h.reset();
+        ordersPlaced.reset();
+        itemsSold.reset();
+        revenuePaise.reset();
+    }
+
+    /** One-line-per-stage text report, latencies in microseconds. */
+    public String dump() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("=== Order metrics ").append(LocalDateTime.now().format(OrderService.LOG_TIME)).append(" ===\n");
+        sb.append("orders=").append(getOrdersPlaced())
+                .append(" items=").append(getItemsSold())
+                .append(" revenue=Rs. ").append(Order.formatPaise(getRevenuePaise()))
+                .append(" logQueue=").append(getLogQueueDepth()).append('\n');
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histograms.get(stage);
+            sb.append(String.format("%-12s n=%-9d mean=%9.1f p50=%9.1f p99=%9.1f p999=%9.1f max=%9.1f%n",
+                    stage.attributeName, h.getCount(), h.getMeanNanos() / 1e3,
+                    h.getQuantileNanos(0.50) / 1e3, h.getQuantileNanos(0.99) / 1e3,
+                    h.getQuantileNanos(0.999) / 1e3, h.getMaxNanos() / 1e3));
+        }
+        return sb.toString();
+    }
+
+    /** Registers this instance with the platform MBean server under the given name. */
+    public void registerMBean(String objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(objectName));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Appends dump() to the file (stdout when null) every periodSeconds, on a daemon thread. */
+    public synchronized void startPeriodicDump(Path file, long periodSeconds) {
+        if (dumpScheduler != null) return;
+        dumpScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumpScheduler.scheduleAtFixedRate(() -> writeDump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Standard wiring for the entry points: JMX always, plus a periodic dump to
+     * metrics.log when -Dfoodorder.metrics.dumpSeconds is set.
+     */
+    static void export(OrderMetrics metrics) {
+        metrics.registerMBean("foodorder:type=OrderMetrics");
+        long period = Long.getLong("foodorder.metrics.dumpSeconds", 0);
+        if (period > 0) {
+            metrics.startPeriodicDump(Path.of("metrics.log"), period);
+        }
+    }
+
+    private void writeDump(Path file) {
+        String text = dump();
+        if (file == null) {
+            System.out.print(text);
+            return;
+        }
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ---- DynamicMBean: counters plus <Stage>Count/MeanMicros/P50Micros/P99Micros/P999Micros/MaxMicros ----
+
+    private static final String[] STAT_SUFFIXES = {"Count", "MeanMicros", "P50Micros", "P99Micros", "P999Micros", "MaxMicros"};
+
+    @Override
+    public Object getAttribute(String name) throws AttributeNotFoundException {
+        switch (name) {
+            case "OrdersPlaced": return getOrdersPlaced();
+            case "ItemsSold": return getItemsSold();
+            case "RevenuePaise": return getRevenuePaise();
+            case "LogQueueDepth": return getLogQueueDepth();
+            default:
+        }
+        for (Stage stage : Stage.values()) {
+            if (!name.startsWith(stage.attributeName)) continue;
+            LatencyHistogram h = histograms.get(stage);
+            switch (name.substring(stage.attributeName.length())) {
+                case "Count": return h.getCount();
+                case "MeanMicros": return h.getMeanNanos() / 1000;
+                case "P50Micros": return h.getQuantileNanos(0.50) / 1000;
+                case "P99Micros": return h.getQuantileNanos(0.99) / 1000;
+                case "P999Micros": return h.getQuantileNanos(0.999) / 1000;
+                case "MaxMicros": return h.getMaxNanos() / 1000;
+                default:
+            }
+        }
+        throw new AttributeNotFoundException(name);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException e) {
+                // skipped, as the JMX contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("OrderMetrics attributes are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        if ("dump".equals(actionName)) return dump();
+        if ("reset".equals(actionName)) {
+            reset();
+            return null;
+        }
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String counter : new String[] {"OrdersPlaced", "ItemsSold", "RevenuePaise", "LogQueueDepth"}) {
+            attributes.add(new MBeanAttributeInfo(counter, "long", counter, true, false, false));
+        }
+        for (Stage stage : Stage.values()) {
+            for (String suffix : STAT_SUFFIXES) {
+                String name = stage.attributeName + suffix;
+                attributes.add(new MBeanAttributeInfo(name, "long", name, true, false, false));
+            }
+        }
+        MBeanOperationInfo[] operations = {
+                new MBeanOperationInfo("dump", "Text report of all stages", null, "java.lang.String", MBeanOperationInfo.INFO),
+                new MBeanOperationInfo("reset", "Clear histograms and counters", null, "void", MBeanOperationInfo.ACTION)
+        };
+        return new MBeanInfo(getClass().getName(), "Order pipeline latencies and counters",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, operations, null);
+    }
+}
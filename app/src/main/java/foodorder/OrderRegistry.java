@@ -0,0 +1,302 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * OrderRegistry - Every order by ID: open carts, recently placed orders, and older
+ * ones spilled to disk.
+ *
+ * IDs are spread over STRIPES independently locked hash tables (primitive long keys,
+ * open addressing), so counters registering and looking up orders rarely meet on
+ * the same lock. Open carts are registered as a callback that snapshots the cart
+ * under its own lock. Placed orders are kept as Records, fixed apart from their
+ * status, until their estimated size passes the memory budget; then the spill thread
+ * moves the oldest ones, a block at a time, into the OrderStore and drops them from
+ * memory. A lookup checks the stripe first and the store second, and a record is
+ * only dropped from its stripe after its block is on disk, so it is always in one
+ * or the other.
+ * If orders arrive faster than the spill thread writes them and memory reaches twice
+ * the budget, completing threads spill inline. Without a store, orders past the
+ * budget are simply forgotten.
+ */
+class OrderRegistry implements AutoCloseable {
+
+    static final int STRIPES = 64;
+
+    /** An order as lookups return it; for a spilled order, decoded from its block. */
+    static final class Record {
+        final long orderId;
+        volatile String status;             // an OrderStatus name; moves on while the order is in memory
+        final long placedMillis;            // 0 while the order is still an open cart
+        final String[] itemNames;
+        final int[] quantities;
+        final long[] linePaise;
+        final long totalPaise;              // at list prices
+        final long finalPaise;              // as billed; the running total for an open cart
+
+        Record(long orderId, String status, long placedMillis, String[] itemNames, int[] quantities,
+               long[] linePaise, long totalPaise, long finalPaise) {
+            this.orderId = orderId;
+            this.status = status;
+            this.placedMillis = placedMillis;
+            this.itemNames = itemNames;
+            this.quantities = quantities;
+            this.linePaise = linePaise;
+            this.totalPaise = totalPaise;
+            this.finalPaise = finalPaise;
+        }
+
+        /** Snapshot of an order; the caller holds whatever lock guards it. */
+        static Record of(Order order, long placedMillis, long finalPaise) {
+            int lines = order.getLineCount();
+            String[] names = new String[lines];
+            int[] quantities = new int[lines];
+            long[] linePaise = new long[lines];
+            for (int line = 0; line < lines; line++) {
+                FoodItem item = order.getLineItem(line);
+                names[line] = item.getName();
+                quantities[line] = order.getQuantity(line);
+                linePaise[line] = item.getPricePaise() * quantities[line];
+            }
+            return new Record(order.getOrderId(), order.getStatus().name(), placedMillis, names, quantities, linePaise,
+                    order.getTotalPaise(), finalPaise);
+        }
+
+        /** Rough heap footprint; item names are shared with the menu. */
+        int estimatedBytes() {
+            return 120 + itemNames.length * 28;
+        }
+    }
+
+    /** One lock's share of the IDs: linear probing over long keys, 0 = empty. */
+    private static final class Stripe {
+        private long[] keys = new long[64];
+        private Object[] values = new Object[64];       // Record, or Supplier<Record> for an open cart
+        private int size;
+
+        synchronized Object get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return null;
+        }
+
+        synchronized void put(long key, Object value) {
+            if ((size + 1) * 4 > keys.length * 3) grow();
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == 0) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        /** Removes the key if it maps to expected (any value when expected is null). */
+        synchronized boolean remove(long key, Object expected) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) return false;
+                i = (i + 1) & mask;
+            }
+            if (expected != null && values[i] != expected) return false;
+            // Backward-shift deletion: pull later entries of the probe run into the hole
+            for (int hole = i, j = (i + 1) & mask; ; j = (j + 1) & mask) {
+                if (keys[j] == 0) {
+                    keys[hole] = 0;
+                    values[hole] = null;
+                    break;
+                }
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            size--;
+            return true;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key / STRIPES) * 0x9E3779B97F4A7C15L >>> 32) & mask;
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final OrderStore store;                         // null = no spilling
+    private final long budgetBytes;
+    private final ConcurrentLinkedQueue<Record> placed = new ConcurrentLinkedQueue<>();   // oldest first
+    private final AtomicLong placedBytes = new AtomicLong();
+    private final Thread spiller;
+    private volatile boolean closed;
+
+    private OrderRegistry(OrderStore store, long budgetBytes) {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+        this.store = store;
+        this.budgetBytes = budgetBytes;
+        if (store != null) {
+            spiller = new Thread(this::spillLoop, "order-spill");
+            spiller.setDaemon(true);
+            spiller.start();
+        } else {
+            spiller = null;
+        }
+    }
+
+    /** Keeps placed orders in memory up to the budget and forgets older ones. */
+    static OrderRegistry inMemory(long budgetBytes) {
+        return new OrderRegistry(null, budgetBytes);
+    }
+
+    /** Spills placed orders past the budget to an OrderStore in the given directory. */
+    static OrderRegistry open(Path directory, long budgetBytes) throws IOException {
+        return new OrderRegistry(OrderStore.open(directory), budgetBytes);
+    }
+
+    private Stripe stripe(long orderId) {
+        return stripes[(int) (orderId & (STRIPES - 1))];
+    }
+
+    /** Registers an open cart; the callback snapshots it (or returns null once it's gone). */
+    public void register(long orderId, Supplier<Record> cart) {
+        stripe(orderId).put(orderId, cart);
+    }
+
+    /** Replaces an open cart with its placed order. */
+    public void complete(Record record) {
+        stripe(record.orderId).put(record.orderId, record);
+        placed.add(record);
+        long bytes = placedBytes.addAndGet(record.estimatedBytes());
+        if (bytes <= budgetBytes) return;
+        if (spiller == null) {
+            forgetOldest(budgetBytes);
+        } else if (bytes > 2 * budgetBytes) {
+            // The spill thread is falling behind; help it (and slow down) rather than grow without bound
+            spill(budgetBytes / 4 * 3);
+        } else {
+            LockSupport.unpark(spiller);
+        }
+    }
+
+    /**
+     * Records a placed order's new status. Orders already spilled keep the status they
+     * were written with; by then they have long been served.
+     */
+    public void updateStatus(long orderId, OrderStatus status) {
+        Object value = stripe(orderId).get(orderId);
+        if (value instanceof Record) ((Record) value).status = status.name();
+    }
+
+    /** Drops an open cart that was abandoned. */
+    public void discard(long orderId) {
+        Stripe stripe = stripe(orderId);
+        Object value = stripe.get(orderId);
+        if (value instanceof Supplier) stripe.remove(orderId, value);
+    }
+
+    /** The order with this ID, or null if there never was one (or it was forgotten). */
+    @SuppressWarnings("unchecked")
+    public Record find(long orderId) {
+        Object value = stripe(orderId).get(orderId);
+        if (value instanceof Record) return (Record) value;
+        if (value != null) return ((Supplier<Record>) value).get();
+        return store == null ? null : store.find(orderId);
+    }
+
+    /** Estimated heap held by placed orders not yet spilled. */
+    public long placedBytes() {
+        return placedBytes.get();
+    }
+
+    public long spilled() {
+        return store == null ? 0 : store.size();
+    }
+
+    /**
+     * Placed time from which orders may never have been spilled: the oldest in the
+     * newest block, as orders are spilled in the order they were placed.
+     * Long.MIN_VALUE if nothing has been spilled, Long.MAX_VALUE without a store.
+     */
+    public long unspilledFrom() {
+        return store == null ? Long.MAX_VALUE : store.newestBlockFrom();
+    }
+
+    private void forgetOldest(long targetBytes) {
+        Record oldest;
+        while (placedBytes.get() > targetBytes && (oldest = placed.poll()) != null) {
+            placedBytes.addAndGet(-oldest.estimatedBytes());
+            stripe(oldest.orderId).remove(oldest.orderId, oldest);
+        }
+    }
+
+    private void spillLoop() {
+        while (!closed) {
+            if (placedBytes.get() > budgetBytes) {
+                // Spill down to 3/4 of the budget so the next few orders don't trigger another block
+                spill(budgetBytes / 4 * 3);
+            } else {
+                LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    /** Moves the oldest placed orders to the store until their bytes are down to targetBytes. */
+    private synchronized void spill(long targetBytes) {
+        while (placedBytes.get() > targetBytes) {
+            List<Record> batch = new ArrayList<>();
+            long bytes = 0;
+            Record oldest;
+            while (placedBytes.get() - bytes > targetBytes && batch.size() < OrderStore.MAX_BLOCK
+                    && (oldest = placed.poll()) != null) {
+                batch.add(oldest);
+                bytes += oldest.estimatedBytes();
+            }
+            if (batch.isEmpty()) return;
+            try {
+                store.write(batch);
+            } catch (IOException e) {
+                System.err.println("Order spill failed, keeping " + batch.size() + " orders in memory: " + e);
+                placed.addAll(batch);
+                LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                return;
+            }
+            for (Record r : batch) stripe(r.orderId).remove(r.orderId, r);
+            placedBytes.addAndGet(-bytes);
+        }
+    }
+
+    /** Spills every placed order still in memory so lookups survive a restart. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (store == null) return;
+        LockSupport.unpark(spiller);
+        spill(0);
+        store.close();
+    }
+}
@@ -0,0 +1,932 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * OrderService - Headless ordering engine shared by every client (Swing UI, kiosks, tools).
+ * Each session owns one cart. Carts are locked individually, so checkouts on different
+ * sessions never wait on each other; the only shared hand-off is the order log queue.
+ *
+ * The menu and the pricing compiled against it are one immutable MenuState behind a
+ * volatile field. Reloading the menu swaps in a new state; a cart still holding items
+ * from an older menu is moved onto the new one, by name, the next time it is touched.
+ *
+ * Order IDs come from an OrderIdAllocator, so they keep increasing across restarts,
+ * and every order (open cart, placed, or spilled to disk) can be looked up by ID in
+ * the OrderRegistry. With the kitchen enabled, placed orders go on to Kitchen and
+ * their status follows it there.
+ *
+ * Items with tracked stock are reserved in Inventory as they go into a cart and
+ * released when they come out or the cart is dropped. A cart holding reservations
+ * that nobody has touched for CART_HOLD_NANOS is dropped as abandoned.
+ *
+ * Clients place orders with placeOrder(), which asks AdmissionControl first: at peak,
+ * an order the kitchen or the log can't take in time is turned away with a time to
+ * come back instead of joining an ever longer wait. checkout() itself always places.
+ *
+ * Every placed order, and the journalled history at startup, feeds the Recommender
+ * behind the unavailable-item fallback and the "goes well with" suggestions. Days the
+ * journal checkpoint covers are fed to it in the background.
+ *
+ * Journalled days that are over are compacted into the OrderArchive in the background,
+ * once an hour, for sales queries over long ranges, and checkpointed in the journal so
+ * startup doesn't replay them.
+ *
+ * With replication configured, placed orders, their kitchen status, availability
+ * switches and restocks go to the other terminals through the Replicator, and theirs
+ * are applied here. Each terminal numbers its orders from node * NODE_ORDER_IDS, so IDs
+ * stay unique across them. Carts and their reservations stay local; another
+ * terminal's orders are not logged, journalled or cooked here.
+ */
+class OrderService implements AutoCloseable {
+
+    /** Outcome of adding an item to a cart. */
+    enum AddResult { ADDED, UNAVAILABLE, UNKNOWN_ITEM }
+
+    /** Final bill for a checked-out cart. All amounts are in paise. */
+    static final class Bill {
+        final Order order;
+        final long subtotalPaise;
+        final long promotionPaise;
+        final long taxPaise;
+        final long discountPaise;
+        final long finalPaise;
+
+        Bill(Order order, PricingEngine.Quote quote) {
+            this.order = order;
+            this.subtotalPaise = quote.subtotalPaise;
+            this.promotionPaise = quote.promotionPaise;
+            this.taxPaise = quote.taxPaise;
+            this.discountPaise = quote.discountPaise;
+            this.finalPaise = quote.finalPaise;
+        }
+    }
+
+    /** An order placed through admission control: its bill, or the decision that turned it away. */
+    static final class Placement {
+        final Bill bill;                                // null if it was turned away
+        final AdmissionControl.Decision decision;       // if placed: the kitchen's quoted wait
+
+        Placement(Bill bill, AdmissionControl.Decision decision) {
+            this.bill = bill;
+            this.decision = decision;
+        }
+
+        public boolean isPlaced() {
+            return bill != null;
+        }
+    }
+
+    /** Per-session cart. All access goes through the cart's own monitor. */
+    private static final class Cart {
+        Order order;
+        MenuCatalog catalog;                // the menu the order's items come from
+        final List<String> coupons = new ArrayList<>(2);
+        long touchedNanos = System.nanoTime();
+        boolean closed;                     // dropped from the map; its reservations are released
+    }
+
+    /** A menu and the pricing compiled against it, published together. */
+    private static final class MenuState {
+        final MenuCatalog catalog;
+        final PricingRules rules;
+        final PricingEngine pricing;
+
+        MenuState(MenuCatalog catalog, PricingRules rules) {
+            this.catalog = catalog;
+            this.rules = rules;
+            this.pricing = PricingEngine.compile(rules, catalog);
+        }
+    }
+
+    static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("dd-MM-yyyy hh:mm a");
+
+    /** Heap allowed for placed orders before the oldest are spilled (-Dfoodorder.orders.memoryMB). */
+    static final long ORDER_MEMORY_BYTES = Long.getLong("foodorder.orders.memoryMB", 64) << 20;
+
+    /** How long an untouched cart is kept, with its stock reserved (-Dfoodorder.cart.holdMinutes). */
+    static final long CART_HOLD_NANOS = TimeUnit.MINUTES.toNanos(Long.getLong("foodorder.cart.holdMinutes", 20));
+
+    /** Order IDs per replication node: node 3 numbers its orders from 3 000 000 000 001. */
+    static final long NODE_ORDER_IDS = 1_000_000_000_000L;
+
+    private volatile MenuState state;
+    private final List<Consumer<MenuCatalog>> menuListeners = new CopyOnWriteArrayList<>();
+    private MenuWatcher menuWatcher;
+    private final ConcurrentHashMap<String, Cart> carts = new ConcurrentHashMap<>();
+    private final Inventory inventory = new Inventory();
+    private final Recommender recommender;
+    private final List<Consumer<String>> expiryListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> availabilityListeners = new CopyOnWriteArrayList<>();
+    private volatile Replicator replicator;
+    private ScheduledExecutorService cartReaper;
+    private ScheduledExecutorService archiver;
+    private OrderArchive archive;
+    private final OrderIdAllocator orderIds;
+    private final OrderRegistry registry;
+    private volatile Kitchen kitchen;
+    private final OrderLogWriter orderLog;
+    private final OrderJournal journal;
+    private final OrderMetrics metrics = new OrderMetrics();
+    private final AdmissionControl admission;
+
+    OrderService(Map<String, FoodItem> menu, OrderLogWriter orderLog, OrderJournal journal) {
+        this(new MenuCatalog(menu.values()), orderLog, journal);
+    }
+
+    OrderService(MenuCatalog catalog, OrderLogWriter orderLog, OrderJournal journal) {
+        this(catalog, orderLog, journal, OrderIdAllocator.inMemory(), OrderRegistry.inMemory(ORDER_MEMORY_BYTES),
+                new Recommender());
+    }
+
+    OrderService(MenuCatalog catalog, OrderLogWriter orderLog, OrderJournal journal,
+                 OrderIdAllocator orderIds, OrderRegistry registry, Recommender recommender) {
+        this.recommender = recommender;
+        inventory.attach(catalog);
+        this.state = new MenuState(catalog, PricingRules.defaults());
+        this.orderLog = orderLog;
+        this.journal = journal;
+        this.orderIds = orderIds;
+        this.registry = registry;
+        this.admission = new AdmissionControl(System::nanoTime, orderLog, stations -> {
+            Kitchen k = kitchen;
+            return k == null ? 0 : k.backlogNanos(stations);
+        });
+        metrics.watchLogQueue(orderLog::getQueueDepth);
+        orderLog.recordFlushesInto(metrics.histogram(OrderMetrics.Stage.LOG_FLUSH));
+    }
+
+    /**
+     * Opens the text log and binary journal under the given directory and rebuilds
+     * item popularity and the recommender from the journal. The menu and pricing come from menu.csv /
+     * menu.json / menu.snapshot and pricing.rules in the same directory when present,
+     * and the menu files are watched for changes. Order IDs are reserved in order-ids
+     * and placed orders past the memory budget spill to orders/. Stock counts are rebuilt
+     * from stock.csv, the stock ledger and the journal; see Inventory. Carts are dropped
+     * after CART_HOLD_NANOS idle.
+     * Past days go to the archive under archive/. Replication starts if the
+     * foodorder.replication.* properties configure it; see Replicator.Config.
+     */
+    static OrderService open(Path dataDir) throws IOException {
+        return open(dataDir, Replicator.Config.fromSystemProperties());
+    }
+
+    /** As open(dataDir), replicating with the given config, or not if it is null. */
+    static OrderService open(Path dataDir, Replicator.Config replication) throws IOException {
+        MenuCatalog catalog = MenuLoader.loadOrBundled(dataDir);
+        OrderJournal journal = OrderJournal.open(dataDir.resolve("journal"));
+        Recommender recommender = new Recommender();
+        Inventory.Recovery stock = Inventory.recover(dataDir);
+        OrderRegistry registry = OrderRegistry.open(dataDir.resolve("orders"), ORDER_MEMORY_BYTES);
+        // Orders placed since the newest spilled block only lived in memory; after a crash the journal has them
+        long unspilledFrom = registry.unspilledFrom();
+        LocalDate replayFrom = stock.firstDay(ZoneId.systemDefault());
+        if (unspilledFrom == Long.MIN_VALUE) {
+            replayFrom = LocalDate.MIN;
+        } else if (unspilledFrom != Long.MAX_VALUE) {
+            LocalDate day = Instant.ofEpochMilli(unspilledFrom).atZone(ZoneId.systemDefault()).toLocalDate();
+            if (day.isBefore(replayFrom)) replayFrom = day;
+        }
+        // Closed days the checkpoint covers aren't replayed, unless stock or the registry needs their orders
+        journal.recover(catalog::byName, entry -> {
+            recommender.record(entry.itemNames);
+            stock.order(entry);
+            if (entry.orderId != 0 && entry.epochMillis >= unspilledFrom && registry.find(entry.orderId) == null) {
+                registry.complete(entry.toRecord());
+            }
+        }, replayFrom);
+        OrderLogWriter orderLog = new OrderLogWriter(dataDir, 1024,
+                OrderLogWriter.FsyncPolicy.EVERY_BATCH, journal);
+        OrderService service = new OrderService(catalog, orderLog, journal,
+                OrderIdAllocator.open(dataDir.resolve("order-ids"),
+                        replication == null ? 0 : replication.node * NODE_ORDER_IDS),
+                registry, recommender);
+        Path rules = dataDir.resolve("pricing.rules");
+        if (Files.exists(rules)) {
+            service.setPricingRules(PricingRules.load(rules));
+        }
+        service.inventory.restore(stock);
+        service.inventory.keepLedger(dataDir);
+        service.startCartReaper(CART_HOLD_NANOS);
+        service.learnSummarisedDays();
+        service.startArchiver(OrderArchive.open(dataDir));
+        service.menuWatcher = new MenuWatcher(dataDir, service);
+        if (replication != null) {
+            service.startReplication(replication, OrderIdAllocator.open(dataDir.resolve("replication-seq")),
+                    dataDir.resolve("replication-applied"));
+        }
+        return service;
+    }
+
+    /** Name to item map of the current menu. Builds every item; see MenuCatalog.asMap(). */
+    public Map<String, FoodItem> getMenu() {
+        return state.catalog.asMap();
+    }
+
+    /** The current menu. Hold on to one catalog per screen or request; IDs are only valid within it. */
+    public MenuCatalog getCatalog() {
+        return state.catalog;
+    }
+
+    public OrderMetrics getMetrics() {
+        return metrics;
+    }
+
+    public OrderLogWriter getOrderLog() {
+        return orderLog;
+    }
+
+    /** Stock counts; items it doesn't track are unlimited. */
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public Recommender getRecommender() {
+        return recommender;
+    }
+
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    /** The link to the other terminals, or null if this one runs alone. */
+    public Replicator getReplicator() {
+        return replicator;
+    }
+
+    /** Compacted order history, or null without a data directory. */
+    public synchronized OrderArchive getArchive() {
+        return archive;
+    }
+
+    public PricingEngine getPricing() {
+        return state.pricing;
+    }
+
+    /** Compiles and switches to new rules; carts checked out afterwards use them. */
+    public synchronized void setPricingRules(PricingRules rules) {
+        state = new MenuState(state.catalog, rules);
+    }
+
+    /**
+     * Switches to a new menu. The current pricing rules are recompiled against it first,
+     * so a menu they don't fit is rejected (IllegalArgumentException) and nothing changes.
+     * Popularity carries over by item name.
+     */
+    public void setMenu(MenuCatalog catalog) {
+        synchronized (this) {
+            MenuState next = new MenuState(catalog, state.rules);
+            catalog.inheritPopularity(state.catalog);
+            inventory.attach(catalog);
+            state = next;
+        }
+        for (Consumer<MenuCatalog> listener : menuListeners) {
+            listener.accept(catalog);
+        }
+    }
+
+    /** Called with the new catalog after every menu swap, on the thread that made it. */
+    public void addMenuListener(Consumer<MenuCatalog> listener) {
+        menuListeners.add(listener);
+    }
+
+    /**
+     * Switches an item on or off the menu, here and on the other terminals. False if the
+     * current menu has no such item.
+     */
+    public boolean setAvailable(String itemName, boolean available) {
+        MenuCatalog catalog = state.catalog;
+        int id = catalog.idOf(itemName);
+        if (id < 0) return false;
+        catalog.setAvailable(id, available);
+        publish(Replicator.Event.availability(itemName, available));
+        fireAvailabilityChanged(itemName);
+        return true;
+    }
+
+    /** Adds portions as one batch (see Inventory.restock), here and on the other terminals. */
+    public void restock(Map<String, Integer> portions) {
+        inventory.restock(portions);
+        for (Map.Entry<String, Integer> e : portions.entrySet()) {
+            publish(Replicator.Event.restock(e.getKey(), e.getValue()));
+            fireAvailabilityChanged(e.getKey());
+        }
+    }
+
+    /**
+     * Called with an item's name when its availability may have changed because of
+     * setAvailable, restock or another terminal's orders, on the thread that changed it.
+     */
+    public void addAvailabilityListener(Consumer<String> listener) {
+        availabilityListeners.add(listener);
+    }
+
+    private void fireAvailabilityChanged(String itemName) {
+        for (Consumer<String> listener : availabilityListeners) listener.accept(itemName);
+    }
+
+    /** Catalog IDs of the items in a category. */
+    public int[] itemsInCategory(String category) {
+        return state.catalog.itemsInCategory(category);
+    }
+
+    /** Catalog IDs of the combos that can be ordered right now. */
+    public int[] availableCombos() {
+        return state.catalog.availableInCategory("Combos");
+    }
+
+    public AddResult addItem(String sessionId, String itemName) {
+        MenuCatalog catalog = state.catalog;
+        int id = catalog.idOf(itemName);
+        return id < 0 ? AddResult.UNKNOWN_ITEM : addItem(sessionId, catalog, id);
+    }
+
+    /** Adds by ID in the current catalog. */
+    public AddResult addItem(String sessionId, int itemId) {
+        return addItem(sessionId, state.catalog, itemId);
+    }
+
+    /** Adds by ID in the given catalog; if the menu has been swapped since, the item is matched by name. */
+    AddResult addItem(String sessionId, MenuCatalog catalog, int itemId) {
+        if (itemId < 0 || itemId >= catalog.size()) return AddResult.UNKNOWN_ITEM;
+        FoodItem item = catalog.get(itemId);
+        if (!item.isAvailable()) return AddResult.UNAVAILABLE;
+
+        long start = System.nanoTime();
+        while (true) {
+            Cart cart = carts.computeIfAbsent(sessionId, id -> new Cart());
+            synchronized (cart) {
+                if (cart.closed) continue;          // dropped while we were getting it
+                MenuCatalog current = state.catalog;
+                syncMenu(cart, current);
+                if (current != catalog) {
+                    // The menu was swapped after the item was looked up
+                    item = current.byName(item.getName());
+                    if (item == null) return AddResult.UNKNOWN_ITEM;
+                    if (!item.isAvailable()) return AddResult.UNAVAILABLE;
+                }
+                if (!inventory.reserve(item, 1)) return AddResult.UNAVAILABLE;
+                openOrder(cart).addItem(item);
+                cart.touchedNanos = System.nanoTime();
+            }
+            metrics.record(OrderMetrics.Stage.ITEM_ADD, start);
+            return AddResult.ADDED;
+        }
+    }
+
+    /**
+     * Adds several items at once, all or none: UNKNOWN_ITEM or UNAVAILABLE if any one
+     * isn't on the menu or can't be had in that quantity, and then the cart is unchanged.
+     */
+    public AddResult addItems(String sessionId, Map<String, Integer> quantities) {
+        long start = System.nanoTime();
+        while (true) {
+            Cart cart = carts.computeIfAbsent(sessionId, id -> new Cart());
+            synchronized (cart) {
+                if (cart.closed) continue;
+                MenuCatalog current = state.catalog;
+                syncMenu(cart, current);
+                FoodItem[] items = new FoodItem[quantities.size()];
+                int[] counts = new int[items.length];
+                int i = 0;
+                for (Map.Entry<String, Integer> e : quantities.entrySet()) {
+                    items[i] = current.byName(e.getKey());
+                    counts[i] = e.getValue();
+                    if (items[i] == null || counts[i] <= 0) return AddResult.UNKNOWN_ITEM;
+                    if (!items[i].isAvailable()) return AddResult.UNAVAILABLE;
+                    i++;
+                }
+                if (!inventory.reserveAll(items, counts)) return AddResult.UNAVAILABLE;
+                Order order = openOrder(cart);
+                for (i = 0; i < items.length; i++) order.addItem(items[i], counts[i]);
+                cart.touchedNanos = System.nanoTime();
+            }
+            metrics.record(OrderMetrics.Stage.ITEM_ADD, start);
+            return AddResult.ADDED;
+        }
+    }
+
+    /** The cart's order, started (and registered) if it has none. Hold the cart. */
+    private Order openOrder(Cart cart) {
+        if (cart.order == null) {
+            long orderId = orderIds.next();
+            cart.order = new Order(orderId);
+            registry.register(orderId, () -> openCart(cart, orderId));
+        }
+        return cart.order;
+    }
+
+    /**
+     * Up to limit available items to offer instead of one that can't be had: from its
+     * category or a combo, best recommended first, then the most popular.
+     */
+    public List<FoodItem> suggestInstead(String sessionId, String itemName, int limit) {
+        MenuCatalog catalog = state.catalog;
+        FoodItem wanted = catalog.byName(itemName);
+        if (wanted == null) return Collections.emptyList();
+        String category = wanted.getCategory();
+        Map<String, Integer> cart = cartQuantities(sessionId);
+        List<FoodItem> items = new ArrayList<>(limit);
+        for (String name : recommender.substitutes(itemName, cart.keySet(), limit, name -> {
+            FoodItem item = catalog.byName(name);
+            return item != null && item.isAvailable()
+                    && (item.getCategory().equals(category) || item.getCategory().equals("Combos"));
+        })) {
+            items.add(catalog.byName(name));
+        }
+        if (items.size() < limit) {
+            // Not enough history: fill up with the popular ones
+            List<FoodItem> popular = new ArrayList<>();
+            for (String c : category.equals("Combos") ? List.of(category) : List.of(category, "Combos")) {
+                for (int id : catalog.availableInCategory(c)) {
+                    FoodItem item = catalog.get(id);
+                    if (item != wanted && !items.contains(item) && !cart.containsKey(item.getName())) popular.add(item);
+                }
+            }
+            popular.sort(Comparator.comparingLong(FoodItem::getPopularity).reversed());
+            items.addAll(popular.subList(0, Math.min(popular.size(), limit - items.size())));
+        }
+        return items;
+    }
+
+    /** Up to limit available items often bought with what is in the session's cart. */
+    public List<FoodItem> suggestWith(String sessionId, int limit) {
+        MenuCatalog catalog = state.catalog;
+        List<FoodItem> items = new ArrayList<>(limit);
+        for (String name : recommender.addOns(cartQuantities(sessionId).keySet(), limit, name -> {
+            FoodItem item = catalog.byName(name);
+            return item != null && item.isAvailable();
+        })) {
+            items.add(catalog.byName(name));
+        }
+        return items;
+    }
+
+    /** Takes one unit of an item back out of the cart; false if it wasn't there. */
+    public boolean removeItem(String sessionId, String itemName) {
+        Cart cart = carts.get(sessionId);
+        if (cart == null) return false;
+        synchronized (cart) {
+            MenuCatalog current = state.catalog;
+            syncMenu(cart, current);
+            FoodItem item = current.byName(itemName);
+            if (item == null || cart.order == null || cart.order.removeItem(item) < 0) return false;
+            inventory.release(item, 1);
+            cart.touchedNanos = System.nanoTime();
+            return true;
+        }
+    }
+
+    /** Takes one unit back out by ID in the current catalog. */
+    public boolean removeItem(String sessionId, int itemId) {
+        MenuCatalog catalog = state.catalog;
+        return itemId >= 0 && itemId < catalog.size() && removeItem(sessionId, catalog.get(itemId).getName());
+    }
+
+    /** An open cart as a registry record; null once its order has been placed or dropped. */
+    private static OrderRegistry.Record openCart(Cart cart, long orderId) {
+        synchronized (cart) {
+            Order order = cart.order;
+            if (order == null || order.getOrderId() != orderId) return null;
+            return OrderRegistry.Record.of(order, 0, order.getTotalPaise());
+        }
+    }
+
+    /**
+     * Moves the cart's order onto the given (current) menu if it was built on an older
+     * one, releasing the stock of items the new menu dropped. Hold the cart.
+     */
+    private void syncMenu(Cart cart, MenuCatalog current) {
+        if (cart.catalog == current) return;
+        Order order = cart.order;
+        if (order != null) {
+            for (int line = 0; line < order.getLineCount(); line++) {
+                FoodItem item = order.getLineItem(line);
+                if (current.idOf(item.getName()) < 0) inventory.release(item, order.getQuantity(line));
+            }
+            cart.order = order.rebase(current);
+        }
+        cart.catalog = current;
+    }
+
+    /** Puts back everything the cart holds and marks it closed. Hold the cart. */
+    private void close(Cart cart) {
+        Order order = cart.order;
+        if (order != null) {
+            for (int line = 0; line < order.getLineCount(); line++) {
+                inventory.release(order.getLineItem(line), order.getQuantity(line));
+            }
+            registry.discard(order.getOrderId());
+        }
+        cart.order = null;
+        cart.closed = true;
+    }
+
+    /** Snapshot of the session's cart, item name to quantity, in line order. */
+    public Map<String, Integer> cartQuantities(String sessionId) {
+        Cart cart = carts.get(sessionId);
+        if (cart == null) return Collections.emptyMap();
+        synchronized (cart) {
+            syncMenu(cart, state.catalog);
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            Order order = cart.order;
+            for (int line = 0; order != null && line < order.getLineCount(); line++) {
+                quantities.put(order.getLineItem(line).getName(), order.getQuantity(line));
+            }
+            return quantities;
+        }
+    }
+
+    public long cartTotalPaise(String sessionId) {
+        Cart cart = carts.get(sessionId);
+        if (cart == null) return 0;
+        synchronized (cart) {
+            syncMenu(cart, state.catalog);
+            return cart.order == null ? 0 : cart.order.getTotalPaise();
+        }
+    }
+
+    /** Attaches a coupon to the session's cart; false if the current rules don't know the code. */
+    public boolean applyCoupon(String sessionId, String code) {
+        if (state.pricing.couponId(code) < 0) return false;
+        Cart cart = carts.computeIfAbsent(sessionId, id -> new Cart());
+        synchronized (cart) {
+            if (!cart.coupons.contains(code)) cart.coupons.add(code);
+        }
+        return true;
+    }
+
+    /** Sessions holding a cart, empty or checked out ones included until they are dropped. */
+    public int getOpenCarts() {
+        return carts.size();
+    }
+
+    public void discardCart(String sessionId) {
+        Cart cart = carts.remove(sessionId);
+        if (cart == null) return;
+        synchronized (cart) {
+            close(cart);
+        }
+    }
+
+    /**
+     * Drops every cart that hasn't been touched for idleNanos, putting back the stock
+     * it reserved; carts left empty or checked out go the same way. Returns how many
+     * were dropped.
+     */
+    public int releaseIdleCarts(long idleNanos) {
+        long now = System.nanoTime();
+        int dropped = 0;
+        for (Map.Entry<String, Cart> e : carts.entrySet()) {
+            Cart cart = e.getValue();
+            boolean abandoned;
+            synchronized (cart) {
+                if (cart.closed || now - cart.touchedNanos < idleNanos) continue;
+                abandoned = (cart.order != null && !cart.order.isEmpty()) || !cart.coupons.isEmpty();
+                carts.remove(e.getKey(), cart);
+                close(cart);
+            }
+            dropped++;
+            if (!abandoned) continue;
+            for (Consumer<String> listener : expiryListeners) listener.accept(e.getKey());
+        }
+        return dropped;
+    }
+
+    /**
+     * Called with the session ID after a cart with items or coupons in it was dropped as
+     * abandoned, on the reaper thread.
+     */
+    public void addCartExpiryListener(Consumer<String> listener) {
+        expiryListeners.add(listener);
+    }
+
+    /** Runs releaseIdleCarts(holdNanos) on a daemon thread, checking ten times per hold period. */
+    synchronized void startCartReaper(long holdNanos) {
+        if (cartReaper != null) return;
+        cartReaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cart-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(TimeUnit.SECONDS.toNanos(1), holdNanos / 10);
+        cartReaper.scheduleAtFixedRate(() -> {
+            releaseIdleCarts(holdNanos);
+            admission.evictIdle();
+        }, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Archives the journal's past days now and then hourly on a daemon thread (see
+     * OrderArchive.firstOpenDay()); item categories come from the menu of the moment.
+     */
+    synchronized void startArchiver(OrderArchive target) {
+        if (archiver != null || journal == null) return;
+        archive = target;
+        archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        archiver.scheduleAtFixedRate(this::archivePastDays, 0, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Feeds the days recovery took from the journal checkpoint to the recommender on a
+     * background thread, so they count without holding up startup.
+     */
+    private void learnSummarisedDays() {
+        List<LocalDate> days = journal.getSummarisedDays();
+        if (days.isEmpty()) return;
+        Thread t = new Thread(() -> {
+            try {
+                for (LocalDate day : days) journal.replay(day, entry -> recommender.record(entry.itemNames));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "recommender-history");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Compacts every journalled day that is over and not archived yet, and checkpoints
+     * the journal up to there; returns how many days were compacted.
+     */
+    int archivePastDays() {
+        OrderArchive target = getArchive();
+        if (target == null) return 0;
+        MenuCatalog catalog = state.catalog;
+        try {
+            LocalDate open = OrderArchive.firstOpenDay();
+            int compacted = target.compact(journal, name -> {
+                FoodItem item = catalog.byName(name);
+                return item == null ? null : item.getCategory();
+            }, open).size();
+            journal.checkpoint(open);
+            return compacted;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Links up with the other terminals and starts exchanging changes; sequences
+     * numbers this terminal's events, and appliedPath keeps how far theirs were applied
+     * across restarts. Returns the running replicator.
+     */
+    synchronized Replicator startReplication(Replicator.Config config, OrderIdAllocator sequences,
+            Path appliedPath) throws IOException {
+        if (replicator == null) {
+            Replicator started = new Replicator(config, sequences, appliedPath, this::applyReplicated);
+            started.start();
+            replicator = started;
+        }
+        return replicator;
+    }
+
+    private void publish(Replicator.Event event) {
+        Replicator r = replicator;
+        if (r != null) r.publish(event);
+    }
+
+    /** Applies another terminal's change; runs on the replication thread. */
+    private void applyReplicated(Replicator.Event event) {
+        switch (event.type) {
+            case Replicator.Event.ORDER: {
+                OrderRegistry.Record record = event.toRecord();
+                if (registry.find(record.orderId) != null) return;   // applied before a restart
+                registry.complete(record);
+                MenuCatalog catalog = state.catalog;
+                for (int line = 0; line < record.itemNames.length; line++) {
+                    FoodItem item = catalog.byName(record.itemNames[line]);
+                    if (item != null) item.increasePopularity(record.quantities[line]);
+                    inventory.soldElsewhere(record.itemNames[line], record.quantities[line]);
+                }
+                recommender.record(record.itemNames);
+                for (String name : record.itemNames) {
+                    if (inventory.get(name) != null) fireAvailabilityChanged(name);
+                }
+                break;
+            }
+            case Replicator.Event.STATUS:
+                registry.updateStatus(event.orderId(), event.orderStatus());
+                break;
+            case Replicator.Event.AVAILABILITY: {
+                String name = event.itemName();
+                MenuCatalog catalog = state.catalog;
+                int id = catalog.idOf(name);
+                if (id < 0) return;
+                catalog.setAvailable(id, event.value() != 0);
+                fireAvailabilityChanged(name);
+                break;
+            }
+            case Replicator.Event.RESTOCK: {
+                String name = event.itemName();
+                inventory.restock(Map.of(name, (int) event.value()));
+                fireAvailabilityChanged(name);
+                break;
+            }
+            default:
+                // from a newer version; nothing to do with it here
+        }
+    }
+
+    /**
+     * Sends placed orders to a kitchen (the Kitchen.standard() layout) from now on and
+     * returns it. Off by default: with nobody working the stations, tickets only pile up.
+     */
+    public synchronized Kitchen enableKitchen() {
+        if (kitchen == null) {
+            kitchen = Kitchen.standard(order -> {
+                registry.updateStatus(order.getOrderId(), order.getStatus());
+                publish(Replicator.Event.status(order.getOrderId(), order.getStatus()));
+            });
+        }
+        return kitchen;
+    }
+
+    /** The kitchen, or null if it isn't enabled. */
+    public Kitchen getKitchen() {
+        return kitchen;
+    }
+
+    /** Any order by ID: an open cart, a placed order, or one spilled to disk. Null if unknown. */
+    public OrderRegistry.Record findOrder(long orderId) {
+        return registry.find(orderId);
+    }
+
+    /**
+     * Places the session's order if admission control lets the terminal have it now;
+     * see checkout(). Returns null when the cart is empty, and otherwise the bill or the
+     * refusal.
+     */
+    public Placement placeOrder(String sessionId, AdmissionControl.Channel channel, String terminal)
+            throws InterruptedException {
+        Cart cart = carts.get(sessionId);
+        if (cart == null) return null;
+        Set<String> stations = new HashSet<>();
+        synchronized (cart) {
+            if (cart.order == null || cart.order.isEmpty()) return null;
+            for (int line = 0; line < cart.order.getLineCount(); line++) {
+                stations.add(cart.order.getLineItem(line).getCategory());
+            }
+        }
+        AdmissionControl.Decision decision = admission.admit(channel, terminal, stations);
+        if (!decision.isAdmitted()) return new Placement(null, decision);
+
+        long start = System.nanoTime();
+        Bill bill = checkout(sessionId);
+        admission.recordServiceTime(System.nanoTime() - start);
+        if (bill == null) {
+            // Emptied or dropped since it was admitted: nothing was placed
+            admission.giveBack(channel, terminal);
+            return null;
+        }
+        Kitchen k = kitchen;
+        long eta = k == null ? -1 : k.etaNanos(bill.order.getOrderId());
+        return new Placement(bill, eta < 0 ? decision
+                : new AdmissionControl.Decision(AdmissionControl.Outcome.ADMITTED, eta, null));
+    }
+
+    /**
+     * Places the session's order: bills it, queues it for the text log and journal,
+     * and empties the cart. Returns null when the cart is empty. If the order can't be
+     * queued (the thread is interrupted, or the log is closed), it isn't placed and the
+     * cart is left as it was.
+     */
+    public Bill checkout(String sessionId) throws InterruptedException {
+        Cart cart = carts.get(sessionId);
+        if (cart == null) return null;
+
+        LocalDateTime now = LocalDateTime.now();
+        long epochMillis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Bill bill;
+        OrderRegistry.Record placed;
+        synchronized (cart) {
+            MenuState menu = state;
+            syncMenu(cart, menu.catalog);
+            if (cart.order == null || cart.order.isEmpty()) return null;
+            long start = System.nanoTime();
+            bill = new Bill(cart.order, menu.pricing.evaluator().price(cart.order, now, cart.coupons));
+            metrics.record(OrderMetrics.Stage.BILL, start);
+            placed = OrderRegistry.Record.of(cart.order, epochMillis, bill.finalPaise);
+
+            // Queued first: if this throws (interrupted, or the log is closing), nothing is placed and the cart stays
+            start = System.nanoTime();
+            orderLog.append(now.toLocalDate(), formatLogRecord(bill, now), journalEntry(bill, epochMillis));
+            metrics.record(OrderMetrics.Stage.LOG_WRITE, start);
+
+            registry.complete(placed);
+            for (int line = 0; line < cart.order.getLineCount(); line++) {
+                FoodItem item = cart.order.getLineItem(line);
+                int quantity = cart.order.getQuantity(line);
+                inventory.sold(item, quantity);
+                item.increasePopularity(quantity);
+            }
+            cart.order = null;
+            cart.coupons.clear();
+            cart.touchedNanos = System.nanoTime();
+        }
+
+        publish(Replicator.Event.order(placed));
+        Kitchen k = kitchen;
+        if (k != null) k.submit(bill.order);
+        String[] names = new String[bill.order.getLineCount()];
+        for (int line = 0; line < names.length; line++) names[line] = bill.order.getLineItem(line).getName();
+        recommender.record(names);
+        metrics.orderPlaced(bill.order.getItemCount(), bill.finalPaise);
+        return bill;
+    }
+
+    private String formatLogRecord(Bill bill, LocalDateTime now) {
+        StringBuilder record = new StringBuilder(256);
+        record.append("------------------------------\n");
+        record.append("Date: ").append(now.format(LOG_TIME)).append("\n");
+        record.append("Items:\n");
+
+        Order order = bill.order;
+        for (int line = 0; line < order.getLineCount(); line++) {
+            FoodItem item = order.getLineItem(line);
+            int qty = order.getQuantity(line);
+            record.append("- ").append(item.getName()).append(" x ").append(qty)
+                    .append(" : Rs. ").append(item.getPrice() * qty).append("\n");
+        }
+
+        record.append("Total: Rs. ").append(order.getTotalAmount()).append("\n");
+        record.append("------------------------------\n\n");
+        return record.toString();
+    }
+
+    private OrderJournal.Entry journalEntry(Bill bill, long epochMillis) {
+        if (journal == null) return null;
+
+        Order order = bill.order;
+        String[] names = new String[order.getLineCount()];
+        int[] quantities = new int[names.length];
+        long[] linePaise = new long[names.length];
+        for (int line = 0; line < names.length; line++) {
+            FoodItem item = order.getLineItem(line);
+            names[line] = item.getName();
+            quantities[line] = order.getQuantity(line);
+            linePaise[line] = item.getPricePaise() * quantities[line];
+        }
+        return new OrderJournal.Entry(order.getOrderId(), epochMillis, names, quantities, linePaise,
+                order.getTotalPaise(), bill.finalPaise);
+    }
+
+    /**
+     * Stops replicating and watching the menu, flushes the order log, closes the journal and spills the
+     * placed orders still in memory.
+     */
+    @Override
+    public void close() {
+        Replicator r = replicator;
+        if (r != null) r.close();
+        if (menuWatcher != null) menuWatcher.close();
+        synchronized (this) {
+            if (cartReaper != null) cartReaper.shutdownNow();
+            if (archiver != null) archiver.shutdownNow();
+        }
+        orderLog.close();
+        inventory.close();
+        try {
+            if (journal != null) journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            registry.close();
+            orderIds.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** The menu bundled with the application (foodorder/menu.csv). */
+    static Map<String, FoodItem> initializeMenu() {
+        return MenuLoader.bundled();
+    }
+}
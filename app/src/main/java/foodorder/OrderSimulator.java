@@ -0,0 +1,333 @@
+package foodorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderSimulator - Headless peak-hour load generator for the ordering path.
+ *
+ * Synthetic mode: N concurrent customers each place orders through OrderService, picking
+ * a category by weight and an item inside it from a Zipf distribution (rank = catalog
+ * order). Unavailable picks fall back to a combo, as the UI does.
+ *
+ * Replay mode: re-places every order of a recorded orders_yyyy-MM-dd.txt file, keeping
+ * the original spacing compressed by a speed factor. The log only has minute resolution,
+ * so orders inside one minute are spread evenly over it.
+ *
+ *   OrderSimulator [--customers 64] [--orders 200] [--max-items 4] [--zipf 1.1]
+ *                  [--weights "Starters:3,Main Course:5,Beverages:4,Combos:1"]
+ *                  [--think-ms 0] [--replay orders_2026-10-16.txt --speed 60] [--data dir]
+ */
+class OrderSimulator {
+
+    enum Step { ADD_ITEM, COMBO_FALLBACK, CHECKOUT }
+
+    /** Growable per-thread latency samples, one array per step. */
+    static final class StepSamples {
+        final long[][] samples = new long[Step.values().length][1024];
+        final int[] counts = new int[Step.values().length];
+
+        void record(Step step, long nanos) {
+            int s = step.ordinal();
+            if (counts[s] == samples[s].length) {
+                samples[s] = Arrays.copyOf(samples[s], counts[s] * 2);
+            }
+            samples[s][counts[s]++] = nanos;
+        }
+    }
+
+    /** Category weights plus a Zipf sampler over each category's items. */
+    static final class PopularityModel {
+        final int[][] itemsByCategory;
+        final double[][] cumulative;
+        final double[] categoryCumulative;
+
+        PopularityModel(MenuCatalog catalog, Map<String, Double> weights, double zipf) {
+            List<String> categories = catalog.categories();
+            itemsByCategory = new int[categories.size()][];
+            cumulative = new double[categories.size()][];
+            categoryCumulative = new double[categories.size()];
+
+            double total = 0;
+            for (int c = 0; c < categories.size(); c++) {
+                total += weights.getOrDefault(categories.get(c), 1.0);
+                categoryCumulative[c] = total;
+
+                int[] ids = catalog.itemsInCategory(categories.get(c));
+                itemsByCategory[c] = ids;
+                cumulative[c] = new double[ids.length];
+                double sum = 0;
+                for (int rank = 0; rank < ids.length; rank++) {
+                    sum += 1.0 / Math.pow(rank + 1, zipf);
+                    cumulative[c][rank] = sum;
+                }
+            }
+        }
+
+        int pick(ThreadLocalRandom random) {
+            int c = search(categoryCumulative, random.nextDouble() * categoryCumulative[categoryCumulative.length - 1]);
+            double[] cdf = cumulative[c];
+            return itemsByCategory[c][search(cdf, random.nextDouble() * cdf[cdf.length - 1])];
+        }
+
+        private static int search(double[] cdf, double x) {
+            int i = Arrays.binarySearch(cdf, x);
+            return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+        }
+    }
+
+    /** One order parsed from a daily log file. */
+    static final class RecordedOrder {
+        final LocalDateTime time;
+        final Map<String, Integer> items = new LinkedHashMap<>();
+
+        RecordedOrder(LocalDateTime time) {
+            this.time = time;
+        }
+    }
+
+    private final OrderService service;
+    private final AtomicLong ordersPlaced = new AtomicLong();
+    private final AtomicLong unknownItems = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    OrderSimulator(OrderService service) {
+        this.service = service;
+    }
+
+    /** Runs the synthetic workload and returns each customer's samples. */
+    List<StepSamples> runSynthetic(int customers, int ordersPerCustomer, int maxItems,
+                                   PopularityModel model, long thinkMillis) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(customers);
+        List<Future<StepSamples>> futures = new ArrayList<>(customers);
+        for (int c = 0; c < customers; c++) {
+            String session = "sim-" + c;
+            futures.add(pool.submit(() -> {
+                StepSamples samples = new StepSamples();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int o = 0; o < ordersPerCustomer; o++) {
+                    int items = 1 + random.nextInt(maxItems);
+                    for (int i = 0; i < items; i++) {
+                        addWithFallback(session, model.pick(random), samples, random);
+                    }
+                    checkout(session, samples);
+                    if (thinkMillis > 0) Thread.sleep(thinkMillis);
+                }
+                return samples;
+            }));
+        }
+        return collect(pool, futures);
+    }
+
+    /** Re-places a recorded day, compressing its timeline by the speed factor. */
+    List<StepSamples> replay(List<RecordedOrder> orders, double speed, int customers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(customers);
+        List<Future<StepSamples>> futures = new ArrayList<>(orders.size());
+        if (orders.isEmpty()) return collect(pool, futures);
+
+        LocalDateTime first = orders.get(0).time;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < orders.size(); ) {
+            // Spread the orders that share a minute evenly across it
+            int j = i;
+            while (j < orders.size() && orders.get(j).time.equals(orders.get(i).time)) j++;
+            long minuteOffsetNanos = TimeUnit.SECONDS.toNanos(Duration.between(first, orders.get(i).time).getSeconds());
+            for (int k = i; k < j; k++) {
+                long offset = minuteOffsetNanos + TimeUnit.MINUTES.toNanos(1) * (k - i) / (j - i);
+                long due = startNanos + (long) (offset / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+
+                RecordedOrder order = orders.get(k);
+                String session = "replay-" + k;
+                futures.add(pool.submit(() -> {
+                    StepSamples samples = new StepSamples();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (Map.Entry<String, Integer> e : order.items.entrySet()) {
+                        int id = service.getCatalog().idOf(e.getKey());
+                        if (id < 0) {
+                            unknownItems.incrementAndGet();
+                            continue;
+                        }
+                        for (int q = 0; q < e.getValue(); q++) {
+                            addWithFallback(session, id, samples, random);
+                        }
+                    }
+                    checkout(session, samples);
+                    return samples;
+                }));
+            }
+            i = j;
+        }
+        return collect(pool, futures);
+    }
+
+    private void addWithFallback(String session, int itemId, StepSamples samples, ThreadLocalRandom random) {
+        long t0 = System.nanoTime();
+        OrderService.AddResult result = service.addItem(session, itemId);
+        samples.record(Step.ADD_ITEM, System.nanoTime() - t0);
+
+        if (result == OrderService.AddResult.UNAVAILABLE) {
+            t0 = System.nanoTime();
+            int[] combos = service.availableCombos();
+            if (combos.length > 0) {
+                service.addItem(session, combos[random.nextInt(combos.length)]);
+            }
+            samples.record(Step.COMBO_FALLBACK, System.nanoTime() - t0);
+        }
+    }
+
+    private void checkout(String session, StepSamples samples) throws InterruptedException {
+        long t0 = System.nanoTime();
+        if (service.checkout(session) != null) {
+            ordersPlaced.incrementAndGet();
+        }
+        samples.record(Step.CHECKOUT, System.nanoTime() - t0);
+    }
+
+    private List<StepSamples> collect(ExecutorService pool, List<Future<StepSamples>> futures) throws Exception {
+        List<StepSamples> all = new ArrayList<>(futures.size());
+        try {
+            for (Future<StepSamples> f : futures) {
+                try {
+                    all.add(f.get());
+                } catch (ExecutionException e) {
+                    failures.incrementAndGet();
+                    e.getCause().printStackTrace();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return all;
+    }
+
+    /** Parses the orders of one orders_yyyy-MM-dd.txt file, in file order. */
+    static List<RecordedOrder> parseLog(Path file) throws IOException {
+        List<RecordedOrder> orders = new ArrayList<>();
+        RecordedOrder current = null;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("Date: ")) {
+                    current = new RecordedOrder(LocalDateTime.parse(line.substring(6).trim(), OrderService.LOG_TIME));
+                    orders.add(current);
+                } else if (line.startsWith("- ") && current != null) {
+                    // - name x qty : Rs. amount
+                    int colon = line.lastIndexOf(" : Rs. ");
+                    int x = line.lastIndexOf(" x ", colon);
+                    if (colon < 0 || x < 0) continue;
+                    String name = line.substring(2, x);
+                    int qty = Integer.parseInt(line.substring(x + 3, colon).trim());
+                    current.items.merge(name, qty, Integer::sum);
+                }
+            }
+        }
+        return orders;
+    }
+
+    void report(List<StepSamples> results, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("orders=%d elapsed=%.2fs throughput=%.0f orders/s unknownItems=%d failures=%d%n",
+                ordersPlaced.get(), seconds, ordersPlaced.get() / seconds, unknownItems.get(), failures.get());
+        for (Step step : Step.values()) {
+            int total = 0;
+            for (StepSamples s : results) total += s.counts[step.ordinal()];
+            if (total == 0) continue;
+
+            long[] merged = new long[total];
+            int n = 0;
+            for (StepSamples s : results) {
+                System.arraycopy(s.samples[step.ordinal()], 0, merged, n, s.counts[step.ordinal()]);
+                n += s.counts[step.ordinal()];
+            }
+            Arrays.sort(merged);
+            System.out.printf("%-15s n=%-9d %8.0f/s  p50=%8.1fus p99=%8.1fus p999=%8.1fus max=%8.1fus%n",
+                    step, total, total / seconds,
+                    percentile(merged, 0.50) / 1e3, percentile(merged, 0.99) / 1e3,
+                    percentile(merged, 0.999) / 1e3, merged[total - 1] / 1e3);
+        }
+    }
+
+    static Map<String, Double> parseWeights(String spec) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            int colon = part.lastIndexOf(':');
+            if (colon > 0) {
+                weights.put(part.substring(0, colon).trim(), Double.parseDouble(part.substring(colon + 1).trim()));
+            }
+        }
+        return weights;
+    }
+
+    /** The p-th percentile (0..1) of sorted samples, nearest rank; 0 if there are none. */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int customers = 64;
+        int orders = 200;
+        int maxItems = 4;
+        double zipf = 1.1;
+        String weights = "Starters:3,Main Course:5,Beverages:4,Combos:1";
+        long thinkMillis = 0;
+        String replayFile = null;
+        double speed = 60;
+        String dataDir = null;
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--customers": customers = Integer.parseInt(args[i + 1]); break;
+                case "--orders": orders = Integer.parseInt(args[i + 1]); break;
+                case "--max-items": maxItems = Integer.parseInt(args[i + 1]); break;
+                case "--zipf": zipf = Double.parseDouble(args[i + 1]); break;
+                case "--weights": weights = args[i + 1]; break;
+                case "--think-ms": thinkMillis = Long.parseLong(args[i + 1]); break;
+                case "--replay": replayFile = args[i + 1]; break;
+                case "--speed": speed = Double.parseDouble(args[i + 1]); break;
+                case "--data": dataDir = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Path data = dataDir != null ? Paths.get(dataDir) : Files.createTempDirectory("order-sim");
+        try (OrderService service = OrderService.open(data)) {
+            OrderSimulator simulator = new OrderSimulator(service);
+            long start = System.nanoTime();
+            List<StepSamples> results;
+            if (replayFile != null) {
+                List<RecordedOrder> recorded = parseLog(Paths.get(replayFile));
+                System.out.printf("Replaying %d orders from %s at %.0fx%n", recorded.size(), replayFile, speed);
+                results = simulator.replay(recorded, speed, customers);
+            } else {
+                PopularityModel model = new PopularityModel(service.getCatalog(), parseWeights(weights), zipf);
+                results = simulator.runSynthetic(customers, orders, maxItems, model, thinkMillis);
+            }
+            simulator.report(results, System.nanoTime() - start);
+            System.out.print(service.getMetrics().dump());
+            System.out.println("Order log queue depth at end: " + service.getOrderLog().getQueueDepth()
+                    + ", avg flush " + service.getOrderLog().getAverageFlushNanos() / 1000 + "us");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package foodorder;
+
+/**
+ * OrderStatus - Where an order is in the kitchen. Orders only move forward, one step
+ * at a time: PLACED -> PREPARING -> READY -> SERVED.
+ */
+enum OrderStatus {
+    PLACED, PREPARING, READY, SERVED;
+
+    /** The status that follows this one, or null after SERVED. */
+    OrderStatus next() {
+        OrderStatus[] all = values();
+        return ordinal() + 1 < all.length ? all[ordinal() + 1] : null;
+    }
+}
@@ -0,0 +1,279 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * OrderStore - Compact on-disk home of placed orders that left OrderRegistry's memory.
+ *
+ * Each spill is one immutable, memory-mapped block file, orders/block-NNNNNN.ord:
+ *   records  per order: placed time, then varints: status, total, final, line count,
+ *            and per line item name, quantity, line amount
+ *   index    (order ID, record offset) pairs sorted by ID
+ *   names    the block's item names and statuses, each string stored once
+ *   footer   record count, index and names offsets, name count, min and max ID, magic
+ * A lookup skips blocks whose ID range can't hold the order and binary-searches the
+ * index of the rest, newest block first. Blocks are written to a temporary file and
+ * renamed, so a crash never leaves half of one.
+ */
+class OrderStore implements AutoCloseable {
+
+    static final int MAX_BLOCK = 65_536;
+    private static final long MAGIC = 0x4F52444552424C4BL;          // "ORDERBLK"
+    private static final int FOOTER_SIZE = 40;
+    private static final int INDEX_ENTRY = 12;
+    private static final String PREFIX = "block-";
+    private static final String SUFFIX = ".ord";
+
+    private static final class Block {
+        final ByteBuffer buf;
+        final int count;
+        final int indexOffset;
+        final int namesOffset;
+        final int nameCount;
+        final long minId;
+        final long maxId;
+        private volatile String[] names;
+
+        Block(ByteBuffer buf, Path path) throws IOException {
+            int footer = buf.limit() - FOOTER_SIZE;
+            if (footer < 0 || buf.getLong(footer + 32) != MAGIC) throw new IOException(path + " is not an order block");
+            this.buf = buf;
+            count = buf.getInt(footer);
+            indexOffset = buf.getInt(footer + 4);
+            namesOffset = buf.getInt(footer + 8);
+            nameCount = buf.getInt(footer + 12);
+            minId = buf.getLong(footer + 16);
+            maxId = buf.getLong(footer + 24);
+        }
+
+        OrderRegistry.Record find(long orderId) {
+            if (orderId < minId || orderId > maxId) return null;
+            int lo = 0;
+            int hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long id = buf.getLong(indexOffset + mid * INDEX_ENTRY);
+                if (id < orderId) {
+                    lo = mid + 1;
+                } else if (id > orderId) {
+                    hi = mid - 1;
+                } else {
+                    return decode(orderId, buf.getInt(indexOffset + mid * INDEX_ENTRY + 8));
+                }
+            }
+            return null;
+        }
+
+        /** Earliest placed time in the block; a record starts with it. */
+        long firstPlacedMillis() {
+            long first = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                first = Math.min(first, buf.getLong(buf.getInt(indexOffset + i * INDEX_ENTRY + 8)));
+            }
+            return first;
+        }
+
+        private OrderRegistry.Record decode(long orderId, int offset) {
+            String[] dictionary = names();
+            ByteBuffer in = buf.duplicate().position(offset);
+            long placedMillis = in.getLong();
+            String status = dictionary[(int) readVarint(in)];
+            long totalPaise = readVarint(in);
+            long finalPaise = readVarint(in);
+            int lines = (int) readVarint(in);
+            String[] itemNames = new String[lines];
+            int[] quantities = new int[lines];
+            long[] linePaise = new long[lines];
+            for (int line = 0; line < lines; line++) {
+                itemNames[line] = dictionary[(int) readVarint(in)];
+                quantities[line] = (int) readVarint(in);
+                linePaise[line] = readVarint(in);
+            }
+            return new OrderRegistry.Record(orderId, status, placedMillis, itemNames, quantities, linePaise,
+                    totalPaise, finalPaise);
+        }
+
+        private String[] names() {
+            String[] n = names;
+            if (n == null) {
+                n = new String[nameCount];
+                ByteBuffer in = buf.duplicate().position(namesOffset);
+                for (int i = 0; i < nameCount; i++) {
+                    byte[] bytes = new byte[in.getShort() & 0xffff];
+                    in.get(bytes);
+                    n[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                names = n;
+            }
+            return n;
+        }
+    }
+
+    private final Path directory;
+    private volatile Block[] blocks;                // oldest first; replaced whole on each write
+    private int nextBlock;
+
+    private OrderStore(Path directory, Block[] blocks, int nextBlock) {
+        this.directory = directory;
+        this.blocks = blocks;
+        this.nextBlock = nextBlock;
+    }
+
+    static OrderStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(PREFIX) && n.endsWith(SUFFIX);
+            }).forEach(files::add);
+        }
+        files.sort(Comparator.naturalOrder());
+        Block[] blocks = new Block[files.size()];
+        for (int i = 0; i < blocks.length; i++) blocks[i] = map(files.get(i));
+        int next = 0;
+        if (!files.isEmpty()) {
+            String last = files.get(files.size() - 1).getFileName().toString();
+            next = Integer.parseInt(last.substring(PREFIX.length(), last.length() - SUFFIX.length())) + 1;
+        }
+        return new OrderStore(directory, blocks, next);
+    }
+
+    private static Block map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Block(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path);
+        }
+    }
+
+    /** Orders in the store. */
+    public long size() {
+        long n = 0;
+        for (Block b : blocks) n += b.count;
+        return n;
+    }
+
+    public OrderRegistry.Record find(long orderId) {
+        Block[] all = blocks;
+        for (int i = all.length - 1; i >= 0; i--) {
+            OrderRegistry.Record record = all[i].find(orderId);
+            if (record != null) return record;
+        }
+        return null;
+    }
+
+    /** Earliest placed time in the newest block, or Long.MIN_VALUE if there are no blocks. */
+    public long newestBlockFrom() {
+        Block[] all = blocks;
+        return all.length == 0 ? Long.MIN_VALUE : all[all.length - 1].firstPlacedMillis();
+    }
+
+    /** Writes the orders as one new block (at most MAX_BLOCK of them). */
+    public synchronized void write(List<OrderRegistry.Record> records) throws IOException {
+        if (records.isEmpty()) return;
+        OrderRegistry.Record[] sorted = records.toArray(new OrderRegistry.Record[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(r -> r.orderId));
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> names = new ArrayList<>();
+        int namesLength = 0;
+        long recordsLength = 0;
+        for (OrderRegistry.Record r : sorted) {
+            namesLength += intern(r.status, dictionary, names);
+            recordsLength += 8 + 5 + 10 + 10 + 5;
+            for (String item : r.itemNames) {
+                namesLength += intern(item, dictionary, names);
+                recordsLength += 5 + 5 + 10;
+            }
+        }
+        long bound = recordsLength + (long) sorted.length * INDEX_ENTRY + namesLength + FOOTER_SIZE;
+        if (bound > Integer.MAX_VALUE) throw new IOException("Order block too large");
+
+        ByteBuffer out = ByteBuffer.allocate((int) bound);
+        int[] offsets = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            OrderRegistry.Record r = sorted[i];
+            offsets[i] = out.position();
+            out.putLong(r.placedMillis);
+            writeVarint(out, dictionary.get(r.status));
+            writeVarint(out, r.totalPaise);
+            writeVarint(out, r.finalPaise);
+            writeVarint(out, r.itemNames.length);
+            for (int line = 0; line < r.itemNames.length; line++) {
+                writeVarint(out, dictionary.get(r.itemNames[line]));
+                writeVarint(out, r.quantities[line]);
+                writeVarint(out, r.linePaise[line]);
+            }
+        }
+        int indexOffset = out.position();
+        for (int i = 0; i < sorted.length; i++) {
+            out.putLong(sorted[i].orderId).putInt(offsets[i]);
+        }
+        int namesOffset = out.position();
+        for (byte[] name : names) {
+            out.putShort((short) name.length).put(name);
+        }
+        out.putInt(sorted.length).putInt(indexOffset).putInt(namesOffset).putInt(names.size())
+                .putLong(sorted[0].orderId).putLong(sorted[sorted.length - 1].orderId).putLong(MAGIC);
+        out.flip();
+
+        Path file = directory.resolve(String.format("%s%06d%s", PREFIX, nextBlock, SUFFIX));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        nextBlock++;
+
+        Block[] next = Arrays.copyOf(blocks, blocks.length + 1);
+        next[next.length - 1] = map(file);
+        blocks = next;
+    }
+
+    /** Adds a string to the block's dictionary; returns the bytes it adds (0 if already there). */
+    private static int intern(String s, Map<String, Integer> dictionary, List<byte[]> names) {
+        if (dictionary.containsKey(s)) return 0;
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        dictionary.put(s, names.size());
+        names.add(bytes);
+        return 2 + bytes.length;
+    }
+
+    /** Unsigned LEB128; every value stored this way is non-negative. */
+    static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Blocks are read-only mappings; they go away with the buffers
+    }
+}
@@ -0,0 +1,301 @@
+package foodorder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PricingEngine - A PricingRules set compiled against one MenuCatalog.
+ * Everything name- or category-based is resolved to catalog IDs up front: a price and
+ * tax rate per item, happy hours as a per-item index of windows, combos as flat
+ * component arrays sorted best deal first, coupons by code. Pricing a cart is then a
+ * few passes over its lines in long paise with no allocation; scratch space lives in
+ * a per-thread Evaluator.
+ *
+ * Billing order, all rounded half up to the paisa:
+ *   1. combos take complete sets of their items, best discount first;
+ *   2. happy hours take a percentage off the units left over (best window wins);
+ *   3. tax is charged per item's category rate on what remains after 1 and 2;
+ *   4. order discounts (the threshold discount and coupons) come off the promoted
+ *      subtotal and do not reduce tax, as the counter has always billed.
+ * With PricingRules.defaults() this reproduces the old 5% tax / 10% over Rs. 500 bill.
+ */
+class PricingEngine {
+
+    /** Result of pricing one cart. Reused by its Evaluator; copy what you keep. */
+    static final class Quote {
+        long subtotalPaise;                 // list prices
+        long promotionPaise;                // combos and happy hours
+        long taxPaise;
+        long discountPaise;                 // threshold discount and coupons
+        long finalPaise;
+    }
+
+    private final MenuCatalog catalog;
+    private final long[] pricePaise;
+    private final int[] taxBasisPoints;
+
+    // happy hours, plus a CSR index from item ID to the windows covering it
+    private final int[] happyStart;
+    private final int[] happyEnd;
+    private final int[] happyDays;
+    private final int[] happyBasisPoints;
+    private final int[] itemHappyFrom;
+    private final int[] itemHappyRules;
+
+    // combos, component lists flattened, best offer first
+    private final long[] comboOffPaise;
+    private final int[] comboFrom;
+    private final int[] componentItems;
+    private final int[] componentQuantities;
+
+    private final long discountAbovePaise;
+    private final int discountBasisPoints;
+
+    private final Map<String, Integer> couponIds = new HashMap<>();
+    private final int[] couponBasisPoints;
+    private final long[] couponFlatPaise;
+    private final long[] couponMinPaise;
+    private final boolean[] couponExclusive;
+
+    private final ThreadLocal<Evaluator> evaluators = ThreadLocal.withInitial(Evaluator::new);
+
+    private PricingEngine(PricingRules rules, MenuCatalog catalog) {
+        this.catalog = catalog;
+        int items = catalog.size();
+        pricePaise = new long[items];
+        taxBasisPoints = new int[items];
+        for (int id = 0; id < items; id++) {
+            pricePaise[id] = catalog.pricePaise(id);
+            String category = catalog.categories().get(catalog.categoryOf(id));
+            taxBasisPoints[id] = rules.categoryTaxBasisPoints.getOrDefault(category, rules.defaultTaxBasisPoints);
+        }
+
+        List<PricingRules.HappyHour> hours = rules.happyHours;
+        happyStart = new int[hours.size()];
+        happyEnd = new int[hours.size()];
+        happyDays = new int[hours.size()];
+        happyBasisPoints = new int[hours.size()];
+        List<List<Integer>> byItem = new ArrayList<>();
+        for (int id = 0; id < items; id++) byItem.add(new ArrayList<>());
+        for (int r = 0; r < hours.size(); r++) {
+            PricingRules.HappyHour h = hours.get(r);
+            happyStart[r] = h.startMinute;
+            happyEnd[r] = h.endMinute;
+            happyDays[r] = h.daysMask;
+            happyBasisPoints[r] = h.basisPoints;
+            int[] covered = h.category == null ? allIds(items) : catalog.itemsInCategory(h.category);
+            if (covered.length == 0) throw new IllegalArgumentException("Happy hour for unknown category " + h.category);
+            for (int id : covered) byItem.get(id).add(r);
+        }
+        itemHappyFrom = new int[items + 1];
+        List<Integer> flat = new ArrayList<>();
+        for (int id = 0; id < items; id++) {
+            itemHappyFrom[id] = flat.size();
+            flat.addAll(byItem.get(id));
+        }
+        itemHappyFrom[items] = flat.size();
+        itemHappyRules = flat.stream().mapToInt(Integer::intValue).toArray();
+
+        List<PricingRules.Combo> combos = new ArrayList<>(rules.combos);
+        combos.sort((a, b) -> Long.compare(b.offPaise, a.offPaise));
+        comboOffPaise = new long[combos.size()];
+        comboFrom = new int[combos.size() + 1];
+        int components = 0;
+        for (PricingRules.Combo c : combos) components += c.components.size();
+        componentItems = new int[components];
+        componentQuantities = new int[components];
+        int n = 0;
+        for (int c = 0; c < combos.size(); c++) {
+            comboOffPaise[c] = combos.get(c).offPaise;
+            comboFrom[c] = n;
+            for (Map.Entry<String, Integer> e : combos.get(c).components.entrySet()) {
+                int id = catalog.idOf(e.getKey());
+                if (id < 0) throw new IllegalArgumentException("Combo names unknown item " + e.getKey());
+                componentItems[n] = id;
+                componentQuantities[n++] = e.getValue();
+            }
+        }
+        comboFrom[combos.size()] = n;
+
+        discountAbovePaise = rules.discountAbovePaise;
+        discountBasisPoints = rules.discountBasisPoints;
+
+        List<PricingRules.Coupon> coupons = rules.coupons;
+        couponBasisPoints = new int[coupons.size()];
+        couponFlatPaise = new long[coupons.size()];
+        couponMinPaise = new long[coupons.size()];
+        couponExclusive = new boolean[coupons.size()];
+        for (int c = 0; c < coupons.size(); c++) {
+            PricingRules.Coupon coupon = coupons.get(c);
+            couponIds.put(coupon.code, c);
+            couponBasisPoints[c] = coupon.basisPoints;
+            couponFlatPaise[c] = coupon.flatPaise;
+            couponMinPaise[c] = coupon.minPaise;
+            couponExclusive[c] = coupon.exclusive;
+        }
+    }
+
+    /** Compiles the rules; fails if they name an item or category the catalog doesn't have. */
+    static PricingEngine compile(PricingRules rules, MenuCatalog catalog) {
+        return new PricingEngine(rules, catalog);
+    }
+
+    public MenuCatalog getCatalog() {
+        return catalog;
+    }
+
+    /** Coupon ID for a code, or -1 if the rules have no such coupon. */
+    public int couponId(String code) {
+        Integer id = couponIds.get(code);
+        return id == null ? -1 : id;
+    }
+
+    /** This thread's evaluator. */
+    public Evaluator evaluator() {
+        return evaluators.get();
+    }
+
+    /** Minute of the week (Monday 00:00 = 0) that happy hours are matched against. */
+    static int minuteOfWeek(LocalDateTime time) {
+        return time.getDayOfWeek().ordinal() * 1440 + time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int[] allIds(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) ids[i] = i;
+        return ids;
+    }
+
+    /** Scratch space for pricing one cart at a time. Not thread-safe; see evaluator(). */
+    final class Evaluator {
+        private final Quote quote = new Quote();
+        private final int[] remaining = new int[pricePaise.length];       // units by item ID, zero between calls
+        private int[] lineItems = new int[16];
+        private int[] lineQuantities = new int[16];
+        private int[] coupons = new int[4];
+
+        /** Prices an Order at the given time with the given coupon codes (unknown codes are ignored). */
+        public Quote price(Order order, LocalDateTime at, Collection<String> couponCodes) {
+            int lines = order.getLineCount();
+            if (lineItems.length < lines) {
+                lineItems = Arrays.copyOf(lineItems, lines * 2);
+                lineQuantities = Arrays.copyOf(lineQuantities, lines * 2);
+            }
+            for (int line = 0; line < lines; line++) {
+                lineItems[line] = order.getLineItem(line).getId();
+                lineQuantities[line] = order.getQuantity(line);
+            }
+            int couponCount = 0;
+            for (String code : couponCodes) {
+                int id = couponId(code);
+                if (id < 0) continue;
+                if (couponCount == coupons.length) coupons = Arrays.copyOf(coupons, couponCount * 2);
+                coupons[couponCount++] = id;
+            }
+            return price(lineItems, lineQuantities, 0, lines, minuteOfWeek(at), coupons, couponCount);
+        }
+
+        /**
+         * Prices lines [from, to) of parallel item-ID / quantity arrays placed at
+         * minuteOfWeek, with couponCount coupon IDs.
+         */
+        public Quote price(int[] items, int[] quantities, int from, int to, int minuteOfWeek,
+                           int[] couponIds, int couponCount) {
+            long subtotal = 0;
+            long taxBase = 0;                                   // sum of paise x basis points
+            for (int line = from; line < to; line++) {
+                int id = items[line];
+                long amount = pricePaise[id] * quantities[line];
+                subtotal += amount;
+                taxBase += amount * taxBasisPoints[id];
+                remaining[id] += quantities[line];
+            }
+
+            long promotion = 0;
+            for (int c = 0; c < comboOffPaise.length; c++) {
+                int sets = Integer.MAX_VALUE;
+                long setPrice = 0;
+                for (int k = comboFrom[c]; k < comboFrom[c + 1] && sets > 0; k++) {
+                    sets = Math.min(sets, remaining[componentItems[k]] / componentQuantities[k]);
+                    setPrice += pricePaise[componentItems[k]] * componentQuantities[k];
+                }
+                if (sets == 0 || sets == Integer.MAX_VALUE) continue;
+
+                long off = Math.min(comboOffPaise[c], setPrice) * sets;
+                promotion += off;
+                // Spread the saving over the components by price so each is taxed on what it sold for
+                long left = off;
+                for (int k = comboFrom[c]; k < comboFrom[c + 1]; k++) {
+                    int id = componentItems[k];
+                    long share = k + 1 == comboFrom[c + 1]
+                            ? left : off * pricePaise[id] * componentQuantities[k] / setPrice;
+                    left -= share;
+                    taxBase -= share * taxBasisPoints[id];
+                    remaining[id] -= sets * componentQuantities[k];
+                }
+            }
+
+            int day = minuteOfWeek / 1440;
+            int minute = minuteOfWeek % 1440;
+            for (int line = from; line < to; line++) {
+                int id = items[line];
+                int units = remaining[id];
+                remaining[id] = 0;
+                if (units == 0) continue;
+
+                int best = 0;
+                for (int k = itemHappyFrom[id]; k < itemHappyFrom[id + 1]; k++) {
+                    int r = itemHappyRules[k];
+                    if (happyBasisPoints[r] > best && inWindow(r, day, minute)) best = happyBasisPoints[r];
+                }
+                if (best > 0) {
+                    long off = percentOf(pricePaise[id] * units, best);
+                    promotion += off;
+                    taxBase -= off * taxBasisPoints[id];
+                }
+            }
+
+            long net = subtotal - promotion;
+            long stacked = net > discountAbovePaise ? percentOf(net, discountBasisPoints) : 0;
+            long exclusive = 0;
+            for (int i = 0; i < couponCount; i++) {
+                int c = couponIds[i];
+                if (net < couponMinPaise[c]) continue;
+                long off = couponBasisPoints[c] > 0 ? percentOf(net, couponBasisPoints[c]) : couponFlatPaise[c];
+                if (couponExclusive[c]) {
+                    exclusive = Math.max(exclusive, off);
+                } else {
+                    stacked += off;
+                }
+            }
+
+            Quote q = quote;
+            q.subtotalPaise = subtotal;
+            q.promotionPaise = promotion;
+            q.taxPaise = (taxBase + 5000) / 10000;
+            q.discountPaise = Math.min(net, Math.max(stacked, exclusive));
+            q.finalPaise = net + q.taxPaise - q.discountPaise;
+            return q;
+        }
+
+        private boolean inWindow(int rule, int day, int minute) {
+            int start = happyStart[rule];
+            int end = happyEnd[rule];
+            if (start <= end) {
+                return (happyDays[rule] & (1 << day)) != 0 && minute >= start && minute < end;
+            }
+            // Wraps midnight: the early-morning part belongs to the previous day's window
+            if (minute >= start) return (happyDays[rule] & (1 << day)) != 0;
+            return minute < end && (happyDays[rule] & (1 << ((day + 6) % 7))) != 0;
+        }
+    }
+
+    private static long percentOf(long paise, int basisPoints) {
+        return (paise * basisPoints + 5000) / 10000;
+    }
+}
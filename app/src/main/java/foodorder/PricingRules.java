@@ -0,0 +1,231 @@
+package foodorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PricingRules - The tax and promotion rules a bill is computed from.
+ * Plain data; PricingEngine.compile() turns a rule set into lookup tables. Rules are
+ * usually read from a pricing.rules file with one '|'-separated rule per line
+ * (names contain spaces and '+', so neither can be the separator):
+ *
+ *   tax       | *  or category      | percent
+ *   discount  | threshold rupees    | percent      (orders strictly above the threshold)
+ *   happyhour | *  or category      | 16:00-19:00 | MON-FRI or * | percent   (may wrap midnight)
+ *   combo     | rupees off per set  | item | item | 2x item ...
+ *   coupon    | CODE                | 10% or Rs.50 | [min rupees] | [exclusive]
+ *
+ * Percentages may have up to two decimals and are kept as basis points; money is kept
+ * in paise. Lines starting with # are comments.
+ */
+class PricingRules {
+
+    /** Percentage off one category's lines (or every line) inside a daily time window. */
+    static final class HappyHour {
+        final String category;              // null = every category
+        final int startMinute;              // minute of day, inclusive
+        final int endMinute;                // minute of day, exclusive
+        final int daysMask;                 // bit per DayOfWeek.ordinal()
+        final int basisPoints;
+
+        HappyHour(String category, int startMinute, int endMinute, int daysMask, int basisPoints) {
+            this.category = category;
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+            this.daysMask = daysMask;
+            this.basisPoints = basisPoints;
+        }
+    }
+
+    /** Fixed amount off every complete set of the listed items. */
+    static final class Combo {
+        final Map<String, Integer> components;
+        final long offPaise;
+
+        Combo(Map<String, Integer> components, long offPaise) {
+            this.components = components;
+            this.offPaise = offPaise;
+        }
+    }
+
+    static final class Coupon {
+        final String code;
+        final int basisPoints;              // percentage coupons
+        final long flatPaise;               // flat coupons
+        final long minPaise;
+        final boolean exclusive;            // cannot be combined with other discounts
+
+        Coupon(String code, int basisPoints, long flatPaise, long minPaise, boolean exclusive) {
+            this.code = code;
+            this.basisPoints = basisPoints;
+            this.flatPaise = flatPaise;
+            this.minPaise = minPaise;
+            this.exclusive = exclusive;
+        }
+    }
+
+    int defaultTaxBasisPoints;
+    final Map<String, Integer> categoryTaxBasisPoints = new LinkedHashMap<>();
+    long discountAbovePaise = Long.MAX_VALUE;
+    int discountBasisPoints;
+    final List<HappyHour> happyHours = new ArrayList<>();
+    final List<Combo> combos = new ArrayList<>();
+    final List<Coupon> coupons = new ArrayList<>();
+
+    /** The counter's long-standing rules: 5% tax on everything, 10% off orders above Rs. 500. */
+    static PricingRules defaults() {
+        try {
+            return parse(new StringReader("tax | * | 5\ndiscount | 500 | 10\n"));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static PricingRules load(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(in);
+        }
+    }
+
+    static PricingRules parse(Reader reader) throws IOException {
+        PricingRules rules = new PricingRules();
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] f = line.split("\\|");
+            for (int i = 0; i < f.length; i++) f[i] = f[i].trim();
+            try {
+                rules.add(f);
+            } catch (RuntimeException e) {
+                throw new IOException("pricing rules line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private void add(String[] f) {
+        switch (f[0].toLowerCase(Locale.ROOT)) {
+            case "tax":
+                need(f, 3);
+                if ("*".equals(f[1])) {
+                    defaultTaxBasisPoints = basisPoints(f[2]);
+                } else {
+                    categoryTaxBasisPoints.put(f[1], basisPoints(f[2]));
+                }
+                break;
+            case "discount":
+                need(f, 3);
+                discountAbovePaise = paise(f[1]);
+                discountBasisPoints = basisPoints(f[2]);
+                break;
+            case "happyhour": {
+                need(f, 5);
+                String[] window = f[2].split("-");
+                if (window.length != 2) throw new IllegalArgumentException("window must look like 16:00-19:00");
+                LocalTime start = LocalTime.parse(window[0].trim());
+                LocalTime end = LocalTime.parse(window[1].trim());
+                happyHours.add(new HappyHour("*".equals(f[1]) ? null : f[1],
+                        start.toSecondOfDay() / 60, end.toSecondOfDay() / 60, days(f[3]), basisPoints(f[4])));
+                break;
+            }
+            case "combo": {
+                need(f, 4);
+                Map<String, Integer> components = new LinkedHashMap<>();
+                for (int i = 2; i < f.length; i++) {
+                    int qty = 1;
+                    String name = f[i];
+                    int x = name.indexOf("x ");
+                    if (x > 0 && name.substring(0, x).chars().allMatch(Character::isDigit)) {
+                        qty = Integer.parseInt(name.substring(0, x));
+                        name = name.substring(x + 2).trim();
+                    }
+                    components.merge(name, qty, Integer::sum);
+                }
+                combos.add(new Combo(Collections.unmodifiableMap(components), paise(f[1])));
+                break;
+            }
+            case "coupon": {
+                need(f, 3);
+                long min = 0;
+                boolean exclusive = false;
+                for (int i = 3; i < f.length; i++) {
+                    if ("exclusive".equalsIgnoreCase(f[i])) {
+                        exclusive = true;
+                    } else if (f[i].toLowerCase(Locale.ROOT).startsWith("min ")) {
+                        min = paise(f[i].substring(4));
+                    } else {
+                        throw new IllegalArgumentException("unknown coupon option '" + f[i] + "'");
+                    }
+                }
+                String value = f[2];
+                if (value.endsWith("%")) {
+                    coupons.add(new Coupon(f[1], basisPoints(value.substring(0, value.length() - 1)), 0, min, exclusive));
+                } else {
+                    coupons.add(new Coupon(f[1], 0, paise(value), min, exclusive));
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown rule '" + f[0] + "'");
+        }
+    }
+
+    private static void need(String[] f, int fields) {
+        if (f.length < fields) throw new IllegalArgumentException(f[0] + " needs " + (fields - 1) + " fields");
+    }
+
+    /** "12.5" or "12.5%" to basis points (1250). */
+    static int basisPoints(String percent) {
+        String p = percent.endsWith("%") ? percent.substring(0, percent.length() - 1) : percent;
+        return Math.toIntExact(Math.round(Double.parseDouble(p.trim()) * 100));
+    }
+
+    /** "500", "Rs.50" or "Rs. 49.50" to paise. */
+    static long paise(String rupees) {
+        String r = rupees.trim();
+        if (r.startsWith("Rs.")) r = r.substring(3).trim();
+        return Math.round(Double.parseDouble(r) * 100);
+    }
+
+    /** "*", "SAT-SUN", "MON,WED,FRI" to a DayOfWeek bitmask. */
+    static int days(String spec) {
+        if ("*".equals(spec)) return 0x7f;
+        int mask = 0;
+        for (String part : spec.toUpperCase(Locale.ROOT).split(",")) {
+            String[] range = part.trim().split("-");
+            int from = day(range[0]);
+            int to = range.length > 1 ? day(range[1]) : from;
+            for (int d = from; ; d = (d + 1) % 7) {
+                mask |= 1 << d;
+                if (d == to) break;
+            }
+        }
+        return mask;
+    }
+
+    private static int day(String prefix) {
+        if (prefix.trim().length() < 2) throw new IllegalArgumentException("unknown day '" + prefix + "'");
+        for (DayOfWeek d : DayOfWeek.values()) {
+            if (d.name().startsWith(prefix.trim())) return d.ordinal();
+        }
+        throw new IllegalArgumentException("unknown day '" + prefix + "'");
+    }
+}
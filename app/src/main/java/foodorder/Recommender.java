@@ -0,0 +1,243 @@
+package foodorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Recommender - "Frequently bought together" from the orders placed so far.
+ *
+ * Keeps an item-by-item co-occurrence matrix (in how many orders two items were bought
+ * together), one sparse row per item, keyed by name so it outlives menu reloads. Each
+ * row also keeps its TOP_K strongest neighbours, best first, as an immutable snapshot.
+ * Counts only grow, so the top-K stays exact when maintained one increment at a time:
+ * a neighbour already in it can only move up, and one outside can only get in by
+ * passing the weakest. Recording an order locks just the rows of its items; queries
+ * read the snapshots without locking and look at no more than a few hundred entries.
+ *
+ *   addOns(cart)              items often bought with what is in the cart
+ *   substitutes(item, cart)   items bought in the same company as the one asked for
+ *                             (two steps through the top-K lists), plus add-ons for the cart
+ */
+class Recommender {
+
+    static final int TOP_K = 16;
+
+    /**
+     * Only the first this many lines of an order are paired up: pairs grow with the square
+     * of the lines, and a catering order of forty dishes says little about what goes together.
+     */
+    static final int MAX_PAIRED_ITEMS = 12;
+
+    /** A row's strongest neighbours, best first. Never modified once published. */
+    private static final class Neighbours {
+        static final Neighbours EMPTY = new Neighbours(new Row[0], new int[0]);
+
+        final Row[] rows;
+        final int[] counts;
+
+        Neighbours(Row[] rows, int[] counts) {
+            this.rows = rows;
+            this.counts = counts;
+        }
+    }
+
+    /** One item's row of the matrix. Counts are guarded by the row's monitor. */
+    private static final class Row {
+        final String name;
+        final int index;
+        final LongAdder orders = new LongAdder();
+        private int[] keys = new int[16];               // neighbour index + 1, 0 = empty
+        private int[] counts = new int[16];
+        private int size;
+        volatile Neighbours top = Neighbours.EMPTY;
+
+        Row(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        synchronized void add(Row other) {
+            int count = increment(other.index + 1);
+            Neighbours t = top;
+            int at = -1;
+            for (int i = 0; i < t.rows.length; i++) {
+                if (t.rows[i] == other) {
+                    at = i;
+                    break;
+                }
+            }
+            Row[] rows;
+            int[] tops;
+            if (at >= 0) {
+                rows = t.rows.clone();
+                tops = t.counts.clone();
+            } else if (t.rows.length < TOP_K) {
+                rows = Arrays.copyOf(t.rows, t.rows.length + 1);
+                tops = Arrays.copyOf(t.counts, t.counts.length + 1);
+                at = rows.length - 1;
+            } else if (count > t.counts[TOP_K - 1]) {
+                rows = t.rows.clone();
+                tops = t.counts.clone();
+                at = TOP_K - 1;
+            } else {
+                return;
+            }
+            rows[at] = other;
+            tops[at] = count;
+            for (; at > 0 && tops[at - 1] < count; at--) {
+                rows[at] = rows[at - 1];
+                tops[at] = tops[at - 1];
+                rows[at - 1] = other;
+                tops[at - 1] = count;
+            }
+            top = new Neighbours(rows, tops);
+        }
+
+        /** Open addressing on the neighbour's index; returns the new count. */
+        private int increment(int key) {
+            if (size * 2 >= keys.length) grow();
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == 0) {
+                keys[i] = key;
+                size++;
+            }
+            return ++counts[i];
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9 >>> 16 ^ key;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Row> rows = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final LongAdder orders = new LongAdder();
+
+    /** Counts one placed order, given its item names (repeats are ignored). */
+    public void record(String[] itemNames) {
+        int n = Math.min(itemNames.length, MAX_PAIRED_ITEMS);
+        Row[] items = new Row[n];
+        int distinct = 0;
+        outer:
+        for (int i = 0; i < n; i++) {
+            Row row = row(itemNames[i]);
+            for (int j = 0; j < distinct; j++) {
+                if (items[j] == row) continue outer;
+            }
+            items[distinct++] = row;
+        }
+        for (int i = 0; i < distinct; i++) {
+            items[i].orders.increment();
+            for (int j = 0; j < distinct; j++) {
+                if (i != j) items[i].add(items[j]);
+            }
+        }
+        orders.increment();
+    }
+
+    private Row row(String name) {
+        Row row = rows.get(name);
+        return row != null ? row : rows.computeIfAbsent(name, k -> new Row(k, nextIndex.getAndIncrement()));
+    }
+
+    /** Orders recorded so far. */
+    public long getOrders() {
+        return orders.sum();
+    }
+
+    /** How many orders had both items. Exact only while one is in the other's top-K, else 0. */
+    public int together(String a, String b) {
+        Row row = rows.get(a);
+        if (row == null) return 0;
+        Neighbours t = row.top;
+        for (int i = 0; i < t.rows.length; i++) {
+            if (t.rows[i].name.equals(b)) return t.counts[i];
+        }
+        return 0;
+    }
+
+    /**
+     * Up to limit items, best first, most often bought with the cart's items (summed
+     * over the cart). Cart items and ones allowed rejects are left out.
+     */
+    public List<String> addOns(Collection<String> cart, int limit, Predicate<String> allowed) {
+        Map<Row, Double> scores = new HashMap<>();
+        addCart(scores, cart);
+        return best(scores, limit, cart, null, allowed);
+    }
+
+    /**
+     * Up to limit items, best first, to offer instead of one that can't be had. A
+     * candidate scores for every top neighbour it shares with the item (weighted by how
+     * strongly each side goes with that neighbour, relative to how common the neighbour
+     * is), and then as an add-on to the cart.
+     */
+    public List<String> substitutes(String item, Collection<String> cart, int limit, Predicate<String> allowed) {
+        Map<Row, Double> scores = new HashMap<>();
+        Row row = rows.get(item);
+        if (row != null) {
+            // In orders, like the add-on part: how often it would have been bought with the item's company
+            Neighbours near = row.top;
+            for (int i = 0; i < near.rows.length; i++) {
+                Row via = near.rows[i];
+                double share = (double) near.counts[i] / Math.max(1, via.orders.sum());
+                Neighbours next = via.top;
+                for (int j = 0; j < next.rows.length; j++) {
+                    scores.merge(next.rows[j], share * next.counts[j], Double::sum);
+                }
+            }
+        }
+        addCart(scores, cart);
+        return best(scores, limit, cart, item, allowed);
+    }
+
+    private void addCart(Map<Row, Double> scores, Collection<String> cart) {
+        for (String name : cart) {
+            Row row = rows.get(name);
+            if (row == null) continue;
+            Neighbours t = row.top;
+            for (int i = 0; i < t.rows.length; i++) {
+                scores.merge(t.rows[i], (double) t.counts[i], Double::sum);
+            }
+        }
+    }
+
+    private static List<String> best(Map<Row, Double> scores, int limit, Collection<String> cart, String except,
+                                     Predicate<String> allowed) {
+        List<Map.Entry<Row, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        List<String> names = new ArrayList<>(limit);
+        for (Map.Entry<Row, Double> e : ranked) {
+            String name = e.getKey().name;
+            if (name.equals(except) || cart.contains(name) || !allowed.test(name)) continue;
+            names.add(name);
+            if (names.size() == limit) break;
+        }
+        return names;
+    }
+}
@@ -0,0 +1,728 @@
+package foodorder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Replicator - Keeps the terminals' orders, availability and stock in step over TCP.
+ *
+ * Each terminal (node) numbers the events it originates with its own increasing
+ * sequence and keeps the last RETAINED of them. Nodes link up in a mesh and only ever
+ * send their own events, so nothing is relayed and every link carries one ordered
+ * stream each way. On connecting, both sides say who they are (HELLO) and how far they
+ * have applied the other's events (RESUME); each then streams its retained events from
+ * that point on, which is the catch-up after a reconnect and the live feed in one.
+ * HELLO carries a fresh nonce and RESUME an HMAC of it under the shared secret, so
+ * neither side sends or applies events until the other has proved it knows the
+ * secret. A node that dials in must also be one the listener accepts.
+ * Receivers skip sequences they have already applied, so a replay, or two links
+ * between the same pair of nodes, does no harm.
+ *
+ * One thread runs a Selector over all links with non-blocking sockets. Whatever was
+ * published between two turns of its loop goes to each peer as one EVENTS frame:
+ *   frame    [int length][byte kind] body
+ *   HELLO    varint node, 16-byte nonce
+ *   RESUME   varint last sequence applied from the receiver, HMAC-SHA256(secret, nonce, node)
+ *   EVENTS   varint first sequence, int count, then per event [byte type][varint length][payload]
+ * Payloads are varints and length-prefixed UTF-8; see Event. Sequences come from an
+ * OrderIdAllocator, so a restarted node carries on above its old numbers, but what it
+ * retained before the restart is gone. How far each origin has been applied is kept in
+ * a small mapped file, one long per node, so a restarted node resumes where it stopped
+ * instead of having every retained event applied again.
+ */
+class Replicator implements AutoCloseable {
+
+    static final int RETAINED = 1 << 16;
+    static final int MAX_FRAME = 1 << 20;
+    static final int BATCH_BYTES = 64 * 1024;
+    static final long RECONNECT_MILLIS = 500;
+
+    private static final byte HELLO = 1;
+    private static final byte RESUME = 2;
+    private static final byte EVENTS = 3;
+    private static final int NONCE_BYTES = 16;
+    private static final int MAC_BYTES = 32;
+
+    /** One replicated change. Built with the factories; origin and seq are set on receipt. */
+    static final class Event {
+        static final byte ORDER = 1;
+        static final byte STATUS = 2;
+        static final byte AVAILABILITY = 3;
+        static final byte RESTOCK = 4;
+
+        final byte type;
+        final byte[] payload;
+        int origin;
+        long seq;
+
+        Event(byte type, byte[] payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+
+        static Event order(OrderRegistry.Record record) {
+            int lines = record.itemNames.length;
+            byte[][] names = new byte[lines][];
+            int size = 5 * 10;
+            for (int i = 0; i < lines; i++) {
+                names[i] = record.itemNames[i].getBytes(StandardCharsets.UTF_8);
+                size += 5 + names[i].length + 5 + 10;
+            }
+            ByteBuffer out = ByteBuffer.allocate(size);
+            OrderStore.writeVarint(out, record.orderId);
+            OrderStore.writeVarint(out, record.placedMillis);
+            OrderStore.writeVarint(out, record.totalPaise);
+            OrderStore.writeVarint(out, record.finalPaise);
+            OrderStore.writeVarint(out, lines);
+            for (int i = 0; i < lines; i++) {
+                OrderStore.writeVarint(out, names[i].length);
+                out.put(names[i]);
+                OrderStore.writeVarint(out, record.quantities[i]);
+                OrderStore.writeVarint(out, record.linePaise[i]);
+            }
+            return new Event(ORDER, bytes(out));
+        }
+
+        static Event status(long orderId, OrderStatus status) {
+            ByteBuffer out = ByteBuffer.allocate(11);
+            OrderStore.writeVarint(out, orderId);
+            out.put((byte) status.ordinal());
+            return new Event(STATUS, bytes(out));
+        }
+
+        static Event availability(String name, boolean available) {
+            return named(AVAILABILITY, name, available ? 1 : 0);
+        }
+
+        static Event restock(String name, int quantity) {
+            return named(RESTOCK, name, quantity);
+        }
+
+        private static Event named(byte type, String name, long value) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer out = ByteBuffer.allocate(5 + bytes.length + 10);
+            OrderStore.writeVarint(out, bytes.length);
+            out.put(bytes);
+            OrderStore.writeVarint(out, value);
+            return new Event(type, bytes(out));
+        }
+
+        /** A placed order, as it was recorded on its terminal. */
+        OrderRegistry.Record toRecord() {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            long orderId = OrderStore.readVarint(in);
+            long placedMillis = OrderStore.readVarint(in);
+            long totalPaise = OrderStore.readVarint(in);
+            long finalPaise = OrderStore.readVarint(in);
+            int lines = (int) OrderStore.readVarint(in);
+            String[] names = new String[lines];
+            int[] quantities = new int[lines];
+            long[] linePaise = new long[lines];
+            for (int i = 0; i < lines; i++) {
+                names[i] = readString(in);
+                quantities[i] = (int) OrderStore.readVarint(in);
+                linePaise[i] = OrderStore.readVarint(in);
+            }
+            return new OrderRegistry.Record(orderId, OrderStatus.PLACED.name(), placedMillis, names, quantities,
+                    linePaise, totalPaise, finalPaise);
+        }
+
+        /** STATUS: the order. */
+        long orderId() {
+            return OrderStore.readVarint(ByteBuffer.wrap(payload));
+        }
+
+        /** STATUS: where the order has got to. */
+        OrderStatus orderStatus() {
+            return OrderStatus.values()[payload[payload.length - 1]];
+        }
+
+        /** AVAILABILITY and RESTOCK: the item. */
+        String itemName() {
+            return readString(ByteBuffer.wrap(payload));
+        }
+
+        /** AVAILABILITY: 1 if available; RESTOCK: portions added. */
+        long value() {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            int nameLength = (int) OrderStore.readVarint(in);
+            in.position(in.position() + nameLength);
+            return OrderStore.readVarint(in);
+        }
+
+        private static byte[] bytes(ByteBuffer out) {
+            byte[] bytes = new byte[out.position()];
+            out.flip().get(bytes);
+            return bytes;
+        }
+
+        private static String readString(ByteBuffer in) {
+            byte[] bytes = new byte[(int) OrderStore.readVarint(in)];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Where this node listens, whom it dials, whom it lets dial in, and the shared secret. */
+    static final class Config {
+        static final int MAX_NODE = 9000;
+
+        final int node;
+        final InetSocketAddress listen;         // null: only dial out
+        final List<InetSocketAddress> peers;
+        final Set<Integer> accepted;            // nodes that may dial in; empty: any
+        final byte[] secret;                    // null: none, loopback only
+
+        /** Accepting any node without a secret; for tests and benchmarks over loopback. */
+        Config(int node, InetSocketAddress listen, List<InetSocketAddress> peers) {
+            this(node, listen, peers, Set.of(), null);
+        }
+
+        Config(int node, InetSocketAddress listen, List<InetSocketAddress> peers, Set<Integer> accepted,
+                byte[] secret) {
+            if (node < 1 || node > MAX_NODE) {
+                throw new IllegalArgumentException("Replication node must be 1-" + MAX_NODE);
+            }
+            this.node = node;
+            this.listen = listen;
+            this.peers = peers;
+            this.accepted = accepted;
+            this.secret = secret;
+        }
+
+        /**
+         * From -Dfoodorder.replication.node=2 -Dfoodorder.replication.listen=7602
+         * -Dfoodorder.replication.peers=counter1:7601,counter3:7603
+         * -Dfoodorder.replication.accept=3 -Dfoodorder.replication.secret=...; null without
+         * a node. A bare listen port is on loopback. A listening node must name the nodes
+         * it accepts, and any address beyond loopback needs the secret.
+         */
+        static Config fromSystemProperties() {
+            String node = System.getProperty("foodorder.replication.node");
+            if (node == null || node.isBlank()) return null;
+            String text = System.getProperty("foodorder.replication.listen", "");
+            InetSocketAddress listen = text.isBlank() ? null : address(text.trim(), "127.0.0.1");
+            List<InetSocketAddress> peers = new ArrayList<>();
+            for (String peer : System.getProperty("foodorder.replication.peers", "").split(",")) {
+                if (!peer.isBlank()) peers.add(address(peer.trim(), null));
+            }
+            Set<Integer> accepted = new TreeSet<>();
+            for (String accept : System.getProperty("foodorder.replication.accept", "").split(",")) {
+                if (!accept.isBlank()) accepted.add(Integer.parseInt(accept.trim()));
+            }
+            String secret = System.getProperty("foodorder.replication.secret", "");
+            if (listen != null && accepted.isEmpty()) {
+                throw new IllegalArgumentException("foodorder.replication.accept must list the nodes that may dial in");
+            }
+            boolean loopback = listen == null || isLoopback(listen);
+            for (InetSocketAddress peer : peers) loopback &= isLoopback(peer);
+            if (!loopback && secret.isEmpty()) {
+                throw new IllegalArgumentException("Replication beyond loopback needs foodorder.replication.secret");
+            }
+            return new Config(Integer.parseInt(node.trim()), listen, peers, accepted,
+                    secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static boolean isLoopback(InetSocketAddress address) {
+            return address.getAddress() != null && address.getAddress().isLoopbackAddress();
+        }
+
+        /** host:port, or just a port on defaultHost. */
+        static InetSocketAddress address(String text, String defaultHost) {
+            int colon = text.lastIndexOf(':');
+            if (colon < 0 && defaultHost == null) throw new IllegalArgumentException("Expected host:port, not " + text);
+            String host = colon < 0 ? defaultHost : text.substring(0, colon);
+            return new InetSocketAddress(host, Integer.parseInt(text.substring(colon + 1)));
+        }
+    }
+
+    /** One TCP connection to another node. Touched only by the replication thread. */
+    private static final class Link {
+        final SocketChannel channel;
+        final InetSocketAddress dialed;         // null if the other side dialed
+        ByteBuffer in = ByteBuffer.allocate(BATCH_BYTES);
+        ByteBuffer out = ByteBuffer.allocate(2 * BATCH_BYTES).flip();
+        int node = -1;                          // known after its HELLO
+        long sentUpTo = -1;                     // events sent through this sequence; -1 until its RESUME
+        final byte[] nonce = new byte[NONCE_BYTES];     // sent in our HELLO; its RESUME must sign it
+        byte[] peerNonce;                       // from its HELLO
+
+        Link(SocketChannel channel, InetSocketAddress dialed) {
+            this.channel = channel;
+            this.dialed = dialed;
+        }
+    }
+
+    private final int node;
+    private final InetSocketAddress listenAddress;
+    private final List<InetSocketAddress> peers;
+    private final Set<Integer> accepted;
+    private final Mac mac;                          // keyed with the secret; null without one
+    private final SecureRandom random = new SecureRandom();
+    private final OrderIdAllocator sequences;
+    private final Consumer<Event> sink;
+
+    // Own events still held for catch-up: seq s at s % RETAINED
+    private final Object ringLock = new Object();
+    private final byte[][] ringPayloads = new byte[RETAINED][];
+    private final byte[] ringTypes = new byte[RETAINED];
+    private long firstSeq = -1;
+    private long nextSeq = -1;
+
+    private final Map<Integer, Long> applied = new ConcurrentHashMap<>();
+    private final MappedByteBuffer appliedFile;     // applied seq of node n at n * 8; null keeps it in memory
+    private final List<Link> links = new ArrayList<>();
+    private final Map<InetSocketAddress, Long> redialAt = new HashMap<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder lostToPeers = new LongAdder();
+    private volatile int connected;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Applied events go to sink, on the replication thread, in each origin's order. How
+     * far they were applied is forgotten on close; for tests and benchmarks.
+     */
+    Replicator(Config config, OrderIdAllocator sequences, Consumer<Event> sink) {
+        this.node = config.node;
+        this.listenAddress = config.listen;
+        this.peers = config.peers;
+        this.accepted = config.accepted;
+        this.mac = mac(config.secret);
+        this.sequences = sequences;
+        this.sink = sink;
+        this.appliedFile = null;
+    }
+
+    /** As above, keeping how far each origin was applied in appliedPath (created if missing). */
+    Replicator(Config config, OrderIdAllocator sequences, Path appliedPath, Consumer<Event> sink)
+            throws IOException {
+        this.node = config.node;
+        this.listenAddress = config.listen;
+        this.peers = config.peers;
+        this.accepted = config.accepted;
+        this.mac = mac(config.secret);
+        this.sequences = sequences;
+        this.sink = sink;
+        try (FileChannel channel = FileChannel.open(appliedPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            appliedFile = channel.map(FileChannel.MapMode.READ_WRITE, 0, (Config.MAX_NODE + 1) * 8L);
+        }
+        for (int origin = 1; origin <= Config.MAX_NODE; origin++) {
+            long seq = appliedFile.getLong(origin * 8);
+            if (seq > 0) applied.put(origin, seq);
+        }
+    }
+
+    private static Mac mac(byte[] secret) {
+        if (secret == null) return null;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /** Proof that whoever sent node's RESUME knows the secret: an HMAC of the nonce it answers. */
+    private byte[] sign(byte[] nonce, int node) {
+        if (mac == null) return new byte[MAC_BYTES];
+        mac.update(nonce);
+        mac.update(ByteBuffer.allocate(4).putInt(0, node).array());
+        return mac.doFinal();
+    }
+
+    /** Binds the listening socket (if any) and starts the replication thread. */
+    synchronized void start() throws IOException {
+        if (running) return;
+        selector = Selector.open();
+        if (listenAddress != null) {
+            server = ServerSocketChannel.open();
+            server.bind(listenAddress);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        }
+        for (InetSocketAddress peer : peers) redialAt.put(peer, 0L);
+        running = true;
+        thread = new Thread(this::loop, "replication");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int getNode() {
+        return node;
+    }
+
+    /** The port actually listened on, or -1. */
+    public int getListenPort() {
+        return server == null ? -1 : server.socket().getLocalPort();
+    }
+
+    /** Queues an event of this node's for every peer, now and on reconnect while it is retained. */
+    public void publish(Event event) {
+        synchronized (ringLock) {
+            long seq = sequences.next();
+            if (nextSeq < 0) {
+                firstSeq = seq;
+            } else if (seq != nextSeq) {
+                throw new IllegalStateException("Replication sequence jumped from " + nextSeq + " to " + seq);
+            }
+            nextSeq = seq + 1;
+            if (nextSeq - firstSeq > RETAINED) firstSeq = nextSeq - RETAINED;
+            int slot = (int) (seq % RETAINED);
+            ringPayloads[slot] = event.payload;
+            ringTypes[slot] = event.type;
+        }
+        if (wakeupPending.compareAndSet(false, true)) {
+            Selector s = selector;
+            if (s != null) s.wakeup();
+        }
+    }
+
+    /** Events published by this node so far. */
+    public long getPublished() {
+        synchronized (ringLock) {
+            return nextSeq < 0 ? 0 : nextSeq - sequences.first();
+        }
+    }
+
+    /** Events applied from other nodes. */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /** Events a reconnecting peer needed that were no longer retained. */
+    public long getLostToPeers() {
+        return lostToPeers.sum();
+    }
+
+    /** Links that have completed HELLO. */
+    public int getConnectedPeers() {
+        return connected;
+    }
+
+    /** Last sequence applied per origin node. */
+    public Map<Integer, Long> getApplied() {
+        return Collections.unmodifiableMap(applied);
+    }
+
+    private void loop() {
+        boolean behind = false;                     // a link drained its buffer with events still to send
+        while (running) {
+            try {
+                dialDuePeers();
+                if (behind) {
+                    selector.selectNow();
+                } else {
+                    selector.select(RECONNECT_MILLIS);
+                }
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Link link = (Link) key.attachment();
+                    try {
+                        if (key.isConnectable()) connected(link);
+                        if (key.isValid() && key.isReadable()) read(link);
+                    } catch (IOException | RuntimeException e) {
+                        drop(link);
+                    }
+                }
+                behind = false;
+                for (int i = links.size() - 1; i >= 0; i--) {
+                    Link link = links.get(i);
+                    try {
+                        boolean more = fill(link);
+                        flush(link);
+                        behind |= more && !link.out.hasRemaining();
+                    } catch (IOException e) {
+                        drop(link);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) e.printStackTrace();
+            }
+        }
+        for (Link link : new ArrayList<>(links)) drop(link);
+    }
+
+    private void dialDuePeers() {
+        long now = System.currentTimeMillis();
+        for (InetSocketAddress peer : peers) {
+            Long due = redialAt.get(peer);
+            if (due == null || due > now) continue;
+            redialAt.remove(peer);
+            Link link = null;
+            try {
+                SocketChannel channel = SocketChannel.open();
+                link = new Link(channel, peer);
+                links.add(link);
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                if (channel.connect(new InetSocketAddress(peer.getHostString(), peer.getPort()))) {
+                    channel.register(selector, SelectionKey.OP_READ, link);
+                    hello(link);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, link);
+                }
+            } catch (IOException | RuntimeException e) {
+                if (link != null) drop(link);
+                else redialAt.put(peer, now + RECONNECT_MILLIS);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Link link = new Link(channel, null);
+        links.add(link);
+        channel.register(selector, SelectionKey.OP_READ, link);
+        hello(link);
+    }
+
+    private void connected(Link link) throws IOException {
+        link.channel.finishConnect();
+        link.channel.keyFor(selector).interestOps(SelectionKey.OP_READ);
+        hello(link);
+    }
+
+    private void hello(Link link) {
+        random.nextBytes(link.nonce);
+        ByteBuffer frame = control(link, HELLO);
+        OrderStore.writeVarint(frame, node);
+        frame.put(link.nonce);
+        endFrame(link, frame);
+    }
+
+    private void read(Link link) throws IOException {
+        if (link.channel.read(link.in) < 0) throw new IOException("closed by peer");
+        ByteBuffer in = link.in.flip();
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length < 1 || length > MAX_FRAME) throw new IOException("bad frame length " + length);
+            if (in.remaining() < 4 + length) {
+                if (4 + length > in.capacity()) {
+                    link.in = ByteBuffer.allocate(4 + length).put(in);
+                    return;
+                }
+                break;
+            }
+            int end = in.position() + 4 + length;
+            in.position(in.position() + 4);
+            frame(link, in.get(), in.slice().limit(end - in.position()));
+            in.position(end);
+        }
+        in.compact();
+    }
+
+    private void frame(Link link, byte kind, ByteBuffer body) throws IOException {
+        switch (kind) {
+            case HELLO: {
+                if (link.node >= 0) throw new IOException("second HELLO");
+                int peer = (int) OrderStore.readVarint(body);
+                if (peer == node) throw new IOException("connected to itself");
+                if (link.dialed == null && !accepted.isEmpty() && !accepted.contains(peer)) {
+                    System.err.println("Replication: refused node " + peer + " from "
+                            + link.channel.getRemoteAddress() + ", not in foodorder.replication.accept");
+                    throw new IOException("node " + peer + " not accepted");
+                }
+                link.peerNonce = new byte[NONCE_BYTES];
+                body.get(link.peerNonce);
+                link.node = peer;
+                ByteBuffer frame = control(link, RESUME);
+                OrderStore.writeVarint(frame, applied.getOrDefault(peer, 0L));
+                frame.put(sign(link.peerNonce, node));
+                endFrame(link, frame);
+                break;
+            }
+            case RESUME: {
+                if (link.node < 0 || link.sentUpTo >= 0) throw new IOException("RESUME out of turn");
+                long from = OrderStore.readVarint(body);
+                byte[] proof = new byte[MAC_BYTES];
+                body.get(proof);
+                if (!MessageDigest.isEqual(proof, sign(link.nonce, link.node))) {
+                    System.err.println("Replication: node " + link.node + " at " + link.channel.getRemoteAddress()
+                            + " does not know the secret");
+                    throw new IOException("bad proof from node " + link.node);
+                }
+                link.sentUpTo = from;
+                connected++;
+                break;
+            }
+            case EVENTS: {
+                if (link.sentUpTo < 0) throw new IOException("events before RESUME");
+                long seq = OrderStore.readVarint(body);
+                int count = body.getInt();
+                long last = applied.getOrDefault(link.node, 0L);
+                for (int i = 0; i < count; i++, seq++) {
+                    byte type = body.get();
+                    byte[] payload = new byte[(int) OrderStore.readVarint(body)];
+                    body.get(payload);
+                    if (seq <= last) continue;
+                    Event event = new Event(type, payload);
+                    event.origin = link.node;
+                    event.seq = seq;
+                    try {
+                        sink.accept(event);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                    last = seq;
+                    applied.put(link.node, seq);
+                    if (appliedFile != null) appliedFile.putLong(link.node * 8, seq);
+                    received.increment();
+                }
+                break;
+            }
+            default:
+                throw new IOException("unknown frame kind " + kind);
+        }
+    }
+
+    /**
+     * Appends the retained events this peer hasn't had yet, up to about BATCH_BYTES, as
+     * one EVENTS frame. Returns whether some are still left.
+     */
+    private boolean fill(Link link) {
+        if (link.sentUpTo < 0 || link.out.remaining() >= BATCH_BYTES) return false;
+        synchronized (ringLock) {
+            if (nextSeq < 0 || link.sentUpTo >= nextSeq - 1) return false;
+            long from = link.sentUpTo + 1;
+            if (from < firstSeq) {
+                // Only this run's events can be counted; numbers from before a restart may never have been used
+                if (firstSeq > sequences.first()) lostToPeers.add(firstSeq - Math.max(from, sequences.first()));
+                from = firstSeq;
+            }
+            ByteBuffer frame = control(link, EVENTS);
+            OrderStore.writeVarint(frame, from);
+            int countAt = frame.position();
+            frame.putInt(0);
+            int count = 0;
+            for (long seq = from; seq < nextSeq && frame.position() < BATCH_BYTES; seq++) {
+                int slot = (int) (seq % RETAINED);
+                byte[] payload = ringPayloads[slot];
+                if (frame.remaining() < 1 + 5 + payload.length) {
+                    if (count > 0) break;
+                    frame = grow(link, frame, 1 + 5 + payload.length);
+                }
+                frame.put(ringTypes[slot]);
+                OrderStore.writeVarint(frame, payload.length);
+                frame.put(payload);
+                count++;
+            }
+            frame.putInt(countAt, count);
+            endFrame(link, frame);
+            link.sentUpTo = from + count - 1;
+            return link.sentUpTo < nextSeq - 1;
+        }
+    }
+
+    /** Opens the link's out buffer for appending a frame: reserves the length, writes the kind. */
+    private static ByteBuffer control(Link link, byte kind) {
+        ByteBuffer out = link.out.compact();
+        if (out.remaining() < 64) out = grow(link, out, 64);
+        out.mark();
+        out.putInt(0).put(kind);
+        return out;
+    }
+
+    private static ByteBuffer grow(Link link, ByteBuffer out, int needed) {
+        int start = out.position();
+        out.reset();
+        int frameStart = out.position();
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.capacity() + needed));
+        out.position(start).flip();
+        bigger.put(out);
+        bigger.position(frameStart).mark().position(start);
+        link.out = bigger;
+        return bigger;
+    }
+
+    private static void endFrame(Link link, ByteBuffer out) {
+        int end = out.position();
+        out.reset();
+        out.putInt(out.position(), end - out.position() - 4);
+        out.position(end).flip();
+        link.out = out;
+    }
+
+    private void flush(Link link) throws IOException {
+        if (link.out.hasRemaining()) link.channel.write(link.out);
+        SelectionKey key = link.channel.keyFor(selector);
+        if (key == null || !key.isValid() || (key.interestOps() & SelectionKey.OP_CONNECT) != 0) return;
+        int ops = link.out.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.interestOps() != ops) key.interestOps(ops);
+    }
+
+    private void drop(Link link) {
+        if (!links.remove(link)) return;
+        if (link.sentUpTo >= 0) connected--;
+        try {
+            link.channel.close();
+        } catch (IOException e) {
+            // already gone
+        }
+        if (link.dialed != null && running) redialAt.put(link.dialed, System.currentTimeMillis() + RECONNECT_MILLIS);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+        }
+        selector.wakeup();
+        try {
+            thread.join(5000);
+            if (server != null) server.close();
+            selector.close();
+            sequences.close();
+            if (appliedFile != null) appliedFile.force();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
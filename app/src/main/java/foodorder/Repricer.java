@@ -0,0 +1,196 @@
+package foodorder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Repricer - Re-prices the journalled order history under new pricing rules.
+ * Orders are loaded once into flat arrays (catalog IDs, quantities, minute of the week)
+ * and then priced in parallel on the common fork/join pool. Each worker uses its
+ * thread's Evaluator and only sums the quotes, so pricing allocates nothing per order.
+ * Prices are today's menu prices; lines for items no longer on the menu are skipped.
+ *
+ *   Repricer --rules new.rules [--baseline pricing.rules] [--data .] [--from 2026-10-01] [--to 2026-10-31]
+ *   Repricer --rules new.rules --synthetic 5000000      (random history, for sizing)
+ */
+class Repricer {
+
+    static final int TASK_ORDERS = 16_384;
+
+    /** Order history as parallel arrays; order i owns lines [lineFrom[i], lineFrom[i + 1]). */
+    static final class History {
+        int orders;
+        int lines;
+        int skippedLines;
+        int[] lineFrom = new int[1024];
+        int[] minuteOfWeek = new int[1024];
+        int[] items = new int[4096];
+        int[] quantities = new int[4096];
+
+        void addLine(int item, int quantity) {
+            if (lines == items.length) {
+                items = Arrays.copyOf(items, lines * 2);
+                quantities = Arrays.copyOf(quantities, lines * 2);
+            }
+            items[lines] = item;
+            quantities[lines++] = quantity;
+        }
+
+        /** Closes the order whose lines were just added. */
+        void endOrder(int minute) {
+            if (orders + 1 >= lineFrom.length) {
+                lineFrom = Arrays.copyOf(lineFrom, lineFrom.length * 2);
+                minuteOfWeek = Arrays.copyOf(minuteOfWeek, minuteOfWeek.length * 2);
+            }
+            minuteOfWeek[orders] = minute;
+            lineFrom[++orders] = lines;
+        }
+    }
+
+    /** Summed quotes: subtotal, promotions, tax, discount, final. */
+    private static final class PriceTask extends RecursiveTask<long[]> {
+        private final PricingEngine engine;
+        private final History history;
+        private final int from;
+        private final int to;
+
+        PriceTask(PricingEngine engine, History history, int from, int to) {
+            this.engine = engine;
+            this.history = history;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > TASK_ORDERS) {
+                int mid = (from + to) >>> 1;
+                PriceTask right = new PriceTask(engine, history, mid, to);
+                right.fork();
+                long[] left = new PriceTask(engine, history, from, mid).compute();
+                long[] r = right.join();
+                for (int i = 0; i < left.length; i++) left[i] += r[i];
+                return left;
+            }
+
+            long[] sums = new long[5];
+            PricingEngine.Evaluator evaluator = engine.evaluator();
+            for (int order = from; order < to; order++) {
+                PricingEngine.Quote q = evaluator.price(history.items, history.quantities,
+                        history.lineFrom[order], history.lineFrom[order + 1], history.minuteOfWeek[order], null, 0);
+                sums[0] += q.subtotalPaise;
+                sums[1] += q.promotionPaise;
+                sums[2] += q.taxPaise;
+                sums[3] += q.discountPaise;
+                sums[4] += q.finalPaise;
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Loads every journalled order placed between from and to (inclusive). The journal
+     * is only read, so this is safe while the service appends to it and leaves the
+     * catalog's popularity alone.
+     */
+    static History load(Path journalDir, MenuCatalog catalog, ZoneId zone, LocalDate from, LocalDate to)
+            throws Exception {
+        History history = new History();
+        try (OrderJournal journal = OrderJournal.open(journalDir)) {
+            for (LocalDate day : journal.days()) {
+                if (day.isBefore(from) || day.isAfter(to)) continue;
+                journal.replay(day, entry -> {
+                    for (int i = 0; i < entry.itemNames.length; i++) {
+                        int id = catalog.idOf(entry.itemNames[i]);
+                        if (id < 0) {
+                            history.skippedLines++;
+                        } else {
+                            history.addLine(id, entry.quantities[i]);
+                        }
+                    }
+                    history.endOrder(PricingEngine.minuteOfWeek(
+                            Instant.ofEpochMilli(entry.epochMillis).atZone(zone).toLocalDateTime()));
+                });
+            }
+        }
+        return history;
+    }
+
+    /** Random orders of 1-6 lines spread over the week. */
+    static History synthetic(MenuCatalog catalog, int orders, long seed) {
+        Random random = new Random(seed);
+        History history = new History();
+        for (int i = 0; i < orders; i++) {
+            int lines = 1 + random.nextInt(6);
+            for (int line = 0; line < lines; line++) {
+                history.addLine(random.nextInt(catalog.size()), 1 + random.nextInt(3));
+            }
+            history.endOrder(random.nextInt(7 * 1440));
+        }
+        return history;
+    }
+
+    static long[] reprice(PricingEngine engine, History history) {
+        if (history.orders == 0) return new long[5];
+        return ForkJoinPool.commonPool().invoke(new PriceTask(engine, history, 0, history.orders));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path data = Paths.get(".");
+        String rulesFile = null;
+        String baselineFile = null;
+        LocalDate from = LocalDate.MIN;
+        LocalDate to = LocalDate.MAX;
+        int synthetic = 0;
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--rules": rulesFile = args[i + 1]; break;
+                case "--baseline": baselineFile = args[i + 1]; break;
+                case "--data": data = Paths.get(args[i + 1]); break;
+                case "--from": from = LocalDate.parse(args[i + 1]); break;
+                case "--to": to = LocalDate.parse(args[i + 1]); break;
+                case "--synthetic": synthetic = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (rulesFile == null) {
+            System.err.println("Usage: Repricer --rules new.rules [--baseline pricing.rules] [--data dir] "
+                    + "[--from yyyy-MM-dd] [--to yyyy-MM-dd] [--synthetic orders]");
+            return;
+        }
+
+        MenuCatalog catalog = MenuLoader.loadOrBundled(data);
+        PricingEngine candidate = PricingEngine.compile(PricingRules.load(Paths.get(rulesFile)), catalog);
+        PricingEngine baseline = PricingEngine.compile(baselineFile == null
+                ? PricingRules.defaults() : PricingRules.load(Paths.get(baselineFile)), catalog);
+
+        long loadStart = System.nanoTime();
+        History history = synthetic > 0
+                ? synthetic(catalog, synthetic, 42)
+                : load(data.resolve("journal"), catalog, ZoneId.systemDefault(), from, to);
+        System.out.printf("Loaded %d orders, %d lines (%d skipped) in %d ms%n", history.orders, history.lines,
+                history.skippedLines, (System.nanoTime() - loadStart) / 1_000_000);
+
+        long start = System.nanoTime();
+        long[] before = reprice(baseline, history);
+        long[] after = reprice(candidate, history);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        String[] rows = {"Subtotal", "Offers", "Tax", "Discount", "Final"};
+        System.out.printf("%n%-10s %18s %18s %18s%n", "", "baseline", "new rules", "change");
+        for (int i = 0; i < rows.length; i++) {
+            System.out.printf("%-10s %18s %18s %18s%n", rows[i], Order.formatPaise(before[i]),
+                    Order.formatPaise(after[i]), Order.formatPaise(after[i] - before[i]));
+        }
+        System.out.printf("%nPriced %d orders twice in %.3fs (%.0f orders/s, %d workers)%n", history.orders,
+                seconds, 2 * history.orders / seconds, ForkJoinPool.commonPool().getParallelism());
+    }
+}
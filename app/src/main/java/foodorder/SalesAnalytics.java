@@ -0,0 +1,235 @@
+package foodorder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SalesAnalytics - Sales report over a range of daily order logs.
+ * Every orders_yyyy-MM-dd.txt in the range is memory-mapped and cut into chunks that
+ * start at "Date:" record boundaries. The chunks are parsed in parallel on the common
+ * fork/join pool and their per-item, per-category, per-hour and per-day totals merged.
+ *
+ * --tail follows today's log instead: each change maps only the bytes appended since the
+ * last read, so the running totals never rescan the file.
+ *
+ *   SalesAnalytics [--dir .] [--from 2026-10-01] [--to 2026-10-31] [--top 10] [--tail]
+ */
+class SalesAnalytics {
+
+    static final int CHUNK_BYTES = 8 << 20;
+
+    /** A slice of a mapped log; its real bounds are the first records at or after start and end. */
+    private static final class Chunk {
+        final ByteBuffer buffer;
+        final LocalDate day;
+        final int start;
+        final int end;
+
+        Chunk(ByteBuffer buffer, LocalDate day, int start, int end) {
+            this.buffer = buffer;
+            this.day = day;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final class ScanTask extends RecursiveTask<SalesTotals> {
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        ScanTask(List<Chunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SalesTotals compute() {
+            if (to - from == 1) return parseChunk(chunks.get(from));
+            int mid = (from + to) >>> 1;
+            ScanTask right = new ScanTask(chunks, mid, to);
+            right.fork();
+            SalesTotals left = new ScanTask(chunks, from, mid).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    /** Follows one day's log, parsing only what was appended since the previous poll. */
+    final class LogTail {
+        final LocalDate day;
+        private final Path file;
+        private final SalesLogParser parser;
+        private long position;
+
+        LogTail(Path dir, LocalDate day) {
+            this.day = day;
+            this.file = dir.resolve(OrderLogWriter.fileNameFor(day));
+            SalesTotals totals = new SalesTotals(catalog.size());
+            totals.startDay(day);
+            this.parser = new SalesLogParser(names, totals);
+        }
+
+        public SalesTotals getTotals() {
+            return parser.getTotals();
+        }
+
+        /** Parses any complete lines appended since the last call; true if there were some. */
+        public boolean poll() throws IOException {
+            if (!Files.exists(file)) return false;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long length = Math.min(channel.size() - position, Integer.MAX_VALUE);
+                if (length <= 0) return false;
+                MappedByteBuffer appended = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int consumed = parser.parse(appended, 0, (int) length, false);
+                position += consumed;
+                return consumed > 0;
+            }
+        }
+    }
+
+    private final MenuCatalog catalog;
+    private final SalesLogParser.NameIndex names;
+    private final int chunkBytes;
+
+    SalesAnalytics(MenuCatalog catalog) {
+        this(catalog, CHUNK_BYTES);
+    }
+
+    /** With smaller chunks than usual, so tests can cut a small log at many places. */
+    SalesAnalytics(MenuCatalog catalog, int chunkBytes) {
+        this.catalog = catalog;
+        this.names = new SalesLogParser.NameIndex(catalog);
+        this.chunkBytes = chunkBytes;
+    }
+
+    /** The orders_yyyy-MM-dd.txt files in dir whose day is within [from, to], oldest first. */
+    static List<Path> logFiles(Path dir, LocalDate from, LocalDate to) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "orders_*.txt")) {
+            for (Path file : stream) {
+                LocalDate day = dayOf(file);
+                if (day != null && !day.isBefore(from) && !day.isAfter(to)) files.add(file);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    static LocalDate dayOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return LocalDate.parse(name.substring("orders_".length(), name.length() - ".txt".length()));
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /** Maps and parses the files in parallel and returns the merged totals. */
+    public SalesTotals scan(List<Path> files) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size == 0) continue;
+                if (size > Integer.MAX_VALUE) throw new IOException(file + " is too large to map");
+                // The mapping stays valid after the channel is closed
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                for (long start = 0; start < size; start += chunkBytes) {
+                    chunks.add(new Chunk(buffer, dayOf(file), (int) start, (int) Math.min(size, start + chunkBytes)));
+                }
+            }
+        }
+        if (chunks.isEmpty()) return new SalesTotals(catalog.size());
+        return ForkJoinPool.commonPool().invoke(new ScanTask(chunks, 0, chunks.size()));
+    }
+
+    private SalesTotals parseChunk(Chunk chunk) {
+        SalesTotals totals = new SalesTotals(catalog.size());
+        totals.startDay(chunk.day);
+        int limit = chunk.buffer.limit();
+        int from = chunk.start == 0 ? 0 : SalesLogParser.nextRecord(chunk.buffer, chunk.start, limit);
+        int to = chunk.end >= limit ? limit : SalesLogParser.nextRecord(chunk.buffer, chunk.end, limit);
+        new SalesLogParser(names, totals).parse(chunk.buffer, from, to, true);
+        return totals;
+    }
+
+    /** Prints today's running totals whenever the log grows; rolls over at midnight. Runs until interrupted. */
+    public void tail(Path dir, int topItems) throws IOException, InterruptedException {
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            LogTail tail = null;
+            while (!Thread.currentThread().isInterrupted()) {
+                LocalDate today = LocalDate.now();
+                if (tail == null || !tail.day.equals(today)) {
+                    if (tail != null) System.out.print("\nFinal for " + tail.day + ":\n" + tail.getTotals().report(catalog, topItems));
+                    tail = new LogTail(dir, today);
+                }
+                if (tail.poll()) {
+                    System.out.println(LocalTime.now().truncatedTo(ChronoUnit.SECONDS) + "  " + tail.getTotals().summary());
+                }
+                // Wake on any change in the directory; the timeout covers file systems without notifications
+                WatchKey key = watcher.poll(1, TimeUnit.SECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(".");
+        LocalDate from = LocalDate.MIN;
+        LocalDate to = LocalDate.MAX;
+        int top = 10;
+        boolean tail = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dir": dir = Paths.get(args[++i]); break;
+                case "--from": from = LocalDate.parse(args[++i]); break;
+                case "--to": to = LocalDate.parse(args[++i]); break;
+                case "--top": top = Integer.parseInt(args[++i]); break;
+                case "--tail": tail = true; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        SalesAnalytics analytics = new SalesAnalytics(MenuLoader.loadOrBundled(dir));
+        if (tail) {
+            analytics.tail(dir, top);
+            return;
+        }
+
+        List<Path> files = logFiles(dir, from, to);
+        long bytes = 0;
+        for (Path file : files) bytes += Files.size(file);
+        long start = System.nanoTime();
+        SalesTotals totals = analytics.scan(files);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d log files, %.1f MB in %.3fs (%.0f MB/s)%n%n",
+                files.size(), bytes / 1e6, seconds, bytes / 1e6 / seconds);
+        System.out.print(totals.report(analytics.catalog, top));
+    }
+}
@@ -0,0 +1,236 @@
+package foodorder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SalesLogParser - Byte-level parser for the daily orders_yyyy-MM-dd.txt logs.
+ * Works directly on a (usually memory-mapped) ByteBuffer: item names are resolved to
+ * catalog IDs by hashing their raw UTF-8 bytes, and quantities and amounts are read
+ * digit by digit, so a line for a known item allocates nothing. Only names that are no
+ * longer on the menu get decoded into Strings.
+ *
+ * The parser is stateful: the hour of the last "Date:" line carries over between calls,
+ * which lets the tail mode feed it one appended region at a time.
+ */
+class SalesLogParser {
+
+    private static final byte[] DATE = "Date: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ITEM = "- ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUANTITY = " x ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AMOUNT = " : Rs. ".getBytes(StandardCharsets.US_ASCII);
+
+    /** Open-addressing table from the UTF-8 bytes of an item name to its catalog ID. */
+    static final class NameIndex {
+        private final byte[][] names;
+        private final int[] hashes;
+        private final int[] slots;          // catalog ID + 1, 0 = empty
+        private final int mask;
+
+        NameIndex(MenuCatalog catalog) {
+            names = new byte[catalog.size()][];
+            hashes = new int[catalog.size()];
+            int capacity = Integer.highestOneBit(Math.max(4, catalog.size() * 2) - 1) << 1;
+            slots = new int[capacity];
+            mask = capacity - 1;
+
+            for (int id = 0; id < names.length; id++) {
+                names[id] = catalog.get(id).getName().getBytes(StandardCharsets.UTF_8);
+                hashes[id] = hash(ByteBuffer.wrap(names[id]), 0, names[id].length);
+                int i = hashes[id] & mask;
+                while (slots[i] != 0) i = (i + 1) & mask;
+                slots[i] = id + 1;
+            }
+        }
+
+        /** Catalog ID of the name held in buf[from, to), or -1. */
+        int find(ByteBuffer buf, int from, int to) {
+            int h = hash(buf, from, to);
+            for (int i = h & mask; slots[i] != 0; i = (i + 1) & mask) {
+                int id = slots[i] - 1;
+                if (hashes[id] == h && equalTo(names[id], buf, from, to)) return id;
+            }
+            return -1;
+        }
+
+        private static int hash(ByteBuffer buf, int from, int to) {
+            int h = 0x811c9dc5;                                 // FNV-1a
+            for (int i = from; i < to; i++) {
+                h = (h ^ (buf.get(i) & 0xff)) * 0x01000193;
+            }
+            return h;
+        }
+
+        private static boolean equalTo(byte[] name, ByteBuffer buf, int from, int to) {
+            if (name.length != to - from) return false;
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != buf.get(from + i)) return false;
+            }
+            return true;
+        }
+    }
+
+    private final NameIndex names;
+    private final SalesTotals totals;
+    private int hour = -1;
+
+    SalesLogParser(NameIndex names, SalesTotals totals) {
+        this.names = names;
+        this.totals = totals;
+    }
+
+    public SalesTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * Parses the lines in buf[from, to) and returns the position after the last complete
+     * line. With lastChunk set, a trailing line without a newline is parsed as well.
+     */
+    public int parse(ByteBuffer buf, int from, int to, boolean lastChunk) {
+        int pos = from;
+        while (pos < to) {
+            int newline = indexOf(buf, (byte) '\n', pos, to);
+            if (newline < 0) {
+                if (!lastChunk) break;
+                parseLine(buf, pos, to);
+                return to;
+            }
+            int end = newline > pos && buf.get(newline - 1) == '\r' ? newline - 1 : newline;
+            parseLine(buf, pos, end);
+            pos = newline + 1;
+        }
+        return pos;
+    }
+
+    /** Start of the first "Date:" line at or after pos, or limit if there is none. */
+    static int nextRecord(ByteBuffer buf, int pos, int limit) {
+        while (pos < limit) {
+            if ((pos == 0 || buf.get(pos - 1) == '\n') && startsWith(buf, pos, limit, DATE)) return pos;
+            int newline = indexOf(buf, (byte) '\n', pos, limit);
+            if (newline < 0) return limit;
+            pos = newline + 1;
+        }
+        return limit;
+    }
+
+    private void parseLine(ByteBuffer buf, int start, int end) {
+        if (startsWith(buf, start, end, DATE)) {
+            hour = parseHour(buf, start + DATE.length, end);
+            if (hour < 0) totals.malformedLine();
+            totals.orderPlaced(hour);
+        } else if (startsWith(buf, start, end, ITEM)) {
+            parseItem(buf, start + ITEM.length, end);
+        }
+        // separators, "Items:" and "Total:" carry nothing the line items don't
+    }
+
+    // - name x qty : Rs. amount
+    private void parseItem(ByteBuffer buf, int start, int end) {
+        int amount = lastIndexOf(buf, AMOUNT, start, end);
+        int quantity = amount < 0 ? -1 : lastIndexOf(buf, QUANTITY, start, amount);
+        if (quantity < 0) {
+            totals.malformedLine();
+            return;
+        }
+        int qty = parseInt(buf, quantity + QUANTITY.length, amount);
+        long paise = parsePaise(buf, amount + AMOUNT.length, end);
+        if (qty < 0 || paise < 0) {
+            totals.malformedLine();
+            return;
+        }
+
+        int id = names.find(buf, start, quantity);
+        if (id >= 0) {
+            totals.addItem(id, qty, paise, hour);
+        } else {
+            totals.addUnknownItem(decode(buf, start, quantity), qty, paise, hour);
+        }
+    }
+
+    /** Hour of day from "dd-MM-yyyy hh:mm AM", or -1 if the stamp is malformed. */
+    private static int parseHour(ByteBuffer buf, int start, int end) {
+        if (end - start < 18) return -1;
+        int h = parseInt(buf, start + 11, start + 13);
+        if (h < 1 || h > 12) return -1;
+        byte marker = buf.get(start + 17);
+        boolean pm = marker == 'P' || marker == 'p';
+        if (!pm && marker != 'A' && marker != 'a') return -1;
+        return (h % 12) + (pm ? 12 : 0);
+    }
+
+    private static int parseInt(ByteBuffer buf, int from, int to) {
+        while (from < to && buf.get(from) == ' ') from++;
+        while (to > from && buf.get(to - 1) == ' ') to--;
+        if (from == to || to - from > 9) return -1;
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Rupee amount as written by Double.toString (e.g. "269.98000000000002") to paise,
+     * rounded half up. Exponent forms only appear for amounts of a crore and more and
+     * take the slow path.
+     */
+    private static long parsePaise(ByteBuffer buf, int from, int to) {
+        long rupees = 0;
+        int i = from;
+        for (; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) break;
+            rupees = rupees * 10 + d;
+        }
+        if (i == from) return -1;
+
+        long paise = rupees * 100;
+        if (i < to && buf.get(i) == '.') {
+            for (int digit = 0; ++i < to; digit++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) break;
+                if (digit == 0) paise += d * 10;
+                else if (digit == 1) paise += d;
+                else if (digit == 2 && d >= 5) paise++;
+            }
+        }
+        if (i == to) return paise;
+
+        try {
+            return Math.round(Double.parseDouble(decode(buf, from, to).trim()) * 100);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String decode(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf.get(start + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buf, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buf, byte[] pattern, int from, int to) {
+        for (int i = to - pattern.length; i >= from; i--) {
+            if (startsWith(buf, i, to, pattern)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,173 @@
+package foodorder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SalesTotals - Revenue and units aggregated from the order logs.
+ * Per item (indexed by catalog ID), per hour of day and per log day; category totals are
+ * derived from the item arrays when reporting. Items that are no longer on the menu are
+ * kept by name. Amounts are in paise and cover line items, i.e. before tax and discount.
+ *
+ * Not thread-safe: each parsing task fills its own instance and the results are merged.
+ */
+class SalesTotals {
+
+    private final long[] units;
+    private final long[] revenuePaise;
+    private final long[] hourlyOrders = new long[24];
+    private final long[] hourlyRevenuePaise = new long[24];
+    private final TreeMap<LocalDate, long[]> daily = new TreeMap<>();        // {orders, paise}
+    private final TreeMap<String, long[]> unknownItems = new TreeMap<>();    // {units, paise}
+    private long[] currentDay = new long[2];
+    private long orders;
+    private long malformedLines;
+
+    SalesTotals(int catalogSize) {
+        units = new long[catalogSize];
+        revenuePaise = new long[catalogSize];
+    }
+
+    /** Day the following records are attributed to. */
+    void startDay(LocalDate day) {
+        currentDay = daily.computeIfAbsent(day, d -> new long[2]);
+    }
+
+    void orderPlaced(int hour) {
+        orders++;
+        currentDay[0]++;
+        if (hour >= 0) hourlyOrders[hour]++;
+    }
+
+    void addItem(int id, int qty, long paise, int hour) {
+        units[id] += qty;
+        revenuePaise[id] += paise;
+        addRevenue(paise, hour);
+    }
+
+    void addUnknownItem(String name, int qty, long paise, int hour) {
+        long[] totals = unknownItems.computeIfAbsent(name, n -> new long[2]);
+        totals[0] += qty;
+        totals[1] += paise;
+        addRevenue(paise, hour);
+    }
+
+    void malformedLine() {
+        malformedLines++;
+    }
+
+    private void addRevenue(long paise, int hour) {
+        currentDay[1] += paise;
+        if (hour >= 0) hourlyRevenuePaise[hour] += paise;
+    }
+
+    /** Adds the other totals into this one. */
+    public SalesTotals merge(SalesTotals other) {
+        for (int id = 0; id < units.length; id++) {
+            units[id] += other.units[id];
+            revenuePaise[id] += other.revenuePaise[id];
+        }
+        for (int h = 0; h < 24; h++) {
+            hourlyOrders[h] += other.hourlyOrders[h];
+            hourlyRevenuePaise[h] += other.hourlyRevenuePaise[h];
+        }
+        other.daily.forEach((day, t) -> add(daily.computeIfAbsent(day, d -> new long[2]), t));
+        other.unknownItems.forEach((name, t) -> add(unknownItems.computeIfAbsent(name, n -> new long[2]), t));
+        orders += other.orders;
+        malformedLines += other.malformedLines;
+        return this;
+    }
+
+    private static void add(long[] into, long[] from) {
+        into[0] += from[0];
+        into[1] += from[1];
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    /** Orders placed in the given hour of day, 0-23. */
+    public long getOrders(int hour) {
+        return hourlyOrders[hour];
+    }
+
+    public long getUnits() {
+        long total = 0;
+        for (long u : units) total += u;
+        for (long[] t : unknownItems.values()) total += t[0];
+        return total;
+    }
+
+    public long getRevenuePaise() {
+        long total = 0;
+        for (long r : revenuePaise) total += r;
+        for (long[] t : unknownItems.values()) total += t[1];
+        return total;
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    /** One-line running total, used by the tail mode. */
+    public String summary() {
+        return "orders=" + orders + " items=" + getUnits() + " revenue=Rs. " + Order.formatPaise(getRevenuePaise());
+    }
+
+    /** Full text report: totals, days, categories, hours and the top items by revenue. */
+    public String report(MenuCatalog catalog, int topItems) {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append(summary()).append(" unknownItems=").append(unknownItems.size())
+                .append(" malformedLines=").append(malformedLines).append('\n');
+
+        if (daily.size() > 1) {
+            sb.append("\nBy day:\n");
+            daily.forEach((day, t) -> sb.append(String.format("  %s  orders=%-7d Rs. %s%n",
+                    day, t[0], Order.formatPaise(t[1]))));
+        }
+
+        List<String> categories = catalog.categories();
+        long[] categoryUnits = new long[categories.size()];
+        long[] categoryPaise = new long[categories.size()];
+        for (int id = 0; id < units.length; id++) {
+            categoryUnits[catalog.categoryOf(id)] += units[id];
+            categoryPaise[catalog.categoryOf(id)] += revenuePaise[id];
+        }
+        sb.append("\nBy category:\n");
+        for (int c = 0; c < categories.size(); c++) {
+            sb.append(String.format("  %-14s units=%-8d Rs. %s%n",
+                    categories.get(c), categoryUnits[c], Order.formatPaise(categoryPaise[c])));
+        }
+
+        sb.append("\nBy hour:\n");
+        for (int h = 0; h < 24; h++) {
+            if (hourlyOrders[h] == 0 && hourlyRevenuePaise[h] == 0) continue;
+            sb.append(String.format("  %02d:00  orders=%-7d Rs. %s%n",
+                    h, hourlyOrders[h], Order.formatPaise(hourlyRevenuePaise[h])));
+        }
+
+        List<Integer> ranked = new ArrayList<>();
+        for (int id = 0; id < units.length; id++) {
+            if (units[id] > 0) ranked.add(id);
+        }
+        ranked.sort((a, b) -> Long.compare(revenuePaise[b], revenuePaise[a]));
+        sb.append("\nTop items:\n");
+        for (int id : ranked.subList(0, Math.min(topItems, ranked.size()))) {
+            sb.append(String.format("  %-28s units=%-8d Rs. %s%n",
+                    catalog.get(id).getName(), units[id], Order.formatPaise(revenuePaise[id])));
+        }
+
+        if (!unknownItems.isEmpty()) {
+            sb.append("\nNo longer on the menu:\n");
+            for (Map.Entry<String, long[]> e : unknownItems.entrySet()) {
+                sb.append(String.format("  %-28s units=%-8d Rs. %s%n",
+                        e.getKey(), e.getValue()[0], Order.formatPaise(e.getValue()[1])));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package foodorder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * StartupTimer - Cold-start milestones of the counter UI, measured from JVM start.
+ *
+ *   main          the JVM is up and FoodOrderUI.main runs (JVM boot and class loading)
+ *   first frame   the window shell has painted for the first time
+ *   interactive   menu and cart are built and take input
+ *
+ * The JVM start time is only looked up when reporting, so the management classes it
+ * needs don't load on the way to the first frame. The milestones are printed once
+ * interactive. With -Dfoodorder.startup.log=file they
+ * are also appended there as CSV (time, version, mode, cds, main, first frame,
+ * interactive in ms), to follow cold-start cost over releases.
+ */
+final class StartupTimer {
+
+    static final String LOG_PROPERTY = "foodorder.startup.log";
+
+    private final long mainMillis;
+    private final String mode;
+    private volatile long firstFrameMillis;
+    private volatile long interactiveMillis;
+
+    private StartupTimer(String mode) {
+        this.mainMillis = System.currentTimeMillis();
+        this.mode = mode;
+    }
+
+    /** Starts timing; call first thing in main. */
+    static StartupTimer start(String mode) {
+        return new StartupTimer(mode);
+    }
+
+    /** The first frame has painted. Later calls are ignored. */
+    void firstFrame() {
+        if (firstFrameMillis == 0) firstFrameMillis = System.currentTimeMillis();
+    }
+
+    /** The UI takes input. Returns false if it was already marked. */
+    boolean interactive() {
+        if (interactiveMillis != 0) return false;
+        interactiveMillis = System.currentTimeMillis();
+        firstFrame();
+        return true;
+    }
+
+    private static long jvmStartMillis() {
+        return ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    public long getMainMillis() {
+        return mainMillis - jvmStartMillis();
+    }
+
+    public long getFirstFrameMillis() {
+        return firstFrameMillis == 0 ? -1 : firstFrameMillis - jvmStartMillis();
+    }
+
+    public long getInteractiveMillis() {
+        return interactiveMillis == 0 ? -1 : interactiveMillis - jvmStartMillis();
+    }
+
+    /** Whether the JVM was started with an application class-data archive. */
+    static boolean usesAppCds() {
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-XX:SharedArchiveFile") || arg.equals("-XX:+AutoCreateSharedArchive")) return true;
+        }
+        return false;
+    }
+
+    String report() {
+        return String.format("Startup (%s%s): main %d ms, first frame %d ms, interactive %d ms",
+                mode, usesAppCds() ? ", AppCDS" : "", getMainMillis(), getFirstFrameMillis(), getInteractiveMillis());
+    }
+
+    /** Prints the milestones and, if the log property is set, appends them to that file. */
+    void publish() {
+        System.out.println(report());
+        String log = System.getProperty(LOG_PROPERTY);
+        if (log == null || log.isEmpty()) return;
+        Path file = Paths.get(log);
+        String version = StartupTimer.class.getPackage().getImplementationVersion();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (Files.size(file) == 0) out.write("time,version,mode,cds,mainMs,firstFrameMs,interactiveMs\n");
+            out.write(Instant.ofEpochMilli(jvmStartMillis()) + "," + (version == null ? "dev" : version) + ","
+                    + mode + "," + usesAppCds() + "," + getMainMillis() + "," + getFirstFrameMillis() + ","
+                    + getInteractiveMillis() + "\n");
+        } catch (IOException e) {
+            System.err.println("Could not write " + file + ": " + e.getMessage());
+        }
+    }
+}
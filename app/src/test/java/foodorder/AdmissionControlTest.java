@@ -0,0 +1,78 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdmissionControlTest {
+
+    static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void refusesOnlyOrdersThatNeedAnOverloadedStation() {
+        Map<String, Long> backlog = Map.of("Tandoor", AdmissionControl.MAX_KITCHEN_WAIT_NANOS + 5 * MINUTE,
+                "Beverages", 2 * MINUTE, "Desserts", 7 * MINUTE);
+        AdmissionControl admission = new AdmissionControl(() -> 1, null, stations -> {
+            long max = 0;
+            for (String station : stations) max = Math.max(max, backlog.getOrDefault(station, 0L));
+            return max;
+        });
+
+        AdmissionControl.Decision refused = admission.admit(AdmissionControl.Channel.COUNTER, "a",
+                Set.of("Tandoor", "Beverages"));
+        assertEquals(AdmissionControl.Outcome.OVERLOADED, refused.outcome);
+        assertEquals(5 * MINUTE, refused.waitNanos);
+
+        AdmissionControl.Decision drinks = admission.admit(AdmissionControl.Channel.COUNTER, "b",
+                Set.of("Beverages", "Desserts"));
+        assertEquals(AdmissionControl.Outcome.ADMITTED, drinks.outcome);
+        assertEquals(7 * MINUTE, drinks.waitNanos);
+        assertEquals(1, admission.getAdmitted());
+        assertEquals(1, admission.getOverloaded());
+    }
+
+    @Test
+    void aGivenBackTokenCanBeUsedAgain() {
+        AtomicLong now = new AtomicLong(1);
+        AdmissionControl admission = new AdmissionControl(now::get, null, stations -> 0);
+        Set<String> stations = Set.of("Starters");
+        int burst = AdmissionControl.Channel.COUNTER.terminalLimit().burst;
+        for (int i = 0; i < burst; i++) {
+            assertEquals(AdmissionControl.Outcome.ADMITTED,
+                    admission.admit(AdmissionControl.Channel.COUNTER, "counter-1", stations).outcome);
+        }
+        assertEquals(AdmissionControl.Outcome.RATE_LIMITED,
+                admission.admit(AdmissionControl.Channel.COUNTER, "counter-1", stations).outcome);
+
+        admission.giveBack(AdmissionControl.Channel.COUNTER, "counter-1");
+        assertEquals(burst - 1, admission.getAdmitted());
+        assertEquals(AdmissionControl.Outcome.ADMITTED,
+                admission.admit(AdmissionControl.Channel.COUNTER, "counter-1", stations).outcome);
+        assertEquals(AdmissionControl.Outcome.RATE_LIMITED,
+                admission.admit(AdmissionControl.Channel.COUNTER, "counter-1", stations).outcome);
+    }
+
+    @Test
+    void aMalformedLimitFallsBackToTheDefault() {
+        String property = "foodorder.admission.api.terminal";
+        AdmissionControl.Limit defaults = AdmissionControl.Channel.API.defaultTerminalLimit;
+        try {
+            for (String text : new String[] {"six", "6:x", "NaN", "6:"}) {
+                System.setProperty(property, text);
+                AdmissionControl.Limit limit = AdmissionControl.Channel.API.terminalLimit();
+                assertEquals(defaults.perMinute, limit.perMinute, text);
+                assertEquals(defaults.burst, limit.burst, text);
+            }
+            System.setProperty(property, "90:4");
+            assertEquals(90.0, AdmissionControl.Channel.API.terminalLimit().perMinute);
+            assertEquals(4, AdmissionControl.Channel.API.terminalLimit().burst);
+        } finally {
+            System.clearProperty(property);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchOrdersTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void placesOrdersAndLeavesNoCartsBehind() throws Exception {
+        Path file = dir.resolve("orders.csv");
+        StringBuilder csv = new StringBuilder("order,item,quantity\n");
+        for (int i = 0; i < 200; i++) csv.append("T").append(i).append(",Spring Roll,2\n");
+        csv.append("T200,No Such Dish,1\n");
+        csv.append("{\"order\":\"T201\",\"item\":\"Paneer Tikka\",\"quantity\":3}\n");
+        Files.writeString(file, csv);
+
+        StringWriter errors = new StringWriter();
+        try (OrderService service = OrderService.open(dir.resolve("data"), null)) {
+            BatchOrders batch = new BatchOrders(service, new PrintWriter(errors, true), null);
+            batch.run(List.of(file), 4);
+            assertEquals(202, batch.getLines());
+            assertEquals(201, batch.getPlacedOrders());
+            assertEquals(1, batch.getRejectedOrders());
+            assertEquals(1, batch.getRejectedLines());
+            assertEquals(0, service.getOpenCarts());
+        }
+        assertTrue(errors.toString().contains("orders.csv:202"), errors.toString());
+    }
+}
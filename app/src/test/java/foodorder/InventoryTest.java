@@ -0,0 +1,97 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryTest {
+
+    static MenuCatalog catalog() {
+        return new MenuCatalog(List.of(new FoodItem("Samosa", 30, true, "Starters"),
+                new FoodItem("Paneer Tikka", 180, true, "Starters"),
+                new FoodItem("Lime Juice", 60, true, "Beverages")));
+    }
+
+    @Test
+    void reserveAllRollsBackWhenOneLineFallsShort() {
+        MenuCatalog catalog = catalog();
+        Inventory inventory = new Inventory();
+        inventory.attach(catalog);
+        inventory.restock(Map.of("Samosa", 5, "Paneer Tikka", 2));
+        FoodItem samosa = catalog.byName("Samosa");
+        FoodItem tikka = catalog.byName("Paneer Tikka");
+        FoodItem juice = catalog.byName("Lime Juice");
+
+        assertFalse(inventory.reserveAll(new FoodItem[] {samosa, juice, tikka}, new int[] {4, 100, 3}));
+        assertEquals(5, inventory.get("Samosa").getFree());
+        assertEquals(2, inventory.get("Paneer Tikka").getFree());
+
+        assertTrue(inventory.reserveAll(new FoodItem[] {samosa, juice, tikka}, new int[] {4, 100, 2}));
+        assertEquals(1, inventory.get("Samosa").getFree());
+        assertEquals(0, inventory.get("Paneer Tikka").getFree());
+        assertFalse(tikka.isAvailable());
+        assertTrue(juice.isAvailable());                    // untracked: never limited
+        assertArrayEquals(new int[] {samosa.getId()}, catalog.availableInCategory("Starters"));
+
+        inventory.release(tikka, 2);
+        assertTrue(tikka.isAvailable());
+        assertEquals(2, catalog.availableInCategory("Starters").length);
+    }
+
+    @Test
+    void sellsTheLastPortionsOnlyOnce() throws InterruptedException {
+        MenuCatalog catalog = catalog();
+        Inventory inventory = new Inventory();
+        inventory.attach(catalog);
+        inventory.restock(Map.of("Samosa", 1_000));
+        FoodItem samosa = catalog.byName("Samosa");
+
+        int threads = 8;
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (inventory.reserve(samosa, 3)) reserved.addAndGet(3);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread w : workers) w.join();
+
+        assertEquals(999, reserved.get());
+        assertEquals(1, inventory.get("Samosa").getFree());
+        assertFalse(inventory.reserve(samosa, 2));
+        assertTrue(inventory.reserve(samosa, 1));
+        assertFalse(samosa.isAvailable());
+    }
+
+    @Test
+    void soldElsewhereTakesWhatIsFreeAndCountsAll() {
+        MenuCatalog catalog = catalog();
+        Inventory inventory = new Inventory();
+        inventory.attach(catalog);
+        inventory.restock(Map.of("Samosa", 3));
+        inventory.soldElsewhere("Samosa", 5);
+        assertEquals(0, inventory.get("Samosa").getFree());
+        assertEquals(5, inventory.get("Samosa").getSold());
+        assertFalse(catalog.byName("Samosa").isAvailable());
+        inventory.soldElsewhere("Lime Juice", 2);           // untracked: ignored
+        assertEquals(null, inventory.get("Lime Juice"));
+    }
+}
@@ -0,0 +1,113 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KitchenTest {
+
+    static final FoodItem SAMOSA = new FoodItem("Samosa", 30, true, "Starters");
+    static final FoodItem BIRYANI = new FoodItem("Veg Biryani", 180, true, "Main Course");
+    static final FoodItem LASSI = new FoodItem("Mango Lassi", 90, true, "Beverages");
+    static final MenuCatalog MENU = new MenuCatalog(List.of(SAMOSA, BIRYANI, LASSI));     // assigns their IDs
+
+    final AtomicLong now = new AtomicLong(1);
+    final List<OrderStatus> changes = new CopyOnWriteArrayList<>();
+    final Kitchen kitchen = Kitchen.standard(Collections.emptyMap(), now::get, o -> changes.add(o.getStatus()));
+
+    static Order order(long id, FoodItem... items) {
+        Order order = new Order(id);
+        for (FoodItem item : items) order.addItem(item);
+        return order;
+    }
+
+    void cookAll(String station) {
+        Kitchen.Task task;
+        while ((task = kitchen.next(station)) != null) {
+            now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+            assertTrue(kitchen.done(task.taskId));
+        }
+    }
+
+    @Test
+    void movesAnOrderThroughItsStations() {
+        kitchen.submit(order(1, SAMOSA, BIRYANI, LASSI));
+        assertEquals(TimeUnit.MINUTES.toNanos(15), kitchen.etaNanos(1));
+        assertEquals(TimeUnit.MINUTES.toNanos(15), kitchen.backlogNanos());
+
+        cookAll("Beverages");
+        assertFalse(kitchen.serve(1));
+        cookAll("Starters");                                // and, helping out, Main Course
+        assertEquals(0, kitchen.etaNanos(1));
+        assertEquals(List.of(OrderStatus.PREPARING, OrderStatus.READY), changes);
+
+        assertTrue(kitchen.serve(1));
+        assertFalse(kitchen.serve(1));
+        assertEquals(-1, kitchen.etaNanos(1));
+        assertEquals(0, kitchen.getOpenTickets());
+        assertNull(kitchen.next("Main Course"));
+    }
+
+    @Test
+    void dropsReadyTicketsNobodyServes() {
+        kitchen.submit(order(1, LASSI));
+        kitchen.submit(order(2, LASSI));
+        cookAll("Beverages");
+        assertEquals(2, kitchen.getOpenTickets());
+
+        // Order 1 went READY a minute before order 2, which is now
+        now.addAndGet(Kitchen.READY_RETENTION_NANOS - TimeUnit.MINUTES.toNanos(1) - 1);
+        kitchen.submit(order(3, LASSI));
+        assertEquals(3, kitchen.getOpenTickets());
+        assertTrue(kitchen.serve(2));
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        kitchen.submit(order(4, LASSI));
+        assertEquals(2, kitchen.getOpenTickets());      // 3 and 4, still to cook
+        assertEquals(-1, kitchen.etaNanos(1));
+        assertFalse(kitchen.serve(1));
+        assertTrue(kitchen.etaNanos(3) > 0);
+    }
+
+    @Test
+    void quotesALargeLineInBatches() {
+        long tray = TimeUnit.MINUTES.toNanos(8);
+        assertEquals(tray, kitchen.prepEstimateNanos(SAMOSA.getName(), SAMOSA.getCategory()));
+        Order catering = new Order(1);
+        catering.addItem(SAMOSA, 40);
+        kitchen.submit(catering);
+        assertEquals(5 * tray, kitchen.etaNanos(1));       // five trays of eight, not forty samosas
+
+        // Cooked in the time quoted, so the batch estimate stands and a single plate is still one tray
+        Kitchen.Task task = kitchen.next("Starters");
+        now.addAndGet(5 * tray);
+        assertTrue(kitchen.done(task.taskId));
+        assertEquals(tray, kitchen.prepEstimateNanos(SAMOSA.getName(), SAMOSA.getCategory()));
+        kitchen.submit(order(2, SAMOSA));
+        assertEquals(tray, kitchen.etaNanos(2));
+
+        // Twice as slow as quoted, for one plate or for a tray and a half: the batch time grows the same
+        task = kitchen.next("Starters");
+        now.addAndGet(2 * tray);
+        assertTrue(kitchen.done(task.taskId));
+        long learned = kitchen.prepEstimateNanos(SAMOSA.getName(), SAMOSA.getCategory());
+        assertEquals(tray * (1 + Kitchen.LEARNING_RATE), learned, 1);
+        Order twelve = new Order(3);
+        twelve.addItem(SAMOSA, 12);
+        kitchen.submit(twelve);
+        task = kitchen.next("Starters");
+        now.addAndGet(2 * 2 * learned);
+        assertTrue(kitchen.done(task.taskId));
+        assertEquals(learned * (1 + Kitchen.LEARNING_RATE),
+                kitchen.prepEstimateNanos(SAMOSA.getName(), SAMOSA.getCategory()), 1);
+    }
+}
@@ -0,0 +1,97 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MenuSearchTest {
+
+    static final FoodItem PANEER_TIKKA = new FoodItem("Paneer Tikka", 220, true, "Starters");
+    static final FoodItem PANEER_MASALA = new FoodItem("Paneer Butter Masala", 260, true, "Main Course");
+    static final FoodItem CHICKEN_TIKKA = new FoodItem("Chicken Tikka", 280, true, "Starters");
+    static final FoodItem COMBO = new FoodItem("Veg Combo (Paneer Tikka + Naan + Sweet Lassi)", 350, true, "Combos");
+    static final FoodItem NAAN = new FoodItem("Naan", 40, true, "Breads");
+    static final FoodItem BUTTER_NAAN = new FoodItem("Butter Naan", 50, true, "Breads");
+    static final FoodItem SWEET_LASSI = new FoodItem("Sweet Lassi", 60, true, "Beverages");
+    static final FoodItem MANGO_LASSI = new FoodItem("Mango Lassi", 80, true, "Beverages");
+    static final FoodItem DAL_TADKA = new FoodItem("Dal Tadka", 180, true, "Main Course");
+    static final FoodItem DALIA = new FoodItem("Dalia Khichdi", 150, true, "Main Course");
+    static final FoodItem BROWNIE = new FoodItem("Chocolate Brownie", 120, true, "Desserts");
+
+    static final MenuSearch SEARCH;
+
+    static {
+        // Popular enough to come first if ranking went by popularity alone
+        COMBO.increasePopularity(1_000);
+        DALIA.increasePopularity(1_000);
+        MANGO_LASSI.increasePopularity(10);
+        SEARCH = new MenuSearch(new MenuCatalog(List.of(PANEER_TIKKA, PANEER_MASALA, CHICKEN_TIKKA, COMBO, NAAN,
+                BUTTER_NAAN, SWEET_LASSI, MANGO_LASSI, DAL_TADKA, DALIA, BROWNIE)));
+    }
+
+    /** Names of the matches, best first, without the time budget cutting the typo search short. */
+    static List<String> search(String query) {
+        MenuSearch.Result result = SEARCH.search(query, 20, Long.MAX_VALUE);
+        assertTrue(result.complete);
+        assertEquals(result.ids.length, result.matches);
+        List<String> names = new ArrayList<>();
+        for (int id : result.ids) names.add(SEARCH.getCatalog().nameOf(id));
+        return names;
+    }
+
+    static List<String> names(FoodItem... items) {
+        List<String> names = new ArrayList<>();
+        for (FoodItem item : items) names.add(item.getName());
+        return names;
+    }
+
+    @Test
+    void forgivesTyposInLongerWords() {
+        assertEquals(0, MenuSearch.editsAllowed(3));
+        assertEquals(1, MenuSearch.editsAllowed(4));
+        assertEquals(1, MenuSearch.editsAllowed(7));
+        assertEquals(2, MenuSearch.editsAllowed(8));
+
+        List<String> paneer = names(PANEER_TIKKA, PANEER_MASALA, COMBO);
+        assertEquals(paneer, search("paneer"));
+        assertEquals(paneer, search("panner"));         // substitution
+        assertEquals(paneer, search("paner"));          // deletion
+        assertEquals(paneer, search("paneeer"));        // insertion
+        assertEquals(paneer, search("apneer"));         // swap of neighbours
+        assertEquals(names(PANEER_TIKKA, CHICKEN_TIKKA, COMBO), search("tikak"));
+        assertEquals(List.of(), search("pnr"));
+
+        assertEquals(names(BROWNIE), search("chcoolate"));
+        assertEquals(names(BROWNIE), search("chcoolatr"));     // two edits in nine letters
+        assertEquals(List.of(), search("chcoolxtr"));
+        assertEquals(List.of(), search("chcoolx"));            // two edits in seven letters
+    }
+
+    @Test
+    void findsWhatHasBeenTypedSoFar() {
+        assertEquals(names(PANEER_TIKKA, PANEER_MASALA, COMBO), search("pan"));
+        assertEquals(names(BUTTER_NAAN), search("butt na"));
+        assertEquals(names(PANEER_MASALA), search("paneer butter ma"));
+        assertEquals(names(BROWNIE), search("chocolate b"));
+        assertEquals(names(BROWNIE), search("chcoolate b"));
+    }
+
+    @Test
+    void ranksByHowWellEveryWordMatched() {
+        // Every query word has to match, in the name or the combo's contents
+        assertEquals(names(PANEER_TIKKA, COMBO), search("paneer tikka"));
+        assertEquals(names(COMBO), search("paneer naan"));
+        assertEquals(names(COMBO), search("tikka lassi"));
+
+        // A combo's contents rank below names, and an exact word above a prefix, however popular
+        assertEquals(names(MANGO_LASSI, SWEET_LASSI, COMBO), search("lassi"));
+        assertEquals(names(NAAN, BUTTER_NAAN, COMBO), search("naan"));
+        assertEquals(names(DAL_TADKA, DALIA), search("dal"));
+        // Then the more popular first
+        assertEquals(names(DALIA, DAL_TADKA), search("da"));
+    }
+}
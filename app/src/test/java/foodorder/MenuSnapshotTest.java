@@ -0,0 +1,89 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MenuSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsTheBundledMenu() throws IOException {
+        MenuCatalog source = new MenuCatalog(MenuLoader.bundled().values());
+        source.setAvailable(3, false);
+        Path file = dir.resolve(MenuLoader.SNAPSHOT);
+        MenuSnapshot.write(source, file);
+
+        MenuSnapshot snapshot = MenuSnapshot.open(file);
+        assertEquals(source.size(), snapshot.size());
+        assertEquals(source.categories().size(), snapshot.categoryCount());
+        for (int id = 0; id < source.size(); id++) {
+            FoodItem item = source.get(id);
+            assertEquals(item.getName(), snapshot.name(id));
+            assertEquals(item.getPricePaise(), snapshot.pricePaise(id));
+            assertEquals(id, snapshot.find(item.getName()));
+            assertEquals(item.isAvailable(), snapshot.availability().get(id));
+        }
+        assertFalse(snapshot.availability().get(3));
+        assertEquals(-1, snapshot.find("Not On The Menu"));
+
+        MenuCatalog mapped = MenuLoader.load(file);
+        assertEquals(source.categories(), mapped.categories());
+        for (String category : source.categories()) {
+            assertArrayEquals(source.itemsInCategory(category), mapped.itemsInCategory(category));
+            assertArrayEquals(source.availableInCategory(category), mapped.availableInCategory(category));
+        }
+        FoodItem first = mapped.byName(source.get(0).getName());
+        assertEquals(source.get(0).getPrice(), first.getPrice(), 0.0);
+        assertEquals(source.get(0).getCategory(), first.getCategory());
+    }
+
+    @Test
+    void keepsUnicodeNamesAndManyItems() throws IOException {
+        List<FoodItem> items = new ArrayList<>();
+        items.add(new FoodItem("Rasmalai रसमलाई", 120, true, "Desserts"));
+        for (int i = 0; i < 500; i++) items.add(new FoodItem("Dish " + i, 10 + i, i % 7 != 0, "Cat " + i % 9));
+        MenuCatalog source = new MenuCatalog(items);
+        Path file = dir.resolve("big.snapshot");
+        MenuSnapshot.write(source, file);
+
+        MenuCatalog mapped = MenuLoader.load(file);
+        assertEquals(501, mapped.size());
+        assertEquals(source.idOf("Rasmalai रसमलाई"), mapped.idOf("Rasmalai रसमलाई"));
+        for (int i = 0; i < 500; i++) {
+            FoodItem item = mapped.byName("Dish " + i);
+            assertEquals(source.idOf("Dish " + i), item.getId());
+            assertEquals(i % 7 != 0, item.isAvailable());
+        }
+        assertTrue(Files.notExists(dir.resolve("big.snapshot.tmp")));
+    }
+
+    @Test
+    void rejectsATruncatedOrForeignFile() throws IOException {
+        Path file = dir.resolve(MenuLoader.SNAPSHOT);
+        MenuSnapshot.write(new MenuCatalog(MenuLoader.bundled().values()), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertThrows(IOException.class, () -> MenuSnapshot.open(file));
+
+        Path csv = dir.resolve("menu.csv");
+        Files.writeString(csv, "name,price,available,category\nTea,20,true,Beverages\n");
+        assertThrows(IOException.class, () -> MenuSnapshot.open(csv));
+    }
+}
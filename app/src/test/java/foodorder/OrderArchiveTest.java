@@ -0,0 +1,138 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderArchiveTest {
+
+    static final String[] ITEMS = {"Samosa", "Veg Biryani", "Lime Juice", "Paneer Tikka", "Gulab Jamun"};
+    static final Map<String, String> CATEGORIES = Map.of("Samosa", "Starters", "Veg Biryani", "Main Course",
+            "Lime Juice", "Beverages", "Paneer Tikka", "Starters");
+    static final Function<String, String> CATEGORY_OF = CATEGORIES::get;   // Gulab Jamun: no longer on the menu
+
+    @TempDir
+    Path dir;
+
+    /** count orders spread over the day, in shuffled order, with IDs from firstId. */
+    static List<OrderJournal.Entry> day(LocalDate day, int count, long firstId, long seed) {
+        Random random = new Random(seed);
+        long start = OrderJournalTest.millis(day, 0, 0);
+        List<OrderJournal.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int lines = 1 + random.nextInt(3);
+            String[] names = new String[lines];
+            int[] quantities = new int[lines];
+            long[] linePaise = new long[lines];
+            long total = 0;
+            for (int line = 0; line < lines; line++) {
+                names[line] = ITEMS[(i + line) % ITEMS.length];
+                quantities[line] = 1 + random.nextInt(4);
+                linePaise[line] = quantities[line] * (5_000L + 1_000L * ((i + line) % ITEMS.length));
+                total += linePaise[line];
+            }
+            long at = start + (long) random.nextInt(86_400_000);
+            entries.add(new OrderJournal.Entry(firstId + i, at, names, quantities, linePaise, total));
+        }
+        return entries;
+    }
+
+    static Map<String, Long> bruteForce(List<OrderJournal.Entry> entries, long from, long to) {
+        Map<String, Long> totals = new TreeMap<>();
+        for (OrderJournal.Entry e : entries) {
+            if (e.epochMillis < from || e.epochMillis >= to) continue;
+            for (int line = 0; line < e.itemNames.length; line++) {
+                String category = CATEGORY_OF.apply(e.itemNames[line]);
+                totals.merge(category == null ? "Unknown" : category, e.linePaise[line], Long::sum);
+            }
+        }
+        totals.values().removeIf(v -> v == 0);
+        return totals;
+    }
+
+    @Test
+    void answersRangesFromTheIndexAndFromCutBlocks() throws IOException {
+        LocalDate date = OrderJournalTest.DAY;
+        List<OrderJournal.Entry> entries = day(date, 3 * OrderArchive.BLOCK_ORDERS + 123, 1_000, 7);
+        OrderArchive archive = new OrderArchive(dir, OrderJournalTest.UTC);
+        OrderArchive.write(archive.file(date), entries, CATEGORY_OF);
+        assertTrue(archive.contains(date));
+
+        long dayStart = OrderJournalTest.millis(date, 0, 0);
+        long dayEnd = OrderJournalTest.millis(date.plusDays(1), 0, 0);
+        assertEquals(bruteForce(entries, dayStart, dayEnd), archive.revenueByCategory(date, date));
+        assertEquals(bruteForce(entries, dayStart, dayEnd), archive.revenueByCategory(dayStart - 1000, dayEnd + 1000));
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            long a = dayStart + random.nextInt(86_400_000);
+            long b = dayStart + random.nextInt(86_400_000);
+            long from = Math.min(a, b);
+            long to = Math.max(a, b);
+            assertEquals(bruteForce(entries, from, to), archive.revenueByCategory(from, to));
+        }
+        assertEquals((long) bruteForce(entries, dayStart, dayEnd).get("Unknown"),
+                archive.revenue("Unknown", date, date));
+        assertEquals(0, archive.revenue("Starters", date.plusDays(1), date.plusDays(5)));
+
+        // A fresh instance maps the file again
+        OrderArchive reopened = new OrderArchive(dir, OrderJournalTest.UTC);
+        assertEquals(bruteForce(entries, dayStart, dayEnd), reopened.revenueByCategory(date, date));
+    }
+
+    @Test
+    void compactsOnlyJournalledDaysBeforeTheCutoff() throws IOException {
+        LocalDate first = OrderJournalTest.DAY;
+        List<OrderJournal.Entry> all = new ArrayList<>();
+        for (int d = 0; d < 3; d++) all.addAll(day(first.plusDays(d), 200, 1 + d * 200, d));
+        all.sort((x, y) -> Long.compare(x.epochMillis, y.epochMillis));
+        Path journalDir = dir.resolve("journal");
+        OrderArchive archive = new OrderArchive(dir.resolve("archive"), OrderJournalTest.UTC);
+        Files.createDirectories(dir.resolve("archive"));
+        try (OrderJournal live = OrderJournal.open(journalDir, 1 << 16, OrderJournalTest.UTC)) {
+            live.recover(name -> null);
+            for (OrderJournal.Entry e : all) live.append(e);
+            live.sync();
+
+            // Compacting from a second, unrecovered journal leaves the live one's segments as they were
+            List<byte[]> before = new ArrayList<>();
+            for (Path segment : OrderJournalTest.segments(journalDir)) before.add(Files.readAllBytes(segment));
+            try (OrderJournal journal = OrderJournal.open(journalDir, 1 << 16, OrderJournalTest.UTC)) {
+                assertEquals(List.of(first, first.plusDays(1), first.plusDays(2)), journal.days());
+                assertEquals(List.of(first, first.plusDays(1)),
+                        archive.compact(journal, CATEGORY_OF, first.plusDays(2)));
+                assertEquals(List.of(), archive.compact(journal, CATEGORY_OF, first.plusDays(2)));
+            }
+            List<Path> segments = OrderJournalTest.segments(journalDir);
+            for (int i = 0; i < segments.size(); i++) assertArrayEquals(before.get(i), Files.readAllBytes(segments.get(i)));
+
+            OrderJournal.Entry late = OrderJournalTest.entry(9_999, OrderJournalTest.millis(first.plusDays(2), 23, 0),
+                    "Samosa", 1, 3_000);
+            live.append(late);
+            all.add(late);
+        }
+        assertFalse(archive.contains(first.plusDays(2)));
+        try (OrderJournal journal = OrderJournal.open(journalDir, 1 << 16, OrderJournalTest.UTC)) {
+            assertEquals(List.of(first.plusDays(2)), archive.compact(journal, CATEGORY_OF, first.plusDays(3)));
+        }
+
+        long from = OrderJournalTest.millis(first, 0, 0);
+        long to = OrderJournalTest.millis(first.plusDays(3), 0, 0);
+        assertEquals(bruteForce(all, from, to), archive.revenueByCategory(first, first.plusDays(2)));
+    }
+}
@@ -0,0 +1,71 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderIdAllocatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumesAboveTheReservedBlockAfterARestart() throws IOException {
+        Path file = dir.resolve("order-seq");
+        long last;
+        try (OrderIdAllocator ids = OrderIdAllocator.open(file)) {
+            assertEquals(1, ids.first());
+            for (int i = 0; i < 10; i++) assertEquals(i + 1, ids.next());
+            last = ids.next();
+        }
+        try (OrderIdAllocator ids = OrderIdAllocator.open(file)) {
+            assertEquals(OrderIdAllocator.BLOCK, ids.first());
+            assertTrue(ids.next() > last);
+        }
+        try (OrderIdAllocator ids = OrderIdAllocator.open(file, 1_000_000)) {
+            assertEquals(1_000_001, ids.next());
+        }
+        try (OrderIdAllocator ids = OrderIdAllocator.open(file)) {
+            assertEquals(1_000_000 / OrderIdAllocator.BLOCK * OrderIdAllocator.BLOCK + OrderIdAllocator.BLOCK,
+                    ids.first());
+        }
+    }
+
+    @Test
+    void handsOutEveryIdOnceAcrossThreads() throws Exception {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        try (OrderIdAllocator ids = OrderIdAllocator.open(dir.resolve("order-seq"))) {
+            Thread[] workers = new Thread[8];
+            for (int t = 0; t < workers.length; t++) {
+                workers[t] = new Thread(() -> {
+                    long previous = 0;
+                    for (int i = 0; i < 5_000; i++) {
+                        long id = ids.next();
+                        if (id <= previous || !seen.add(id)) throw new AssertionError("id " + id + " out of order");
+                        previous = id;
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread w : workers) w.join();
+        }
+        assertEquals(40_000, seen.size());
+        for (long id = 1; id <= 40_000; id++) assertTrue(seen.contains(id));
+    }
+
+    @Test
+    void refusesACorruptFile() throws IOException {
+        Path file = dir.resolve("order-seq");
+        Files.write(file, new byte[8]);
+        assertThrows(IOException.class, () -> OrderIdAllocator.open(file));
+    }
+}
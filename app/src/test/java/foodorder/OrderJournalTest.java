@@ -0,0 +1,271 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalTest {
+
+    static final ZoneId UTC = ZoneOffset.UTC;
+    static final LocalDate DAY = LocalDate.of(2026, 10, 1);
+
+    @TempDir
+    Path dir;
+
+    static long millis(LocalDate day, int hour, int minute) {
+        return day.atTime(hour, minute).atZone(UTC).toInstant().toEpochMilli();
+    }
+
+    static OrderJournal.Entry entry(long orderId, long epochMillis, String item, int quantity, long pricePaise) {
+        return new OrderJournal.Entry(orderId, epochMillis, new String[] {item}, new int[] {quantity},
+                new long[] {pricePaise * quantity}, pricePaise * quantity);
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void recoversWhatWasAppended() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.append(entry(1, millis(DAY, 12, 0), "Veg Biryani", 2, 18_000));
+            journal.append(new OrderJournal.Entry(2, millis(DAY, 12, 5), new String[] {"Lime Juice", "Samosa"},
+                    new int[] {1, 3}, new long[] {6_000, 9_000}, 15_000));
+            journal.append(entry(3, millis(DAY.plusDays(1), 9, 30), "Cold Coffee", 1, 9_000));
+        }
+
+        FoodItem biryani = new FoodItem("Veg Biryani", 180, true, "Main Course");
+        List<OrderJournal.Entry> recovered = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            Map<LocalDate, Long> totals = journal.recover(
+                    name -> name.equals("Veg Biryani") ? biryani : null, recovered::add);
+            assertEquals(Map.of(DAY, 51_000L, DAY.plusDays(1), 9_000L), totals);
+        }
+        assertEquals(3, recovered.size());
+        assertEquals(2, biryani.getPopularity());
+        OrderJournal.Entry second = recovered.get(1);
+        assertEquals(2, second.orderId);
+        assertEquals(millis(DAY, 12, 5), second.epochMillis);
+        assertArrayEquals(new String[] {"Lime Juice", "Samosa"}, second.itemNames);
+        assertArrayEquals(new int[] {1, 3}, second.quantities);
+        assertArrayEquals(new long[] {6_000, 9_000}, second.linePaise);
+        assertEquals(15_000, second.totalPaise);
+    }
+
+    @Test
+    void rollsToANewSegmentPerDayAndWhenFull() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 256, UTC)) {
+            journal.recover(name -> null);
+            for (int i = 0; i < 10; i++) journal.append(entry(i + 1, millis(DAY, 10, i), "Samosa", 1, 3_000));
+            journal.append(entry(11, millis(DAY.plusDays(1), 10, 0), "Samosa", 1, 3_000));
+        }
+        List<Path> files = segments(dir);
+        assertEquals("orders-2026-10-01-0001.seg", files.get(0).getFileName().toString());
+        assertEquals("orders-2026-10-02-0001.seg", files.get(files.size() - 1).getFileName().toString());
+        assertTrue(files.size() > 2);
+
+        try (OrderJournal journal = OrderJournal.open(dir, 256, UTC)) {
+            journal.recover(name -> null);
+            List<Long> ids = new ArrayList<>();
+            journal.replay(DAY, e -> ids.add(e.orderId));
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids);
+        }
+    }
+
+    @Test
+    void appendsAfterRecoveredRecordsOnRestart() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.append(entry(1, millis(DAY, 12, 0), "Samosa", 1, 3_000));
+        }
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.append(entry(2, millis(DAY, 13, 0), "Samosa", 2, 3_000));
+        }
+        List<Long> ids = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            assertEquals(Map.of(DAY, 9_000L), journal.recover(name -> null));
+            journal.replay(DAY, e -> ids.add(e.orderId));
+        }
+        assertEquals(List.of(1L, 2L), ids);
+        assertEquals(1, segments(dir).size());
+    }
+
+    @Test
+    void dropsATornTail() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.append(entry(1, millis(DAY, 12, 0), "Samosa", 1, 3_000));
+            journal.append(entry(2, millis(DAY, 12, 1), "Samosa", 1, 3_000));
+        }
+        // A crash after the payload but before the length: bytes past the last record, length still 0
+        Path segment = segments(dir).get(0);
+        int end = recordEnd(segment, 2);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8}), end);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            assertEquals(Map.of(DAY, 6_000L), journal.recover(name -> null));
+            journal.append(entry(3, millis(DAY, 12, 2), "Samosa", 1, 3_000));
+        }
+        List<Long> ids = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.replay(DAY, e -> ids.add(e.orderId));
+        }
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    void keepsTheRecordsAfterADamagedOne() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            for (int i = 1; i <= 4; i++) journal.append(entry(i, millis(DAY, 12, i), "Samosa", i, 3_000));
+        }
+        // Flip a payload byte of the second record and break the length of the third
+        Path segment = segments(dir).get(0);
+        int second = recordEnd(segment, 1);
+        int third = recordEnd(segment, 2);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}), second + 12);
+            ch.write(ByteBuffer.allocate(4).putInt(0, 1_000_000), third);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            assertEquals(Map.of(DAY, 5 * 3_000L), journal.recover(name -> null));
+            journal.append(entry(5, millis(DAY, 12, 5), "Samosa", 1, 3_000));
+        }
+        List<Long> ids = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            assertEquals(Map.of(DAY, 6 * 3_000L), journal.recover(name -> null));
+            journal.replay(DAY, e -> ids.add(e.orderId));
+        }
+        assertEquals(List.of(1L, 4L, 5L), ids);
+    }
+
+    @Test
+    void dropsADamagedLastRecord() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.append(entry(1, millis(DAY, 12, 0), "Samosa", 1, 3_000));
+            journal.append(entry(2, millis(DAY, 12, 1), "Samosa", 2, 3_000));
+        }
+        Path segment = segments(dir).get(0);
+        int second = recordEnd(segment, 1);
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}), second + 12);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            assertEquals(Map.of(DAY, 3_000L), journal.recover(name -> null));
+            journal.append(entry(3, millis(DAY, 12, 2), "Samosa", 1, 3_000));
+        }
+        // The new record went where the damaged one was, and nothing of it is left behind
+        assertEquals(second, recordEnd(segment, 1));
+        assertEquals(recordEnd(segment, 2), Files.size(segment));
+        List<Long> ids = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            journal.replay(DAY, e -> ids.add(e.orderId));
+        }
+        assertEquals(List.of(1L, 3L), ids);
+    }
+
+    @Test
+    void cutsSegmentsBackToTheirLastRecord() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 1 << 16, UTC)) {
+            journal.recover(name -> null);
+            journal.append(entry(1, millis(DAY, 12, 0), "Samosa", 1, 3_000));
+            journal.append(entry(2, millis(DAY.plusDays(1), 12, 0), "Samosa", 1, 3_000));
+            assertEquals(recordEnd(segments(dir).get(0), 1), Files.size(segments(dir).get(0)));
+            assertEquals(1 << 16, Files.size(segments(dir).get(1)));
+        }
+        assertEquals(recordEnd(segments(dir).get(1), 1), Files.size(segments(dir).get(1)));
+
+        // A crash leaves the open segment padded; recovery cuts it back
+        Path last = segments(dir).get(1);
+        try (FileChannel ch = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(1), (1 << 16) - 1);
+        }
+        try (OrderJournal journal = OrderJournal.open(dir, 1 << 16, UTC)) {
+            journal.recover(name -> null);
+        }
+        assertEquals(recordEnd(last, 1), Files.size(last));
+    }
+
+    @Test
+    void takesClosedDaysFromTheCheckpoint() throws IOException {
+        FoodItem samosa = new FoodItem("Samosa", 30, true, "Starters");
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null);
+            for (int d = 0; d < 3; d++) {
+                for (int i = 1; i <= 3; i++) {
+                    journal.append(entry(d * 10 + i, millis(DAY.plusDays(d), 12, i), "Samosa", i, 3_000));
+                }
+            }
+            journal.checkpoint(DAY.plusDays(2));
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            Map<LocalDate, Long> totals = journal.recover(name -> samosa, e -> replayed.add(e.orderId),
+                    DAY.plusDays(5));
+            assertEquals(Map.of(DAY, 18_000L, DAY.plusDays(1), 18_000L, DAY.plusDays(2), 18_000L), totals);
+            assertEquals(List.of(DAY, DAY.plusDays(1)), journal.getSummarisedDays());
+        }
+        assertEquals(List.of(21L, 22L, 23L), replayed);
+        assertEquals(18, samosa.getPopularity());
+
+        // A day needed from replayFrom on, or whose segments changed since, is replayed
+        Path first = segments(dir).get(0);
+        try (FileChannel ch = FileChannel.open(first, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(1), Files.size(first));
+        }
+        replayed.clear();
+        try (OrderJournal journal = OrderJournal.open(dir, 4096, UTC)) {
+            journal.recover(name -> null, e -> replayed.add(e.orderId), DAY.plusDays(1));
+            assertEquals(List.of(), journal.getSummarisedDays());
+        }
+        assertEquals(List.of(1L, 2L, 3L, 11L, 12L, 13L, 21L, 22L, 23L), replayed);
+    }
+
+    @Test
+    void rejectsARecordLargerThanASegment() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir, 64, UTC)) {
+            journal.recover(name -> null);
+            assertThrows(IOException.class, () -> journal.append(entry(1, millis(DAY, 12, 0),
+                    "A very long item name that cannot fit in sixty-four bytes", 1, 100)));
+        }
+    }
+
+    /** Offset just past the first count records of a segment. */
+    static int recordEnd(Path segment, int count) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int pos = 0;
+        for (int i = 0; i < count; i++) pos += 8 + buf.getInt(pos);
+        return pos;
+    }
+}
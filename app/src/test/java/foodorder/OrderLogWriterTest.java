@@ -0,0 +1,95 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderLogWriterTest {
+
+    static final LocalDate BEFORE_MIDNIGHT = LocalDate.of(2026, 10, 1);
+    static final LocalDate AFTER_MIDNIGHT = BEFORE_MIDNIGHT.plusDays(1);
+
+    @TempDir
+    Path dir;
+
+    List<String> lines(LocalDate day) throws Exception {
+        Path file = dir.resolve(OrderLogWriter.fileNameFor(day));
+        return Files.exists(file) ? Files.readAllLines(file, StandardCharsets.UTF_8) : List.of();
+    }
+
+    @Test
+    void splitsBatchesWhereTheDayChanges() throws Exception {
+        // Records for both days interleave around midnight, as checkouts on either side of it would
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        try (OrderLogWriter log = new OrderLogWriter(dir, 4096, OrderLogWriter.FsyncPolicy.EVERY_BATCH)) {
+            for (int i = 0; i < 2_000; i++) {
+                boolean late = i % 3 == 0 || i > 1_500;
+                String text = "order " + i;
+                (late ? after : before).add(text);
+                log.append(late ? AFTER_MIDNIGHT : BEFORE_MIDNIGHT, text + "\n");
+            }
+            log.close();
+            assertEquals(2_000, log.getRecordsWritten());
+            assertEquals(0, log.getErrorCount());
+        }
+        assertEquals(before, lines(BEFORE_MIDNIGHT));
+        assertEquals(after, lines(AFTER_MIDNIGHT));
+    }
+
+    @Test
+    void closeWritesEveryRecordItAccepted() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            LocalDate day = BEFORE_MIDNIGHT.plusDays(round);
+            OrderLogWriter log = new OrderLogWriter(dir, 64, OrderLogWriter.FsyncPolicy.NEVER);
+            Set<String> accepted = ConcurrentHashMap.newKeySet();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                threads.add(new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; ; i++) {
+                        String text = "order " + thread + "-" + i;
+                        try {
+                            log.append(day, text + "\n");
+                        } catch (IllegalStateException e) {
+                            return;
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                        accepted.add(text);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            started.await();
+            Thread.sleep(5);
+            log.close();
+            for (Thread thread : threads) thread.join();
+
+            assertEquals(accepted, new HashSet<>(lines(day)), "round " + round);
+            assertEquals(accepted.size(), log.getRecordsWritten());
+        }
+    }
+
+    @Test
+    void refusesRecordsOnceClosed() {
+        OrderLogWriter log = new OrderLogWriter(dir, 16, OrderLogWriter.FsyncPolicy.NEVER);
+        log.close();
+        assertThrows(IllegalStateException.class, () -> log.append(BEFORE_MIDNIGHT, "late\n"));
+    }
+}
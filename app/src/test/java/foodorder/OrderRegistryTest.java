@@ -0,0 +1,83 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    static OrderRegistry.Record placed(long orderId) {
+        return new OrderRegistry.Record(orderId, OrderStatus.PLACED.name(), 1_790_000_000_000L + orderId,
+                new String[] {"Samosa"}, new int[] {1}, new long[] {3_000}, 3_000, 3_150);
+    }
+
+    @Test
+    void keepsProbeRunsIntactWhenCartsAreDiscarded() {
+        // Multiples of STRIPES all land in one stripe, so they share its table and probe runs
+        OrderRegistry registry = OrderRegistry.inMemory(1L << 30);
+        Map<Long, OrderRegistry.Record> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int step = 0; step < 20_000; step++) {
+            long id = OrderRegistry.STRIPES * (1 + random.nextInt(400));
+            int op = random.nextInt(3);
+            if (op == 0) {
+                OrderRegistry.Record cart = placed(id);
+                registry.register(id, () -> cart);
+                expected.put(id, cart);
+            } else if (op == 1) {
+                registry.discard(id);
+                expected.remove(id);
+            } else {
+                assertSame(expected.get(id), registry.find(id));
+            }
+        }
+        for (long k = 1; k <= 400; k++) {
+            long id = OrderRegistry.STRIPES * k;
+            assertSame(expected.get(id), registry.find(id));
+        }
+    }
+
+    @Test
+    void discardLeavesPlacedOrders() {
+        OrderRegistry registry = OrderRegistry.inMemory(1L << 30);
+        Supplier<OrderRegistry.Record> cart = () -> placed(64);
+        registry.register(64, cart);
+        OrderRegistry.Record record = placed(64);
+        registry.complete(record);
+        registry.discard(64);
+        assertSame(record, registry.find(64));
+
+        registry.updateStatus(64, OrderStatus.READY);
+        assertEquals("READY", registry.find(64).status);
+        assertNull(registry.find(128));
+    }
+
+    @Test
+    void findsSpilledOrdersAfterARestart() throws IOException {
+        long budget = 100 * placed(1).estimatedBytes();
+        try (OrderRegistry registry = OrderRegistry.open(dir, budget)) {
+            for (long id = 1; id <= 5_000; id++) registry.complete(placed(id));
+            for (long id = 1; id <= 5_000; id++) assertEquals(id, registry.find(id).orderId);
+            assertTrue(registry.placedBytes() <= 2 * budget);
+        }
+        try (OrderRegistry registry = OrderRegistry.open(dir, budget)) {
+            assertEquals(5_000, registry.spilled());
+            for (long id = 1; id <= 5_000; id++) assertEquals(3_150, registry.find(id).finalPaise);
+            assertNull(registry.find(5_001));
+        }
+    }
+}
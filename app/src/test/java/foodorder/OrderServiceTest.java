@@ -0,0 +1,186 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderServiceTest {
+
+    @TempDir
+    Path dir;
+
+    static long popularity(OrderService service, String name) {
+        return service.getCatalog().byName(name).getPopularity();
+    }
+
+    /** Copies the data directory as a crash would leave it: whatever is on disk, nothing closed. */
+    static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.walk(from)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path target = to.resolve(from.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(file, target);
+                }
+            }
+        }
+    }
+
+    static List<OrderService.Bill> placeOrders(OrderService service, int count) throws InterruptedException {
+        List<OrderService.Bill> bills = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            service.addItem("s" + i, "Spring Roll");
+            if (i % 2 == 0) service.addItem("s" + i, "Paneer Tikka");
+            bills.add(service.checkout("s" + i));
+        }
+        return bills;
+    }
+
+    static void assertFinds(OrderService service, List<OrderService.Bill> bills) {
+        for (OrderService.Bill bill : bills) {
+            OrderRegistry.Record record = service.findOrder(bill.order.getOrderId());
+            assertNotNull(record, "order " + bill.order.getOrderId());
+            assertEquals(bill.order.getLineCount(), record.itemNames.length);
+            assertEquals(bill.order.getTotalPaise(), record.totalPaise);
+            assertEquals(bill.finalPaise, record.finalPaise);
+        }
+    }
+
+    @Test
+    void countsPopularityOncePerPlacedOrder() throws Exception {
+        try (OrderService service = OrderService.open(dir, null)) {
+            service.addItem("a", "Spring Roll");
+            service.addItem("a", "Spring Roll");
+            service.addItem("a", "Paneer Tikka");
+            service.removeItem("a", "Paneer Tikka");
+            assertEquals(0, popularity(service, "Spring Roll"));
+            assertNotNull(service.checkout("a"));
+            assertEquals(2, popularity(service, "Spring Roll"));
+            assertEquals(0, popularity(service, "Paneer Tikka"));
+
+            service.addItem("b", "Paneer Tikka");
+            service.discardCart("b");
+            service.addItem("c", "Paneer Tikka");
+            service.releaseIdleCarts(0);
+            assertEquals(0, popularity(service, "Paneer Tikka"));
+        }
+        // Recovery counts the same orders the live service did
+        try (OrderService service = OrderService.open(dir, null)) {
+            assertEquals(2, popularity(service, "Spring Roll"));
+            assertEquals(0, popularity(service, "Paneer Tikka"));
+        }
+    }
+
+    @Test
+    void findsOrdersThatWereOnlyInMemoryAfterACrash() throws Exception {
+        Path live = dir.resolve("live");
+        List<OrderService.Bill> spilled;
+        try (OrderService service = OrderService.open(live, null)) {
+            spilled = placeOrders(service, 5);
+        }
+        // Closing spilled those; these stay in memory until the crash
+        List<OrderService.Bill> inMemory;
+        try (OrderService service = OrderService.open(live, null)) {
+            assertFinds(service, spilled);
+            inMemory = placeOrders(service, 7);
+            service.getOrderLog().close();
+            copyTree(live, dir.resolve("crashed"));
+        }
+        try (OrderService service = OrderService.open(dir.resolve("crashed"), null)) {
+            assertFinds(service, spilled);
+            assertFinds(service, inMemory);
+            assertEquals(OrderStatus.PLACED.name(), service.findOrder(inMemory.get(0).order.getOrderId()).status);
+        }
+        // Nothing had been spilled yet
+        try (OrderService service = OrderService.open(dir.resolve("fresh"), null)) {
+            inMemory = placeOrders(service, 3);
+            service.getOrderLog().close();
+            copyTree(dir.resolve("fresh"), dir.resolve("fresh-crashed"));
+        }
+        try (OrderService service = OrderService.open(dir.resolve("fresh-crashed"), null)) {
+            assertFinds(service, inMemory);
+        }
+    }
+
+    @Test
+    void reapsEveryIdleCartButReportsOnlyAbandonedOnes() throws Exception {
+        try (OrderService service = OrderService.open(dir, null)) {
+            List<String> expired = new CopyOnWriteArrayList<>();
+            service.addCartExpiryListener(expired::add);
+            service.addItem("placed", "Spring Roll");
+            assertNotNull(service.checkout("placed"));
+            service.addItem("emptied", "Spring Roll");
+            service.removeItem("emptied", "Spring Roll");
+            service.addItem("abandoned", "Paneer Tikka");
+
+            assertEquals(0, service.releaseIdleCarts(TimeUnit.HOURS.toNanos(1)));
+            assertEquals(3, service.releaseIdleCarts(0));
+            assertEquals(List.of("abandoned"), expired);
+            assertEquals(0, service.releaseIdleCarts(0));
+            assertTrue(service.cartQuantities("abandoned").isEmpty());
+        }
+    }
+
+    @Test
+    void rebuildsStockFromTheLedgerAndJournalOnRestart() throws Exception {
+        Path stockFile = dir.resolve(Inventory.FILE);
+        Files.writeString(stockFile, "Spring Roll,10\nPaneer Tikka,4\n");
+        Files.setLastModifiedTime(stockFile, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        try (OrderService service = OrderService.open(dir, null)) {
+            service.addItem("a", "Spring Roll");
+            service.addItem("a", "Spring Roll");
+            service.addItem("a", "Paneer Tikka");
+            assertNotNull(service.checkout("a"));
+            service.restock(Map.of("Spring Roll", 5));
+            service.addItem("b", "Spring Roll");   // reserved, never placed
+            assertEquals(12, service.getInventory().get("Spring Roll").getFree());
+        }
+        try (OrderService service = OrderService.open(dir, null)) {
+            assertEquals(13, service.getInventory().get("Spring Roll").getFree());
+            assertEquals(2, service.getInventory().get("Spring Roll").getSold());
+            assertEquals(3, service.getInventory().get("Paneer Tikka").getFree());
+        }
+
+        // A recount written after those sales is taken as it stands
+        Files.writeString(stockFile, "Spring Roll,7\n");
+        Files.setLastModifiedTime(stockFile, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+        try (OrderService service = OrderService.open(dir, null)) {
+            assertEquals(7, service.getInventory().get("Spring Roll").getFree());
+            assertEquals(0, service.getInventory().get("Spring Roll").getSold());
+            assertNull(service.getInventory().get("Paneer Tikka"));
+        }
+    }
+
+    @Test
+    void leavesTheCartAsItWasWhenTheOrderCantBeLogged() throws Exception {
+        Files.writeString(dir.resolve(Inventory.FILE), "Spring Roll,10\n");
+        try (OrderService service = OrderService.open(dir, null)) {
+            service.addItem("a", "Spring Roll");
+            service.addItem("a", "Spring Roll");
+            service.getOrderLog().close();
+            assertThrows(IllegalStateException.class, () -> service.checkout("a"));
+
+            assertEquals(Map.of("Spring Roll", 2), service.cartQuantities("a"));
+            assertEquals(8, service.getInventory().get("Spring Roll").getFree());
+            assertEquals(0, service.getInventory().get("Spring Roll").getSold());
+            assertEquals(0, popularity(service, "Spring Roll"));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderStoreTest {
+
+    @TempDir
+    Path dir;
+
+    static OrderRegistry.Record record(long orderId, String... items) {
+        int[] quantities = new int[items.length];
+        long[] linePaise = new long[items.length];
+        long total = 0;
+        for (int i = 0; i < items.length; i++) {
+            quantities[i] = i + 1;
+            linePaise[i] = 12_345L * quantities[i];
+            total += linePaise[i];
+        }
+        return new OrderRegistry.Record(orderId, "SERVED", 1_790_000_000_000L + orderId, items, quantities, linePaise,
+                total, total - total / 100);
+    }
+
+    @Test
+    void varintsRoundTripAtEveryLength() {
+        long[] values = {0, 1, 127, 128, 300, 16_383, 16_384, Integer.MAX_VALUE, 1L << 35, 1L << 56,
+                Long.MAX_VALUE, -1};
+        ByteBuffer buf = ByteBuffer.allocate(values.length * 10);
+        for (long v : values) OrderStore.writeVarint(buf, v);
+        buf.flip();
+        for (long v : values) assertEquals(v, OrderStore.readVarint(buf));
+        assertEquals(0, buf.remaining());
+
+        ByteBuffer one = ByteBuffer.allocate(10);
+        OrderStore.writeVarint(one, 127);
+        assertEquals(1, one.position());
+        OrderStore.writeVarint(one.clear(), 128);
+        assertEquals(2, one.position());
+    }
+
+    @Test
+    void findsOrdersAcrossBlocksAndAfterReopening() throws IOException {
+        List<OrderRegistry.Record> first = new ArrayList<>();
+        List<OrderRegistry.Record> second = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            (id % 2 == 0 ? second : first).add(record(id * 3, "Samosa", "Masala Dosa", "Mango Lassi"));
+        }
+        try (OrderStore store = OrderStore.open(dir)) {
+            store.write(first);
+            store.write(second);
+            assertEquals(500, store.size());
+        }
+
+        try (OrderStore store = OrderStore.open(dir)) {
+            assertEquals(500, store.size());
+            for (long id = 1; id <= 500; id++) {
+                OrderRegistry.Record expected = record(id * 3, "Samosa", "Masala Dosa", "Mango Lassi");
+                OrderRegistry.Record found = store.find(id * 3);
+                assertEquals(expected.orderId, found.orderId);
+                assertEquals("SERVED", found.status);
+                assertEquals(expected.placedMillis, found.placedMillis);
+                assertArrayEquals(expected.itemNames, found.itemNames);
+                assertArrayEquals(expected.quantities, found.quantities);
+                assertArrayEquals(expected.linePaise, found.linePaise);
+                assertEquals(expected.totalPaise, found.totalPaise);
+                assertEquals(expected.finalPaise, found.finalPaise);
+                assertNull(store.find(id * 3 + 1));
+            }
+            assertNull(store.find(0));
+            assertNull(store.find(10_000));
+
+            // New blocks carry on from the highest number on disk
+            store.write(List.of(record(20_000, "Tea")));
+            assertEquals("Tea", store.find(20_000).itemNames[0]);
+        }
+        try (OrderStore store = OrderStore.open(dir)) {
+            assertEquals(501, store.size());
+            assertEquals(3, store.find(3).quantities[2]);
+        }
+    }
+
+    @Test
+    void keepsUnicodeNamesAndAnEmptyOrder() throws IOException {
+        try (OrderStore store = OrderStore.open(dir)) {
+            store.write(List.of(record(7, "Rasmalai रसमलाई"), record(8)));
+            assertEquals("Rasmalai रसमलाई", store.find(7).itemNames[0]);
+            assertEquals(0, store.find(8).itemNames.length);
+        }
+    }
+}
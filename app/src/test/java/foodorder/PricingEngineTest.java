@@ -0,0 +1,71 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PricingEngineTest {
+
+    static final LocalDateTime MONDAY_NOON = LocalDateTime.of(2026, 10, 12, 12, 0);
+
+    static MenuCatalog catalog() {
+        return new MenuCatalog(List.of(new FoodItem("Samosa", 33.33, true, "Starters"),
+                new FoodItem("Veg Biryani", 180, true, "Main Course"),
+                new FoodItem("Lime Juice", 45.5, true, "Beverages")));
+    }
+
+    static PricingEngine.Quote price(PricingRules rules, MenuCatalog catalog, LocalDateTime at, Object... lines)
+            throws IOException {
+        Order order = new Order(1);
+        for (int i = 0; i < lines.length; i += 2) order.addItem(catalog.byName((String) lines[i]), (Integer) lines[i + 1]);
+        return PricingEngine.compile(rules, catalog).evaluator().price(order, at, List.of());
+    }
+
+    @Test
+    void defaultsChargeFivePercentTaxAndTenPercentOffAboveFiveHundred() throws IOException {
+        MenuCatalog catalog = catalog();
+        PricingEngine.Quote small = price(PricingRules.defaults(), catalog, MONDAY_NOON, "Samosa", 3);
+        assertEquals(9_999, small.subtotalPaise);
+        assertEquals(500, small.taxPaise);                  // 499.95 rounds half up
+        assertEquals(0, small.discountPaise);
+        assertEquals(10_499, small.finalPaise);
+
+        PricingEngine.Quote exactly = price(PricingRules.defaults(), catalog, MONDAY_NOON,
+                "Veg Biryani", 2, "Lime Juice", 2, "Samosa", 1);
+        assertEquals(36_000 + 9_100 + 3_333, exactly.subtotalPaise);
+        assertEquals(2_422, exactly.taxPaise);              // 2421.65
+        assertEquals(0, exactly.discountPaise);             // Rs. 484.33 is not above 500
+
+        PricingEngine.Quote big = price(PricingRules.defaults(), catalog, MONDAY_NOON, "Veg Biryani", 3);
+        assertEquals(54_000, big.subtotalPaise);
+        assertEquals(2_700, big.taxPaise);
+        assertEquals(5_400, big.discountPaise);
+        assertEquals(51_300, big.finalPaise);
+    }
+
+    @Test
+    void combosAndHappyHoursComeOffBeforeTax() throws IOException {
+        MenuCatalog catalog = catalog();
+        PricingRules rules = PricingRules.parse(new StringReader(String.join("\n",
+                "tax | * | 5",
+                "tax | Beverages | 12.5",
+                "combo | 25 | Veg Biryani | Lime Juice",
+                "happyhour | Starters | 11:00-13:00 | MON-FRI | 20")));
+
+        PricingEngine.Quote q = price(rules, catalog, MONDAY_NOON, "Veg Biryani", 1, "Lime Juice", 2, "Samosa", 1);
+        // Combo: Rs. 25 spread over 180 + 45.50 by price: 1995 + 505 paise
+        // Happy hour: 20% of Rs. 33.33 = 666.6 -> 667 paise
+        assertEquals(2_500 + 667, q.promotionPaise);
+        long taxBase = (18_000 - 1_995) * 500L + (9_100 - 505) * 1_250L + (3_333 - 667) * 500L;
+        assertEquals((taxBase + 5_000) / 10_000, q.taxPaise);
+        assertEquals(18_000 + 9_100 + 3_333 - 3_167 + q.taxPaise, q.finalPaise);
+
+        PricingEngine.Quote sunday = price(rules, catalog, MONDAY_NOON.minusDays(1), "Samosa", 1);
+        assertEquals(0, sunday.promotionPaise);
+    }
+}
@@ -0,0 +1,129 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommenderTest {
+
+    static String item(int i) {
+        return "Item " + i;
+    }
+
+    /** Records count random orders over items, some popular, and returns the brute-force pair counts. */
+    static int[][] recordOrders(Recommender recommender, int items, int count, long seed) {
+        Random random = new Random(seed);
+        int[][] together = new int[items][items];
+        for (int o = 0; o < count; o++) {
+            // A few very long orders, with repeats, so the MAX_PAIRED_ITEMS cut-off is exercised
+            String[] names = new String[random.nextInt(20) == 0 ? 30 : 1 + random.nextInt(6)];
+            for (int i = 0; i < names.length; i++) {
+                int pick = random.nextInt(items);
+                names[i] = item(random.nextBoolean() ? pick : pick / 4);
+            }
+            recommender.record(names);
+
+            Set<Integer> distinct = new LinkedHashSet<>();
+            for (int i = 0; i < Math.min(names.length, Recommender.MAX_PAIRED_ITEMS); i++) {
+                distinct.add(Integer.parseInt(names[i].substring(5)));
+            }
+            for (int a : distinct) {
+                for (int b : distinct) {
+                    if (a != b) together[a][b]++;
+                }
+            }
+        }
+        return together;
+    }
+
+    /** The k-th largest count in a's row, 0 if it has fewer neighbours. */
+    static int kthLargest(int[] row, int k) {
+        int[] sorted = row.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length - k];
+    }
+
+    /** addOns() worked out from the counts: its scores, best first, against the brute-force ones. */
+    static void assertAddOns(Recommender recommender, int[][] together, List<Integer> cart, int limit) {
+        List<String> cartNames = new ArrayList<>();
+        for (int c : cart) cartNames.add(item(c));
+        List<Long> expected = new ArrayList<>();
+        long[] scores = new long[together.length];
+        for (int b = 0; b < together.length; b++) {
+            if (cart.contains(b)) continue;
+            for (int c : cart) {
+                // Only neighbours in the row's top-K count, and together() reports those exactly
+                if (recommender.together(item(c), item(b)) > 0) scores[b] += together[c][b];
+            }
+            if (scores[b] > 0) expected.add(scores[b]);
+        }
+        expected.sort((x, y) -> Long.compare(y, x));
+        if (expected.size() > limit) expected = expected.subList(0, limit);
+
+        List<Long> actual = new ArrayList<>();
+        for (String name : recommender.addOns(cartNames, limit, name -> true)) {
+            assertFalse(cartNames.contains(name), name);
+            actual.add(scores[Integer.parseInt(name.substring(5))]);
+        }
+        assertEquals(expected, actual, "add-ons for " + cart);
+    }
+
+    @Test
+    void countsEveryPairExactlyWhileRowsFitTheTopK() {
+        int items = Recommender.TOP_K + 1;
+        Recommender recommender = new Recommender();
+        int[][] together = recordOrders(recommender, items, 5_000, 1);
+
+        assertEquals(5_000, recommender.getOrders());
+        for (int a = 0; a < items; a++) {
+            for (int b = 0; b < items; b++) {
+                if (a != b) assertEquals(together[a][b], recommender.together(item(a), item(b)), a + " with " + b);
+            }
+        }
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            assertAddOns(recommender, together, List.of(random.nextInt(items), random.nextInt(items)), 5);
+        }
+    }
+
+    @Test
+    void keepsTheStrongestNeighboursOfLargerRows() {
+        int items = 80;
+        Recommender recommender = new Recommender();
+        int[][] together = recordOrders(recommender, items, 20_000, 3);
+
+        for (int a = 0; a < items; a++) {
+            int cutoff = kthLargest(together[a], Recommender.TOP_K);
+            int neighbours = 0;
+            int kept = 0;
+            for (int b = 0; b < items; b++) {
+                if (a == b || together[a][b] == 0) continue;
+                neighbours++;
+                int reported = recommender.together(item(a), item(b));
+                if (reported > 0) {
+                    kept++;
+                    assertEquals(together[a][b], reported, a + " with " + b);
+                    assertTrue(together[a][b] >= cutoff, a + " keeps " + b + " below its top " + Recommender.TOP_K);
+                } else {
+                    assertTrue(together[a][b] <= cutoff, a + " dropped " + b + " from its top " + Recommender.TOP_K);
+                }
+            }
+            assertEquals(Math.min(neighbours, Recommender.TOP_K), kept, "neighbours kept for " + a);
+        }
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            List<Integer> cart = new ArrayList<>();
+            for (int n = 1 + random.nextInt(3); n > 0; n--) cart.add(random.nextInt(items));
+            assertAddOns(recommender, together, cart, 8);
+        }
+    }
+}
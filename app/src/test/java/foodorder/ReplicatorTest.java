@@ -0,0 +1,158 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicatorTest {
+
+    @TempDir
+    Path dir;
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    static Replicator.Config listening(int node) {
+        return new Replicator.Config(node, new InetSocketAddress("127.0.0.1", 0), List.of());
+    }
+
+    static Replicator.Config dialing(int node, Replicator peer) {
+        return new Replicator.Config(node, null, List.of(new InetSocketAddress("127.0.0.1", peer.getListenPort())));
+    }
+
+    static byte[] secret(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void eventsRoundTripTheirPayloads() {
+        OrderRegistry.Record record = new OrderRegistry.Record(123_456_789L, OrderStatus.PLACED.name(),
+                1_790_000_000_000L, new String[] {"Veg Biryani", "Rasmalai रसमलाई"}, new int[] {2, 1},
+                new long[] {36_000, 12_000}, 48_000, 45_600);
+        OrderRegistry.Record back = Replicator.Event.order(record).toRecord();
+        assertEquals(record.orderId, back.orderId);
+        assertEquals(record.placedMillis, back.placedMillis);
+        assertArrayEquals(record.itemNames, back.itemNames);
+        assertArrayEquals(record.quantities, back.quantities);
+        assertArrayEquals(record.linePaise, back.linePaise);
+        assertEquals(record.totalPaise, back.totalPaise);
+        assertEquals(record.finalPaise, back.finalPaise);
+
+        Replicator.Event status = Replicator.Event.status(1L << 40, OrderStatus.READY);
+        assertEquals(1L << 40, status.orderId());
+        assertEquals(OrderStatus.READY, status.orderStatus());
+
+        Replicator.Event off = Replicator.Event.availability("Lime Juice", false);
+        assertEquals("Lime Juice", off.itemName());
+        assertEquals(0, off.value());
+        Replicator.Event restock = Replicator.Event.restock("Samosa", 300);
+        assertEquals(Replicator.Event.RESTOCK, restock.type);
+        assertEquals("Samosa", restock.itemName());
+        assertEquals(300, restock.value());
+    }
+
+    @Test
+    void streamsEventsBothWaysInOrder() throws Exception {
+        List<Replicator.Event> atOne = new CopyOnWriteArrayList<>();
+        List<Replicator.Event> atTwo = new CopyOnWriteArrayList<>();
+        try (Replicator one = new Replicator(listening(1), OrderIdAllocator.inMemory(), atOne::add)) {
+            one.start();
+            // Published before the link exists: sent as catch-up once it does
+            for (int i = 0; i < 100; i++) one.publish(Replicator.Event.restock("Item " + i, i));
+            try (Replicator two = new Replicator(dialing(2, one), OrderIdAllocator.inMemory(), atTwo::add)) {
+                two.start();
+                for (int i = 0; i < 5_000; i++) two.publish(Replicator.Event.status(i, OrderStatus.SERVED));
+                for (int i = 100; i < 200; i++) one.publish(Replicator.Event.restock("Item " + i, i));
+                await(() -> atTwo.size() == 200 && atOne.size() == 5_000);
+
+                for (int i = 0; i < 200; i++) {
+                    assertEquals("Item " + i, atTwo.get(i).itemName());
+                    assertEquals(1, atTwo.get(i).origin);
+                }
+                for (int i = 0; i < 5_000; i++) assertEquals(i, atOne.get(i).orderId());
+                assertEquals(5_000, one.getReceived());
+                assertEquals(200, one.getPublished());
+                assertEquals(atTwo.get(199).seq, (long) two.getApplied().get(1));
+            }
+        }
+    }
+
+    @Test
+    void aRestartedNodeResumesAfterWhatItApplied() throws Exception {
+        List<Replicator.Event> atTwo = new CopyOnWriteArrayList<>();
+        Path applied = dir.resolve("replication-applied");
+        try (Replicator one = new Replicator(listening(1), OrderIdAllocator.inMemory(), event -> { })) {
+            one.start();
+            for (int i = 0; i < 10; i++) one.publish(Replicator.Event.restock("Item " + i, i));
+            try (Replicator two = new Replicator(dialing(2, one), OrderIdAllocator.inMemory(), applied, atTwo::add)) {
+                two.start();
+                await(() -> atTwo.size() == 10);
+            }
+            atTwo.clear();
+            for (int i = 10; i < 15; i++) one.publish(Replicator.Event.restock("Item " + i, i));
+
+            try (Replicator two = new Replicator(dialing(2, one), OrderIdAllocator.inMemory(), applied, atTwo::add)) {
+                assertEquals(10, (long) two.getApplied().get(1));
+                two.start();
+                await(() -> atTwo.size() == 5);
+                Thread.sleep(100);
+                assertEquals(5, atTwo.size());
+                for (int i = 0; i < 5; i++) assertEquals("Item " + (10 + i), atTwo.get(i).itemName());
+                assertEquals(15, (long) two.getApplied().get(1));
+            }
+        }
+    }
+
+    @Test
+    void onlyAcceptedNodesThatKnowTheSecretGetEvents() throws Exception {
+        InetSocketAddress loopback = new InetSocketAddress("127.0.0.1", 0);
+        Replicator.Config guarded = new Replicator.Config(1, loopback, List.of(), Set.of(2), secret("kitchen"));
+        try (Replicator one = new Replicator(guarded, OrderIdAllocator.inMemory(), event -> { })) {
+            one.start();
+            one.publish(Replicator.Event.restock("Samosa", 300));
+            List<InetSocketAddress> toOne = List.of(new InetSocketAddress("127.0.0.1", one.getListenPort()));
+
+            List<Replicator.Event> stranger = new CopyOnWriteArrayList<>();
+            List<Replicator.Event> guesser = new CopyOnWriteArrayList<>();
+            try (Replicator three = new Replicator(new Replicator.Config(3, null, toOne, Set.of(), secret("kitchen")),
+                        OrderIdAllocator.inMemory(), stranger::add);
+                    Replicator two = new Replicator(new Replicator.Config(2, null, toOne, Set.of(), secret("guess")),
+                        OrderIdAllocator.inMemory(), guesser::add)) {
+                three.start();
+                two.start();
+                three.publish(Replicator.Event.restock("Vada", 1));
+                two.publish(Replicator.Event.restock("Idli", 1));
+                Thread.sleep(500);
+                assertTrue(stranger.isEmpty());
+                assertTrue(guesser.isEmpty());
+                assertEquals(0, one.getReceived());
+                assertEquals(0, one.getConnectedPeers());
+            }
+
+            List<Replicator.Event> atTwo = new CopyOnWriteArrayList<>();
+            try (Replicator two = new Replicator(new Replicator.Config(2, null, toOne, Set.of(), secret("kitchen")),
+                    OrderIdAllocator.inMemory(), atTwo::add)) {
+                two.start();
+                await(() -> atTwo.size() == 1);
+                assertEquals("Samosa", atTwo.get(0).itemName());
+                assertEquals(1, one.getConnectedPeers());
+            }
+        }
+    }
+}
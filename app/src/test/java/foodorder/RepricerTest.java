@@ -0,0 +1,53 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RepricerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsHistoryWithoutTouchingTheJournal() throws Exception {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate day = OrderJournalTest.DAY;
+        MenuCatalog catalog = new MenuCatalog(List.of(new FoodItem("Samosa", 30, true, "Starters"),
+                new FoodItem("Lime Juice", 60, true, "Beverages")));
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.recover(name -> null);
+            for (int d = 0; d < 3; d++) {
+                long noon = day.plusDays(d).atTime(12, 0).atZone(zone).toInstant().toEpochMilli();
+                journal.append(new OrderJournal.Entry(d + 1, noon, new String[] {"Samosa", "Gone Item"},
+                        new int[] {2, 1}, new long[] {6_000, 1_000}, 7_000));
+            }
+        }
+        // Bytes past the last record, as a service in the middle of an append would leave them
+        Path last = OrderJournalTest.segments(dir).get(2);
+        try (FileChannel ch = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 1, 2, 3, 4}), OrderJournalTest.recordEnd(last, 1));
+        }
+        byte[] before = Files.readAllBytes(last);
+
+        Repricer.History history = Repricer.load(dir, catalog, zone, day.plusDays(1), day.plusDays(2));
+        assertEquals(2, history.orders);
+        assertEquals(2, history.lines);
+        assertEquals(2, history.skippedLines);
+        assertEquals(catalog.idOf("Samosa"), history.items[0]);
+        assertEquals(2, history.quantities[1]);
+        assertEquals(0, catalog.byName("Samosa").getPopularity());
+        assertArrayEquals(before, Files.readAllBytes(last));
+    }
+}
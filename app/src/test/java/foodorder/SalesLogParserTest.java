@@ -0,0 +1,123 @@
+package foodorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalesLogParserTest {
+
+    static final FoodItem BIRYANI = new FoodItem("Veg Biryani", 134.99, true, "Main Course");
+    static final FoodItem PAPAD = new FoodItem("Papad", 0.3, true, "Starters");
+    static final FoodItem LASSI = new FoodItem("Sweet Lassi", 45.5, true, "Beverages");
+    static final FoodItem SAMOSA = new FoodItem("Samosa", 30, true, "Starters");
+    static final FoodItem KULFI = new FoodItem("Kulfi", 10.05, true, "Desserts");
+    static final MenuCatalog MENU = new MenuCatalog(List.of(BIRYANI, PAPAD, LASSI, SAMOSA, KULFI));
+
+    static final LocalDate DAY = LocalDate.of(2026, 10, 1);
+
+    @TempDir
+    Path dir;
+
+    /** One record as OrderService logs it; lines are "name x qty : Rs. amount". */
+    static String record(LocalDateTime at, String... lines) {
+        StringBuilder record = new StringBuilder("------------------------------\n");
+        record.append("Date: ").append(at.format(OrderService.LOG_TIME)).append("\nItems:\n");
+        for (String line : lines) record.append("- ").append(line).append('\n');
+        return record.append("Total: Rs. 0.0\n------------------------------\n\n").toString();
+    }
+
+    /** A line for qty of item, its amount written as the double the order log gets. */
+    static String line(FoodItem item, int qty) {
+        return item.getName() + " x " + qty + " : Rs. " + item.getPrice() * qty;
+    }
+
+    void write(LocalDate day, List<String> records) throws InterruptedException {
+        OrderLogWriter log = new OrderLogWriter(dir, 1024, OrderLogWriter.FsyncPolicy.NEVER);
+        try {
+            for (String record : records) log.append(day, record);
+        } finally {
+            log.close();
+        }
+    }
+
+    SalesTotals scan(int chunkBytes) throws IOException {
+        SalesAnalytics analytics = new SalesAnalytics(MENU, chunkBytes);
+        return analytics.scan(SalesAnalytics.logFiles(dir, LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    void roundsDoubleAmountsToThePaise() throws Exception {
+        assertEquals("30.150000000000002", Double.toString(KULFI.getPrice() * 3));
+        assertEquals("2.6999999999999997", Double.toString(PAPAD.getPrice() * 9));
+        write(DAY, List.of(record(DAY.atTime(13, 5), line(KULFI, 3), line(PAPAD, 9)),
+                record(DAY.atTime(13, 6), "Veg Biryani x 2 : Rs. 269.98000000000002", "Samosa x 1 : Rs. 0.005",
+                        "Sweet Lassi x 1 : Rs. 0.0049", "Thali x 1 : Rs. 1.2345E7")));
+
+        SalesTotals totals = scan(SalesAnalytics.CHUNK_BYTES);
+        assertEquals(2, totals.getOrders());
+        assertEquals(17, totals.getUnits());
+        assertEquals(3_015 + 270 + 26_998 + 1 + 0 + 1_234_500_000L, totals.getRevenuePaise());
+        assertEquals(0, totals.getMalformedLines());
+    }
+
+    @Test
+    void takesTheHourFromATwelveHourStamp() throws Exception {
+        write(DAY, List.of(record(DAY.atTime(0, 15), line(SAMOSA, 1)),
+                record(DAY.atTime(11, 59), line(SAMOSA, 1)),
+                record(DAY.atTime(12, 0), line(SAMOSA, 1)),
+                record(DAY.atTime(12, 40), line(SAMOSA, 1)),
+                record(DAY.atTime(13, 5), line(SAMOSA, 1)),
+                record(DAY.atTime(LocalTime.of(23, 59)), line(SAMOSA, 1))));
+
+        SalesTotals totals = scan(SalesAnalytics.CHUNK_BYTES);
+        assertEquals(1, totals.getOrders(0));
+        assertEquals(1, totals.getOrders(11));
+        assertEquals(2, totals.getOrders(12));
+        assertEquals(1, totals.getOrders(13));
+        assertEquals(1, totals.getOrders(23));
+        assertEquals(6, totals.getOrders());
+        assertEquals(0, totals.getMalformedLines());
+    }
+
+    @Test
+    void chunksCountEveryRecordOnce() throws Exception {
+        FoodItem[] items = {BIRYANI, PAPAD, LASSI, SAMOSA, KULFI};
+        Random random = new Random(7);
+        long orders = 0;
+        long units = 0;
+        long paise = 0;
+        for (LocalDate day = DAY; day.isBefore(DAY.plusDays(3)); day = day.plusDays(1)) {
+            String[] records = new String[300];
+            for (int i = 0; i < records.length; i++) {
+                String[] lines = new String[1 + random.nextInt(3)];
+                for (int l = 0; l < lines.length; l++) {
+                    FoodItem item = items[random.nextInt(items.length)];
+                    int qty = 1 + random.nextInt(9);
+                    lines[l] = line(item, qty);
+                    units += qty;
+                    paise += item.getPricePaise() * qty;
+                }
+                records[i] = record(day.atTime(random.nextInt(24), random.nextInt(60)), lines);
+                orders++;
+            }
+            write(day, List.of(records));
+        }
+
+        for (int chunkBytes : new int[] {SalesAnalytics.CHUNK_BYTES, 4096, 1000, 97, 13}) {
+            SalesTotals totals = scan(chunkBytes);
+            assertEquals(orders, totals.getOrders(), "chunks of " + chunkBytes);
+            assertEquals(units, totals.getUnits(), "chunks of " + chunkBytes);
+            assertEquals(paise, totals.getRevenuePaise(), "chunks of " + chunkBytes);
+            assertEquals(0, totals.getMalformedLines(), "chunks of " + chunkBytes);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Order archive queries over a year of `ordersPerDay` synthetic orders a day: revenue
+ * per category for the whole year (index only), for a category over a random range
+ * that cuts through two days (two blocks decoded), and compacting one day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    private static final int DAYS = 365;
+    private static final LocalDate FIRST = LocalDate.of(2025, 1, 1);
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+
+    @Param({"2000"})
+    public int ordersPerDay;
+
+    private Path directory;
+    private OrderArchive archive;
+    private List<OrderJournal.Entry> oneDay;
+    private Function<String, String> categoryOf;
+    private long firstMillis;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<String, FoodItem> menu = BenchmarkMenus.synthetic(200);
+        String[] names = menu.keySet().toArray(new String[0]);
+        categoryOf = name -> menu.get(name).getCategory();
+        directory = Files.createTempDirectory("archive-bench");
+        archive = new OrderArchive(directory, ZONE);
+        firstMillis = FIRST.atStartOfDay(ZONE).toInstant().toEpochMilli();
+        Random random = new Random(42);
+        long orderId = 1;
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = FIRST.plusDays(day);
+            long start = date.atStartOfDay(ZONE).toInstant().toEpochMilli();
+            List<OrderJournal.Entry> entries = new ArrayList<>(ordersPerDay);
+            for (int i = 0; i < ordersPerDay; i++) {
+                int lines = 1 + random.nextInt(4);
+                String[] items = new String[lines];
+                int[] quantities = new int[lines];
+                long[] linePaise = new long[lines];
+                long total = 0;
+                for (int line = 0; line < lines; line++) {
+                    FoodItem item = menu.get(names[random.nextInt(names.length)]);
+                    items[line] = item.getName();
+                    quantities[line] = 1 + random.nextInt(3);
+                    linePaise[line] = item.getPricePaise() * quantities[line];
+                    total += linePaise[line];
+                }
+                long millis = start + (long) i * 86_400_000L / ordersPerDay;
+                entries.add(new OrderJournal.Entry(orderId++, millis, items, quantities, linePaise, total));
+            }
+            OrderArchive.write(archive.file(date), entries, categoryOf);
+            if (day == 0) oneDay = entries;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int wholeYear() throws IOException {
+        return archive.revenueByCategory(FIRST, FIRST.plusDays(DAYS - 1)).size();
+    }
+
+    @Benchmark
+    public long categoryRange() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = firstMillis + random.nextLong(100 * 86_400_000L);
+        long to = from + random.nextLong(250 * 86_400_000L);
+        return archive.revenue("Starters", from, to);
+    }
+
+    @Benchmark
+    public long compactDay() throws IOException {
+        Path file = directory.resolve("compacted.col");
+        OrderArchive.write(file, oneDay, categoryOf);
+        return Files.size(file);
+    }
+}
@@ -0,0 +1,83 @@
+package foodorder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * BenchmarkMenus - Synthetic menus of a chosen size for the benchmarks.
+ * Items are spread round-robin over the four real categories, and roughly one in
+ * eight is unavailable, matching the shape of the built-in menu.
+ */
+final class BenchmarkMenus {
+
+    static final String[] CATEGORIES = {"Starters", "Main Course", "Beverages", "Combos"};
+
+    // Word pools for dishes()
+    private static final String[] SYLLABLES = {"ka", "ma", "ra", "ni", "sha", "pu", "lo", "ve", "ti", "ba", "na",
+            "dhi", "gu", "ja", "ro", "mi"};
+    private static final String[] REGIONS = {"Hyderabadi", "Punjabi", "Malabar", "Chettinad", "Lucknowi", "Goan",
+            "Amritsari", "Mughlai", "Kashmiri", "Bengali", "Udupi", "Rajasthani"};
+    private static final String[] BASES = {"Paneer", "Chicken", "Veg", "Mushroom", "Aloo", "Gobi", "Egg", "Fish",
+            "Mutton", "Prawn", "Corn", "Soya", "Butter", "Garlic", "Mango", "Masala"};
+    private static final String[] DISHES = {"Tikka", "Biryani", "Pakoda", "Kolhapuri", "Korma", "Curry", "Fry",
+            "Manchurian", "Pulao", "Kebab", "Roll", "Lassi", "Kulfi", "Naan", "Paratha", "Dosa", "Tadka", "Kheer"};
+
+    private BenchmarkMenus() {
+    }
+
+    static Map<String, FoodItem> synthetic(int size) {
+        Map<String, FoodItem> menu = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String name = "Item " + i;
+            double price = 30 + (i * 37 % 500);
+            menu.put(name, new FoodItem(name, price, i % 8 != 7, CATEGORIES[i % CATEGORIES.length]));
+        }
+        return menu;
+    }
+
+    /**
+     * A menu of dish-like names for search: a made-up house name, a region, a base and
+     * a dish, e.g. "Rakoma Punjabi Paneer Tikka". Every fourth item is a combo of two
+     * dishes, named like the real ones. Thousands of distinct words, shared unevenly.
+     */
+    static Map<String, FoodItem> dishes(int size) {
+        Random random = new Random(42);
+        Map<String, FoodItem> menu = new LinkedHashMap<>(size * 2);
+        for (int i = 0; menu.size() < size; i++) {
+            String category = CATEGORIES[menu.size() % CATEGORIES.length];
+            String name = houseName(random) + " " + pick(random, REGIONS) + " " + dish(random);
+            if (category.equals("Combos")) name += " Combo (" + dish(random) + " + " + dish(random) + ")";
+            if (menu.containsKey(name)) continue;
+            double price = 30 + (i * 37 % 500);
+            menu.put(name, new FoodItem(name, price, i % 8 != 7, category));
+        }
+        return menu;
+    }
+
+    private static String houseName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int n = 2 + random.nextInt(2); n > 0; n--) name.append(pick(random, SYLLABLES));
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static String dish(Random random) {
+        return pick(random, BASES) + " " + pick(random, DISHES);
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    /** IDs of available items, for filling carts. */
+    static int[] availableIds(MenuCatalog catalog) {
+        int[] ids = new int[catalog.size()];
+        int n = 0;
+        for (int id = 0; id < catalog.size(); id++) {
+            if (catalog.get(id).isAvailable()) ids[n++] = id;
+        }
+        return Arrays.copyOf(ids, n);
+    }
+}
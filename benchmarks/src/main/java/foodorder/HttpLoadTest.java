@@ -0,0 +1,114 @@
+package foodorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HttpLoadTest - Local load test for OrderHttpServer.
+ * Starts the API on an ephemeral port against a temp data directory, then has N
+ * concurrent clients repeatedly add items and check out. Prints throughput and
+ * request latency percentiles.
+ *
+ *   java -cp benchmarks.jar foodorder.HttpLoadTest [clients] [ordersPerClient]
+ */
+class HttpLoadTest {
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int ordersPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        OrderHttpServer.keepIdleConnections(clients);
+        // Measures the server flat out, so the API's rate limits are off unless set
+        if (System.getProperty("foodorder.admission.api") == null) {
+            System.setProperty("foodorder.admission.api", "0");
+        }
+        if (System.getProperty("foodorder.admission.api.terminal") == null) {
+            System.setProperty("foodorder.admission.api.terminal", "0");
+        }
+
+        Path dataDir = Files.createTempDirectory("order-http-load");
+        OrderService service = OrderService.open(dataDir);
+        OrderHttpServer server = new OrderHttpServer(service, 0);
+        server.start();
+
+        ExecutorService workers = OrderHttpServer.newRequestExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(workers)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String base = "http://127.0.0.1:" + server.getPort();
+        int[] menuIds = service.getCatalog().availableInCategory("Main Course");
+
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            String session = "load-" + c;
+            int seed = c;
+            results.add(workers.submit(() -> {
+                long[] latencies = new long[ordersPerClient * (ITEMS_PER_ORDER + 1)];
+                int n = 0;
+                for (int o = 0; o < ordersPerClient; o++) {
+                    for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                        int id = menuIds[(seed + o + i) % menuIds.length];
+                        latencies[n++] = timedPost(client, base + "/cart/" + session + "/items/" + id, errors);
+                    }
+                    latencies[n++] = timedPost(client, base + "/cart/" + session + "/checkout", errors);
+                }
+                return latencies;
+            }));
+        }
+
+        long[] all = new long[clients * ordersPerClient * (ITEMS_PER_ORDER + 1)];
+        int n = 0;
+        for (Future<long[]> f : results) {
+            long[] latencies = f.get();
+            System.arraycopy(latencies, 0, all, n, latencies.length);
+            n += latencies.length;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        server.close();
+        service.close();
+        workers.shutdown();
+
+        Arrays.sort(all);
+        System.out.printf("clients=%d requests=%d errors=%d elapsed=%.2fs%n",
+                clients, all.length, errors.get(), elapsed / 1e9);
+        System.out.printf("throughput: %.0f req/s, %.0f orders/s%n",
+                all.length / (elapsed / 1e9), clients * ordersPerClient / (elapsed / 1e9));
+        System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                OrderSimulator.percentile(all, 0.50) / 1e6, OrderSimulator.percentile(all, 0.99) / 1e6,
+                OrderSimulator.percentile(all, 0.999) / 1e6, all[all.length - 1] / 1e6);
+    }
+
+    private static long timedPost(HttpClient client, String url, AtomicLong errors) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) errors.incrementAndGet();
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.incrementAndGet();
+        }
+        return System.nanoTime() - t0;
+    }
+}
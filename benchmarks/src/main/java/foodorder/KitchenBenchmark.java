@@ -0,0 +1,79 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kitchen dispatch with `backlog` two-course orders already queued at the food stations.
+ * drinkOrder takes an order all the way through (submit, ETA, take, done, serve);
+ * etaBehindBacklog quotes the last queued order. Neither should grow with the backlog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KitchenBenchmark {
+
+    @Param({"100", "10000"})
+    public int backlog;
+
+    private Kitchen kitchen;
+    private final List<FoodItem> food = new ArrayList<>();
+    private FoodItem drink;
+    private long nextOrderId;
+
+    @Setup
+    public void setUp() {
+        MenuCatalog catalog = new MenuCatalog(MenuLoader.bundled().values());
+        for (int id = 0; id < catalog.size(); id++) {
+            FoodItem item = catalog.get(id);
+            if (item.getCategory().equals("Beverages")) {
+                if (drink == null) drink = item;
+            } else {
+                food.add(item);
+            }
+        }
+        kitchen = Kitchen.standard(order -> { });
+        kitchen.station("Beverages");
+        for (int i = 0; i < backlog; i++) {
+            Order order = new Order(++nextOrderId);
+            order.addItem(food.get(i % food.size()));
+            order.addItem(food.get((i * 7) % food.size()));
+            kitchen.submit(order);
+        }
+    }
+
+    /** An order that only Beverages cooks, so the queued food is never touched. */
+    @Benchmark
+    public long drinkOrder() {
+        Order order = new Order(++nextOrderId);
+        order.addItem(drink, 2);
+        kitchen.submit(order);
+        long eta = kitchen.etaNanos(order.getOrderId());
+        Kitchen.Task task = kitchen.next("Beverages");
+        kitchen.done(task.taskId);
+        kitchen.serve(order.getOrderId());
+        return eta;
+    }
+
+    /** The ETA of an order behind the whole backlog. */
+    @Benchmark
+    public long etaBehindBacklog() {
+        return kitchen.etaNanos(backlog);
+    }
+}
@@ -0,0 +1,47 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category filtering behind FoodOrderUI.loadItems() and showComboMenu().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuFilterBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int menuSize;
+
+    private MenuCatalog catalog;
+
+    @Setup
+    public void setUp() {
+        catalog = new MenuCatalog(BenchmarkMenus.synthetic(menuSize).values());
+    }
+
+    @Benchmark
+    public int[] itemsInCategory() {
+        return catalog.itemsInCategory("Main Course");
+    }
+
+    @Benchmark
+    public int[] availableCombos() {
+        return catalog.availableInCategory("Combos");
+    }
+}
@@ -0,0 +1,159 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.CellRendererPane;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.border.EmptyBorder;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Painting and loading the "Menu Items" list for one category of a large menu (a
+ * quarter of menuSize). paintPage renders the 40 rows a scrolled viewport shows,
+ * moving down the list each call so fresh rows keep coming in; the legacy variants
+ * are the old label renderer with HTML strike-through and a DefaultListModel filled
+ * one element at a time. Runs headless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MenuRenderBenchmark {
+
+    private static final int PAGE = 40;
+    private static final Color AVAILABLE = new Color(39, 174, 96);
+    private static final Color UNAVAILABLE = new Color(149, 165, 166);
+    private static final Color TEXT = new Color(44, 62, 80);
+
+    @Param({"200000"})
+    public int menuSize;
+
+    private MenuCatalog catalog;
+    private int[] ids;
+    private MenuListModel model;
+    private JList<MenuListModel.Row> list;
+    private MenuListRenderer renderer;
+    private DefaultListModel<Integer> legacyModel;
+    private JList<Integer> legacyList;
+    private DefaultListCellRenderer legacyRenderer;
+    private CellRendererPane pane;
+    private BufferedImage image;
+    private Graphics2D g;
+    private int rowHeight;
+    private int top;
+
+    @Setup
+    public void setUp() {
+        catalog = new MenuCatalog(BenchmarkMenus.synthetic(menuSize).values());
+        ids = catalog.itemsInCategory("Main Course");
+        Font font = new Font("Segoe UI", Font.PLAIN, 13);
+
+        model = new MenuListModel();
+        model.setItems(catalog, ids);
+        list = new JList<>(model);
+        list.setFont(font);
+        renderer = new MenuListRenderer(font, AVAILABLE, UNAVAILABLE, TEXT);
+        list.setCellRenderer(renderer);
+        list.setPrototypeCellValue(MenuListRenderer.prototype());
+        rowHeight = renderer.rowHeight();
+
+        legacyModel = new DefaultListModel<>();
+        legacyList = new JList<>(legacyModel);
+        legacyList.setFont(font);
+        legacyRenderer = new LegacyRenderer();
+        for (int id : ids) legacyModel.addElement(id);
+
+        pane = new CellRendererPane();
+        image = new BufferedImage(400, PAGE * rowHeight, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public int paintPage() {
+        int first = nextPage();
+        for (int i = 0; i < PAGE; i++) {
+            Component c = renderer.getListCellRendererComponent(list, model.getElementAt(first + i), first + i,
+                    false, false);
+            pane.paintComponent(g, c, list, 0, i * rowHeight, 400, rowHeight, true);
+        }
+        return first;
+    }
+
+    @Benchmark
+    public int paintPageLegacy() {
+        int first = nextPage();
+        for (int i = 0; i < PAGE; i++) {
+            Component c = legacyRenderer.getListCellRendererComponent(legacyList, legacyModel.getElementAt(first + i),
+                    first + i, false, false);
+            pane.paintComponent(g, c, legacyList, 0, i * rowHeight, 400, rowHeight, true);
+        }
+        return first;
+    }
+
+    @Benchmark
+    public int loadCategory() {
+        model.setItems(catalog, catalog.itemsInCategory("Main Course"));
+        return model.getSize();
+    }
+
+    @Benchmark
+    public int loadCategoryLegacy() {
+        legacyModel.clear();
+        for (int id : catalog.itemsInCategory("Main Course")) legacyModel.addElement(id);
+        return legacyModel.getSize();
+    }
+
+    private int nextPage() {
+        int first = top;
+        top = (top + 7) % (ids.length - PAGE);
+        return first;
+    }
+
+    /** The renderer FoodOrderUI used before MenuListRenderer. */
+    private final class LegacyRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            FoodItem item = catalog.get((Integer) value);
+            String text = item.getName() + " - Rs. " + item.getPrice() + " "
+                    + (item.isAvailable() ? "[Available]" : "[Unavailable]");
+            JLabel label = (JLabel) super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            if (item.isAvailable()) {
+                label.setForeground(isSelected ? TEXT : AVAILABLE);
+                label.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+            } else {
+                label.setForeground(UNAVAILABLE);
+                label.setFont(new Font("Segoe UI", Font.ITALIC, 13));
+                label.setText("<html><strike>" + text + "</strike></html>");
+            }
+            label.setBorder(new EmptyBorder(5, 5, 5, 5));
+            return label;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead queries behind the menu search box, over BenchmarkMenus.dishes(menuSize):
+ * one letter (the widest prefix), a word being typed, two words, and two typos. Each
+ * runs without a time budget, so a slow one shows up here instead of being cut short.
+ * Popularity is spread over the menu first so ranking has something to sort by.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuSearchBenchmark {
+
+    private static final int LIMIT = 50;
+
+    @Param({"1000", "100000"})
+    public int menuSize;
+
+    private MenuSearch search;
+
+    @Setup
+    public void setUp() {
+        MenuCatalog catalog = new MenuCatalog(BenchmarkMenus.dishes(menuSize).values());
+        Random random = new Random(42);
+        for (int id = 0; id < catalog.size(); id++) catalog.get(id).increasePopularity(random.nextInt(1000));
+        search = catalog.search();
+    }
+
+    @Benchmark
+    public MenuSearch.Result oneLetter() {
+        return search.search("p", LIMIT, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public MenuSearch.Result wordBeingTyped() {
+        return search.search("panee", LIMIT, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public MenuSearch.Result twoWords() {
+        return search.search("paneer tik", LIMIT, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public MenuSearch.Result typos() {
+        return search.search("chiken biryni", LIMIT, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,40 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one stage measurement (two nanoTime calls plus a histogram record), single
+ * threaded and with four threads hitting the same histogram.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final OrderMetrics metrics = new OrderMetrics();
+
+    @Benchmark
+    public void recordStage() {
+        metrics.record(OrderMetrics.Stage.ITEM_ADD, System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordStageContended() {
+        metrics.record(OrderMetrics.Stage.ITEM_ADD, System.nanoTime());
+    }
+}
@@ -0,0 +1,85 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order hot paths: adding items, rendering the summary, and billing a full cart
+ * with the default pricing rules (the bill processOrder() shows).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({"100", "10000"})
+    public int menuSize;
+
+    /** Distinct lines in the cart. */
+    @Param({"4", "64", "1024"})
+    public int cartSize;
+
+    private static final LocalDateTime BILL_TIME = LocalDateTime.of(2026, 10, 16, 13, 0);
+
+    private MenuCatalog catalog;
+    private PricingEngine pricing;
+    private FoodItem[] cartItems;
+    private Order fullOrder;
+    private Order order;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        catalog = new MenuCatalog(BenchmarkMenus.synthetic(menuSize).values());
+        pricing = PricingEngine.compile(PricingRules.defaults(), catalog);
+        int[] ids = BenchmarkMenus.availableIds(catalog);
+        cartItems = new FoodItem[Math.min(cartSize, ids.length)];
+        for (int i = 0; i < cartItems.length; i++) {
+            cartItems[i] = catalog.get(ids[i]);
+        }
+        fullOrder = new Order(1);
+        for (FoodItem item : cartItems) {
+            fullOrder.addItem(item, 2);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        order = new Order(2);
+        next = 0;
+    }
+
+    @Benchmark
+    public int addItem() {
+        FoodItem item = cartItems[next];
+        next = next + 1 == cartItems.length ? 0 : next + 1;
+        return order.addItem(item);
+    }
+
+    @Benchmark
+    public String orderSummary() {
+        return fullOrder.getOrderSummary();
+    }
+
+    @Benchmark
+    public long billComputation() {
+        return pricing.evaluator().price(fullOrder, BILL_TIME, Collections.emptyList()).finalPaise;
+    }
+}
@@ -0,0 +1,83 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Checkout throughput including the daily log and journal, written to a temp directory.
+ * Measures what a counter sees: fill a cart, check out, hand the record to the writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderLogBenchmark {
+
+    @Param({"1000"})
+    public int menuSize;
+
+    @Param({"4", "64"})
+    public int cartSize;
+
+    /** An OrderLogWriter.FsyncPolicy name. */
+    @Param({"NEVER", "EVERY_BATCH"})
+    public String fsyncPolicy;
+
+    private Path directory;
+    private OrderService service;
+    private int[] cartIds;
+
+    @State(Scope.Thread)
+    public static class Session {
+        final String id = "bench-" + Thread.currentThread().getId();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-log-bench");
+        OrderJournal journal = OrderJournal.open(directory.resolve("journal"));
+        Map<String, FoodItem> menu = BenchmarkMenus.synthetic(menuSize);
+        journal.recover(menu);
+        service = new OrderService(menu, new OrderLogWriter(directory, 1024,
+                OrderLogWriter.FsyncPolicy.valueOf(fsyncPolicy), journal), journal);
+        int[] ids = BenchmarkMenus.availableIds(service.getCatalog());
+        cartIds = Arrays.copyOf(ids, Math.min(cartSize, ids.length));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        service.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long checkoutAndLog(Session session) throws InterruptedException {
+        for (int id : cartIds) {
+            service.addItem(session.id, id);
+        }
+        return service.checkout(session.id).finalPaise;
+    }
+}
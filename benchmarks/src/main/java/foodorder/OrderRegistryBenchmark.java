@@ -0,0 +1,93 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Order ID allocation and lookup by ID. The registry is filled with `orders` placed
+ * orders under a 16 MB budget, so all but the newest ~100k have been spilled to disk;
+ * findRecent hits memory, findSpilled hits the mapped blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderRegistryBenchmark {
+
+    private static final String[] ITEMS = {"Paneer Tikka", "Veg Biryani", "Masala Dosa", "Lassi", "Gulab Jamun"};
+
+    @Param({"2000000"})
+    public int orders;
+
+    private Path directory;
+    private OrderIdAllocator ids;
+    private OrderRegistry registry;
+    private long recentFrom;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-registry-bench");
+        ids = OrderIdAllocator.open(directory.resolve("order-ids"));
+        registry = OrderRegistry.open(directory.resolve("orders"), 16 << 20);
+        for (long id = 1; id <= orders; id++) {
+            int lines = 1 + (int) (id % 4);
+            String[] names = new String[lines];
+            int[] quantities = new int[lines];
+            long[] linePaise = new long[lines];
+            for (int line = 0; line < lines; line++) {
+                names[line] = ITEMS[(int) ((id + line) % ITEMS.length)];
+                quantities[line] = 1 + line;
+                linePaise[line] = 12_000L * quantities[line];
+            }
+            registry.complete(new OrderRegistry.Record(id, "PLACED", 1_700_000_000_000L + id * 1000, names,
+                    quantities, linePaise, 12_000L * lines, 12_600L * lines));
+        }
+        recentFrom = orders - 20_000;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        registry.close();
+        ids.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextId() {
+        return ids.next();
+    }
+
+    @Benchmark
+    public long findRecent() {
+        return registry.find(recentFrom + ThreadLocalRandom.current().nextInt(20_000)).finalPaise;
+    }
+
+    @Benchmark
+    public long findSpilled() {
+        return registry.find(1 + ThreadLocalRandom.current().nextInt((int) recentFrom / 2)).finalPaise;
+    }
+}
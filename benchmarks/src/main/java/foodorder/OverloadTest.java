@@ -0,0 +1,125 @@
+package foodorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * OverloadTest - Runs a peak hour with more orders than the kitchen can cook, with and
+ * without AdmissionControl in front of it. Orders arrive from several counters at a
+ * steady rate on the sped-up clock of KitchenSimulator; the cooks work at their true
+ * prep times. Without admission every order is taken and the wait for the last ones
+ * keeps growing; with it, orders needing a station past the backlog limit are turned
+ * away with a time to come back, and the accepted ones' wait stays around the limit plus their own cooking
+ * however long the peak lasts. Prints, for each run, orders taken and turned away and
+ * how long accepted orders took to be ready.
+ *
+ *   OverloadTest [--minutes 120] [--per-minute 0.5] [--cooks 2] [--counters 6] [--minute-ms 5] [--seed 42]
+ */
+class OverloadTest {
+
+    public static void main(String[] args) throws Exception {
+        double minutes = 120;
+        double perMinute = 0.5;
+        int cooksPerStation = 2;
+        int counters = 6;
+        double minuteMillis = 5;
+        long seed = 42;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--minutes": minutes = Double.parseDouble(args[i + 1]); break;
+                case "--per-minute": perMinute = Double.parseDouble(args[i + 1]); break;
+                case "--cooks": cooksPerStation = Integer.parseInt(args[i + 1]); break;
+                case "--counters": counters = Integer.parseInt(args[i + 1]); break;
+                case "--minute-ms": minuteMillis = Double.parseDouble(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        int orders = (int) (minutes * perMinute);
+        System.out.printf("%d orders over %.0f min (%.2f/min) from %d counters, %d cooks per station, "
+                + "backlog limit %d min%n%n", orders, minutes, perMinute, counters, cooksPerStation,
+                TimeUnit.NANOSECONDS.toMinutes(AdmissionControl.MAX_KITCHEN_WAIT_NANOS));
+        System.out.printf("%-10s %8s %8s %14s %14s %14s %18s%n", "Admission", "taken", "refused",
+                "mean wait", "p95 wait", "max wait", "mean retry quoted");
+        for (boolean admission : new boolean[] {false, true}) {
+            run(admission, orders, perMinute, cooksPerStation, counters, minuteMillis, seed);
+        }
+        System.out.println("\nwaits in simulated minutes, from order to ready");
+    }
+
+    private static void run(boolean withAdmission, int orders, double perMinute, int cooksPerStation, int counters,
+                            double minuteMillis, long seed) throws InterruptedException {
+        MenuCatalog catalog = new MenuCatalog(MenuLoader.bundled().values());
+        List<FoodItem> available = new ArrayList<>();
+        for (int id = 0; id < catalog.size(); id++) {
+            if (catalog.get(id).isAvailable()) available.add(catalog.get(id));
+        }
+        double scale = minuteMillis / 60_000.0;        // real nanos per simulated nano
+        long start = System.nanoTime();
+        LongSupplier clock = () -> 1 + (long) ((System.nanoTime() - start) / scale);
+        Random random = new Random(seed);
+        Map<String, Long> trueNanos = KitchenSimulator.truePrepTimes(available, random);
+
+        Map<String, Integer> cooks = new LinkedHashMap<>();
+        for (String category : catalog.categories()) cooks.put(category, cooksPerStation);
+        Map<Long, Long> readyAt = new ConcurrentHashMap<>();
+        Kitchen kitchen = Kitchen.standard(cooks, clock, order -> {
+            if (order.getStatus() == OrderStatus.READY) readyAt.put(order.getOrderId(), clock.getAsLong());
+        });
+        for (String category : catalog.categories()) kitchen.station(category);
+        List<Thread> cookThreads = KitchenSimulator.startCooks(kitchen, trueNanos, scale, new AtomicLong(),
+                new AtomicLong());
+        AdmissionControl admission = new AdmissionControl(clock, null, stations -> kitchen.backlogNanos(stations));
+
+        Map<Long, Long> placedAt = new LinkedHashMap<>();
+        long refused = 0;
+        long retryNanos = 0;
+        long gapNanos = (long) (minuteMillis * 1_000_000 / perMinute);
+        for (int n = 0; n < orders; n++) {
+            Order order = new Order(n + 1);
+            Set<String> stations = new HashSet<>();
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                FoodItem item = available.get(random.nextInt(available.size()));
+                order.addItem(item, 1 + random.nextInt(2));
+                stations.add(item.getCategory());
+            }
+            long wait = start + n * gapNanos - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+
+            if (withAdmission) {
+                AdmissionControl.Decision decision = admission.admit(AdmissionControl.Channel.COUNTER,
+                        "counter-" + n % counters, stations);
+                if (!decision.isAdmitted()) {
+                    refused++;
+                    retryNanos += decision.waitNanos;
+                    continue;
+                }
+            }
+            kitchen.submit(order);
+            placedAt.put(order.getOrderId(), clock.getAsLong());
+        }
+        while (readyAt.size() < placedAt.size()) Thread.sleep(20);
+        for (Thread cook : cookThreads) cook.interrupt();
+
+        long[] waits = new long[placedAt.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> e : placedAt.entrySet()) waits[i++] = readyAt.get(e.getKey()) - e.getValue();
+        Arrays.sort(waits);
+        double minute = 60e9;
+        System.out.printf("%-10s %8d %8d %14.1f %14.1f %14.1f %18s%n", withAdmission ? "on" : "off",
+                waits.length, refused, Arrays.stream(waits).average().orElse(0) / minute,
+                OrderSimulator.percentile(waits, 0.95) / minute, waits[waits.length - 1] / minute,
+                refused == 0 ? "-" : String.format("%.1f", retryNanos / refused / minute));
+    }
+}
@@ -0,0 +1,72 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing one cart on the real menu under a rule set that uses every rule kind:
+ * category taxes, a happy hour in effect, two combos and two stacked coupons.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final String RULES = String.join("\n",
+            "tax | * | 5",
+            "tax | Beverages | 12",
+            "discount | 500 | 10",
+            "happyhour | Beverages | 16:00-19:00 | MON-FRI | 20",
+            "combo | 40 | Veg Cutlet | Lime Juice",
+            "combo | 100 | 2x Veg Biryani | Cold Coffee",
+            "coupon | WELCOME10 | 10%",
+            "coupon | FLAT50 | Rs.50 | min 300");
+
+    private static final LocalDateTime HAPPY_HOUR = LocalDateTime.of(2026, 10, 16, 17, 30);
+
+    /** Distinct lines in the cart. */
+    @Param({"4", "16"})
+    public int cartSize;
+
+    private PricingEngine engine;
+    private Order order;
+    private List<String> coupons;
+
+    @Setup
+    public void setUp() throws IOException {
+        MenuCatalog catalog = new MenuCatalog(OrderService.initializeMenu().values());
+        engine = PricingEngine.compile(PricingRules.parse(new StringReader(RULES)), catalog);
+        order = new Order(1);
+        order.addItem(catalog.byName("Veg Cutlet"));
+        order.addItem(catalog.byName("Lime Juice"), 2);
+        order.addItem(catalog.byName("Veg Biryani"), 2);
+        order.addItem(catalog.byName("Cold Coffee"));
+        for (int id = 0; order.getLineCount() < cartSize; id += 5) {
+            order.addItem(catalog.get(id));
+        }
+        coupons = List.of("WELCOME10", "FLAT50");
+    }
+
+    @Benchmark
+    public long priceCart() {
+        return engine.evaluator().price(order, HAPPY_HOUR, coupons).finalPaise;
+    }
+}
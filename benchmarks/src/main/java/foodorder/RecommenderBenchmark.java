@@ -0,0 +1,79 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recommender upkeep and queries over a history of `history` orders of 1-4 items
+ * drawn from a `menuSize` menu: recording one more order, add-ons for a two-item
+ * cart, and substitutes for an item given that cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommenderBenchmark {
+
+    @Param({"100", "10000"})
+    public int menuSize;
+
+    @Param({"1000000"})
+    public int history;
+
+    private Recommender recommender;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        names = BenchmarkMenus.synthetic(menuSize).keySet().toArray(new String[0]);
+        recommender = new Recommender();
+        Random random = new Random(42);
+        for (int i = 0; i < history; i++) recommender.record(order(random));
+    }
+
+    /** A skewed order: most picks come from the first few hundred items. */
+    private String[] order(Random random) {
+        String[] order = new String[1 + random.nextInt(4)];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = names[(int) Math.min(names.length - 1, Math.abs(random.nextGaussian()) * 100)];
+        }
+        return order;
+    }
+
+    @Benchmark
+    public long record() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        recommender.record(new String[] {names[random.nextInt(names.length)], names[random.nextInt(100)]});
+        return recommender.getOrders();
+    }
+
+    @Benchmark
+    public int addOns() {
+        int i = ThreadLocalRandom.current().nextInt(50);
+        return recommender.addOns(Arrays.asList(names[i], names[i + 1]), 5, name -> true).size();
+    }
+
+    @Benchmark
+    public int substitutes() {
+        int i = ThreadLocalRandom.current().nextInt(50);
+        List<String> cart = Arrays.asList(names[i + 1], names[i + 2]);
+        return recommender.substitutes(names[i], cart, 5, name -> true).size();
+    }
+}
@@ -0,0 +1,160 @@
+package foodorder;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ReplicationLoadTest - Loopback load test for Replicator.
+ * Runs N nodes in one process, meshed over 127.0.0.1, and has each publish a stream
+ * of three-line orders at the given rate (0: as fast as it can). Prints throughput,
+ * publish-to-apply latency percentiles and how long the last event took to reach
+ * everyone. Then stops the last node, publishes more from the others, starts it again
+ * and times its catch-up.
+ *
+ *   java -cp benchmarks.jar foodorder.ReplicationLoadTest [nodes] [eventsPerNode] [eventsPerSecondPerNode]
+ */
+class ReplicationLoadTest {
+
+    private static final String[] ITEMS = {"Paneer Butter Masala", "Butter Naan", "Mango Lassi"};
+
+    private static Path dataDir;
+    private static long[][] publishedNanos;          // [node - 1][seq - 1]
+    private static final LatencyHistogram latency = new LatencyHistogram();
+
+    public static void main(String[] args) throws Exception {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int events = args.length > 1 ? Integer.parseInt(args[1]) : 30_000;
+        int rate = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        int catchUp = Math.min(events, Replicator.RETAINED / 2);
+        dataDir = Files.createTempDirectory("replication-load");
+        publishedNanos = new long[nodes][events + catchUp];
+
+        List<Replicator> replicators = new ArrayList<>();
+        List<LongAdder> received = new ArrayList<>();
+        for (int node = 1; node <= nodes; node++) {
+            received.add(new LongAdder());
+            replicators.add(startNode(node, replicators, received.get(node - 1)));
+        }
+        awaitMesh(replicators);
+
+        long start = System.nanoTime();
+        List<Thread> publishers = new ArrayList<>();
+        for (Replicator replicator : replicators) {
+            publishers.add(publish(replicator, 0, events, rate));
+        }
+        for (Thread t : publishers) t.join();
+        long published = System.nanoTime();
+        // Unthrottled, a publisher can lap its retained events before they are sent; those are counted as lost
+        long expected = (long) (nodes - 1) * events;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        long applied;
+        long lost;
+        do {
+            Thread.sleep(1);
+            applied = 0;
+            lost = 0;
+            for (LongAdder r : received) applied += r.sum();
+            for (Replicator replicator : replicators) lost += replicator.getLostToPeers();
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Applied " + applied + " of " + nodes * expected + " events");
+            }
+        } while (applied + lost < nodes * expected);
+        long converged = System.nanoTime();
+
+        System.out.printf("nodes=%d events=%d (%d per node) rate=%s lost=%d%n", nodes, (long) nodes * events, events,
+                rate == 0 ? "unthrottled" : rate + "/s per node", lost);
+        System.out.printf("throughput: %.0f events/s published, %.0f events/s applied across nodes%n",
+                nodes * events / ((published - start) / 1e9), applied / ((converged - start) / 1e9));
+        System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f; converged %.2f ms after the last publish%n",
+                latency.getQuantileNanos(0.50) / 1e6, latency.getQuantileNanos(0.99) / 1e6,
+                latency.getQuantileNanos(0.999) / 1e6, latency.getMaxNanos() / 1e6, (converged - published) / 1e6);
+
+        // Take the last node away, carry on without it, and let it catch up
+        Replicator last = replicators.remove(nodes - 1);
+        last.close();
+        publishers.clear();
+        for (Replicator replicator : replicators) {
+            publishers.add(publish(replicator, events, catchUp, 0));
+        }
+        for (Thread t : publishers) t.join();
+        LongAdder rejoined = new LongAdder();
+        long restart = System.nanoTime();
+        last = startNode(nodes, replicators, rejoined);
+        // It remembers how far it applied, so it is sent only what it missed
+        long missed = (long) (nodes - 1) * catchUp;
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (rejoined.sum() < missed) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Applied " + rejoined.sum() + " of " + missed + " events");
+            }
+            Thread.sleep(1);
+        }
+        long caughtUp = System.nanoTime();
+        Thread.sleep(200);   // nothing it had already applied may follow
+        if (rejoined.sum() != missed) {
+            throw new IllegalStateException("Applied " + rejoined.sum() + " events, expected " + missed);
+        }
+        System.out.printf("catch-up: node %d rejoined and applied %d events (%d missed while down) in %.1f ms%n",
+                nodes, rejoined.sum(), missed, (caughtUp - restart) / 1e6);
+
+        last.close();
+        for (Replicator replicator : replicators) replicator.close();
+    }
+
+    /** Starts a node listening on an ephemeral port and dialing every node before it. */
+    private static Replicator startNode(int node, List<Replicator> before, LongAdder received) throws Exception {
+        List<InetSocketAddress> peers = new ArrayList<>();
+        for (Replicator r : before) {
+            if (r.getNode() < node) peers.add(new InetSocketAddress("127.0.0.1", r.getListenPort()));
+        }
+        Replicator.Config config = new Replicator.Config(node, new InetSocketAddress("127.0.0.1", 0), peers);
+        OrderIdAllocator sequences = OrderIdAllocator.open(dataDir.resolve("seq-" + node));
+        Replicator replicator = new Replicator(config, sequences, dataDir.resolve("applied-" + node), event -> {
+            if (event.type != Replicator.Event.ORDER) return;
+            event.toRecord();                           // decoded as OrderService would
+            int index = (int) (event.seq - 1);
+            long[] sent = publishedNanos[event.origin - 1];
+            if (index < sent.length) latency.recordSince(sent[index]);
+            received.increment();
+        });
+        replicator.start();
+        return replicator;
+    }
+
+    private static void awaitMesh(List<Replicator> replicators) throws InterruptedException {
+        for (Replicator replicator : replicators) {
+            while (replicator.getConnectedPeers() < replicators.size() - 1) Thread.sleep(5);
+        }
+    }
+
+    /** Publishes count orders from the given index on, paced to rate per second unless it is 0. */
+    private static Thread publish(Replicator replicator, int from, int count, int rate) {
+        Thread t = new Thread(() -> {
+            long[] sent = publishedNanos[replicator.getNode() - 1];
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                if (rate > 0 && i % Math.max(1, rate / 1000) == 0) {
+                    // In bursts once a millisecond, as the counters' checkouts would come
+                    long due = start + TimeUnit.SECONDS.toNanos(i) / rate;
+                    for (long now; (now = System.nanoTime()) < due; ) LockSupport.parkNanos(due - now);
+                }
+                int[] quantities = {1 + i % 3, 2, 1};
+                long[] linePaise = {24_000L * quantities[0], 8_000, 6_000};
+                long total = linePaise[0] + linePaise[1] + linePaise[2];
+                OrderRegistry.Record record = new OrderRegistry.Record(
+                        replicator.getNode() * OrderService.NODE_ORDER_IDS + from + i + 1, "PLACED",
+                        System.currentTimeMillis(), ITEMS, quantities, linePaise, total, total);
+                sent[from + i] = System.nanoTime();
+                replicator.publish(Replicator.Event.order(record));
+            }
+        }, "publisher-" + replicator.getNode());
+        t.start();
+        return t;
+    }
+}
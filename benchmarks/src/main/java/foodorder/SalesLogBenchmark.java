@@ -0,0 +1,68 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing one day of order log (10,000 orders, about 2 MB) as SalesAnalytics does,
+ * from an off-heap buffer standing in for the memory-mapped file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalesLogBenchmark {
+
+    private MenuCatalog catalog;
+    private SalesLogParser.NameIndex names;
+    private ByteBuffer log;
+
+    @Setup
+    public void setUp() {
+        catalog = new MenuCatalog(OrderService.initializeMenu().values());
+        names = new SalesLogParser.NameIndex(catalog);
+
+        StringBuilder text = new StringBuilder();
+        LocalDateTime time = LocalDate.of(2026, 10, 16).atTime(11, 0);
+        for (int order = 0; order < 10_000; order++) {
+            text.append("------------------------------\n")
+                    .append("Date: ").append(time.plusSeconds(order * 4L).format(OrderService.LOG_TIME)).append('\n')
+                    .append("Items:\n");
+            double total = 0;
+            for (int line = 0; line < 3; line++) {
+                FoodItem item = catalog.get((order * 7 + line * 13) % catalog.size());
+                int qty = 1 + (order + line) % 3;
+                text.append("- ").append(item.getName()).append(" x ").append(qty)
+                        .append(" : Rs. ").append(item.getPrice() * qty).append('\n');
+                total += item.getPrice() * qty;
+            }
+            text.append("Total: Rs. ").append(total).append('\n')
+                    .append("------------------------------\n\n");
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        log = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    @Benchmark
+    public long parseDay() {
+        SalesTotals totals = new SalesTotals(catalog.size());
+        new SalesLogParser(names, totals).parse(log, 0, log.limit(), true);
+        return totals.getRevenuePaise();
+    }
+}
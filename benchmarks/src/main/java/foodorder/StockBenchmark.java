@@ -0,0 +1,74 @@
+package foodorder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock reservation: one portion of a random item, one portion of the same item for
+ * every thread, and a four-item cart all-or-nothing, each put straight back. Run with
+ * -t 1 and -t 4 to see how it scales; only the shared item should slow down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockBenchmark {
+
+    private Inventory inventory;
+    private FoodItem[] items;
+
+    @Setup
+    public void setUp() {
+        MenuCatalog catalog = new MenuCatalog(BenchmarkMenus.synthetic(1000).values());
+        inventory = new Inventory();
+        inventory.attach(catalog);
+        int[] ids = BenchmarkMenus.availableIds(catalog);
+        items = new FoodItem[ids.length];
+        Map<String, Integer> portions = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            items[i] = catalog.get(ids[i]);
+            portions.put(items[i].getName(), 1_000_000);
+        }
+        inventory.restock(portions);
+    }
+
+    @Benchmark
+    public boolean reserveAny() {
+        FoodItem item = items[ThreadLocalRandom.current().nextInt(items.length)];
+        boolean reserved = inventory.reserve(item, 1);
+        inventory.release(item, 1);
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean reserveShared() {
+        boolean reserved = inventory.reserve(items[0], 1);
+        inventory.release(items[0], 1);
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean reserveCart() {
+        int from = ThreadLocalRandom.current().nextInt(items.length - 4);
+        FoodItem[] cart = {items[from], items[from + 1], items[from + 2], items[from + 3]};
+        int[] quantities = {1, 2, 1, 1};
+        boolean reserved = inventory.reserveAll(cart, quantities);
+        for (int i = 0; i < cart.length; i++) inventory.release(cart[i], quantities[i]);
+        return reserved;
+    }
+}